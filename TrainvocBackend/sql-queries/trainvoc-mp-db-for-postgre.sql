@@ -90,9 +90,18 @@ CREATE TABLE IF NOT EXISTS game_room
     hashed_password        VARCHAR(128),
     current_state          INTEGER,
     state_start_time       TIMESTAMP,
+    lease_owner            VARCHAR(64),
+    lease_expires_at       TIMESTAMP,
     CONSTRAINT pk_game_room PRIMARY KEY (room_code)
 );
 
+-- Room ownership leases (RoomLeases), added after the first release of this script.
+ALTER TABLE game_room ADD COLUMN IF NOT EXISTS lease_owner VARCHAR(64);
+ALTER TABLE game_room ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- Idle-room expiry (RoomReaper) pages through rooms by last use.
+CREATE INDEX IF NOT EXISTS idx_game_room_last_used ON game_room (last_used);
+
 -- Player: room is @ManyToOne -> game_room(room_code) (VARCHAR(32) to match the PK).
 CREATE TABLE IF NOT EXISTS player
 (
@@ -107,7 +116,7 @@ CREATE TABLE IF NOT EXISTS player
     avatar_id                       INTEGER,
     current_answered_question_index INTEGER,
     CONSTRAINT pk_player PRIMARY KEY (id),
-    CONSTRAINT fk_player_room FOREIGN KEY (room_code) REFERENCES game_room (room_code)
+    CONSTRAINT fk_player_room FOREIGN KEY (room_code) REFERENCES game_room (room_code) ON DELETE CASCADE
 );
 
 CREATE INDEX IF NOT EXISTS idx_player_room_code ON player (room_code);
@@ -141,11 +150,20 @@ CREATE TABLE IF NOT EXISTS player_answer
     correct               BOOLEAN,
     answer_time_ms        BIGINT,
     CONSTRAINT pk_player_answer PRIMARY KEY (id),
-    CONSTRAINT fk_player_answer_player FOREIGN KEY (player_id) REFERENCES player (id)
+    CONSTRAINT fk_player_answer_player FOREIGN KEY (player_id) REFERENCES player (id) ON DELETE CASCADE
 );
 
 CREATE INDEX IF NOT EXISTS idx_player_answer_player_id ON player_answer (player_id);
 
+-- Expired rooms are deleted in SQL and take their players and answers with them
+-- (@OnDelete). Re-creates the foreign keys of databases made by earlier versions.
+ALTER TABLE player DROP CONSTRAINT IF EXISTS fk_player_room;
+ALTER TABLE player ADD CONSTRAINT fk_player_room
+    FOREIGN KEY (room_code) REFERENCES game_room (room_code) ON DELETE CASCADE;
+ALTER TABLE player_answer DROP CONSTRAINT IF EXISTS fk_player_answer_player;
+ALTER TABLE player_answer ADD CONSTRAINT fk_player_answer_player
+    FOREIGN KEY (player_id) REFERENCES player (id) ON DELETE CASCADE;
+
 -- ---------------------------------------------------------------------------
 -- Per-user learning data (synced from the Android client)
 -- ---------------------------------------------------------------------------
@@ -24,6 +24,8 @@ public final class GameConstants {
 
     // Room code generation
     public static final int ROOM_CODE_LENGTH = 5;
+    // No 0/O, 1/I/L: codes are read aloud and typed from screens
+    public static final String ROOM_CODE_ALPHABET = "23456789ABCDEFGHJKMNPQRSTUVWXYZ";
 
     // Avatar options
     public static final String[] ALLOWED_AVATARS = {
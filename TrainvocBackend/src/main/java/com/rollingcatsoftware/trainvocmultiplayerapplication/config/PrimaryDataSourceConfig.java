@@ -1,5 +1,6 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.config;
 
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.DbCallCounter;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.hibernate.autoconfigure.HibernateProperties;
@@ -55,6 +56,8 @@ public class PrimaryDataSourceConfig {
         // Force SQL logging
         properties.put("hibernate.show_sql", "true");
         properties.put("hibernate.format_sql", "true");
+        // Per-thread statement counts for the game.ws.message.db.calls metric
+        properties.put("hibernate.session_factory.statement_inspector", new DbCallCounter());
         em.setJpaPropertyMap(properties);
         return em;
     }
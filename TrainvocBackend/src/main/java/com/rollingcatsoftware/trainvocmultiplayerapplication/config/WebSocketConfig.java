@@ -1,27 +1,64 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.config;
 
 import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.GameWebSocketHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketCompression;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.CborMessageEncoder;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.MessageEncoders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
     private final GameWebSocketHandler handler;
+    private final MessageEncoders encoders;
+    private final WebSocketCompression compression;
 
     @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:3000,https://trainvoc.rollingcatsoftware.com}")
     private String allowedOrigins;
 
-    public WebSocketConfig(GameWebSocketHandler handler) {
+    @Value("${game.ws.binary-protocol.enabled:true}")
+    private boolean binaryProtocolEnabled;
+
+    public WebSocketConfig(GameWebSocketHandler handler, MessageEncoders encoders,
+                           WebSocketCompression compression) {
         this.handler = handler;
+        this.encoders = encoders;
+        this.compression = compression;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(handler, "/ws/game")
+                .setHandshakeHandler(handshakeHandler())
                 .setAllowedOrigins(allowedOrigins.split(","));
     }
-}
\ No newline at end of file
+
+    /**
+     * Offers the wire encodings as subprotocols. Clients that request none, or none we know,
+     * get the default JSON protocol. permessage-deflate is accepted from the container's
+     * extensions only while compression is enabled.
+     */
+    private DefaultHandshakeHandler handshakeHandler() {
+        DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler() {
+            @Override
+            protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                         List<WebSocketExtension> requested,
+                                                                         List<WebSocketExtension> supported) {
+                return compression.filterExtensions(super.filterRequestedExtensions(request, requested, supported));
+            }
+        };
+        handshakeHandler.setSupportedProtocols(encoders.subprotocols().stream()
+                .filter(protocol -> binaryProtocolEnabled || !protocol.equals(CborMessageEncoder.SUBPROTOCOL))
+                .toArray(String[]::new));
+        return handshakeHandler;
+    }
+}
@@ -1,25 +1,27 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.controller;
 
-import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.AnswerRequest;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.mapper.GameMapper;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.ErrorResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.GameRoomResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.PlayerResponse;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.RoomListItemResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.AnswerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameService;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.LobbyIndex;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for game room queries.
@@ -36,17 +38,22 @@ import java.util.List;
 @RequestMapping("/api/game")
 @Validated
 public class GameController {
+    /** Page size used when {@code size} is omitted on a paginated room list request. */
+    static final int DEFAULT_PAGE_SIZE = 50;
+    /** Upper bound on {@code size} for the room list. */
+    static final int MAX_PAGE_SIZE = 200;
+
     private final GameService gameService;
     private final GameMapper gameMapper;
-    private final PlayerService playerService;
-    private final RoomService roomService;
+    private final AnswerService answerService;
+    private final LobbyIndex lobbyIndex;
 
     public GameController(GameService gameService, GameMapper gameMapper,
-                          PlayerService playerService, RoomService roomService) {
+                          AnswerService answerService, LobbyIndex lobbyIndex) {
         this.gameService = gameService;
         this.gameMapper = gameMapper;
-        this.playerService = playerService;
-        this.roomService = roomService;
+        this.answerService = answerService;
+        this.lobbyIndex = lobbyIndex;
     }
 
     /**
@@ -62,11 +69,47 @@ public class GameController {
     }
 
     /**
-     * List all available rooms for discovery.
+     * List available rooms for discovery, served from the {@link LobbyIndex} without loading
+     * room entities. Rooms can be filtered by {@code level} and {@code hasPassword}. With no
+     * {@code page}/{@code size} params this returns a flat array of every matching room, as
+     * before; otherwise a bounded page, following the word list: {@code size} defaults to
+     * {@value #DEFAULT_PAGE_SIZE} and is clamped to {@value #MAX_PAGE_SIZE}, {@code page} is
+     * zero-based. Rooms are ordered by code.
+     * <p>
+     * Responses carry the lobby's ETag; a poll with a matching {@code If-None-Match} gets
+     * 304 Not Modified until a room is created, joined, left, changes state or is deleted.
      */
     @GetMapping("/rooms")
-    public List<RoomListItemResponse> getAllRooms() {
-        return gameMapper.toRoomListItemResponseList(gameService.getAllRooms());
+    public ResponseEntity<?> getAllRooms(
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) Boolean hasPassword,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        LobbyIndex.Snapshot lobby = lobbyIndex.snapshot();
+        if (request.checkNotModified(lobby.etag())) {
+            return null;
+        }
+        List<LobbyIndex.Entry> rooms = lobby.filter(level, hasPassword);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(lobby.etag())
+                .cacheControl(CacheControl.noCache());
+        if (page == null && size == null) {
+            return ok.body(gameMapper.toLobbyResponseList(rooms));
+        }
+
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int from = (int) Math.min((long) pageNumber * pageSize, rooms.size());
+        int to = Math.min(from + pageSize, rooms.size());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("content", gameMapper.toLobbyResponseList(rooms.subList(from, to)));
+        body.put("page", pageNumber);
+        body.put("size", pageSize);
+        body.put("totalElements", rooms.size());
+        body.put("totalPages", (rooms.size() + pageSize - 1) / pageSize);
+        return ok.body(body);
     }
 
     /**
@@ -172,71 +215,21 @@ public class GameController {
     }
 
     /**
-     * Submit an answer.
+     * Submit an answer. Scored by {@link AnswerService} exactly like WebSocket answers, from
+     * the time since the question was dispatched; the request's {@code answerTime} is not used.
      */
     @PostMapping("/answer")
-    public ResponseEntity<?> submitAnswer(@Valid @RequestBody AnswerRequest request) {
-        GameRoom room = roomService.findByRoomCode(request.getRoomCode());
-        if (room == null) {
-            return ResponseEntity.status(404)
-                    .body(new AnswerResponse(false, "Room not found.", null, null));
-        }
-
-        // Verify game is in QUESTION state
-        if (room.getCurrentState() != GameState.QUESTION) {
-            return ResponseEntity.badRequest()
-                    .body(new AnswerResponse(false, "Cannot submit answer at this time.", null, null));
-        }
-
-        Player player = playerService.findById(request.getPlayerId());
-        if (player == null || !player.getRoom().getRoomCode().equals(request.getRoomCode())) {
-            return ResponseEntity.status(404)
-                    .body(new AnswerResponse(false, "Player not found in this room.", null, null));
-        }
-
-        // Check if player already answered this question
-        Integer answeredIndex = player.getCurrentAnsweredQuestionIndex();
-        int currentQuestion = room.getCurrentQuestionIndex();
-        if (answeredIndex != null && answeredIndex == currentQuestion) {
-            return ResponseEntity.badRequest()
-                    .body(new AnswerResponse(false, "Already answered this question.", player.getScore(), null));
-        }
-
-        // Mark player as having answered
-        player.setCurrentAnsweredQuestionIndex(currentQuestion);
-
-        // Calculate score
-        boolean isCorrect = request.isCorrect();
-        int scoreChange = calculateScore(isCorrect, request.getAnswerTime(), room.getQuestionDuration());
-
-        // Update player stats
-        player.setScore(player.getScore() + scoreChange);
-        if (isCorrect) {
-            player.setCorrectCount(player.getCorrectCount() + 1);
-        } else {
-            player.setWrongCount(player.getWrongCount() + 1);
-        }
-        player.setTotalAnswerTime(player.getTotalAnswerTime() + request.getAnswerTime());
-
-        playerService.save(player);
-
-        return ResponseEntity.ok(new AnswerResponse(true, "Answer submitted.", player.getScore(), isCorrect));
-    }
-
-    private int calculateScore(boolean isCorrect, int answerTime, int questionDuration) {
-        if (!isCorrect) {
-            return GameConstants.MIN_SCORE;
-        }
-
-        int score = GameConstants.BASE_CORRECT_SCORE;
-
-        if (questionDuration > 0 && answerTime >= 0) {
-            double timeRatio = 1.0 - ((double) answerTime / questionDuration);
-            int timeBonus = (int) (timeRatio * GameConstants.TIME_BONUS_MAX);
-            score += Math.max(0, timeBonus);
-        }
-
-        return score;
+    public ResponseEntity<?> submitAnswer(@Valid @RequestBody AnswerRequest request) throws IOException {
+        AnswerService.Result answer = answerService.submit(request.getRoomCode(), request.getPlayerId(),
+                request.isCorrect());
+        if (!answer.accepted()) {
+            AnswerService.Rejection rejection = answer.rejection();
+            int status = rejection == AnswerService.Rejection.ROOM_NOT_FOUND
+                    || rejection == AnswerService.Rejection.PLAYER_NOT_FOUND ? 404 : 400;
+            return ResponseEntity.status(status)
+                    .body(new AnswerResponse(false, rejection.message(), answer.newScore(), null));
+        }
+        return ResponseEntity.ok(new AnswerResponse(true, "Answer submitted.", answer.newScore(), answer.correct()));
     }
 
     // Response record for answer submissions
@@ -20,6 +20,7 @@ public class AnswerRequest {
     @Size(max = 500, message = "Answer must not exceed 500 characters")
     private String answer;
 
+    // Accepted for older clients only; answers are scored from server-measured latency
     @Min(value = 0, message = "Answer time cannot be negative")
     @Max(value = 300, message = "Answer time cannot exceed 300 seconds")
     private int answerTime;
@@ -5,6 +5,7 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.Player
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.RoomListItemResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.LobbyIndex;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -103,4 +104,36 @@ public class GameMapper {
                 .map(this::toRoomListItemResponse)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Convert a lobby index entry to RoomListItemResponse DTO.
+     */
+    public RoomListItemResponse toRoomListItemResponse(LobbyIndex.Entry room) {
+        if (room == null) {
+            return null;
+        }
+        return RoomListItemResponse.builder()
+                .roomCode(room.roomCode())
+                .playerCount(room.playerCount())
+                .started(room.started())
+                .hostId(room.hostId())
+                .questionDuration(room.questionDuration())
+                .level(room.level())
+                .totalQuestionCount(room.totalQuestionCount())
+                .hasPassword(room.hasPassword())
+                .currentState(room.currentState())
+                .build();
+    }
+
+    /**
+     * Convert list of lobby index entries to RoomListItemResponse DTOs.
+     */
+    public List<RoomListItemResponse> toLobbyResponseList(List<LobbyIndex.Entry> rooms) {
+        if (rooms == null) {
+            return null;
+        }
+        return rooms.stream()
+                .map(this::toRoomListItemResponse)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,15 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.exception;
+
+/**
+ * Thrown when an inbound frame is not valid JSON or lacks a required field.
+ */
+public class InvalidMessageException extends RuntimeException {
+
+    public InvalidMessageException(String message) {
+        super(message);
+    }
+
+    public InvalidMessageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,28 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, so callers can tell how many
+ * database calls a unit of work made: read {@link #current()} before and after it.
+ * <p>
+ * Registered as the primary persistence unit's statement inspector; it never alters the SQL.
+ * Statements issued directly through JDBC (write-behind, leases) are not counted.
+ */
+public class DbCallCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * The number of statements prepared on the calling thread so far.
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+}
@@ -0,0 +1,160 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.metrics;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the game engine's hot paths, exposed through the actuator
+ * {@code metrics} endpoint.
+ * <p>
+ * Per-message meters are tagged by message {@code type} and {@code room_size}, a coarse
+ * bucket of the room's connected players (see {@link #sizeBucket(int)}), so tail latency
+ * can be pinned to large rooms without one time series per room:
+ * <ul>
+ *   <li>{@code game.ws.message.duration}: one WebSocket message handler run</li>
+ *   <li>{@code game.ws.message.db.calls}: SQL statements issued while handling it,
+ *       counted by {@link DbCallCounter}</li>
+ *   <li>{@code game.ws.broadcast.duration}: fanning one message out to a room</li>
+ *   <li>{@code game.ws.broadcast.size}: the broadcast frame's payload bytes; total bytes
+ *       sent per type are counted by {@code game.ws.bytes.*}</li>
+ * </ul>
+ * Gauges {@code game.rooms.active} and {@code game.ws.sessions} track live rooms on this
+ * node and connected player sessions. Timer tick lag and duration are recorded by
+ * {@code TickExecutor} with the same {@code room_size} tag. Each expiry sweep records the
+ * rooms it deleted ({@code game.rooms.expiry.reaped}) and its duration
+ * ({@code game.rooms.expiry.sweep.duration}).
+ */
+@Component
+public class GameMetrics {
+
+    public static final String ROOM_SIZE_TAG = "room_size";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> messageTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> dbCalls = new ConcurrentHashMap<>();
+    private final Map<String, Timer> broadcastTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> broadcastSizes = new ConcurrentHashMap<>();
+    private final DistributionSummary reaped;
+    private final Timer sweeps;
+
+    public GameMetrics(MeterRegistry meterRegistry, RoomRegistry roomRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("game.rooms.active", roomRegistry, RoomRegistry::size)
+                .description("Live game rooms held in memory on this node")
+                .register(meterRegistry);
+        this.reaped = DistributionSummary.builder("game.rooms.expiry.reaped")
+                .description("Idle rooms deleted by one expiry sweep")
+                .register(meterRegistry);
+        this.sweeps = Timer.builder("game.rooms.expiry.sweep.duration")
+                .description("Time to run one room expiry sweep")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Meters recorded into a private registry. For use outside the Spring context.
+     */
+    public static GameMetrics disabled() {
+        return new GameMetrics(new SimpleMeterRegistry(), new RoomRegistry(0));
+    }
+
+    /**
+     * The {@code room_size} tag value for a room with the given number of players.
+     */
+    public static String sizeBucket(int players) {
+        if (players <= 0) {
+            return "0";
+        }
+        if (players <= 10) {
+            return "1-10";
+        }
+        if (players <= 50) {
+            return "11-50";
+        }
+        if (players <= 200) {
+            return "51-200";
+        }
+        if (players <= 1000) {
+            return "201-1000";
+        }
+        return "1000+";
+    }
+
+    /**
+     * Registers the connected sessions gauge on the session registry's own state.
+     */
+    public <T> void gaugeSessions(T sessions, ToDoubleFunction<T> count) {
+        Gauge.builder("game.ws.sessions", sessions, count)
+                .description("WebSocket sessions bound to a player")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records one WebSocket message handled.
+     *
+     * @param roomSize players connected to the message's room when it arrived
+     * @param dbCallCount SQL statements issued by the handler
+     */
+    public void recordMessage(String type, int roomSize, long nanos, long dbCallCount) {
+        String bucket = sizeBucket(roomSize);
+        String key = type + '|' + bucket;
+        messageTimers.computeIfAbsent(key, k -> Timer.builder("game.ws.message.duration")
+                        .description("Time to handle one WebSocket message")
+                        .tag("type", type)
+                        .tag(ROOM_SIZE_TAG, bucket)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        dbCalls.computeIfAbsent(key, k -> DistributionSummary.builder("game.ws.message.db.calls")
+                        .description("SQL statements issued while handling one WebSocket message")
+                        .tag("type", type)
+                        .tag(ROOM_SIZE_TAG, bucket)
+                        .register(meterRegistry))
+                .record(dbCallCount);
+    }
+
+    /**
+     * Records one message fanned out to a room.
+     *
+     * @param recipients sessions the message was sent to
+     * @param bytes payload bytes of the shared frame
+     */
+    public void recordBroadcast(String type, int recipients, long nanos, long bytes) {
+        String tagType = type == null || type.isEmpty() ? "unknown" : type;
+        String bucket = sizeBucket(recipients);
+        String key = tagType + '|' + bucket;
+        broadcastTimers.computeIfAbsent(key, k -> Timer.builder("game.ws.broadcast.duration")
+                        .description("Time to fan one message out to a room")
+                        .tag("type", tagType)
+                        .tag(ROOM_SIZE_TAG, bucket)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        broadcastSizes.computeIfAbsent(key, k -> DistributionSummary.builder("game.ws.broadcast.size")
+                        .description("Payload bytes of one broadcast frame")
+                        .baseUnit("bytes")
+                        .tag("type", tagType)
+                        .tag(ROOM_SIZE_TAG, bucket)
+                        .register(meterRegistry))
+                .record(bytes);
+    }
+
+    /**
+     * Records one room expiry sweep.
+     *
+     * @param roomsReaped rooms the sweep deleted
+     */
+    public void recordSweep(int roomsReaped, long nanos) {
+        reaped.record(roomsReaped);
+        sweeps.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -10,7 +10,9 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "game_room")
+@Table(name = "game_room", indexes = {
+        @Index(name = "idx_game_room_last_used", columnList = "lastUsed")
+})
 public class GameRoom {
     @Id
     @Column(length = 32)
@@ -52,5 +54,14 @@ public class GameRoom {
 
     @Column
     private LocalDateTime stateStartTime; // Start time of current state
+
+    @Transient
+    private Long stateStartNanos; // Monotonic (System.nanoTime) start of current state, not persisted
+
+    @Column(length = 64, insertable = false, updatable = false)
+    private String leaseOwner; // Node driving this room's timer; written only by RoomLeases
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime leaseExpiresAt;
 }
 
@@ -3,6 +3,8 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +23,7 @@ public class Player {
 
     @ManyToOne
     @JoinColumn(name = "room_code")
+    @OnDelete(action = OnDeleteAction.CASCADE) // Expired rooms are deleted in SQL (RoomReaper)
     @JsonBackReference
     private GameRoom room;
 
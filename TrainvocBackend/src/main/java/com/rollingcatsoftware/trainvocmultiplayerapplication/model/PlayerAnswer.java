@@ -2,6 +2,8 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Data
 @Entity
@@ -13,6 +15,7 @@ public class PlayerAnswer {
 
     @ManyToOne
     @JoinColumn(name = "player_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Player player;
 
     @Column
@@ -2,11 +2,13 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state;
 
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
 import org.springframework.stereotype.Component;
 
 /**
  * Handles the ANSWER_REVEAL state - showing correct answer.
- * Host manually triggers transition to next question.
+ * The host may advance to the next question at any time; otherwise the game
+ * auto-advances after {@link GameClock#ANSWER_REVEAL_AUTO_ADVANCE_SECONDS}.
  */
 @Component
 public class AnswerRevealStateHandler implements GameStateHandler {
@@ -18,21 +20,24 @@ public class AnswerRevealStateHandler implements GameStateHandler {
 
     @Override
     public int calculateRemainingTime(GameRoom room, long elapsedSeconds) {
-        return 0; // No time limit - host controls transition
+        return Math.max(0, GameClock.ANSWER_REVEAL_AUTO_ADVANCE_SECONDS - (int) elapsedSeconds);
     }
 
     @Override
     public int getStateDuration(GameRoom room) {
-        return 0; // No automatic duration
+        return GameClock.ANSWER_REVEAL_AUTO_ADVANCE_SECONDS;
     }
 
     @Override
-    public GameState getNextState() {
-        return null; // Manual transition only
+    public GameState getNextState(GameRoom room) {
+        // After the last question the game goes to the rankings instead
+        return room.getCurrentQuestionIndex() >= room.getTotalQuestionCount() - 1
+                ? GameState.RANKING
+                : GameState.COUNTDOWN;
     }
 
     @Override
     public boolean hasAutomaticTransition() {
-        return false;
+        return true;
     }
 }
@@ -27,7 +27,7 @@ public class CountdownStateHandler implements GameStateHandler {
     }
 
     @Override
-    public GameState getNextState() {
+    public GameState getNextState(GameRoom room) {
         return GameState.QUESTION;
     }
 
@@ -26,7 +26,7 @@ public class FinalStateHandler implements GameStateHandler {
     }
 
     @Override
-    public GameState getNextState() {
+    public GameState getNextState(GameRoom room) {
         return null; // Terminal state
     }
 
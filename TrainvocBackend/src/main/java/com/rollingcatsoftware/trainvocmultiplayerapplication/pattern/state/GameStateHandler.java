@@ -32,11 +32,13 @@ public interface GameStateHandler {
     int getStateDuration(GameRoom room);
 
     /**
-     * Determines the next state when this state's time expires.
+     * Determines the state the game moves to when it leaves this state, either when the
+     * state's time expires or when the host advances it.
      *
-     * @return The next GameState, or null if no automatic transition
+     * @param room The game room (the path may depend on question progress)
+     * @return The next GameState, or null if the game cannot leave this state this way
      */
-    GameState getNextState();
+    GameState getNextState(GameRoom room);
 
     /**
      * Checks if this state allows automatic transition when time expires.
@@ -2,10 +2,12 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state;
 
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -13,16 +15,37 @@ import java.util.Map;
 /**
  * State machine for managing game state transitions.
  * Uses the State pattern to delegate behavior to specific handlers.
+ * <p>
+ * This is the only place a running game changes state: the timer, the WebSocket
+ * {@code next} message and the REST {@code /next} endpoint all go through
+ * {@link #advance(GameRoom, GameState)}. Each transition is a compare-and-set under the
+ * room's monitor: it names the state the caller saw, and does nothing if the room has
+ * moved on. Journaling and saving the transition happen after the monitor is released, so
+ * no database round-trip runs under it. A timer tick and a host's "next" racing for the same reveal therefore produce
+ * exactly one transition and one save, instead of two writes and an optimistic lock
+ * failure. Reading a room's state never transitions it; the timer does that when the
+ * state's deadline comes due.
+ * <p>
+ * While the node drains for shutdown, games are {@link #hold() held}: a running question
+ * may still end, but no room moves on to another state until the node restarts.
  */
 @Component
 public class GameStateMachine {
 
     private final Map<GameState, GameStateHandler> handlers = new EnumMap<>(GameState.class);
+    private final RoomService roomService;
+    private final PlayerService playerService;
+    private final RoomJournal journal;
+    private volatile boolean holding;
 
-    public GameStateMachine(List<GameStateHandler> stateHandlers) {
+    public GameStateMachine(List<GameStateHandler> stateHandlers, RoomService roomService,
+                            PlayerService playerService, RoomJournal journal) {
         for (GameStateHandler handler : stateHandlers) {
             handlers.put(handler.getState(), handler);
         }
+        this.roomService = roomService;
+        this.playerService = playerService;
+        this.journal = journal;
     }
 
     /**
@@ -33,39 +56,105 @@ public class GameStateMachine {
     }
 
     /**
-     * Calculates and potentially updates the current state based on elapsed time.
+     * Moves the room out of {@code expected} along its normal path, if it is still in that
+     * state. Leaving ANSWER_REVEAL for COUNTDOWN also moves to the next question and clears
+     * the players' answers. The new state's clock starts now. Only that compare-and-set runs
+     * under the room's monitor; the transition is journaled, the room saved once and the
+     * answers cleared after it is released.
      *
-     * @param room The game room
-     * @return Result containing current state and remaining time
+     * @param room     The game room
+     * @param expected The state the caller saw the room in
+     * @return The transition made, or null if the room is no longer in {@code expected}
+     *         or that state cannot be left this way (or not now, while held)
      */
-    public StateTransitionResult calculateState(GameRoom room) {
-        GameState currentState = room.getCurrentState();
-        GameStateHandler handler = getHandler(currentState);
-
-        if (handler == null) {
-            return new StateTransitionResult(currentState, 0, false);
+    public Transition advance(GameRoom room, GameState expected) {
+        Transition transition;
+        synchronized (room) {
+            transition = compareAndSet(room, expected);
+        }
+        if (transition != null) {
+            persist(room, transition);
         }
+        return transition;
+    }
 
-        long elapsedSeconds = getElapsedSeconds(room);
-        int remainingTime = handler.calculateRemainingTime(room, elapsedSeconds);
+    /**
+     * Stops every room from advancing, except out of a running question. Not undone; the
+     * node is shutting down.
+     */
+    public void hold() {
+        holding = true;
+    }
 
-        // Check if automatic transition should occur
-        if (handler.hasAutomaticTransition() && remainingTime <= 0) {
-            GameState nextState = handler.getNextState();
-            if (nextState != null) {
-                return new StateTransitionResult(nextState, getInitialTime(nextState, room), true);
+    /**
+     * Whether the room is stopped in its current state by {@link #hold()}.
+     */
+    public boolean isHeld(GameRoom room) {
+        return holding && room.getCurrentState() != GameState.QUESTION;
+    }
+
+    /**
+     * Advances the room if its current state has a timed end that has passed. Like
+     * {@link #advance(GameRoom, GameState)}, persists after releasing the room's monitor.
+     *
+     * @return The transition made, or null if the state is not due
+     */
+    public Transition advanceIfDue(GameRoom room) {
+        Transition transition;
+        synchronized (room) {
+            GameState state = room.getCurrentState();
+            if (!hasAutomaticTransition(state) || !isDue(room)) {
+                return null;
             }
+            transition = compareAndSet(room, state);
         }
+        if (transition != null) {
+            persist(room, transition);
+        }
+        return transition;
+    }
 
-        return new StateTransitionResult(currentState, remainingTime, false);
+    /**
+     * Moves the room's state, question and clock on. Called under the room's monitor.
+     */
+    private Transition compareAndSet(GameRoom room, GameState expected) {
+        if (room.getCurrentState() != expected || isHeld(room)) {
+            return null;
+        }
+        GameStateHandler handler = getHandler(expected);
+        GameState next = handler != null ? handler.getNextState(room) : null;
+        if (next == null) {
+            return null;
+        }
+
+        Transition transition = new Transition(expected, next);
+        if (transition.isNextQuestion()) {
+            room.setCurrentQuestionIndex(room.getCurrentQuestionIndex() + 1);
+        }
+        GameClock.startState(room, next);
+        return transition;
     }
 
     /**
-     * Gets the initial remaining time for a state.
+     * Journals and saves a transition, clearing the answers on a new question. Runs after the
+     * room's monitor is released: saving a room that is not live, and clearing answers, open
+     * a database transaction. Answers are matched against the question index, so the previous
+     * question's answers never count for the new one while they are being cleared.
      */
-    public int getInitialTime(GameState state, GameRoom room) {
-        GameStateHandler handler = getHandler(state);
-        return handler != null ? handler.getStateDuration(room) : 0;
+    private void persist(GameRoom room, Transition transition) {
+        journal.transitioned(room);
+        roomService.save(room);
+        if (transition.isNextQuestion()) {
+            playerService.resetAnswersForRoom(room);
+        }
+    }
+
+    /**
+     * Checks whether the room's current state has run out of time. Deadlines fire on the
+     * same monotonic clock, so a due state is never 1 ms short.
+     */
+    public boolean isDue(GameRoom room) {
+        return GameClock.remainingMillis(room) <= 0;
     }
 
     /**
@@ -77,27 +166,23 @@ public class GameStateMachine {
     }
 
     /**
-     * Gets the next state after automatic transition.
+     * Gets the state the room would move to from its current state.
      */
-    public GameState getNextState(GameState currentState) {
-        GameStateHandler handler = getHandler(currentState);
-        return handler != null ? handler.getNextState() : null;
-    }
-
-    private long getElapsedSeconds(GameRoom room) {
-        LocalDateTime stateStart = room.getStateStartTime();
-        if (stateStart == null) {
-            return 0;
-        }
-        return Duration.between(stateStart, LocalDateTime.now()).getSeconds();
+    public GameState getNextState(GameRoom room) {
+        GameStateHandler handler = getHandler(room.getCurrentState());
+        return handler != null ? handler.getNextState(room) : null;
     }
 
     /**
-     * Result of state calculation.
+     * A state change made by {@link #advance(GameRoom, GameState)}.
      */
-    public record StateTransitionResult(
-            GameState state,
-            int remainingTime,
-            boolean transitioned
-    ) {}
+    public record Transition(GameState from, GameState to) {
+
+        /**
+         * Whether the transition started the next question.
+         */
+        public boolean isNextQuestion() {
+            return from == GameState.ANSWER_REVEAL && to == GameState.COUNTDOWN;
+        }
+    }
 }
@@ -26,7 +26,7 @@ public class LobbyStateHandler implements GameStateHandler {
     }
 
     @Override
-    public GameState getNextState() {
+    public GameState getNextState(GameRoom room) {
         return null; // Manual transition only (host starts game)
     }
 
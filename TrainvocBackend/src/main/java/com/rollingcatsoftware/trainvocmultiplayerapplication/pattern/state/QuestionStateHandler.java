@@ -26,7 +26,7 @@ public class QuestionStateHandler implements GameStateHandler {
     }
 
     @Override
-    public GameState getNextState() {
+    public GameState getNextState(GameRoom room) {
         return GameState.ANSWER_REVEAL;
     }
 
@@ -0,0 +1,188 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.AnswerScoring;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.AnswerProgress;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RankingsBroadcaster;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RosterUpdates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Scores answers submitted over WebSocket or REST, the same way for both.
+ * <p>
+ * The player is resolved from the live room before the room's monitor is taken. The checks and
+ * the stats update run under the monitor, with latency measured on the server by
+ * {@link GameClock}; client-sent answer times are never used. The room is told afterwards:
+ * answer progress, the score delta and, once every player answered, the rankings. Works
+ * entirely on live room state; the player row is persisted by write-behind, and the new stats
+ * are journaled at once.
+ */
+@Service
+public class AnswerService {
+
+    private final RoomService roomService;
+    private final RoomRegistry roomRegistry;
+    private final RosterUpdates rosterUpdates;
+    private final AnswerProgress answerProgress;
+    private final RankingsBroadcaster rankings;
+    private final RoomJournal journal;
+
+    public AnswerService(RoomService roomService, RoomRegistry roomRegistry, RosterUpdates rosterUpdates,
+                         AnswerProgress answerProgress, RankingsBroadcaster rankings, RoomJournal journal) {
+        this.roomService = roomService;
+        this.roomRegistry = roomRegistry;
+        this.rosterUpdates = rosterUpdates;
+        this.answerProgress = answerProgress;
+        this.rankings = rankings;
+        this.journal = journal;
+    }
+
+    /**
+     * Scores a player's answer to the room's current question and tells the room.
+     *
+     * @return the new score, or why the answer was rejected
+     */
+    public Result submit(String roomCode, String playerId, boolean isCorrect) throws IOException {
+        GameRoom room = roomService.findByRoomCode(roomCode);
+        if (room == null) {
+            return Result.rejected(Rejection.ROOM_NOT_FOUND, null);
+        }
+        // The players of a live room are live too; no lookup runs under the monitor
+        Player player = roomRegistry.findPlayer(playerId);
+
+        // Synchronize on the live room so the same player's concurrent answers and the
+        // timer's transitions are serialized; the room is told after the block
+        Scored scored;
+        synchronized (room) {
+            Rejection rejection = rejection(room, player, roomCode);
+            if (rejection != null) {
+                return Result.rejected(rejection,
+                        rejection == Rejection.ALREADY_ANSWERED ? player.getScore() : null);
+            }
+            scored = score(room, player, isCorrect);
+        }
+
+        // Tell the room someone answered, coalesced with other answers in large rooms
+        answerProgress.answered(roomCode, scored.roster().size(), scored.questionIndex(), playerId,
+                scored.answeredCount());
+
+        if (scored.result().scoreChange() != 0) {
+            rosterUpdates.scoreChanged(roomCode, playerId, scored.result().newScore());
+        }
+
+        if (scored.answeredCount() == scored.roster().size()) {
+            // All players answered - send pending progress first, then the rankings update
+            answerProgress.flush(roomCode);
+            rankings.broadcast(roomCode, scored.roster());
+        }
+        return scored.result();
+    }
+
+    /**
+     * Why the player cannot answer now, or null if they can. Called under the room's monitor.
+     */
+    private static Rejection rejection(GameRoom room, Player player, String roomCode) {
+        // Verify game is in QUESTION state
+        if (room.getCurrentState() != GameState.QUESTION) {
+            return Rejection.NOT_ACCEPTING;
+        }
+        if (player == null || !player.getRoom().getRoomCode().equals(roomCode)) {
+            return Rejection.PLAYER_NOT_FOUND;
+        }
+        // Check if player already answered this question (atomic with the set in score)
+        Integer answeredIndex = player.getCurrentAnsweredQuestionIndex();
+        if (answeredIndex != null && answeredIndex == room.getCurrentQuestionIndex()) {
+            return Rejection.ALREADY_ANSWERED;
+        }
+        return null;
+    }
+
+    /**
+     * Records the player's answer and updates their stats. Called under the room's monitor.
+     */
+    private Scored score(GameRoom room, Player player, boolean isCorrect) {
+        int currentQuestion = room.getCurrentQuestionIndex();
+
+        // Mark player as having answered - protected by the room's monitor
+        player.setCurrentAnsweredQuestionIndex(currentQuestion);
+
+        // Answer latency is measured here from question dispatch; the client-sent
+        // answerTime is ignored since clients disagree on its unit and can forge it
+        long answerTimeMs = GameClock.elapsedMillis(room);
+
+        // Calculate score
+        int scoreChange = AnswerScoring.score(isCorrect, answerTimeMs, room.getQuestionDuration());
+
+        // Update player stats
+        int newScore = player.getScore() + scoreChange;
+        player.setScore(newScore);
+        if (isCorrect) {
+            player.setCorrectCount(player.getCorrectCount() + 1);
+        } else {
+            player.setWrongCount(player.getWrongCount() + 1);
+        }
+        player.setTotalAnswerTime(player.getTotalAnswerTime() + answerTimeMs);
+
+        roomRegistry.markDirty(player);
+        journal.answered(room, player);
+
+        List<Player> roster = List.copyOf(room.getPlayers());
+        int answeredCount = (int) roster.stream()
+                .filter(p -> {
+                    Integer answered = p.getCurrentAnsweredQuestionIndex();
+                    return answered != null && answered == currentQuestion;
+                })
+                .count();
+        return new Scored(new Result(null, isCorrect, scoreChange, newScore), currentQuestion, roster,
+                answeredCount);
+    }
+
+    /**
+     * Why an answer was not scored, with the message shown to the player.
+     */
+    public enum Rejection {
+        ROOM_NOT_FOUND("Room not found."),
+        NOT_ACCEPTING("Cannot submit answer at this time."),
+        PLAYER_NOT_FOUND("Player not found in this room."),
+        ALREADY_ANSWERED("Already answered this question.");
+
+        private final String message;
+
+        Rejection(String message) {
+            this.message = message;
+        }
+
+        public String message() {
+            return message;
+        }
+    }
+
+    /**
+     * The outcome of a submitted answer. A rejected answer carries its {@link Rejection}, and
+     * the player's unchanged score if they already answered.
+     */
+    public record Result(Rejection rejection, boolean correct, int scoreChange, Integer newScore) {
+
+        static Result rejected(Rejection rejection, Integer score) {
+            return new Result(rejection, false, 0, score);
+        }
+
+        public boolean accepted() {
+            return rejection == null;
+        }
+    }
+
+    /**
+     * A scored answer and the room as of scoring, captured under the room's monitor.
+     */
+    private record Scored(Result result, int questionIndex, List<Player> roster, int answeredCount) {
+    }
+}
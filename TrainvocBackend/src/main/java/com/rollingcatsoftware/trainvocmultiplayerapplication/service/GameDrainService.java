@@ -0,0 +1,163 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomWriteBehind;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketContext;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains this node's games on shutdown instead of dropping them.
+ * <p>
+ * Runs as the first lifecycle phase to stop, while the web server is still up:
+ * <ol>
+ *   <li>new rooms are refused ({@link #isDraining()});</li>
+ *   <li>every room is {@link GameStateMachine#hold() held} where it is, and running
+ *       questions get up to {@code game.drain.timeout-ms} to end;</li>
+ *   <li>the timer stops, pending writes are flushed, and each live room is snapshotted
+ *       into the {@link RoomJournal};</li>
+ *   <li>players are told the server is restarting and their sessions are closed as a
+ *       service restart, which clients answer by reconnecting, spread over
+ *       {@link GameTimerService#RESUME_GRACE_MS}.</li>
+ * </ol>
+ * On the next start {@link GameTimerService} restores the snapshots before the web server
+ * accepts connections, without reading {@code game_room}, so rolling restarts keep games
+ * going and reconnecting players hit memory rather than the database.
+ */
+@Service
+public class GameDrainService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GameDrainService.class);
+
+    private static final long POLL_MS = 100;
+
+    private final RoomRegistry roomRegistry;
+    private final GameStateMachine stateMachine;
+    private final GameTimerService timer;
+    private final RoomWriteBehind writeBehind;
+    private final RoomJournal journal;
+    private final WebSocketContext context;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private volatile boolean draining;
+    private volatile boolean running;
+
+    public GameDrainService(RoomRegistry roomRegistry, GameStateMachine stateMachine, GameTimerService timer,
+                            RoomWriteBehind writeBehind, RoomJournal journal, WebSocketContext context,
+                            @Value("${game.drain.enabled:true}") boolean enabled,
+                            @Value("${game.drain.timeout-ms:20000}") long timeoutMillis) {
+        this.roomRegistry = roomRegistry;
+        this.stateMachine = stateMachine;
+        this.timer = timer;
+        this.writeBehind = writeBehind;
+        this.journal = journal;
+        this.context = context;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Whether the node is shutting down and no longer takes new rooms.
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            if (enabled) {
+                drain();
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops first, before the web server shuts down its connections.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    void drain() {
+        draining = true;
+        stateMachine.hold();
+        int questions = awaitQuestions();
+        if (questions > 0) {
+            log.warn("Drain timed out with {} questions still running; they resume on restart", questions);
+        }
+
+        timer.stopTimer();
+        writeBehind.flush();
+        List<GameRoom> rooms = List.copyOf(roomRegistry.liveRooms());
+        int snapshots = 0;
+        for (GameRoom room : rooms) {
+            synchronized (room) {
+                if (journal.snapshot(room)) {
+                    snapshots++;
+                }
+            }
+        }
+
+        JSONObject restarting = new JSONObject();
+        restarting.put("type", "serverRestarting");
+        restarting.put("reconnectWithinMs", GameTimerService.RESUME_GRACE_MS);
+        context.closeAll(restarting, CloseStatus.SERVICE_RESTARTED);
+        log.info("Drained {} live rooms, {} snapshotted", rooms.size(), snapshots);
+    }
+
+    /**
+     * Waits for running questions to end, up to the drain timeout.
+     *
+     * @return the number of questions still running
+     */
+    private int awaitQuestions() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int questions = runningQuestions();
+        while (questions > 0 && deadline - System.nanoTime() > 0) {
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            questions = runningQuestions();
+        }
+        return questions;
+    }
+
+    private int runningQuestions() {
+        int questions = 0;
+        for (GameRoom room : roomRegistry.liveRooms()) {
+            if (room.getCurrentState() == GameState.QUESTION) {
+                questions++;
+            }
+        }
+        return questions;
+    }
+}
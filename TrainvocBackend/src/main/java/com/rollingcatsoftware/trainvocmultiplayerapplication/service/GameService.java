@@ -53,10 +53,6 @@ public class GameService {
         roomService.save(room);
     }
 
-    public List<GameRoom> getAllRooms() {
-        return roomService.getAllRooms();
-    }
-
     public boolean startRoom(String roomCode) {
         return roomService.startRoom(roomCode);
     }
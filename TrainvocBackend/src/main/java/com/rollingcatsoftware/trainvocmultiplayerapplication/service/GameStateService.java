@@ -1,31 +1,42 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
 
-import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.TransitionBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Service responsible for game state calculations and transitions.
- * Handles state machine logic for the game flow.
+ * Service responsible for game state reads and host-driven transitions.
+ * Transitions go through {@link GameStateMachine}; reading the state never changes it,
+ * so an overdue state is reported with no time left until the timer moves it on.
  */
 @Service
 public class GameStateService {
 
+    private static final Logger log = LoggerFactory.getLogger(GameStateService.class);
+
     private final RoomService roomService;
     private final PlayerService playerService;
+    private final GameStateMachine stateMachine;
+    private final TransitionBroadcaster transitions;
 
-    public GameStateService(RoomService roomService, PlayerService playerService) {
+    public GameStateService(RoomService roomService, PlayerService playerService,
+                            GameStateMachine stateMachine, TransitionBroadcaster transitions) {
         this.roomService = roomService;
         this.playerService = playerService;
+        this.stateMachine = stateMachine;
+        this.transitions = transitions;
     }
 
     /**
@@ -45,13 +56,17 @@ public class GameStateService {
             }
         }
 
-        StateCalculationResult stateResult = calculateAndUpdateState(room);
+        StateCalculationResult stateResult;
+        synchronized (room) {
+            stateResult = calculateState(room);
+        }
 
         List<Map<String, Object>> scores = buildPlayerScores(room);
 
         Map<String, Object> result = new HashMap<>();
         result.put("state", stateResult.state().ordinal());
         result.put("remainingTime", stateResult.remainingTime());
+        result.put("remainingTimeMs", stateResult.remainingMs());
         result.put("players", scores);
         result.put("currentQuestionIndex", room.getCurrentQuestionIndex());
         result.put("totalQuestionCount", room.getTotalQuestionCount());
@@ -73,97 +88,52 @@ public class GameStateService {
             return null;
         }
 
-        StateCalculationResult stateResult = calculateAndUpdateState(room);
+        StateCalculationResult stateResult;
+        synchronized (room) {
+            stateResult = calculateState(room);
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("state", stateResult.state().name().toLowerCase());
         result.put("remainingTime", stateResult.remainingTime());
+        result.put("remainingTimeMs", stateResult.remainingMs());
 
         return result;
     }
 
     /**
-     * Advances the game to the next question or final state.
-     * @return true if advanced to next question, false if game ended
+     * Advances the game from ANSWER_REVEAL to the next question, or to the rankings after
+     * the last one, and broadcasts the change.
+     * @return true if advanced to next question, false if the game moved to the rankings
+     *         or the room was not waiting to advance
      */
     public boolean goToNextQuestion(GameRoom room) {
         if (room == null) {
             return false;
         }
 
-        int currentIndex = room.getCurrentQuestionIndex();
-        int totalQuestions = room.getTotalQuestionCount();
-
-        if (currentIndex >= totalQuestions - 1) {
-            // Last question - go to ranking
-            room.setCurrentState(GameState.RANKING);
-            room.setStateStartTime(LocalDateTime.now());
-            roomService.save(room);
+        // Atomic under the room's monitor; broadcast once it is released
+        GameStateMachine.Transition transition = stateMachine.advance(room, GameState.ANSWER_REVEAL);
+        if (transition == null) {
             return false;
         }
-
-        // Advance to next question
-        room.setCurrentQuestionIndex(currentIndex + 1);
-        room.setCurrentState(GameState.COUNTDOWN);
-        room.setStateStartTime(LocalDateTime.now());
-        roomService.save(room);
-
-        // Reset player answers for new question
-        playerService.resetAnswersForRoom(room);
-
-        return true;
+        try {
+            transitions.broadcast(room, transition);
+        } catch (IOException e) {
+            log.warn("Failed to broadcast transition for room {}: {}", room.getRoomCode(), e.getMessage());
+        }
+        return transition.isNextQuestion();
     }
 
     /**
-     * Calculates current state and remaining time, updating state if needed.
+     * Calculates current state and remaining time. Read-only: overdue states are left for
+     * the timer to transition.
      */
-    private StateCalculationResult calculateAndUpdateState(GameRoom room) {
+    private StateCalculationResult calculateState(GameRoom room) {
         GameState state = room.getCurrentState();
-        LocalDateTime stateStart = room.getStateStartTime();
-        LocalDateTime now = LocalDateTime.now();
-        int remainingTime = 0;
-
-        switch (state) {
-            case COUNTDOWN -> {
-                long elapsed = Duration.between(stateStart, now).getSeconds();
-                remainingTime = (int) (GameConstants.COUNTDOWN_SECONDS - elapsed);
-                if (remainingTime <= 0) {
-                    state = transitionTo(room, GameState.QUESTION);
-                    remainingTime = room.getQuestionDuration();
-                }
-            }
-            case QUESTION -> {
-                long elapsed = Duration.between(stateStart, now).getSeconds();
-                remainingTime = (int) (room.getQuestionDuration() - elapsed);
-                if (remainingTime <= 0) {
-                    state = transitionTo(room, GameState.ANSWER_REVEAL);
-                    remainingTime = GameConstants.ANSWER_REVEAL_SECONDS;
-                }
-            }
-            case ANSWER_REVEAL -> {
-                // No automatic transition - host triggers next question
-                remainingTime = 0;
-            }
-            case RANKING -> {
-                long elapsed = Duration.between(stateStart, now).getSeconds();
-                remainingTime = (int) (GameConstants.RANKING_SECONDS - elapsed);
-                if (remainingTime <= 0) {
-                    state = transitionTo(room, GameState.FINAL);
-                    remainingTime = 0;
-                }
-            }
-            case FINAL, LOBBY -> remainingTime = 0;
-            default -> remainingTime = 0;
-        }
-
-        return new StateCalculationResult(state, remainingTime);
-    }
-
-    private GameState transitionTo(GameRoom room, GameState newState) {
-        room.setCurrentState(newState);
-        room.setStateStartTime(LocalDateTime.now());
-        roomService.save(room);
-        return newState;
+        // ANSWER_REVEAL has no countdown for players; the host (or auto-advance) moves it on
+        long remainingMs = state == GameState.ANSWER_REVEAL ? 0 : GameClock.remainingMillis(room);
+        return new StateCalculationResult(state, remainingMs);
     }
 
     private List<Map<String, Object>> buildPlayerScores(GameRoom room) {
@@ -181,6 +151,10 @@ public class GameStateService {
     /**
      * Result of state calculation.
      */
-    private record StateCalculationResult(GameState state, int remainingTime) {
+    private record StateCalculationResult(GameState state, long remainingMs) {
+
+        int remainingTime() {
+            return GameClock.toSeconds(remainingMs);
+        }
     }
 }
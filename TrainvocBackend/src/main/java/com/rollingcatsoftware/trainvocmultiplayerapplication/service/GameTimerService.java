@@ -1,245 +1,344 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
 
-import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomDeadlines;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomLeases;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RoomMailboxes;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.StateChangeMessages;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.TransitionBroadcaster;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketContext;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service that handles automatic game state transitions.
- * Runs as a scheduled task to check and update game states.
  * Broadcasts state changes to all players via WebSocket.
+ * A single timer thread waits on {@link RoomDeadlines} and dispatches a tick for a live room
+ * only when its next deadline is due, so transitions fire on time and idle rooms cost nothing;
+ * it never scans the database or the registry. Ticks run concurrently through
+ * {@link TickExecutor}, so a room with a slow broadcast does not delay the others. In mailbox
+ * mode each tick is queued to the room's mailbox instead, ordered with player messages.
+ * A due tick moves the room on through {@link GameStateMachine}, the same engine the host's
+ * "next" uses, so the two never both advance a room.
+ * <p>
+ * With several nodes on one database, a room is ticked only by the node holding its
+ * {@link RoomLeases lease}. Running games whose lease lapsed (their node died) are claimed
+ * and resumed here every lease renewal period.
+ * <p>
+ * On startup, games this node was running when it stopped are first rebuilt from the
+ * {@link RoomJournal}, which is ahead of the database by whatever write-behind had not yet
+ * flushed, or holds a snapshot of each room if the node was drained. This runs as a
+ * lifecycle phase before the web server starts, so reconnecting players find their rooms
+ * already live instead of loading them from the database.
  */
 @Service
-@EnableScheduling
-public class GameTimerService {
+public class GameTimerService implements SmartLifecycle {
 
     private static final Logger log = LoggerFactory.getLogger(GameTimerService.class);
 
+    /** Delay before retrying a tick that found the room's mailbox full. */
+    private static final long MAILBOX_FULL_RETRY_MS = 100;
+
+    /** Minimum time left in a snapshotted state on restore, for players to reconnect. */
+    static final long RESUME_GRACE_MS = 5000;
+
+    /** Starts before, and stops after, the web server. */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
     private final GameRoomRepository gameRoomRepository;
-    private final RoomService roomService;
-    private final PlayerService playerService;
-    private final GameStateService gameStateService;
+    private final RoomRegistry roomRegistry;
+    private final GameStateMachine stateMachine;
     private final WebSocketContext wsContext;
-
-    public GameTimerService(GameRoomRepository gameRoomRepository, RoomService roomService,
-                           PlayerService playerService, GameStateService gameStateService,
-                           WebSocketContext wsContext) {
+    private final RoomMailboxes mailboxes;
+    private final TransitionBroadcaster transitions;
+    private final RoomDeadlines deadlines;
+    private final RoomLeases leases;
+    private final TickExecutor ticks;
+    private final RoomJournal journal;
+    private volatile Thread timerThread;
+
+    /** Journaled games not yet recovered because their lease is still held, by room code. */
+    private final Map<String, RoomJournal.Recovered> pendingRecovery = new ConcurrentHashMap<>();
+    private volatile long recoveryDeadlineNanos;
+
+    public GameTimerService(GameRoomRepository gameRoomRepository, RoomRegistry roomRegistry,
+                           GameStateMachine stateMachine, WebSocketContext wsContext,
+                           RoomMailboxes mailboxes, TransitionBroadcaster transitions,
+                           RoomDeadlines deadlines, RoomLeases leases, TickExecutor ticks,
+                           RoomJournal journal) {
         this.gameRoomRepository = gameRoomRepository;
-        this.roomService = roomService;
-        this.playerService = playerService;
-        this.gameStateService = gameStateService;
+        this.roomRegistry = roomRegistry;
+        this.stateMachine = stateMachine;
         this.wsContext = wsContext;
+        this.mailboxes = mailboxes;
+        this.transitions = transitions;
+        this.deadlines = deadlines;
+        this.leases = leases;
+        this.ticks = ticks;
+        this.journal = journal;
     }
 
     /**
-     * Check all active games every second for state transitions.
+     * Recovers the games this node ran before it restarted from the journal and starts the
+     * timer thread. Games other nodes left behind are claimed by the first
+     * {@link #adoptOrphanedGames()} run, without holding up startup.
      */
-    @Scheduled(fixedRate = 1000)
-    public void checkGameStates() {
-        List<GameRoom> activeRooms = gameRoomRepository.findAll().stream()
-                .filter(room -> room.getStarted() != null && room.getStarted())
-                .filter(room -> room.getCurrentState() != GameState.FINAL)
-                .filter(room -> room.getCurrentState() != GameState.LOBBY)
-                .toList();
-
-        for (GameRoom room : activeRooms) {
-            try {
-                processRoomState(room);
-            } catch (Exception e) {
-                log.error("Error processing room state for {}: {}", room.getRoomCode(), e.getMessage());
-            }
-        }
+    @Override
+    public void start() {
+        recoverJournaledGames();
+        timerThread = Thread.ofPlatform().name("game-timer").daemon().start(this::runTimer);
     }
 
-    private void processRoomState(GameRoom room) throws IOException {
-        GameState currentState = room.getCurrentState();
-        LocalDateTime stateStart = room.getStateStartTime();
-        LocalDateTime now = LocalDateTime.now();
+    @Override
+    public void stop() {
+        stopTimer();
+    }
 
-        if (stateStart == null) {
-            return;
-        }
+    @Override
+    public boolean isRunning() {
+        Thread thread = timerThread;
+        return thread != null && thread.isAlive();
+    }
 
-        long elapsedSeconds = Duration.between(stateStart, now).getSeconds();
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
 
-        switch (currentState) {
-            case COUNTDOWN -> processCountdown(room, elapsedSeconds);
-            case QUESTION -> processQuestion(room, elapsedSeconds);
-            case ANSWER_REVEAL -> {
-                // No automatic transition - wait for host/timer
-                // Auto-advance after 5 seconds for smooth gameplay
-                if (elapsedSeconds >= 5) {
-                    advanceToNextQuestion(room);
-                }
-            }
-            case RANKING -> processRanking(room, elapsedSeconds);
-            default -> {
-                // No action needed for LOBBY and FINAL
+    /**
+     * Claims running games whose owning node stopped renewing its lease and resumes their
+     * timers here.
+     */
+    @Scheduled(fixedDelayString = "${game.cluster.lease-renew-ms:5000}",
+            initialDelayString = "${game.cluster.lease-renew-ms:5000}")
+    public void adoptOrphanedGames() {
+        if (!pendingRecovery.isEmpty()) {
+            retryRecovery();
+        }
+        int resumed = 0;
+        for (String roomCode : leases.claimOrphans()) {
+            GameRoom room = gameRoomRepository.findByRoomCode(roomCode);
+            if (room != null && isTicking(room)) {
+                deadlines.track(roomRegistry.adopt(room));
+                resumed++;
+            } else {
+                leases.release(roomCode);
             }
         }
+        if (resumed > 0) {
+            log.info("Resumed {} in-progress games", resumed);
+        }
     }
 
-    private void processCountdown(GameRoom room, long elapsedSeconds) throws IOException {
-        int remaining = (int) (GameConstants.COUNTDOWN_SECONDS - elapsedSeconds);
-
-        if (remaining <= 0) {
-            // Transition to QUESTION
-            transitionTo(room, GameState.QUESTION);
-
-            // Broadcast state change
-            broadcastStateChange(room, GameState.QUESTION, room.getQuestionDuration());
-
-            // Broadcast current question
-            broadcastCurrentQuestion(room);
-        } else {
-            // Broadcast countdown update
-            broadcastStateChange(room, GameState.COUNTDOWN, remaining);
+    /**
+     * Rebuilds the games in the journal by laying each one's journaled state over its database
+     * row. The previous run's lease on a game stays in the database until it expires, unless
+     * the node ID is fixed; such games are retried every lease renewal period, and given up
+     * (their journal dropped) if another node takes them over first. A game whose journal
+     * cannot be applied is logged and dropped without holding up the others.
+     */
+    private void recoverJournaledGames() {
+        List<RoomJournal.Recovered> journaled = journal.replay();
+        if (journaled.isEmpty()) {
+            return;
         }
+        recoveryDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2 * leases.ttlMillis());
+        journaled.forEach(room -> pendingRecovery.put(room.getRoomCode(), room));
+        int recovered = retryRecovery();
+        log.info("Recovered {} of {} journaled games", recovered, journaled.size());
     }
 
-    private void processQuestion(GameRoom room, long elapsedSeconds) throws IOException {
-        int remaining = (int) (room.getQuestionDuration() - elapsedSeconds);
-
-        if (remaining <= 0) {
-            // Time's up - transition to ANSWER_REVEAL
-            transitionTo(room, GameState.ANSWER_REVEAL);
-
-            // Broadcast state change with answer reveal
-            broadcastStateChange(room, GameState.ANSWER_REVEAL, 0);
-
-            // Broadcast rankings
-            broadcastRankings(room);
+    private int retryRecovery() {
+        boolean givingUp = System.nanoTime() - recoveryDeadlineNanos > 0;
+        int recovered = 0;
+        for (RoomJournal.Recovered journaled : pendingRecovery.values()) {
+            String roomCode = journaled.getRoomCode();
+            if (leases.acquire(roomCode)) {
+                try {
+                    if (recover(journaled)) {
+                        recovered++;
+                    }
+                    pendingRecovery.remove(roomCode);
+                } catch (DataAccessException e) {
+                    log.warn("Could not recover journaled room {}, retrying: {}", roomCode, e.getMessage());
+                } catch (RuntimeException e) {
+                    // A journal that cannot be applied fails the same way on every retry
+                    log.error("Could not recover journaled room {}, dropping its journal", roomCode, e);
+                    pendingRecovery.remove(roomCode);
+                    deadlines.untrack(roomCode);
+                    roomRegistry.evict(roomCode);
+                    leases.release(roomCode);
+                    journal.compact(roomCode);
+                }
+            } else if (givingUp) {
+                log.info("Room {} was taken over by another node, dropping its journal", roomCode);
+                pendingRecovery.remove(roomCode);
+                journal.compact(roomCode);
+            }
         }
+        return recovered;
     }
 
-    private void processRanking(GameRoom room, long elapsedSeconds) throws IOException {
-        int remaining = (int) (GameConstants.RANKING_SECONDS - elapsedSeconds);
-
-        if (remaining <= 0) {
-            // Transition to FINAL
-            transitionTo(room, GameState.FINAL);
-
-            // Broadcast game ended
-            broadcastGameEnded(room);
+    /**
+     * Adopts a leased room with its journaled state; a snapshotted room is rebuilt without
+     * reading its row. Players have to reconnect: a snapshotted state resumes with the time it
+     * had left, but at least {@link #RESUME_GRACE_MS}, and a state interrupted by a crash
+     * starts over rather than expiring at once.
+     */
+    private boolean recover(RoomJournal.Recovered journaled) {
+        String roomCode = journaled.getRoomCode();
+        GameRoom room = journaled.isSnapshot() ? journaled.toRoom() : gameRoomRepository.findByRoomCode(roomCode);
+        if (room == null) {
+            leases.release(roomCode);
+            journal.compact(roomCode);
+            return false;
+        }
+        GameRoom live = roomRegistry.adopt(room);
+        synchronized (live) {
+            journaled.applyTo(live);
+            long remaining = journaled.getRemainingMillis();
+            if (isTicking(live) && remaining >= 0) {
+                GameClock.resumeState(live, Math.max(remaining, RESUME_GRACE_MS));
+            } else if (isTicking(live)) {
+                GameClock.startState(live, live.getCurrentState());
+            }
         }
+        roomRegistry.markDirty(live);
+        live.getPlayers().forEach(roomRegistry::markDirty);
+        deadlines.track(live);
+        if (!isTicking(live)) {
+            leases.release(roomCode);
+        }
+        return true;
     }
 
-    private void advanceToNextQuestion(GameRoom room) throws IOException {
-        int currentIndex = room.getCurrentQuestionIndex();
-        int totalQuestions = room.getTotalQuestionCount();
-
-        if (currentIndex >= totalQuestions - 1) {
-            // Last question - go to RANKING
-            transitionTo(room, GameState.RANKING);
-            broadcastStateChange(room, GameState.RANKING, GameConstants.RANKING_SECONDS);
-            broadcastRankings(room);
-        } else {
-            // Advance to next question
-            room.setCurrentQuestionIndex(currentIndex + 1);
-            transitionTo(room, GameState.COUNTDOWN);
-
-            // Reset player answers for new question
-            playerService.resetAnswersForRoom(room);
-
-            // Broadcast countdown for next question
-            broadcastStateChange(room, GameState.COUNTDOWN, GameConstants.COUNTDOWN_SECONDS);
+    /**
+     * Stops dispatching ticks. Ticks already running finish.
+     */
+    public void stopTimer() {
+        Thread thread = timerThread;
+        if (thread != null) {
+            thread.interrupt();
         }
     }
 
-    private void transitionTo(GameRoom room, GameState newState) {
-        room.setCurrentState(newState);
-        room.setStateStartTime(LocalDateTime.now());
-        roomService.save(room);
+    /**
+     * Dispatches a tick for each room as its deadline comes due.
+     */
+    private void runTimer() {
+        while (!Thread.currentThread().isInterrupted()) {
+            RoomDeadlines.Due due;
+            try {
+                due = deadlines.takeDue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String roomCode = due.roomCode();
+            GameRoom room = roomRegistry.get(roomCode);
+            if (room == null || !isTicking(room) || stateMachine.isHeld(room)) {
+                // Held rooms are snapshotted where they are; the next start resumes them
+                continue;
+            }
+            // Ticks of one room still advance it under the room's monitor
+            if (!mailboxes.isEnabled()) {
+                ticks.execute(roomCode, room.getPlayers().size(), due.dueAtNanos(), () -> tick(room));
+            } else if (!mailboxes.offer(roomCode,
+                    ticks.wrap(roomCode, room.getPlayers().size(), due.dueAtNanos(), () -> tick(room)))) {
+                // Elapsed time is measured from the state start, so a later tick catches up
+                log.debug("Mailbox full, deferring tick for room {}", roomCode);
+                deadlines.retryLater(room, MAILBOX_FULL_RETRY_MS);
+            }
+        }
     }
 
-    private void broadcastStateChange(GameRoom room, GameState state, int remainingTime) throws IOException {
-        JSONObject msg = new JSONObject();
-        msg.put("type", "gameStateChanged");
-        msg.put("state", state.ordinal());
-        msg.put("stateName", state.name());
-        msg.put("remainingTime", remainingTime);
-        msg.put("currentQuestionIndex", room.getCurrentQuestionIndex());
-        msg.put("totalQuestionCount", room.getTotalQuestionCount());
-
-        wsContext.broadcastToRoom(room, msg);
+    private void tick(GameRoom room) {
+        String roomCode = room.getRoomCode();
+        if (!leases.acquire(roomCode)) {
+            // Another node drives this room; drop the local copy so reads reload its state
+            log.debug("Room {} is owned by another node, not ticking it", roomCode);
+            deadlines.untrack(roomCode);
+            roomRegistry.evict(roomCode);
+            return;
+        }
+        try {
+            // Broadcast with no monitor held: a tick runs on a virtual thread, which a blocking
+            // fan-out inside synchronized would pin to its carrier, along with every answer
+            // waiting on the monitor
+            Tick result = processRoomState(room);
+            if (result != null) {
+                publish(room, result);
+            }
+        } catch (Exception e) {
+            log.error("Error processing room state for {}: {}", roomCode, e.getMessage());
+        } finally {
+            // Countdown updates and failed ticks leave the state unchanged; schedule the next one
+            if (roomRegistry.isLive(room)) {
+                deadlines.track(room);
+                if (!isTicking(room)) {
+                    leases.release(roomCode);
+                }
+            }
+        }
     }
 
-    private void broadcastCurrentQuestion(GameRoom room) throws IOException {
-        // Note: Questions are sent at game start via StartGameHandler
-        // This broadcasts which question index we're on
-        JSONObject msg = new JSONObject();
-        msg.put("type", "questionIndex");
-        msg.put("index", room.getCurrentQuestionIndex());
-
-        wsContext.broadcastToRoom(room, msg);
+    private boolean isTicking(GameRoom room) {
+        return Boolean.TRUE.equals(room.getStarted())
+                && room.getCurrentState() != GameState.FINAL
+                && room.getCurrentState() != GameState.LOBBY;
     }
 
-    private void broadcastRankings(GameRoom room) throws IOException {
-        List<Player> players = playerService.getPlayersByRoom(room);
-        List<Player> sorted = players.stream()
-                .sorted((a, b) -> Integer.compare(b.getScore(), a.getScore()))
-                .toList();
-
-        JSONArray rankings = new JSONArray();
-        int rank = 1;
-        for (Player p : sorted) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("rank", rank++);
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            pObj.put("correctCount", p.getCorrectCount());
-            rankings.put(pObj);
+    /**
+     * Advances the room if due. The state machine takes the room's monitor for the transition
+     * itself and persists it after releasing the monitor; a countdown update is built under it.
+     *
+     * @return what to broadcast, or null if nothing
+     */
+    private Tick processRoomState(GameRoom room) {
+        synchronized (room) {
+            if (!isTicking(room) || (room.getStateStartTime() == null && room.getStateStartNanos() == null)) {
+                return null;
+            }
         }
 
-        JSONObject msg = new JSONObject();
-        msg.put("type", "rankings");
-        msg.put("players", rankings);
-
-        wsContext.broadcastToRoom(room, msg);
+        GameStateMachine.Transition transition = stateMachine.advanceIfDue(room);
+        if (transition != null) {
+            return new Tick(transition, null);
+        }
+        synchronized (room) {
+            // Countdown update, built while the state is stable
+            return room.getCurrentState() == GameState.COUNTDOWN ? new Tick(null, StateChangeMessages.of(room)) : null;
+        }
     }
 
-    private void broadcastGameEnded(GameRoom room) throws IOException {
-        List<Player> players = playerService.getPlayersByRoom(room);
-        List<Player> sorted = players.stream()
-                .sorted((a, b) -> Integer.compare(b.getScore(), a.getScore()))
-                .toList();
-
-        JSONArray finalRankings = new JSONArray();
-        int rank = 1;
-        for (Player p : sorted) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("rank", rank++);
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            pObj.put("correctCount", p.getCorrectCount());
-            pObj.put("wrongCount", p.getWrongCount());
-            pObj.put("totalAnswerTime", p.getTotalAnswerTime());
-            finalRankings.put(pObj);
+    private void publish(GameRoom room, Tick tick) throws IOException {
+        if (tick.transition() != null) {
+            transitions.broadcast(room, tick.transition());
+        } else {
+            wsContext.broadcastToRoom(room.getRoomCode(), tick.countdown());
         }
+    }
 
-        JSONObject msg = new JSONObject();
-        msg.put("type", "gameEnded");
-        msg.put("players", finalRankings);
-
-        wsContext.broadcastToRoom(room, msg);
+    /**
+     * What a tick broadcasts: the transition it made, or a countdown update.
+     */
+    private record Tick(GameStateMachine.Transition transition, JSONObject countdown) {
     }
 }
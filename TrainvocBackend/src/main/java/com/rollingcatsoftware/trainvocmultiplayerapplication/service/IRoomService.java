@@ -3,8 +3,6 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
 
-import java.util.List;
-
 /**
  * Interface for room management operations.
  * Enables dependency inversion and easier testing.
@@ -20,8 +18,6 @@ public interface IRoomService {
 
     GameRoom save(GameRoom room);
 
-    List<GameRoom> getAllRooms();
-
     boolean startRoom(String roomCode);
 
     boolean disbandRoom(String roomCode);
@@ -5,6 +5,8 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.PlayerRepository;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,14 +17,21 @@ import java.util.concurrent.ThreadLocalRandom;
 /**
  * Service responsible for player management operations.
  * Handles player creation, joining rooms, and leaving rooms.
+ * Joins and leaves are written through; per-answer updates of live players are deferred
+ * to write-behind via the {@link RoomRegistry}, and journaled by {@link RoomJournal} so they
+ * survive a restart before the flush.
  */
 @Service
 public class PlayerService implements IPlayerService {
 
     private final PlayerRepository playerRepository;
+    private final RoomRegistry roomRegistry;
+    private final RoomJournal journal;
 
-    public PlayerService(PlayerRepository playerRepository) {
+    public PlayerService(PlayerRepository playerRepository, RoomRegistry roomRegistry, RoomJournal journal) {
         this.playerRepository = playerRepository;
+        this.roomRegistry = roomRegistry;
+        this.journal = journal;
     }
 
     /**
@@ -58,7 +67,10 @@ public class PlayerService implements IPlayerService {
         }
 
         Player player = createPlayer(room, playerName, avatarId);
-        return playerRepository.save(player);
+        Player saved = playerRepository.save(player);
+        roomRegistry.addPlayer(room, saved);
+        journal.joined(room, saved);
+        return saved;
     }
 
     /**
@@ -71,6 +83,8 @@ public class PlayerService implements IPlayerService {
         if (player != null && player.getRoom() != null &&
                 player.getRoom().getRoomCode().equals(roomCode)) {
             playerRepository.delete(player);
+            roomRegistry.removePlayer(playerId);
+            journal.left(roomCode, playerId);
             return true;
         }
         return false;
@@ -81,7 +95,8 @@ public class PlayerService implements IPlayerService {
      */
     @Transactional(readOnly = true, transactionManager = "primaryTransactionManager")
     public List<Player> getPlayersByRoom(GameRoom room) {
-        return playerRepository.findByRoom(room);
+        List<Player> live = roomRegistry.playersOf(room);
+        return live != null ? live : playerRepository.findByRoom(room);
     }
 
     /**
@@ -89,14 +104,19 @@ public class PlayerService implements IPlayerService {
      */
     @Transactional(readOnly = true, transactionManager = "primaryTransactionManager")
     public Player findById(String playerId) {
-        return playerRepository.findById(playerId).orElse(null);
+        Player live = roomRegistry.findPlayer(playerId);
+        return live != null ? live : playerRepository.findById(playerId).orElse(null);
     }
 
     /**
-     * Saves a player.
+     * Saves a player. Saves of a live player are deferred to write-behind.
      */
     @Transactional(transactionManager = "primaryTransactionManager")
     public Player save(Player player) {
+        if (roomRegistry.isLive(player)) {
+            roomRegistry.markDirty(player);
+            return player;
+        }
         return playerRepository.save(player);
     }
 
@@ -113,6 +133,15 @@ public class PlayerService implements IPlayerService {
      */
     @Transactional(transactionManager = "primaryTransactionManager")
     public void resetAnswersForRoom(GameRoom room) {
+        List<Player> live = roomRegistry.playersOf(room);
+        if (live != null) {
+            for (Player player : live) {
+                player.setCurrentAnsweredQuestionIndex(null);
+                roomRegistry.markDirty(player);
+            }
+            return;
+        }
+
         List<Player> players = playerRepository.findByRoom(room);
         for (Player player : players) {
             player.setCurrentAnsweredQuestionIndex(null);
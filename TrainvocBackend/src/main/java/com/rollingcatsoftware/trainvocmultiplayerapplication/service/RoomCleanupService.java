@@ -1,25 +1,31 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
 
-import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomReaper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
+/**
+ * Expires rooms nobody has used for {@code game.rooms.expiry.idle-ms}.
+ * Each sweep is a bounded batch of conditional deletes run by {@link RoomReaper}.
+ */
 @Service
 public class RoomCleanupService {
-    private final GameRoomRepository gameRoomRepository;
+    private final RoomReaper reaper;
+    private final long idleMillis;
 
-    public RoomCleanupService(GameRoomRepository gameRoomRepository) {
-        this.gameRoomRepository = gameRoomRepository;
+    public RoomCleanupService(RoomReaper reaper,
+                              @Value("${game.rooms.expiry.idle-ms:900000}") long idleMillis) {
+        this.reaper = reaper;
+        this.idleMillis = idleMillis;
     }
 
-    @Scheduled(fixedRate = 60000) // Runs every 60 seconds
+    @Scheduled(fixedDelayString = "${game.rooms.expiry.sweep-ms:60000}")
     public void removeUnusedRooms() {
-        LocalDateTime threshold = LocalDateTime.now().minusMinutes(15); // Rooms older than 15 minutes
-        // Also delete rooms whose lastUsed is null
-        gameRoomRepository.findAll().stream()
-                .filter(room -> room.getLastUsed() == null || room.getLastUsed().isBefore(threshold))
-                .forEach(gameRoomRepository::delete);
+        // Rooms whose lastUsed is null are expired too
+        reaper.sweep(LocalDateTime.now().minus(idleMillis, ChronoUnit.MILLIS));
     }
 }
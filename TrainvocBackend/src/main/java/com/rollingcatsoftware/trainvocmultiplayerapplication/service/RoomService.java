@@ -6,24 +6,46 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomCodes;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomDeadlines;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomInserter;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomLeases;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomTeardown;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomTouches;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.ArrayList;
 import java.util.UUID;
 
 /**
  * Service responsible for room CRUD operations.
  * Handles room creation, retrieval, and deletion.
  * Uses programmatic transaction management for reliability.
+ * Rooms are read through the {@link RoomRegistry}: once live, the in-memory instance is
+ * returned and saves are deferred to write-behind. Adopting, starting or saving a live
+ * room re-registers its next timer deadline with {@link RoomDeadlines}. Starting a live room
+ * takes its {@link RoomLeases lease}, so the node its players are connected to drives it.
+ * Creating and starting a room are recorded in its {@link RoomJournal}; deleting it drops
+ * the journal.
+ * New rooms are assembled in memory and written by {@link RoomInserter} in one short
+ * transaction, without reading them back; the JPA path remains for when it is disabled.
+ * Room codes come from {@link RoomCodes}.
+ * Reading a room records its last use in {@link RoomTouches} instead of writing the row.
+ * A disbanded room is forgotten by {@link RoomTeardown}, like an expired one: its deadline,
+ * live copy, journal, lease, pending touch, code and lobby entry all go.
  */
 @Service
 public class RoomService implements IRoomService {
@@ -34,38 +56,109 @@ public class RoomService implements IRoomService {
     private final PlayerService playerService;
     private final TransactionTemplate transactionTemplate;
     private final EntityManagerFactory entityManagerFactory;
+    private final RoomRegistry roomRegistry;
+    private final RoomDeadlines deadlines;
+    private final RoomLeases leases;
+    private final RoomJournal journal;
+    private final RoomInserter inserter;
+    private final RoomCodes roomCodes;
+    private final RoomTouches touches;
+    private final RoomTeardown teardown;
 
     public RoomService(GameRoomRepository gameRoomRepository,
                        PlayerService playerService,
                        @Qualifier("primaryTransactionManager") PlatformTransactionManager transactionManager,
-                       @Qualifier("primaryEntityManagerFactory") EntityManagerFactory entityManagerFactory) {
+                       @Qualifier("primaryEntityManagerFactory") EntityManagerFactory entityManagerFactory,
+                       RoomRegistry roomRegistry,
+                       RoomDeadlines deadlines,
+                       RoomLeases leases,
+                       RoomJournal journal,
+                       RoomInserter inserter,
+                       RoomCodes roomCodes,
+                       RoomTouches touches,
+                       RoomTeardown teardown) {
         this.gameRoomRepository = gameRoomRepository;
         this.playerService = playerService;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.entityManagerFactory = entityManagerFactory;
+        this.roomRegistry = roomRegistry;
+        this.deadlines = deadlines;
+        this.leases = leases;
+        this.journal = journal;
+        this.inserter = inserter;
+        this.roomCodes = roomCodes;
+        this.touches = touches;
+        this.teardown = teardown;
     }
 
     /**
      * Creates a new game room with the specified settings.
-     * Uses direct EntityManager management to ensure proper transaction handling
-     * from WebSocket threads where Spring's thread-bound EntityManager may not work.
+     * The host is added as the room's first player if they want to join.
      */
     public GameRoom createRoom(String hostName, Integer avatarId, QuizSettings settings,
                                boolean hostWantsToJoin, String hashedPassword) {
-        log.info("Creating room for host: {} (using direct EntityManager)", hostName);
+        if (!inserter.isEnabled()) {
+            return createRoomWithEntityManager(hostName, avatarId, settings, hostWantsToJoin, hashedPassword);
+        }
+
+        Player host = newHost(hostName, avatarId);
+        GameRoom room = new GameRoom();
+        room.setHostId(host.getId());
+        room.setHashedPassword(hashedPassword);
+        room.setQuestionDuration(settings.getQuestionDuration());
+        room.setOptionCount(settings.getOptionCount());
+        room.setLevel(settings.getLevel());
+        room.setTotalQuestionCount(settings.getTotalQuestionCount());
+        room.setCurrentQuestionIndex(0);
+        room.setStarted(false);
+        room.setCurrentState(GameState.LOBBY);
+        room.setLastUsed(LocalDateTime.now());
+        room.setPlayers(new ArrayList<>());
+        if (hostWantsToJoin) {
+            host.setRoom(room);
+            room.getPlayers().add(host);
+        }
+
+        String[] allocated = new String[1];
+        try {
+            inserter.insert(room, hostWantsToJoin ? host : null, () -> allocated[0] = roomCodes.allocate());
+        } catch (RuntimeException e) {
+            // A code that was taken belongs to a room created elsewhere and stays marked as used
+            if (!(e instanceof DuplicateKeyException)) {
+                roomCodes.release(allocated[0]);
+            }
+            throw e;
+        }
+        log.debug("Created room {} for host {}", room.getRoomCode(), hostName);
+
+        GameRoom live = adopt(room);
+        journal.created(live);
+        return live;
+    }
+
+    /**
+     * Creates a new game room through JPA: a native INSERT, a re-select, persisting the host
+     * if they join and merging the room, then a re-fetch with the players. Used when
+     * {@link RoomInserter} is disabled; the room and host match the batched path's.
+     * Uses direct EntityManager management to ensure proper transaction handling
+     * from WebSocket threads where Spring's thread-bound EntityManager may not work.
+     */
+    public GameRoom createRoomWithEntityManager(String hostName, Integer avatarId, QuizSettings settings,
+                                                boolean hostWantsToJoin, String hashedPassword) {
+        log.debug("Creating room for host: {} (using direct EntityManager)", hostName);
 
         // Create our own EntityManager to avoid WebSocket thread binding issues
         EntityManager em = entityManagerFactory.createEntityManager();
         EntityTransaction tx = em.getTransaction();
+        String roomCode = roomCodes.allocate();
 
         try {
             tx.begin();
-            log.info("Transaction started: active={}", tx.isActive());
+            log.debug("Transaction started: active={}", tx.isActive());
 
-            String roomCode = generateRoomCode();
             LocalDateTime now = LocalDateTime.now();
 
-            log.info("Inserting room with code: {} using native SQL via EntityManager", roomCode);
+            log.debug("Inserting room with code: {} using native SQL via EntityManager", roomCode);
 
             // Execute native INSERT directly
             int rowsInserted = em.createNativeQuery(
@@ -84,43 +177,34 @@ public class RoomService implements IRoomService {
                     .setParameter(10, now)
                     .executeUpdate();
 
-            log.info("Native INSERT executed, rows affected: {}", rowsInserted);
+            log.debug("Native INSERT executed, rows affected: {}", rowsInserted);
 
             // Fetch the room we just created
             GameRoom room = em.createQuery("SELECT r FROM GameRoom r WHERE r.roomCode = :code", GameRoom.class)
                     .setParameter("code", roomCode)
                     .getSingleResult();
 
-            log.info("Room fetched via EntityManager, roomCode: {}", room.getRoomCode());
-
-            // Create player
-            Player host = new Player();
-            host.setId(UUID.randomUUID().toString());
-            host.setRoom(room);
-            host.setName(hostName);
-            host.setScore(0);
-            host.setCorrectCount(0);
-            host.setWrongCount(0);
-            host.setTotalAnswerTime(0);
-            host.setAvatarId(avatarId != null && GameConstants.isValidAvatarId(avatarId)
-                    ? avatarId : 0);
+            log.debug("Room fetched via EntityManager, roomCode: {}", room.getRoomCode());
 
-            em.persist(host);
-            log.info("Host player persisted with id: {}", host.getId());
+            // Create player; like the batched path, a host who does not join gets no row
+            Player host = newHost(hostName, avatarId);
+            if (hostWantsToJoin) {
+                host.setRoom(room);
+                em.persist(host);
+                room.getPlayers().add(host);
+                log.debug("Host player persisted with id: {}", host.getId());
+            }
 
             // Update room with host info
             room.setHostId(host.getId());
             room.setHashedPassword(hashedPassword);
-            if (hostWantsToJoin) {
-                room.getPlayers().add(host);
-            }
 
             em.merge(room);
-            log.info("Room merged with host info");
+            log.debug("Room merged with host info");
 
             // Commit the transaction
             tx.commit();
-            log.info("Transaction committed successfully for room: {}", roomCode);
+            log.debug("Transaction committed successfully for room: {}", roomCode);
 
             // Re-fetch the room with players to avoid LazyInitializationException
             // after the EntityManager is closed
@@ -131,8 +215,10 @@ public class RoomService implements IRoomService {
                         GameRoom.class)
                         .setParameter("code", roomCode)
                         .getSingleResult();
-                log.info("Room re-fetched with {} players", finalRoom.getPlayers().size());
-                return finalRoom;
+                log.debug("Room re-fetched with {} players", finalRoom.getPlayers().size());
+                GameRoom live = adopt(finalRoom);
+                journal.created(live);
+                return live;
             } finally {
                 readEm.close();
             }
@@ -140,61 +226,84 @@ public class RoomService implements IRoomService {
             log.error("Error creating room, rolling back transaction", e);
             if (tx.isActive()) {
                 tx.rollback();
-                log.info("Transaction rolled back");
+                roomCodes.release(roomCode);
+                log.debug("Transaction rolled back");
             }
             throw new RuntimeException("Failed to create room: " + e.getMessage(), e);
         } finally {
             em.close();
-            log.info("EntityManager closed");
+            log.debug("EntityManager closed");
         }
     }
 
     /**
      * Retrieves a room by its code and updates last used timestamp.
+     * The touch is recorded in memory and written in the next batch of {@link RoomTouches};
+     * the read itself writes nothing.
      */
     public GameRoom getRoom(String roomCode) {
-        return transactionTemplate.execute(status -> {
-            GameRoom room = gameRoomRepository.findById(roomCode).orElse(null);
-            if (room != null) {
-                room.setLastUsed(LocalDateTime.now());
-                gameRoomRepository.save(room);
-            }
-            return room;
-        });
+        LocalDateTime now = LocalDateTime.now();
+        GameRoom live = roomRegistry.get(roomCode);
+        if (live != null) {
+            roomRegistry.touch(live, now);
+            touches.touch(roomCode, now);
+            return live;
+        }
+        GameRoom room = gameRoomRepository.findById(roomCode).orElse(null);
+        if (room != null) {
+            room.setLastUsed(now);
+            touches.touch(roomCode, now);
+        }
+        return room;
     }
 
     /**
      * Retrieves a room by code without updating last used.
+     * Returns the live instance, loading and adopting it on first access.
      */
     public GameRoom findByRoomCode(String roomCode) {
-        return gameRoomRepository.findByRoomCode(roomCode);
+        GameRoom live = roomRegistry.get(roomCode);
+        if (live != null) {
+            return live;
+        }
+        GameRoom room = gameRoomRepository.findByRoomCode(roomCode);
+        return room != null ? adopt(room) : null;
     }
 
     /**
-     * Saves a room.
+     * Saves a room. Saves of a live room are deferred to write-behind.
      */
     public GameRoom save(GameRoom room) {
+        if (roomRegistry.isLive(room)) {
+            roomRegistry.markDirty(room);
+            deadlines.track(room);
+            return room;
+        }
         return transactionTemplate.execute(status -> gameRoomRepository.save(room));
     }
 
-    /**
-     * Retrieves all rooms.
-     */
-    public List<GameRoom> getAllRooms() {
-        return gameRoomRepository.findAll();
-    }
-
     /**
      * Starts the game in a room by setting state to COUNTDOWN.
      * @return true if room was found and started, false otherwise
      */
     public boolean startRoom(String roomCode) {
+        GameRoom live = roomRegistry.get(roomCode);
+        if (live != null) {
+            synchronized (live) {
+                markStarted(live);
+                journal.started(live);
+            }
+            roomRegistry.markDirty(live);
+            if (!leases.acquire(roomCode)) {
+                log.warn("Started room {} is leased by another node; its timer runs there", roomCode);
+            }
+            deadlines.track(live);
+            return true;
+        }
         Boolean result = transactionTemplate.execute(status -> {
             GameRoom room = gameRoomRepository.findByRoomCode(roomCode);
             if (room != null) {
-                room.setStarted(true);
-                room.setCurrentState(GameState.COUNTDOWN);
-                room.setStateStartTime(LocalDateTime.now());
+                markStarted(room);
                 gameRoomRepository.save(room);
                 return true;
             }
@@ -216,12 +325,38 @@ public class RoomService implements IRoomService {
             }
             return false;
         });
-        return result != null && result;
+        if (result != null && result) {
+            teardown.forget(roomCode);
+            return true;
+        }
+        // No row to delete; drop any stale local copy
+        deadlines.untrack(roomCode);
+        roomRegistry.evict(roomCode);
+        journal.compact(roomCode);
+        return false;
+    }
+
+    private GameRoom adopt(GameRoom room) {
+        GameRoom live = roomRegistry.adopt(room);
+        deadlines.track(live);
+        return live;
+    }
+
+    private static Player newHost(String hostName, Integer avatarId) {
+        Player host = new Player();
+        host.setId(UUID.randomUUID().toString());
+        host.setName(hostName);
+        host.setScore(0);
+        host.setCorrectCount(0);
+        host.setWrongCount(0);
+        host.setTotalAnswerTime(0);
+        host.setAvatarId(avatarId != null && GameConstants.isValidAvatarId(avatarId)
+                ? avatarId : 0);
+        return host;
     }
 
-    private String generateRoomCode() {
-        return UUID.randomUUID().toString()
-                .substring(0, GameConstants.ROOM_CODE_LENGTH)
-                .toUpperCase();
+    private void markStarted(GameRoom room) {
+        room.setStarted(true);
+        GameClock.startState(room, GameState.COUNTDOWN);
     }
 }
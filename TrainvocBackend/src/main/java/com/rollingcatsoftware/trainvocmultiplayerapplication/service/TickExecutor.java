@@ -0,0 +1,131 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs game timer ticks concurrently on virtual threads, at most
+ * {@code game.timer.max-concurrent-ticks} at a time, and measures them.
+ * <p>
+ * A tick that blocks on a slow broadcast or database call holds only its own virtual thread,
+ * so other rooms' countdowns stay on time. The concurrency cap keeps a burst of due rooms
+ * from flooding the database pool and send buffers; ticks beyond it wait for a permit.
+ * <p>
+ * Records {@code game.timer.tick.lag} (deadline due to tick start, including any wait for
+ * a permit or mailbox) and {@code game.timer.tick.duration} (one room's tick), both as
+ * percentile histograms tagged by the room's {@link GameMetrics#sizeBucket(int) room_size}.
+ * A tick whose lag or duration exceeds {@code game.timer.overrun-ms} is logged and counted in
+ * {@code game.timer.tick.overruns}, tagged by {@code kind}.
+ */
+@Component
+public class TickExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(TickExecutor.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final long overrunNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> lag = new ConcurrentHashMap<>();
+    private final Map<String, Timer> duration = new ConcurrentHashMap<>();
+    private final Counter lagOverruns;
+    private final Counter durationOverruns;
+
+    public TickExecutor(MeterRegistry meterRegistry,
+                        @Value("${game.timer.max-concurrent-ticks:64}") int maxConcurrentTicks,
+                        @Value("${game.timer.overrun-ms:250}") long overrunMillis) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrentTicks));
+        this.overrunNanos = TimeUnit.MILLISECONDS.toNanos(overrunMillis);
+        this.meterRegistry = meterRegistry;
+        this.lagOverruns = overrunCounter(meterRegistry, "lag");
+        this.durationOverruns = overrunCounter(meterRegistry, "duration");
+    }
+
+    /**
+     * Runs a room's tick on its own virtual thread.
+     *
+     * @param roomSize   the room's player count, for the {@code room_size} tag
+     * @param dueAtNanos the {@code System.nanoTime()} at which the tick was due
+     */
+    public void execute(String roomCode, int roomSize, long dueAtNanos, Runnable tick) {
+        executor.execute(wrap(roomCode, roomSize, dueAtNanos, tick));
+    }
+
+    /**
+     * Wraps a room's tick with the concurrency limit and measurements, for callers that run
+     * it on their own executor (e.g. the room's mailbox).
+     *
+     * @param roomSize   the room's player count, for the {@code room_size} tag
+     * @param dueAtNanos the {@code System.nanoTime()} at which the tick was due
+     */
+    public Runnable wrap(String roomCode, int roomSize, long dueAtNanos, Runnable tick) {
+        String bucket = GameMetrics.sizeBucket(roomSize);
+        return () -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                record(roomCode, "lag", timer(lag, "game.timer.tick.lag",
+                        "Delay between a room's timer deadline and the start of its tick", bucket),
+                        lagOverruns, start - dueAtNanos);
+                tick.run();
+            } finally {
+                permits.release();
+                record(roomCode, "duration", timer(duration, "game.timer.tick.duration",
+                        "Time to process one room's timer tick", bucket),
+                        durationOverruns, System.nanoTime() - start);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void record(String roomCode, String kind, Timer timer, Counter overruns, long nanos) {
+        long value = Math.max(0, nanos);
+        timer.record(value, TimeUnit.NANOSECONDS);
+        if (value > overrunNanos) {
+            overruns.increment();
+            log.warn("Timer tick for room {} overran: {} {} ms", roomCode, kind,
+                    TimeUnit.NANOSECONDS.toMillis(value));
+        }
+    }
+
+    private Timer timer(Map<String, Timer> timers, String name, String description, String bucket) {
+        return timers.computeIfAbsent(bucket, b -> Timer.builder(name)
+                .description(description)
+                .tag(GameMetrics.ROOM_SIZE_TAG, b)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static Counter overrunCounter(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("game.timer.tick.overruns")
+                .description("Timer ticks that started late or ran longer than game.timer.overrun-ms")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+}
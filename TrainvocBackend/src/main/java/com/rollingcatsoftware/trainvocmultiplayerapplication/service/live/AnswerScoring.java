@@ -0,0 +1,38 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores answers from the latency measured on the server by {@link GameClock}, the same way
+ * for WebSocket and REST submissions. Client-sent answer times are never scored.
+ */
+public final class AnswerScoring {
+
+    private AnswerScoring() {
+    }
+
+    /**
+     * Score change for an answer given {@code answerTimeMs} after the question was dispatched:
+     * {@link GameConstants#MIN_SCORE} when wrong, otherwise the base score plus a time bonus
+     * that shrinks linearly to zero over the question's duration.
+     */
+    public static int score(boolean isCorrect, long answerTimeMs, int questionDurationSeconds) {
+        if (!isCorrect) {
+            return GameConstants.MIN_SCORE;
+        }
+
+        // Base score for correct answer
+        int score = GameConstants.BASE_CORRECT_SCORE;
+
+        // Time bonus - faster answers get more points
+        if (questionDurationSeconds > 0 && answerTimeMs >= 0) {
+            double timeRatio = 1.0 - ((double) answerTimeMs / TimeUnit.SECONDS.toMillis(questionDurationSeconds));
+            int timeBonus = (int) (timeRatio * GameConstants.TIME_BONUS_MAX);
+            score += Math.max(0, timeBonus);
+        }
+
+        return score;
+    }
+}
@@ -0,0 +1,77 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Live room codes ordered by last use, oldest first.
+ * <p>
+ * Each room has exactly one entry: a touch replaces it in O(log n), and finding the idle
+ * rooms walks the head of the ordering only as far as the first room still in use, so the
+ * cost of a sweep is proportional to what it reaps rather than to the number of live rooms.
+ * Rooms never used sort first.
+ */
+final class ExpiryQueue {
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing(Entry::lastUsed, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Entry::roomCode);
+
+    private final NavigableSet<Entry> order = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    /**
+     * Records a room's last use, replacing its earlier entry.
+     */
+    void touch(String roomCode, LocalDateTime lastUsed) {
+        current.compute(roomCode, (code, previous) -> {
+            if (previous != null) {
+                if (previous.lastUsed() != null && previous.lastUsed().equals(lastUsed)) {
+                    return previous;
+                }
+                order.remove(previous);
+            }
+            Entry entry = new Entry(code, lastUsed);
+            order.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Stops tracking a room.
+     */
+    void remove(String roomCode) {
+        current.computeIfPresent(roomCode, (code, previous) -> {
+            order.remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} rooms last used before {@code threshold}, oldest first.
+     * The rooms stay tracked until removed.
+     */
+    List<String> idleSince(LocalDateTime threshold, int limit) {
+        List<String> idle = new ArrayList<>();
+        for (Entry entry : order) {
+            if (idle.size() >= limit || (entry.lastUsed() != null && !entry.lastUsed().isBefore(threshold))) {
+                break;
+            }
+            idle.add(entry.roomCode());
+        }
+        return idle;
+    }
+
+    int size() {
+        return current.size();
+    }
+
+    private record Entry(String roomCode, LocalDateTime lastUsed) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monotonic per-room state clock.
+ * <p>
+ * {@code stateStartTime} is wall-clock time, persisted for restarts and display; it jumps
+ * with NTP corrections and was only read at whole-second precision. Every state change now
+ * also records {@code System.nanoTime()} on the live room, and all elapsed/remaining time is
+ * measured against that, in milliseconds. Rooms loaded from the database have no monotonic
+ * start yet; it is derived once from the wall-clock start.
+ */
+public final class GameClock {
+
+    /** How long ANSWER_REVEAL is shown before the timer advances to the next question. */
+    public static final int ANSWER_REVEAL_AUTO_ADVANCE_SECONDS = 5;
+
+    private GameClock() {
+    }
+
+    /**
+     * Moves a room into a new state, starting the state's clock now.
+     */
+    public static void startState(GameRoom room, GameState state) {
+        room.setCurrentState(state);
+        room.setStateStartTime(LocalDateTime.now());
+        room.setStateStartNanos(System.nanoTime());
+    }
+
+    /**
+     * Restarts the room's current state clock so that {@code remainingMillis} are left,
+     * e.g. for a room restored from a snapshot.
+     */
+    public static void resumeState(GameRoom room, long remainingMillis) {
+        long duration = stateDurationMillis(room, room.getCurrentState());
+        long elapsedMillis = duration < 0 ? 0 : Math.max(0, duration - remainingMillis);
+        room.setStateStartTime(LocalDateTime.now().minus(Duration.ofMillis(elapsedMillis)));
+        room.setStateStartNanos(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(elapsedMillis));
+    }
+
+    /**
+     * The {@code System.nanoTime()} at which the room's current state started.
+     */
+    public static long stateStartNanos(GameRoom room) {
+        Long nanos = room.getStateStartNanos();
+        if (nanos == null) {
+            LocalDateTime start = room.getStateStartTime();
+            long elapsed = start != null ? Math.max(0, Duration.between(start, LocalDateTime.now()).toNanos()) : 0;
+            nanos = System.nanoTime() - elapsed;
+            room.setStateStartNanos(nanos);
+        }
+        return nanos;
+    }
+
+    /**
+     * Milliseconds since the room's current state started.
+     */
+    public static long elapsedMillis(GameRoom room) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stateStartNanos(room));
+    }
+
+    /**
+     * How long the given state lasts in this room before the timer moves it on,
+     * or -1 for states without a timed end (lobby, final).
+     */
+    public static long stateDurationMillis(GameRoom room, GameState state) {
+        return switch (state) {
+            case COUNTDOWN -> TimeUnit.SECONDS.toMillis(GameConstants.COUNTDOWN_SECONDS);
+            case QUESTION -> TimeUnit.SECONDS.toMillis(room.getQuestionDuration());
+            case ANSWER_REVEAL -> TimeUnit.SECONDS.toMillis(ANSWER_REVEAL_AUTO_ADVANCE_SECONDS);
+            case RANKING -> TimeUnit.SECONDS.toMillis(GameConstants.RANKING_SECONDS);
+            default -> -1;
+        };
+    }
+
+    /**
+     * Milliseconds left in the room's current state; 0 if it has no timed end or is overdue.
+     */
+    public static long remainingMillis(GameRoom room) {
+        long duration = stateDurationMillis(room, room.getCurrentState());
+        return duration < 0 ? 0 : Math.max(0, duration - elapsedMillis(room));
+    }
+
+    /**
+     * Whole seconds for clients that display {@code remainingTime}, rounded up so a
+     * countdown shows 1 until it actually ends.
+     */
+    public static int toSeconds(long millis) {
+        return (int) ((millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,197 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of the room list shown in the lobby, ordered by room code.
+ * <p>
+ * Rooms live on this node are listed from the {@link RoomRegistry}; the snapshot is rebuilt
+ * on the first read after any room or roster change there, without touching the database.
+ * Rooms held by other nodes come from one projection query (codes, settings, player count;
+ * no entities) run every {@code game.lobby.refresh-ms}, and a room deleted here leaves the
+ * list at once.
+ * <p>
+ * Each snapshot carries an ETag hashed from its content, so polling clients get a 304 until
+ * the list actually changes, and every node serving the same list issues the same ETag.
+ */
+@Component
+public class LobbyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LobbyIndex.class);
+
+    static final String SELECT_LOBBY_SQL =
+            "SELECT r.room_code, r.started, r.host_id, r.question_duration, r.level, r.total_question_count, " +
+                    "CASE WHEN r.hashed_password IS NULL OR r.hashed_password = '' THEN FALSE ELSE TRUE END " +
+                    "AS has_password, r.current_state, " +
+                    "(SELECT COUNT(*) FROM player p WHERE p.room_code = r.room_code) AS player_count " +
+                    "FROM game_room r";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomRegistry roomRegistry;
+
+    /** Rooms from the last projection query, by code. */
+    private volatile Map<String, Entry> stored = new ConcurrentHashMap<>();
+    private final AtomicLong storedVersion = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(List.of(), etag(List.of()), -1, -1);
+
+    public LobbyIndex(@Qualifier("primaryDataSource") DataSource dataSource, RoomRegistry roomRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.roomRegistry = roomRegistry;
+    }
+
+    /**
+     * Returns the current lobby, rebuilding it first if rooms changed since the last build.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current.isCurrent(roomRegistry.changes(), storedVersion.get())) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long changes = roomRegistry.changes();
+            long version = storedVersion.get();
+            if (current.isCurrent(changes, version)) {
+                return current;
+            }
+            Map<String, Entry> byCode = new TreeMap<>(stored);
+            for (GameRoom room : roomRegistry.liveRooms()) {
+                // The live copy is newer than the database
+                byCode.put(room.getRoomCode(), Entry.of(room));
+            }
+            List<Entry> rooms = List.copyOf(byCode.values());
+            String etag = etag(rooms);
+            snapshot = new Snapshot(rooms, etag, changes, version);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Reloads the rooms of every node with one projection query.
+     */
+    @Scheduled(fixedDelayString = "${game.lobby.refresh-ms:5000}")
+    public void refresh() {
+        List<Entry> rows;
+        try {
+            rows = jdbcTemplate.query(SELECT_LOBBY_SQL, (rs, row) -> entry(rs));
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the lobby, keeping the previous list: {}", e.getMessage());
+            return;
+        }
+        Map<String, Entry> byCode = new ConcurrentHashMap<>();
+        for (Entry entry : rows) {
+            byCode.put(entry.roomCode(), entry);
+        }
+        stored = byCode;
+        storedVersion.incrementAndGet();
+    }
+
+    /**
+     * Drops a deleted room from the list without waiting for the next refresh.
+     */
+    public void removed(String roomCode) {
+        if (stored.remove(roomCode) != null) {
+            storedVersion.incrementAndGet();
+        }
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        int state = rs.getInt("current_state");
+        GameState currentState = rs.wasNull() || state < 0 || state >= GameState.values().length
+                ? null : GameState.values()[state];
+        return new Entry(
+                rs.getString("room_code"),
+                rs.getInt("player_count"),
+                rs.getBoolean("started"),
+                rs.getString("host_id"),
+                rs.getInt("question_duration"),
+                rs.getString("level"),
+                rs.getInt("total_question_count"),
+                rs.getBoolean("has_password"),
+                currentState);
+    }
+
+    /**
+     * A strong ETag over the listed fields, using only hashes that are the same in every JVM.
+     */
+    static String etag(List<Entry> rooms) {
+        long hash = 1125899906842597L;
+        for (Entry room : rooms) {
+            hash = 31 * hash + room.stableHash();
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * One room in the lobby list.
+     */
+    public record Entry(String roomCode, int playerCount, boolean started, String hostId,
+                        int questionDuration, String level, int totalQuestionCount,
+                        boolean hasPassword, GameState currentState) {
+
+        static Entry of(GameRoom room) {
+            return new Entry(
+                    room.getRoomCode(),
+                    room.getPlayers() != null ? room.getPlayers().size() : 0,
+                    Boolean.TRUE.equals(room.getStarted()),
+                    room.getHostId(),
+                    room.getQuestionDuration(),
+                    room.getLevel(),
+                    room.getTotalQuestionCount(),
+                    room.getHashedPassword() != null && !room.getHashedPassword().isEmpty(),
+                    room.getCurrentState());
+        }
+
+        long stableHash() {
+            // Enum hash codes differ between JVMs; ordinals do not
+            return Objects.hash(roomCode, playerCount, started, hostId, questionDuration, level,
+                    totalQuestionCount, hasPassword, currentState != null ? currentState.ordinal() : -1);
+        }
+    }
+
+    /**
+     * The lobby as of one build: its rooms and their ETag.
+     */
+    public record Snapshot(List<Entry> rooms, String etag, long changes, long storedVersion) {
+
+        boolean isCurrent(long registryChanges, long version) {
+            return changes == registryChanges && storedVersion == version;
+        }
+
+        /**
+         * Returns the rooms matching the filters; a null filter matches every room.
+         */
+        public List<Entry> filter(String level, Boolean hasPassword) {
+            if (level == null && hasPassword == null) {
+                return rooms;
+            }
+            List<Entry> matching = new ArrayList<>();
+            for (Entry room : rooms) {
+                if ((level == null || level.equalsIgnoreCase(room.level()))
+                        && (hasPassword == null || hasPassword == room.hasPassword())) {
+                    matching.add(room);
+                }
+            }
+            return matching;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The last few messages broadcast to one live room, numbered by a per-room sequence.
+ * <p>
+ * A fixed-size ring: appending past capacity overwrites the oldest message. A reconnecting
+ * client that reports the last sequence number it saw gets everything after it, as long as
+ * that is still in the ring. The ring's own lock is held only to read or append; callers that
+ * send hold {@link #sendOrder()} around append-and-send instead, so sequence numbers reach
+ * clients in order without the socket writes running under a monitor.
+ */
+public final class RecentMessages {
+
+    private final JSONObject[] ring;
+    private final ReentrantLock sendOrder = new ReentrantLock();
+    private long seq;
+
+    public RecentMessages(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new JSONObject[capacity];
+    }
+
+    /**
+     * The lock that orders the room's sends by sequence number. A {@link ReentrantLock}
+     * rather than a monitor, so a virtual thread waiting on it or sending under it does not
+     * pin its carrier.
+     */
+    public ReentrantLock sendOrder() {
+        return sendOrder;
+    }
+
+    /**
+     * The sequence number of the latest message, or 0 if nothing was appended yet.
+     */
+    public synchronized long seq() {
+        return seq;
+    }
+
+    /**
+     * Stores a message under the next sequence number.
+     *
+     * @return the message's sequence number
+     */
+    public synchronized long append(JSONObject message) {
+        seq++;
+        ring[(int) ((seq - 1) % ring.length)] = message;
+        return seq;
+    }
+
+    /**
+     * The messages after {@code lastSeq}, oldest first.
+     *
+     * @return the missed messages, or null if some of them have already been overwritten or
+     *         {@code lastSeq} is from another sequence (e.g. before a restart)
+     */
+    public synchronized List<JSONObject> after(long lastSeq) {
+        if (lastSeq < 0 || lastSeq > seq || lastSeq < seq - ring.length) {
+            return null;
+        }
+        List<JSONObject> missed = new ArrayList<>((int) (seq - lastSeq));
+        for (long s = lastSeq + 1; s <= seq; s++) {
+            missed.add(ring[(int) ((s - 1) % ring.length)]);
+        }
+        return missed;
+    }
+}
@@ -0,0 +1,258 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Allocates room codes from a pool of every code over {@link GameConstants#ROOM_CODE_ALPHABET},
+ * tracking the ones in use in a bitmap indexed by the code's value in that base
+ * (31<sup>5</sup> codes, about 3.6 MB).
+ * <p>
+ * A code is drawn at random and claimed with a compare-and-set on its bit, so allocating and
+ * releasing are O(1) while the pool is not nearly full, and never touch the database. The
+ * bitmap is seeded from the rooms in the database as a lifecycle phase before the web server
+ * starts. Codes taken by another node since then are not known here; the unique key on
+ * {@code game_room} still rejects them and {@link RoomInserter} retries under a new code,
+ * which stays marked as used. Likewise codes freed by another node stay reserved here until
+ * the next restart, which the size of the pool makes harmless.
+ */
+@Component
+public class RoomCodes implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomCodes.class);
+
+    static final String SELECT_CODES_SQL = "SELECT room_code FROM game_room";
+
+    /** Random draws before falling back to scanning for a free code. */
+    private static final int MAX_PROBES = 32;
+
+    /** Starts before the web server, with the game timer. */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final char[] ALPHABET = GameConstants.ROOM_CODE_ALPHABET.toCharArray();
+    private static final int[] DIGITS = new int[128];
+
+    static {
+        Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = i;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int length;
+    private final int capacity;
+    private final AtomicLongArray used;
+    private final AtomicInteger inUse = new AtomicInteger();
+    private volatile boolean running;
+
+    @Autowired
+    public RoomCodes(@Qualifier("primaryDataSource") DataSource dataSource,
+                     @Value("${game.rooms.code-pool:true}") boolean enabled) {
+        this(new JdbcTemplate(dataSource), GameConstants.ROOM_CODE_LENGTH, enabled);
+    }
+
+    RoomCodes(JdbcTemplate jdbcTemplate, int length, boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.length = length;
+        this.capacity = Math.toIntExact(pow(ALPHABET.length, length));
+        if (enabled) {
+            int words = (capacity + 63) >>> 6;
+            this.used = new AtomicLongArray(words);
+            int tail = capacity & 63;
+            if (tail != 0) {
+                // Bits past the last code are permanently taken, so the scan never returns them
+                used.set(words - 1, -1L << tail);
+            }
+        } else {
+            this.used = null;
+        }
+    }
+
+    /**
+     * A pool that tracks nothing: codes are drawn at random from the same alphabet and only
+     * the database's unique key catches a collision.
+     */
+    public static RoomCodes disabled() {
+        return new RoomCodes(null, GameConstants.ROOM_CODE_LENGTH, false);
+    }
+
+    /**
+     * Returns a code not in use here and marks it as used.
+     *
+     * @throws IllegalStateException if every code is in use
+     */
+    public String allocate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (!enabled) {
+            return encode(random.nextInt(capacity));
+        }
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = random.nextInt(capacity);
+            if (claim(index)) {
+                return encode(index);
+            }
+        }
+        // Nearly full: take the first free bit from a random word onward
+        int words = used.length();
+        int start = random.nextInt(words);
+        for (int i = 0; i < words; i++) {
+            int word = (start + i) % words;
+            long bits;
+            while ((bits = used.get(word)) != -1L) {
+                int bit = Long.numberOfTrailingZeros(~bits);
+                if (used.compareAndSet(word, bits, bits | (1L << bit))) {
+                    inUse.incrementAndGet();
+                    return encode((word << 6) + bit);
+                }
+            }
+        }
+        throw new IllegalStateException("All " + capacity + " room codes are in use");
+    }
+
+    /**
+     * Marks a code as used. Codes outside the alphabet (such as hex codes from before the
+     * pool) are ignored; no allocated code can equal them.
+     *
+     * @return true if the code was free
+     */
+    public boolean reserve(String code) {
+        int index = decode(code);
+        return index >= 0 && claim(index);
+    }
+
+    /**
+     * Marks the codes of existing rooms as used.
+     */
+    public void reserveAll(Collection<String> codes) {
+        codes.forEach(this::reserve);
+    }
+
+    /**
+     * Returns a code to the pool once its room is deleted.
+     */
+    public void release(String code) {
+        int index = decode(code);
+        if (index < 0) {
+            return;
+        }
+        long mask = 1L << (index & 63);
+        int word = index >>> 6;
+        long bits;
+        do {
+            bits = used.get(word);
+            if ((bits & mask) == 0) {
+                return;
+            }
+        } while (!used.compareAndSet(word, bits, bits & ~mask));
+        inUse.decrementAndGet();
+    }
+
+    public boolean isInUse(String code) {
+        int index = decode(code);
+        return index >= 0 && (used.get(index >>> 6) & (1L << (index & 63))) != 0;
+    }
+
+    /** Number of codes marked as used. */
+    public int inUse() {
+        return inUse.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void start() {
+        if (enabled && jdbcTemplate != null) {
+            try {
+                reserveAll(jdbcTemplate.queryForList(SELECT_CODES_SQL, String.class));
+                log.info("Room code pool seeded with {} of {} codes in use", inUse(), capacity);
+            } catch (DataAccessException e) {
+                // Not fatal: collisions are still caught by the unique key and retried
+                log.warn("Could not seed the room code pool from the database", e);
+            }
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private boolean claim(int index) {
+        long mask = 1L << (index & 63);
+        int word = index >>> 6;
+        long bits;
+        do {
+            bits = used.get(word);
+            if ((bits & mask) != 0) {
+                return false;
+            }
+        } while (!used.compareAndSet(word, bits, bits | mask));
+        inUse.incrementAndGet();
+        return true;
+    }
+
+    private String encode(int index) {
+        char[] code = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = ALPHABET[index % ALPHABET.length];
+            index /= ALPHABET.length;
+        }
+        return new String(code);
+    }
+
+    /** The code's index in the pool, or -1 if it is not a code of this pool. */
+    private int decode(String code) {
+        if (!enabled || code == null || code.length() != length) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            int digit = c < DIGITS.length ? DIGITS[c] : -1;
+            if (digit < 0) {
+                return -1;
+            }
+            index = index * ALPHABET.length + digit;
+        }
+        return index;
+    }
+
+    private static long pow(int base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+}
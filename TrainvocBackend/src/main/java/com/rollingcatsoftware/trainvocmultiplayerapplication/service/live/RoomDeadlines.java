@@ -0,0 +1,151 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Next timer deadline of every live, running room, held in a {@link DelayQueue}.
+ * <p>
+ * A room's deadline is derived from its state and monotonic state start (see {@link GameClock}): the end of the
+ * COUNTDOWN, QUESTION, ANSWER_REVEAL or RANKING phase, or the next whole second of a
+ * countdown (countdown updates are broadcast every second). {@link #track(GameRoom)} is
+ * called whenever a live room is saved, started or adopted; it is a no-op when the deadline
+ * did not change. Superseded deadlines stay queued but are skipped by {@link #take()}, so
+ * rescheduling never searches the queue. The timer blocks in {@link #take()} until the next
+ * deadline is due, so an idle node does no work however many rooms it holds.
+ */
+@Component
+public class RoomDeadlines {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private final Map<String, Deadline> current = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the room's next deadline, replacing any earlier one.
+     * Rooms that are not running (lobby, final, not started) are dropped.
+     */
+    public void track(GameRoom room) {
+        long due = nextDueNanos(room, System.nanoTime());
+        if (due == NONE) {
+            current.remove(room.getRoomCode());
+            return;
+        }
+        current.compute(room.getRoomCode(), (code, previous) ->
+                previous != null && previous.dueAtNanos == due ? previous : enqueue(code, due));
+    }
+
+    /**
+     * Registers a deadline {@code delayMillis} from now, for a room whose due work could not run.
+     */
+    public void retryLater(GameRoom room, long delayMillis) {
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        current.compute(room.getRoomCode(), (code, previous) -> enqueue(code, due));
+    }
+
+    /**
+     * Stops tracking a room.
+     */
+    public void untrack(String roomCode) {
+        current.remove(roomCode);
+    }
+
+    /**
+     * Blocks until a room's current deadline is due and returns its code. The room is no
+     * longer tracked afterwards; the caller re-tracks it once its due work has run.
+     */
+    public String take() throws InterruptedException {
+        return takeDue().roomCode();
+    }
+
+    /**
+     * Like {@link #take()}, but also returns when the deadline was due, so callers can
+     * measure how late its work starts.
+     */
+    public Due takeDue() throws InterruptedException {
+        while (true) {
+            Deadline deadline = queue.take();
+            if (current.remove(deadline.roomCode, deadline)) {
+                return new Due(deadline.roomCode, deadline.dueAtNanos);
+            }
+            // Superseded by a later track() call
+        }
+    }
+
+    /**
+     * Returns the number of rooms with a pending deadline.
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Computes when the timer next has work for a room.
+     *
+     * @return a {@code System.nanoTime()} value, or {@link #NONE} if the room is not running
+     */
+    static long nextDueNanos(GameRoom room, long nowNanos) {
+        GameState state = room.getCurrentState();
+        if (!Boolean.TRUE.equals(room.getStarted()) || state == null
+                || (room.getStateStartTime() == null && room.getStateStartNanos() == null)) {
+            return NONE;
+        }
+        long duration = GameClock.stateDurationMillis(room, state);
+        if (duration < 0) {
+            return NONE;
+        }
+        long start = GameClock.stateStartNanos(room);
+        long end = start + TimeUnit.MILLISECONDS.toNanos(duration);
+        if (state != GameState.COUNTDOWN) {
+            return end;
+        }
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long elapsed = Math.max(0, nowNanos - start);
+        return Math.min(end, start + (elapsed / second + 1) * second);
+    }
+
+    private Deadline enqueue(String roomCode, long dueAtNanos) {
+        Deadline deadline = new Deadline(roomCode, dueAtNanos);
+        queue.add(deadline);
+        return deadline;
+    }
+
+    /**
+     * A deadline that came due: the room and its {@code System.nanoTime()} due time.
+     */
+    public record Due(String roomCode, long dueAtNanos) {
+    }
+
+    /**
+     * One queued deadline. Compared by identity, so a re-tracked room's old entry is stale.
+     */
+    private static final class Deadline implements Delayed {
+
+        private final String roomCode;
+        private final long dueAtNanos;
+
+        Deadline(String roomCode, long dueAtNanos) {
+            this.roomCode = roomCode;
+            this.dueAtNanos = dueAtNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            // Subtract rather than compare: nanoTime values may wrap
+            return Long.signum(dueAtNanos - ((Deadline) other).dueAtNanos);
+        }
+    }
+}
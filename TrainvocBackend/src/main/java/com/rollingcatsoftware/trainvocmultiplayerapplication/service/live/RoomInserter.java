@@ -0,0 +1,134 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.Supplier;
+
+/**
+ * Inserts a new room and its host in one short JDBC transaction.
+ * <p>
+ * The caller assembles the {@link GameRoom} aggregate in memory; this writes it with two
+ * prepared INSERTs and a commit, and nothing is read back, so the caller can adopt the same
+ * instance as live state. If the room code is already taken, the unique violation rolls the
+ * transaction back and the insert is retried under a fresh code, up to
+ * {@code game.rooms.create-attempts} times.
+ */
+@Component
+public class RoomInserter {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomInserter.class);
+
+    static final String INSERT_ROOM_SQL =
+            "INSERT INTO game_room (room_code, version, current_question_index, started, host_id, " +
+                    "question_duration, option_count, level, total_question_count, hashed_password, " +
+                    "current_state, last_used) VALUES (?, 0, 0, FALSE, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_PLAYER_SQL =
+            "INSERT INTO player (id, version, room_code, name, score, correct_count, wrong_count, " +
+                    "total_answer_time, avatar_id) VALUES (?, 0, ?, ?, 0, 0, 0, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxAttempts;
+
+    private RoomInserter() {
+        this.jdbcTemplate = null;
+        this.transactionTemplate = null;
+        this.enabled = false;
+        this.maxAttempts = 0;
+    }
+
+    @Autowired
+    public RoomInserter(@Qualifier("primaryDataSource") DataSource dataSource,
+                        @Qualifier("primaryTransactionManager") PlatformTransactionManager transactionManager,
+                        @Value("${game.rooms.batched-create:true}") boolean enabled,
+                        @Value("${game.rooms.create-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * An inserter that is off; rooms are created through JPA instead.
+     */
+    public static RoomInserter disabled() {
+        return new RoomInserter();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inserts the room and, if not null, its host under a code from {@code codes}.
+     * On success the room's code is set and both rows are at version 0.
+     *
+     * @throws DuplicateKeyException if every attempted code was taken
+     */
+    public void insert(GameRoom room, Player host, Supplier<String> codes) {
+        for (int attempt = 1; ; attempt++) {
+            String roomCode = codes.get();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update(INSERT_ROOM_SQL, ps -> bindRoom(ps, room, roomCode));
+                    if (host != null) {
+                        jdbcTemplate.update(INSERT_PLAYER_SQL, ps -> bindPlayer(ps, host, roomCode));
+                    }
+                });
+            } catch (DuplicateKeyException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Room code {} is taken, retrying ({}/{})", roomCode, attempt, maxAttempts);
+                continue;
+            }
+            room.setRoomCode(roomCode);
+            room.setVersion(0L);
+            if (host != null) {
+                host.setVersion(0L);
+            }
+            return;
+        }
+    }
+
+    private static void bindRoom(PreparedStatement ps, GameRoom room, String roomCode) throws SQLException {
+        ps.setString(1, roomCode);
+        ps.setString(2, room.getHostId());
+        ps.setInt(3, room.getQuestionDuration());
+        ps.setInt(4, room.getOptionCount());
+        ps.setString(5, room.getLevel());
+        ps.setInt(6, room.getTotalQuestionCount());
+        ps.setString(7, room.getHashedPassword());
+        ps.setInt(8, room.getCurrentState().ordinal());
+        ps.setTimestamp(9, Timestamp.valueOf(room.getLastUsed()));
+    }
+
+    private static void bindPlayer(PreparedStatement ps, Player player, String roomCode) throws SQLException {
+        ps.setString(1, player.getId());
+        ps.setString(2, roomCode);
+        ps.setString(3, player.getName());
+        if (player.getAvatarId() != null) {
+            ps.setInt(4, player.getAvatarId());
+        } else {
+            ps.setNull(4, Types.INTEGER);
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only journal of live room events, so games in progress survive a JVM restart.
+ * <p>
+ * Write-behind leaves the database up to one flush interval behind the live rooms, and a
+ * crash loses that window: answers, scores and transitions. Every such change is therefore
+ * also appended here, synchronously, before the change is visible to players. Each room has
+ * one segment file, {@code <roomCode>.journal} under {@code game.journal.dir}, memory-mapped
+ * so an append is a memory copy; the segment doubles in size when full. Records are written
+ * body first and length last, so a record torn by a crash reads as the end of the segment.
+ * Appends reach the OS page cache immediately and survive a JVM crash; surviving a machine
+ * crash would need an fsync per event, which the game loop cannot afford.
+ * <p>
+ * Records are {@code created}, {@code joined}, {@code left}, {@code started},
+ * {@code answered} and {@code transitioned}, each carrying absolute values (a player's new score, not the points
+ * gained), so replaying a segment over a database row that already has some of its events
+ * gives the same result. {@link #replay()} folds every segment into a {@link Recovered} room
+ * on startup. A room's segment is compacted away once its final state has been written to
+ * the database, or when the room is deleted.
+ * <p>
+ * A graceful shutdown replaces each live room's segment with one {@code snapshot} record of
+ * the whole room, its players and the time left in its current state (see
+ * {@link #snapshot(GameRoom)}). A room recovered from a snapshot is rebuilt without reading
+ * the database at all.
+ */
+@Component
+public class RoomJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomJournal.class);
+
+    static final String SUFFIX = ".journal";
+
+    static final byte CREATED = 1;
+    static final byte JOINED = 2;
+    static final byte STARTED = 3;
+    static final byte ANSWERED = 4;
+    static final byte TRANSITIONED = 5;
+    static final byte SNAPSHOT = 6;
+    static final byte LEFT = 7;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    public RoomJournal(@Value("${game.journal.enabled:true}") boolean enabled,
+                       @Value("${game.journal.dir:data/journal}") String dir,
+                       @Value("${game.journal.segment-size:65536}") int segmentBytes) {
+        this.dir = Paths.get(dir);
+        this.segmentBytes = Math.max(1024, segmentBytes);
+        this.enabled = enabled && createDirectory(this.dir);
+        if (this.enabled) {
+            log.info("Room journal at {}", this.dir.toAbsolutePath());
+        }
+    }
+
+    /**
+     * A journal that records nothing. For use outside the Spring context.
+     */
+    public static RoomJournal disabled() {
+        return new RoomJournal(false, ".", 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a fresh segment for a new room, discarding any left over under the same code.
+     */
+    public void created(GameRoom room) {
+        if (!enabled) {
+            return;
+        }
+        compact(room.getRoomCode());
+        JSONObject event = new JSONObject();
+        event.put("hostId", room.getHostId());
+        event.put("questionDuration", room.getQuestionDuration());
+        event.put("totalQuestionCount", room.getTotalQuestionCount());
+        append(room.getRoomCode(), CREATED, event);
+    }
+
+    public void joined(GameRoom room, Player player) {
+        if (!enabled) {
+            return;
+        }
+        JSONObject event = new JSONObject();
+        event.put("playerId", player.getId());
+        event.put("name", player.getName());
+        event.put("avatarId", player.getAvatarId());
+        append(room.getRoomCode(), JOINED, event);
+    }
+
+    public void started(GameRoom room) {
+        if (enabled) {
+            append(room.getRoomCode(), STARTED, stateOf(room));
+        }
+    }
+
+    /**
+     * Records a player's stats right after an answer was scored.
+     */
+    public void answered(GameRoom room, Player player) {
+        if (!enabled) {
+            return;
+        }
+        append(room.getRoomCode(), ANSWERED, statsOf(player));
+    }
+
+    public void transitioned(GameRoom room) {
+        if (enabled) {
+            append(room.getRoomCode(), TRANSITIONED, stateOf(room));
+        }
+    }
+
+    public void left(String roomCode, String playerId) {
+        if (!enabled) {
+            return;
+        }
+        JSONObject event = new JSONObject();
+        event.put("playerId", playerId);
+        append(roomCode, LEFT, event);
+    }
+
+    /**
+     * Replaces the room's segment with a single record of the whole room: settings, players
+     * and the milliseconds left in its current state. The new segment is written aside and
+     * moved over the old one, so a crash mid-snapshot leaves one or the other.
+     * Call under the room's monitor.
+     *
+     * @return true if the snapshot was written
+     */
+    public boolean snapshot(GameRoom room) {
+        if (!enabled) {
+            return false;
+        }
+        String roomCode = room.getRoomCode();
+        JSONObject event = stateOf(room);
+        event.put("remainingMillis", GameClock.stateDurationMillis(room, room.getCurrentState()) < 0
+                ? -1 : GameClock.remainingMillis(room));
+        event.put("version", room.getVersion() != null ? room.getVersion() : 0);
+        event.put("hostId", room.getHostId());
+        event.put("hashedPassword", room.getHashedPassword());
+        event.put("questionDuration", room.getQuestionDuration());
+        event.put("optionCount", room.getOptionCount());
+        event.put("level", room.getLevel());
+        event.put("totalQuestionCount", room.getTotalQuestionCount());
+        if (room.getLastUsed() != null) {
+            event.put("lastUsed", room.getLastUsed().toString());
+        }
+        JSONArray players = new JSONArray();
+        for (Player player : room.getPlayers()) {
+            JSONObject p = statsOf(player);
+            p.put("name", player.getName());
+            p.put("avatarId", player.getAvatarId());
+            p.put("version", player.getVersion() != null ? player.getVersion() : 0);
+            players.put(p);
+        }
+        event.put("players", players);
+        event.put("at", LocalDateTime.now().toString());
+
+        Path aside = dir.resolve(roomCode + SUFFIX + ".tmp");
+        try {
+            Files.deleteIfExists(aside);
+            Segment segment = Segment.open(aside, segmentBytes);
+            segment.append(SNAPSHOT, event.toString().getBytes(StandardCharsets.UTF_8));
+            segment.moveTo(pathOf(roomCode));
+            segments.put(roomCode, segment);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not snapshot room {}: {}", roomCode, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a room's segment. Called once everything it records is in the database.
+     */
+    public void compact(String roomCode) {
+        if (!enabled) {
+            return;
+        }
+        segments.remove(roomCode);
+        try {
+            // A mapping still held elsewhere stays valid until collected; the file is gone
+            Files.deleteIfExists(pathOf(roomCode));
+        } catch (IOException e) {
+            log.warn("Could not delete journal segment of room {}: {}", roomCode, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every segment on disk into the room state it records, and keeps the segments
+     * open so the rooms' further events append to them.
+     */
+    public List<Recovered> replay() {
+        if (!enabled) {
+            return List.of();
+        }
+        List<Recovered> rooms = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String roomCode = name.substring(0, name.length() - SUFFIX.length());
+                try {
+                    Segment segment = Segment.open(file, segmentBytes);
+                    Recovered room = new Recovered(roomCode);
+                    segment.forEach(room::apply);
+                    segments.put(roomCode, segment);
+                    rooms.add(room);
+                } catch (IOException | JSONException | IllegalArgumentException e) {
+                    log.error("Skipping unreadable journal segment {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not list journal segments in {}: {}", dir, e.getMessage());
+        }
+        return rooms;
+    }
+
+    private void append(String roomCode, byte type, JSONObject event) {
+        event.put("at", LocalDateTime.now().toString());
+        byte[] body = event.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            Segment segment = segments.get(roomCode);
+            if (segment == null) {
+                segment = segments.computeIfAbsent(roomCode, this::open);
+            }
+            segment.append(type, body);
+        } catch (IOException | RuntimeException e) {
+            // The database still has the room as of the last flush
+            log.warn("Could not journal event {} of room {}: {}", type, roomCode, e.getMessage());
+        }
+    }
+
+    private Segment open(String roomCode) {
+        try {
+            return Segment.open(pathOf(roomCode), segmentBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private Path pathOf(String roomCode) {
+        return dir.resolve(roomCode + SUFFIX);
+    }
+
+    private static JSONObject stateOf(GameRoom room) {
+        JSONObject event = new JSONObject();
+        event.put("state", room.getCurrentState().name());
+        event.put("questionIndex", room.getCurrentQuestionIndex());
+        event.put("started", Boolean.TRUE.equals(room.getStarted()));
+        if (room.getStateStartTime() != null) {
+            event.put("stateStartTime", room.getStateStartTime().toString());
+        }
+        return event;
+    }
+
+    private static JSONObject statsOf(Player player) {
+        JSONObject stats = new JSONObject();
+        stats.put("playerId", player.getId());
+        stats.put("score", player.getScore());
+        stats.put("correctCount", player.getCorrectCount());
+        stats.put("wrongCount", player.getWrongCount());
+        stats.put("totalAnswerTime", player.getTotalAnswerTime());
+        stats.put("answeredIndex", player.getCurrentAnsweredQuestionIndex() != null
+                ? player.getCurrentAnsweredQuestionIndex() : -1);
+        return stats;
+    }
+
+    private static boolean createDirectory(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            return true;
+        } catch (IOException e) {
+            log.error("Room journal disabled, cannot create {}: {}", dir, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * One room's memory-mapped segment. Each record is a 4-byte length, a type byte and a
+     * UTF-8 JSON body; a zero length marks the end.
+     */
+    private static final class Segment {
+
+        private Path path;
+        private MappedByteBuffer buffer;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, int initialBytes) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = Math.max(channel.size(), initialBytes);
+                Segment segment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                segment.buffer.position(segment.end());
+                return segment;
+            }
+        }
+
+        synchronized void append(byte type, byte[] body) throws IOException {
+            int position = buffer.position();
+            int length = 1 + body.length;
+            if (buffer.capacity() - position < Integer.BYTES + length) {
+                grow(position + Integer.BYTES + length);
+            }
+            buffer.put(position + Integer.BYTES, type);
+            buffer.put(position + Integer.BYTES + 1, body);
+            // Written last: until then the record reads as the end of the segment
+            buffer.putInt(position, length);
+            buffer.position(position + Integer.BYTES + length);
+        }
+
+        synchronized void moveTo(Path target) throws IOException {
+            // The mapping stays valid across the rename
+            Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            path = target;
+        }
+
+        synchronized void forEach(BiConsumer<Byte, JSONObject> consumer) {
+            int position = 0;
+            int end = buffer.position();
+            while (position < end) {
+                int length = buffer.getInt(position);
+                byte[] body = new byte[length - 1];
+                buffer.get(position + Integer.BYTES + 1, body);
+                consumer.accept(buffer.get(position + Integer.BYTES),
+                        new JSONObject(new String(body, StandardCharsets.UTF_8)));
+                position += Integer.BYTES + length;
+            }
+        }
+
+        private int end() {
+            int position = 0;
+            while (position + Integer.BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + Integer.BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                position += Integer.BYTES + length;
+            }
+            return position;
+        }
+
+        private void grow(int required) throws IOException {
+            long size = Math.max(2L * buffer.capacity(), required);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal segment " + path + " is full");
+            }
+            int position = buffer.position();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            buffer.position(position);
+        }
+    }
+
+    /**
+     * A room's state as its journal records it: the latest state and question, and every
+     * journaled player's latest stats. A segment that is exactly a shutdown snapshot also
+     * holds everything needed to rebuild the room without the database.
+     */
+    public static final class Recovered {
+
+        private final String roomCode;
+        private GameState state;
+        private int questionIndex;
+        private boolean started;
+        private LocalDateTime stateStartTime;
+        private final Map<String, JSONObject> players = new LinkedHashMap<>();
+        private JSONObject snapshot;
+        private int eventsSinceSnapshot;
+
+        Recovered(String roomCode) {
+            this.roomCode = roomCode;
+        }
+
+        public String getRoomCode() {
+            return roomCode;
+        }
+
+        /**
+         * The room's latest journaled state, or null if it never left the lobby.
+         */
+        public GameState getState() {
+            return state;
+        }
+
+        public int getQuestionIndex() {
+            return questionIndex;
+        }
+
+        /**
+         * IDs of the players the journal has seen, in order of first appearance.
+         */
+        public List<String> getPlayerIds() {
+            return new ArrayList<>(players.keySet());
+        }
+
+        /**
+         * Whether the segment is a shutdown snapshot with nothing after it. Once the restored
+         * room has changed, write-behind has moved its row on and the row is read again.
+         */
+        public boolean isSnapshot() {
+            return snapshot != null && eventsSinceSnapshot == 0;
+        }
+
+        /**
+         * Milliseconds that were left in the snapshotted state, or -1 if it has no timed end
+         * or this is not a snapshot.
+         */
+        public long getRemainingMillis() {
+            return isSnapshot() ? snapshot.getLong("remainingMillis") : -1;
+        }
+
+        /**
+         * Rebuilds the room and its players from a snapshot. The JSON drops null fields, so a
+         * missing setting falls back to the entity's default.
+         *
+         * @throws IllegalStateException if this is not a snapshot
+         */
+        public GameRoom toRoom() {
+            if (!isSnapshot()) {
+                throw new IllegalStateException("Room " + roomCode + " has no snapshot");
+            }
+            GameRoom room = new GameRoom();
+            room.setRoomCode(roomCode);
+            room.setVersion(snapshot.optLong("version", 0));
+            room.setHostId(snapshot.optString("hostId", null));
+            room.setHashedPassword(snapshot.optString("hashedPassword", null));
+            room.setQuestionDuration(snapshot.optInt("questionDuration", room.getQuestionDuration()));
+            room.setOptionCount(snapshot.optInt("optionCount", room.getOptionCount()));
+            room.setLevel(snapshot.optString("level", room.getLevel()));
+            room.setTotalQuestionCount(snapshot.optInt("totalQuestionCount", room.getTotalQuestionCount()));
+            room.setLastUsed(snapshot.has("lastUsed") ? LocalDateTime.parse(snapshot.getString("lastUsed")) : null);
+            room.setPlayers(new ArrayList<>());
+            for (JSONObject entry : players.values()) {
+                Player player = new Player();
+                player.setId(entry.getString("playerId"));
+                player.setVersion(entry.optLong("version", 0));
+                player.setRoom(room);
+                player.setName(entry.optString("name", null));
+                player.setAvatarId(entry.has("avatarId") ? entry.getInt("avatarId") : null);
+                room.getPlayers().add(player);
+            }
+            applyTo(room);
+            return room;
+        }
+
+        /**
+         * Overwrites the room's game state and its players' stats with the journaled values.
+         * Players the journal never saw answer keep their database values.
+         */
+        public void applyTo(GameRoom room) {
+            if (state != null) {
+                room.setCurrentState(state);
+                room.setCurrentQuestionIndex(questionIndex);
+                room.setStarted(started);
+                room.setStateStartTime(stateStartTime);
+                room.setStateStartNanos(null);
+            }
+            for (Player player : room.getPlayers()) {
+                JSONObject stats = players.get(player.getId());
+                if (stats == null || !stats.has("score")) {
+                    continue;
+                }
+                player.setScore(stats.optInt("score", player.getScore()));
+                player.setCorrectCount(stats.optInt("correctCount", player.getCorrectCount()));
+                player.setWrongCount(stats.optInt("wrongCount", player.getWrongCount()));
+                player.setTotalAnswerTime(stats.optLong("totalAnswerTime", player.getTotalAnswerTime()));
+                int answered = stats.optInt("answeredIndex", -1);
+                player.setCurrentAnsweredQuestionIndex(answered >= 0 ? answered : null);
+            }
+        }
+
+        void apply(byte type, JSONObject event) {
+            eventsSinceSnapshot++;
+            switch (type) {
+                case CREATED -> {
+                    state = null;
+                    questionIndex = 0;
+                    started = false;
+                    stateStartTime = null;
+                    players.clear();
+                    snapshot = null;
+                }
+                case SNAPSHOT -> {
+                    players.clear();
+                    for (Object player : event.getJSONArray("players")) {
+                        JSONObject entry = (JSONObject) player;
+                        players.put(entry.getString("playerId"), entry);
+                    }
+                    applyState(event);
+                    snapshot = event;
+                    eventsSinceSnapshot = 0;
+                }
+                case JOINED -> players.putIfAbsent(event.getString("playerId"), event);
+                case LEFT -> players.remove(event.getString("playerId"));
+                case STARTED, TRANSITIONED -> applyState(event);
+                case ANSWERED -> {
+                    JSONObject entry = players.computeIfAbsent(event.getString("playerId"), id -> new JSONObject());
+                    for (String key : event.keySet()) {
+                        entry.put(key, event.get(key));
+                    }
+                }
+                default -> log.warn("Ignoring journal record of unknown type {} in room {}", type, roomCode);
+            }
+        }
+
+        private void applyState(JSONObject event) {
+            state = GameState.valueOf(event.getString("state"));
+            questionIndex = event.getInt("questionIndex");
+            started = event.getBoolean("started");
+            stateStartTime = event.has("stateStartTime")
+                    ? LocalDateTime.parse(event.getString("stateStartTime")) : null;
+        }
+    }
+}
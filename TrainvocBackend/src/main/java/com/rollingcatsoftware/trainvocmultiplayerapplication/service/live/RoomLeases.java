@@ -0,0 +1,252 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-limited ownership of rooms across backend nodes sharing one database.
+ * <p>
+ * Only the node holding a room's lease runs its timer transitions and may delete it, so two
+ * nodes never drive the same room. A lease is the {@code lease_owner}/{@code lease_expires_at}
+ * pair on {@code game_room}, taken with a conditional UPDATE that succeeds only if the lease
+ * is free, expired or already ours; the database decides every race. Held leases are renewed
+ * in one batch every {@code renew-ms}. A node that stops renewing (crash, network loss) loses
+ * its rooms once {@code ttl-ms} passes, and another node claims them as orphans.
+ * <p>
+ * A node also fences itself: a lease counts as held only until {@code ttl-ms} after its last
+ * successful write, measured on this node's monotonic clock from before the write, so a node
+ * cut off from the database stops ticking before anyone else may take over. Expiry times are
+ * wall-clock; node clocks must agree to well within {@code ttl-ms} (NTP is plenty).
+ * <p>
+ * The lease columns are not mapped for writing by JPA, so entity saves never clear them,
+ * and lease writes do not bump the room's version.
+ */
+@Component
+public class RoomLeases {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomLeases.class);
+
+    static final String ACQUIRE_SQL =
+            "UPDATE game_room SET lease_owner = ?, lease_expires_at = ? " +
+                    "WHERE room_code = ? AND (lease_owner IS NULL OR lease_owner = ? OR lease_expires_at < ?)";
+
+    static final String RENEW_SQL =
+            "UPDATE game_room SET lease_expires_at = ? WHERE room_code = ? AND lease_owner = ?";
+
+    static final String RELEASE_SQL =
+            "UPDATE game_room SET lease_owner = NULL, lease_expires_at = NULL WHERE room_code = ? AND lease_owner = ?";
+
+    static final String RELEASE_ALL_SQL =
+            "UPDATE game_room SET lease_owner = NULL, lease_expires_at = NULL WHERE lease_owner = ?";
+
+    static final String ORPHANS_SQL =
+            "SELECT room_code FROM game_room WHERE started = TRUE AND current_state NOT IN (?, ?) " +
+                    "AND (lease_owner IS NULL OR lease_expires_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomRegistry roomRegistry;
+    private final RoomDeadlines deadlines;
+    private final String nodeId;
+    private final long ttlMillis;
+
+    /** Held room codes, each with the local nanoTime until which the lease is known to be ours. */
+    private final Map<String, Long> held = new ConcurrentHashMap<>();
+
+    public RoomLeases(@Qualifier("primaryDataSource") DataSource dataSource,
+                      RoomRegistry roomRegistry,
+                      RoomDeadlines deadlines,
+                      @Value("${game.cluster.node-id:}") String nodeId,
+                      @Value("${game.cluster.lease-ttl-ms:15000}") long ttlMillis) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.roomRegistry = roomRegistry;
+        this.deadlines = deadlines;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? "node-" + UUID.randomUUID() : nodeId;
+        this.ttlMillis = ttlMillis;
+        log.info("Room leases held as {} (ttl {} ms)", this.nodeId, ttlMillis);
+    }
+
+    /**
+     * This node's lease owner ID.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * How long a lease lasts without renewal.
+     */
+    public long ttlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Takes or confirms this node's lease on a room. Answers from memory while a held lease
+     * is fresh; otherwise tries to take it in the database.
+     *
+     * @return true if this node now owns the room
+     */
+    public boolean acquire(String roomCode) {
+        Long until = held.get(roomCode);
+        if (until != null && until - System.nanoTime() > 0) {
+            return true;
+        }
+        long validUntil = localExpiry();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            int updated = jdbcTemplate.update(ACQUIRE_SQL, nodeId, expiry(now), roomCode, nodeId, now);
+            if (updated == 1) {
+                held.put(roomCode, validUntil);
+                return true;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not acquire lease on room {}: {}", roomCode, e.getMessage());
+        }
+        held.remove(roomCode);
+        return false;
+    }
+
+    /**
+     * Checks whether this node holds a fresh lease on a room, without touching the database.
+     */
+    public boolean holds(String roomCode) {
+        Long until = held.get(roomCode);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    /**
+     * Gives up this node's lease on a room, e.g. once its game has ended.
+     */
+    public void release(String roomCode) {
+        if (held.remove(roomCode) == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(RELEASE_SQL, roomCode, nodeId);
+        } catch (DataAccessException e) {
+            // The lease simply runs out
+            log.debug("Could not release lease on room {}: {}", roomCode, e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets this node's lease on a room whose row was deleted; there is nothing to write.
+     */
+    public void forget(String roomCode) {
+        held.remove(roomCode);
+    }
+
+    /**
+     * Gives up every lease this node holds, so other nodes take its rooms over without
+     * waiting for expiry. Called on shutdown after pending state has been written back.
+     */
+    public void releaseAll() {
+        held.clear();
+        try {
+            int released = jdbcTemplate.update(RELEASE_ALL_SQL, nodeId);
+            if (released > 0) {
+                log.info("Released {} room leases", released);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not release room leases, they expire in {} ms: {}", ttlMillis, e.getMessage());
+        }
+    }
+
+    /**
+     * Extends every held lease in one batch. Rooms whose lease was lost (expired and taken
+     * over, or the room deleted) are dropped from this node's timer and live state; the
+     * owner's copy is authoritative.
+     */
+    @Scheduled(fixedDelayString = "${game.cluster.lease-renew-ms:5000}")
+    public void renew() {
+        List<String> codes = new ArrayList<>(held.keySet());
+        if (codes.isEmpty()) {
+            return;
+        }
+        long validUntil = localExpiry();
+        Timestamp expires = expiry(new Timestamp(System.currentTimeMillis()));
+        int[][] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(RENEW_SQL, codes, codes.size(), (ps, code) -> {
+                ps.setTimestamp(1, expires);
+                ps.setString(2, code);
+                ps.setString(3, nodeId);
+            });
+        } catch (DataAccessException e) {
+            // Leases stay fenced by their local expiry; the next renewal tries again
+            log.error("Lease renewal failed for {} rooms: {}", codes.size(), e.getMessage());
+            return;
+        }
+        for (int i = 0; i < codes.size(); i++) {
+            String code = codes.get(i);
+            if (counts[0][i] == 0) {
+                lost(code);
+            } else {
+                held.replace(code, validUntil);
+            }
+        }
+    }
+
+    /**
+     * Takes the leases of running games that no node holds, e.g. after their node died.
+     *
+     * @return codes of the rooms this node now owns
+     */
+    public List<String> claimOrphans() {
+        List<String> orphans;
+        try {
+            orphans = jdbcTemplate.queryForList(ORPHANS_SQL, String.class,
+                    GameState.LOBBY.ordinal(), GameState.FINAL.ordinal(),
+                    new Timestamp(System.currentTimeMillis()));
+        } catch (DataAccessException e) {
+            log.warn("Could not look up orphaned rooms: {}", e.getMessage());
+            return List.of();
+        }
+        List<String> claimed = new ArrayList<>();
+        for (String code : orphans) {
+            // Another node may claim the same orphan concurrently; acquire decides
+            if (acquire(code)) {
+                claimed.add(code);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Returns the number of rooms this node holds leases on.
+     */
+    public int size() {
+        return held.size();
+    }
+
+    private void lost(String roomCode) {
+        if (held.remove(roomCode) != null) {
+            log.warn("Lost lease on room {}, dropping it from this node", roomCode);
+            deadlines.untrack(roomCode);
+            roomRegistry.evict(roomCode);
+        }
+    }
+
+    private Timestamp expiry(Timestamp now) {
+        return new Timestamp(now.getTime() + ttlMillis);
+    }
+
+    private long localExpiry() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+}
@@ -0,0 +1,171 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes idle rooms in bounded JDBC batches.
+ * <p>
+ * A sweep first takes the live rooms this node has not used since the threshold, straight
+ * from the {@link RoomRegistry}'s expiry order, then pages through the rest with an indexed
+ * query on {@code game_room.last_used}, at most {@code batch-size} codes at a time and
+ * {@code max-batches} pages per sweep. Rooms used more recently than the database knows,
+ * per a pending {@link RoomTouches touch} or their live copy, are skipped. Nothing but room
+ * codes is read.
+ * <p>
+ * Each page is deleted with one batched, conditional DELETE in one transaction. The
+ * condition re-checks {@code last_used} and only deletes rooms whose {@link RoomLeases lease}
+ * is free, expired or ours, so a room touched or driven by another node in the meantime
+ * survives and nodes sweeping concurrently never both delete a room. Players and their
+ * answers go with the room through the {@code ON DELETE CASCADE} foreign keys.
+ * Reaped rooms are dropped from everything this node keeps about them by {@link RoomTeardown},
+ * as disbanded rooms are.
+ */
+@Component
+public class RoomReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomReaper.class);
+
+    static final String SELECT_IDLE_SQL =
+            "SELECT room_code FROM game_room WHERE last_used < ? OR last_used IS NULL " +
+                    "ORDER BY last_used LIMIT ? OFFSET ?";
+
+    static final String DELETE_IDLE_SQL =
+            "DELETE FROM game_room WHERE room_code = ? AND (last_used < ? OR last_used IS NULL) " +
+                    "AND (lease_owner IS NULL OR lease_owner = ? OR lease_expires_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomRegistry roomRegistry;
+    private final RoomLeases leases;
+    private final RoomTouches touches;
+    private final RoomTeardown teardown;
+    private final GameMetrics metrics;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public RoomReaper(@Qualifier("primaryDataSource") DataSource dataSource,
+                      @Qualifier("primaryTransactionManager") PlatformTransactionManager transactionManager,
+                      RoomRegistry roomRegistry,
+                      RoomLeases leases,
+                      RoomTouches touches,
+                      RoomTeardown teardown,
+                      GameMetrics metrics,
+                      @Value("${game.rooms.expiry.batch-size:200}") int batchSize,
+                      @Value("${game.rooms.expiry.max-batches:10}") int maxBatches) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.roomRegistry = roomRegistry;
+        this.leases = leases;
+        this.touches = touches;
+        this.teardown = teardown;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+    }
+
+    /**
+     * Deletes rooms last used before {@code threshold}, or never.
+     *
+     * @return the number of rooms deleted
+     */
+    public int sweep(LocalDateTime threshold) {
+        long start = System.nanoTime();
+        List<String> idleLive = new ArrayList<>();
+        for (String code : roomRegistry.idleSince(threshold, batchSize)) {
+            if (!usedSince(code, threshold)) {
+                idleLive.add(code);
+            }
+        }
+        int reaped = delete(idleLive, threshold);
+        int skipped = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<String> codes;
+            try {
+                codes = jdbcTemplate.queryForList(SELECT_IDLE_SQL, String.class,
+                        Timestamp.valueOf(threshold), batchSize, skipped);
+            } catch (DataAccessException e) {
+                log.warn("Could not look up idle rooms: {}", e.getMessage());
+                break;
+            }
+            List<String> idle = new ArrayList<>(codes.size());
+            for (String code : codes) {
+                if (!usedSince(code, threshold)) {
+                    idle.add(code);
+                }
+            }
+            int deleted = delete(idle, threshold);
+            reaped += deleted;
+            skipped += codes.size() - deleted;
+            if (codes.size() < batchSize) {
+                break;
+            }
+        }
+        metrics.recordSweep(reaped, System.nanoTime() - start);
+        if (reaped > 0) {
+            log.info("Expired {} idle rooms", reaped);
+        }
+        return reaped;
+    }
+
+    /**
+     * Checks whether this node saw a room used since the threshold, which the database may
+     * not know yet: a touch not yet flushed first, then the live copy.
+     */
+    private boolean usedSince(String roomCode, LocalDateTime threshold) {
+        LocalDateTime pending = touches.pending(roomCode);
+        if (pending != null && !pending.isBefore(threshold)) {
+            return true;
+        }
+        GameRoom live = roomRegistry.get(roomCode);
+        return live != null && live.getLastUsed() != null && !live.getLastUsed().isBefore(threshold);
+    }
+
+    private int delete(List<String> codes, LocalDateTime threshold) {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        Timestamp idleBefore = Timestamp.valueOf(threshold);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        String nodeId = leases.nodeId();
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(DELETE_IDLE_SQL, codes, codes.size(), (ps, code) -> {
+                        ps.setString(1, code);
+                        ps.setTimestamp(2, idleBefore);
+                        ps.setString(3, nodeId);
+                        ps.setTimestamp(4, now);
+                    }));
+        } catch (DataAccessException e) {
+            // A foreign key without ON DELETE CASCADE fails the whole batch
+            log.error("Could not delete {} idle rooms: {}", codes.size(), e.getMessage());
+            return 0;
+        }
+        int deleted = 0;
+        for (int i = 0; i < codes.size(); i++) {
+            int count = counts[0][i];
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                teardown.forget(codes.get(i));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,287 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, authoritative state for live game rooms.
+ * <p>
+ * Once a room is adopted, the {@link GameRoom} and {@link Player} instances held here are the
+ * source of truth: WebSocket handlers and the game timer read and mutate them directly and
+ * only mark them dirty. {@link RoomWriteBehind} flushes dirty rows to {@code game_room} and
+ * {@code player} asynchronously in JDBC batches, so gameplay never waits on the database.
+ * <p>
+ * The live room instance doubles as the per-room monitor: callers that mutate room-level
+ * state synchronize on it. Each live room also carries a roster version, bumped for every
+ * roster delta sent to clients, and a ring of its {@link RecentMessages} for clients that
+ * resume after a disconnect; both live and die with the room. Live rooms are also kept in an
+ * {@link ExpiryQueue} ordered by last use, so idle rooms are found without scanning. A change
+ * counter, bumped whenever a room comes, goes, changes roster or is marked dirty, tells
+ * readers such as the {@link LobbyIndex} when their view of the rooms is stale.
+ * Entities are keyed by ID only; never put them in hash-based collections (Lombok's
+ * equals/hashCode walk the room/player graph).
+ */
+@Component
+public class RoomRegistry {
+
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> rosterVersions = new ConcurrentHashMap<>();
+    private final Map<String, RecentMessages> recentMessages = new ConcurrentHashMap<>();
+    private final ExpiryQueue expiry = new ExpiryQueue();
+    private final AtomicLong changes = new AtomicLong();
+    private final int replaySize;
+
+    public RoomRegistry(@Value("${game.ws.resume.replay-size:64}") int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    /**
+     * Gets the live instance of a room, or null if the room is not live on this node.
+     */
+    public GameRoom get(String roomCode) {
+        return roomCode != null ? rooms.get(roomCode) : null;
+    }
+
+    /**
+     * Installs a room loaded from (or just written to) the database as live state.
+     * If another thread adopted the same room first, that instance wins and is returned.
+     *
+     * @return the live instance for the room's code
+     */
+    public GameRoom adopt(GameRoom room) {
+        GameRoom existing = rooms.get(room.getRoomCode());
+        if (existing != null) {
+            return existing;
+        }
+
+        // Roster reads (broadcasts, timer) vastly outnumber joins/leaves
+        List<Player> roster = new CopyOnWriteArrayList<>(room.getPlayers());
+        for (Player player : roster) {
+            player.setRoom(room);
+        }
+        room.setPlayers(roster);
+
+        // Counter first, so a room is never visible without one
+        rosterVersions.putIfAbsent(room.getRoomCode(), new AtomicLong());
+        if (replaySize > 0) {
+            recentMessages.putIfAbsent(room.getRoomCode(), new RecentMessages(replaySize));
+        }
+        existing = rooms.putIfAbsent(room.getRoomCode(), room);
+        if (existing != null) {
+            return existing;
+        }
+        for (Player player : roster) {
+            players.put(player.getId(), player);
+        }
+        expiry.touch(room.getRoomCode(), room.getLastUsed());
+        changes.incrementAndGet();
+        return room;
+    }
+
+    /**
+     * Checks whether the given instance is the live instance of its room.
+     */
+    public boolean isLive(GameRoom room) {
+        return room != null && rooms.get(room.getRoomCode()) == room;
+    }
+
+    /**
+     * Checks whether the given instance is the live instance of its player.
+     */
+    public boolean isLive(Player player) {
+        return player != null && players.get(player.getId()) == player;
+    }
+
+    /**
+     * Gets the live instance of a player, or null if the player is not in a live room.
+     */
+    public Player findPlayer(String playerId) {
+        return playerId != null ? players.get(playerId) : null;
+    }
+
+    /**
+     * Gets an immutable snapshot of a live room's roster, or null if the room is not live.
+     */
+    public List<Player> playersOf(GameRoom room) {
+        GameRoom live = get(room.getRoomCode());
+        return live != null ? List.copyOf(live.getPlayers()) : null;
+    }
+
+    /**
+     * Adds a newly persisted player to a live room. No-op if the room is not live.
+     */
+    public void addPlayer(GameRoom room, Player player) {
+        GameRoom live = get(room.getRoomCode());
+        if (live == null) {
+            return;
+        }
+        player.setRoom(live);
+        live.getPlayers().add(player);
+        players.put(player.getId(), player);
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Removes a player from its live room. No-op if the player is not live.
+     */
+    public void removePlayer(String playerId) {
+        Player player = players.remove(playerId);
+        if (player != null && player.getRoom() != null) {
+            player.getRoom().getPlayers().removeIf(p -> p.getId().equals(playerId));
+            changes.incrementAndGet();
+        }
+        dirtyPlayers.remove(playerId);
+    }
+
+    /**
+     * Drops a room and its players from live state. Pending writes for the room are discarded,
+     * so callers evicting a room that still exists in the database should flush first.
+     *
+     * @return the evicted instance, or null if the room was not live
+     */
+    public GameRoom evict(String roomCode) {
+        GameRoom room = rooms.remove(roomCode);
+        if (room != null) {
+            for (Player player : room.getPlayers()) {
+                players.remove(player.getId(), player);
+                dirtyPlayers.remove(player.getId());
+            }
+            dirtyRooms.remove(roomCode);
+            rosterVersions.remove(roomCode);
+            recentMessages.remove(roomCode);
+            expiry.remove(roomCode);
+            changes.incrementAndGet();
+        }
+        return room;
+    }
+
+    /**
+     * Gets the roster version counter of a live room, or null if the room is not live.
+     * Publishers synchronize on the counter so versions reach clients in order.
+     */
+    public AtomicLong rosterVersion(String roomCode) {
+        return roomCode != null ? rosterVersions.get(roomCode) : null;
+    }
+
+    /**
+     * Gets the recent broadcasts of a live room, or null if the room is not live or
+     * replay is off ({@code game.ws.resume.replay-size} of 0).
+     */
+    public RecentMessages recentMessages(String roomCode) {
+        return roomCode != null ? recentMessages.get(roomCode) : null;
+    }
+
+    /**
+     * Records a use of a live room: updates its last use and its place in the expiry order.
+     * The room is not marked dirty; {@link RoomTouches} writes last use on its own.
+     * No-op if the room is not live.
+     */
+    public void touch(GameRoom room, LocalDateTime now) {
+        if (!isLive(room)) {
+            return;
+        }
+        room.setLastUsed(now);
+        expiry.touch(room.getRoomCode(), now);
+    }
+
+    /**
+     * Returns up to {@code limit} codes of live rooms last used before {@code threshold},
+     * oldest first.
+     */
+    public List<String> idleSince(LocalDateTime threshold, int limit) {
+        return expiry.idleSince(threshold, limit);
+    }
+
+    /**
+     * Returns a view of all live rooms.
+     */
+    public Collection<GameRoom> liveRooms() {
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
+    /**
+     * Returns a counter that grows whenever a live room is adopted, evicted, changes roster or
+     * is marked dirty. Touches do not count.
+     */
+    public long changes() {
+        return changes.get();
+    }
+
+    /**
+     * Returns the number of live rooms.
+     */
+    public int size() {
+        return rooms.size();
+    }
+
+    /**
+     * Marks a live room's columns for the next write-behind flush.
+     */
+    public void markDirty(GameRoom room) {
+        if (isLive(room)) {
+            dirtyRooms.add(room.getRoomCode());
+            changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Marks a live player's columns for the next write-behind flush.
+     */
+    public void markDirty(Player player) {
+        if (isLive(player)) {
+            dirtyPlayers.add(player.getId());
+        }
+    }
+
+    /**
+     * Removes and returns all dirty live rooms.
+     * Mutations after this call re-mark the room, so nothing is lost between flushes.
+     */
+    public List<GameRoom> drainDirtyRooms() {
+        List<GameRoom> drained = new ArrayList<>();
+        Iterator<String> it = dirtyRooms.iterator();
+        while (it.hasNext()) {
+            String roomCode = it.next();
+            it.remove();
+            GameRoom room = rooms.get(roomCode);
+            if (room != null) {
+                drained.add(room);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Removes and returns all dirty live players.
+     */
+    public List<Player> drainDirtyPlayers() {
+        List<Player> drained = new ArrayList<>();
+        Iterator<String> it = dirtyPlayers.iterator();
+        while (it.hasNext()) {
+            String playerId = it.next();
+            it.remove();
+            Player player = players.get(playerId);
+            if (player != null) {
+                drained.add(player);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,48 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops every trace a deleted room leaves on this node, whether a host disbanded it or the
+ * {@link RoomReaper} expired it.
+ * <p>
+ * The room leaves the timer's {@link RoomDeadlines}, the {@link RoomRegistry}, its
+ * {@link RoomJournal} segment, this node's {@link RoomLeases} cache, pending
+ * {@link RoomTouches}, the {@link RoomCodes} pool and the {@link LobbyIndex}. The lease itself
+ * needs no write; it went with the row.
+ */
+@Component
+public class RoomTeardown {
+
+    private final RoomDeadlines deadlines;
+    private final RoomRegistry roomRegistry;
+    private final RoomJournal journal;
+    private final RoomLeases leases;
+    private final RoomTouches touches;
+    private final RoomCodes roomCodes;
+    private final LobbyIndex lobby;
+
+    public RoomTeardown(RoomDeadlines deadlines, RoomRegistry roomRegistry, RoomJournal journal,
+                        RoomLeases leases, RoomTouches touches, RoomCodes roomCodes, LobbyIndex lobby) {
+        this.deadlines = deadlines;
+        this.roomRegistry = roomRegistry;
+        this.journal = journal;
+        this.leases = leases;
+        this.touches = touches;
+        this.roomCodes = roomCodes;
+        this.lobby = lobby;
+    }
+
+    /**
+     * Forgets a room whose row was just deleted.
+     */
+    public void forget(String roomCode) {
+        deadlines.untrack(roomCode);
+        roomRegistry.evict(roomCode);
+        journal.compact(roomCode);
+        leases.forget(roomCode);
+        touches.forget(roomCode);
+        roomCodes.release(roomCode);
+        lobby.removed(roomCode);
+    }
+}
@@ -0,0 +1,105 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last-activity timestamps of rooms, recorded in memory and written in one batch.
+ * <p>
+ * Reading a room counts as using it, but a read should not turn into a row write. A touch
+ * only records the time here; every {@code game.rooms.touch-flush-ms} the latest touch of
+ * each room is written with one batched UPDATE of {@code last_used} alone. The UPDATE does
+ * not bump the room's version, so it never conflicts with timer or write-behind saves, and
+ * it never moves {@code last_used} backwards. However often a room is read between flushes,
+ * it costs one row in one batch. On failure the touches are kept for the next flush.
+ * <p>
+ * Until flushed, this is the newest last use of a room; expiry consults it before the
+ * database.
+ */
+@Component
+public class RoomTouches {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomTouches.class);
+
+    static final String UPDATE_LAST_USED_SQL =
+            "UPDATE game_room SET last_used = ? WHERE room_code = ? AND (last_used IS NULL OR last_used < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public RoomTouches(@Qualifier("primaryDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Records a use of a room.
+     */
+    public void touch(String roomCode, LocalDateTime now) {
+        pending.merge(roomCode, now, RoomTouches::latest);
+    }
+
+    /**
+     * Gets a room's last use not yet written to the database, or null if there is none.
+     */
+    public LocalDateTime pending(String roomCode) {
+        return roomCode != null ? pending.get(roomCode) : null;
+    }
+
+    /**
+     * Drops the pending touch of a deleted room.
+     */
+    public void forget(String roomCode) {
+        pending.remove(roomCode);
+    }
+
+    /**
+     * Writes the latest touch of every room touched since the previous flush.
+     */
+    @Scheduled(fixedDelayString = "${game.rooms.touch-flush-ms:5000}")
+    public void flush() {
+        List<Map.Entry<String, LocalDateTime>> touches = new ArrayList<>(pending.size());
+        for (String roomCode : pending.keySet()) {
+            LocalDateTime lastUsed = pending.remove(roomCode);
+            if (lastUsed != null) {
+                touches.add(Map.entry(roomCode, lastUsed));
+            }
+        }
+        if (touches.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_USED_SQL, touches, touches.size(), (ps, touch) -> {
+                Timestamp lastUsed = Timestamp.valueOf(touch.getValue());
+                ps.setTimestamp(1, lastUsed);
+                ps.setString(2, touch.getKey());
+                ps.setTimestamp(3, lastUsed);
+            });
+        } catch (DataAccessException e) {
+            log.error("Could not write last use of {} rooms, retrying: {}", touches.size(), e.getMessage());
+            touches.forEach(touch -> touch(touch.getKey(), touch.getValue()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,220 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flushes dirty live rooms and players to the database in JDBC batches.
+ * <p>
+ * Runs on the scheduler, never on a WebSocket thread. Each flush is one transaction with at
+ * most two batched UPDATE statements, so however many rooms changed state in the same tick,
+ * their transitions reach the database together. The version column is bumped so that any
+ * stale JPA copy written elsewhere fails its optimistic lock instead of overwriting live state.
+ * On failure the drained rows are re-marked and retried on the next cycle.
+ * <p>
+ * Room rows are written only if their version still matches the live instance's, and the
+ * batch reports each row's update count. A row that matched nothing was changed or deleted
+ * behind this node's back; that room's live copy is a conflict loser and is dropped, then
+ * reloaded from the database if this node still holds its lease.
+ * <p>
+ * Once a room's FINAL state has been written, nothing in its {@link RoomJournal} is newer
+ * than the database and the room's segment is compacted away.
+ * <p>
+ * On shutdown the final flush is followed by handing this node's {@link RoomLeases} back,
+ * so another node resumes its games from fully written state without waiting for expiry.
+ */
+@Component
+public class RoomWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomWriteBehind.class);
+
+    static final String UPDATE_ROOM_SQL =
+            "UPDATE game_room SET current_question_index = ?, started = ?, current_state = ?, " +
+                    "state_start_time = ?, last_used = ?, version = COALESCE(version, 0) + 1 " +
+                    "WHERE room_code = ? AND COALESCE(version, 0) = ?";
+
+    static final String UPDATE_PLAYER_SQL =
+            "UPDATE player SET score = ?, correct_count = ?, wrong_count = ?, total_answer_time = ?, " +
+                    "current_answered_question_index = ?, version = COALESCE(version, 0) + 1 " +
+                    "WHERE id = ?";
+
+    private final RoomRegistry roomRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomLeases leases;
+    private final RoomDeadlines deadlines;
+    private final GameRoomRepository gameRoomRepository;
+    private final RoomJournal journal;
+
+    public RoomWriteBehind(RoomRegistry roomRegistry,
+                           @Qualifier("primaryDataSource") DataSource dataSource,
+                           @Qualifier("primaryTransactionManager") PlatformTransactionManager transactionManager,
+                           RoomLeases leases,
+                           RoomDeadlines deadlines,
+                           GameRoomRepository gameRoomRepository,
+                           RoomJournal journal) {
+        this.roomRegistry = roomRegistry;
+        this.leases = leases;
+        this.deadlines = deadlines;
+        this.gameRoomRepository = gameRoomRepository;
+        this.journal = journal;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes all rooms and players dirtied since the previous flush.
+     */
+    @Scheduled(fixedDelayString = "${game.live.flush-interval-ms:250}")
+    public void flush() {
+        List<GameRoom> rooms = roomRegistry.drainDirtyRooms();
+        List<Player> players = roomRegistry.drainDirtyPlayers();
+        if (rooms.isEmpty() && players.isEmpty()) {
+            return;
+        }
+
+        // Versions are bound from a snapshot; the live rooms keep changing while we write
+        long[] versions = new long[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            Long version = rooms.get(i).getVersion();
+            versions[i] = version != null ? version : 0;
+        }
+
+        int[][] roomCounts;
+        try {
+            roomCounts = transactionTemplate.execute(status -> {
+                int[][] counts = new int[0][];
+                if (!rooms.isEmpty()) {
+                    List<Integer> rows = new ArrayList<>(rooms.size());
+                    for (int i = 0; i < rooms.size(); i++) {
+                        rows.add(i);
+                    }
+                    counts = jdbcTemplate.batchUpdate(UPDATE_ROOM_SQL, rows, rows.size(),
+                            (ps, i) -> bindRoom(ps, rooms.get(i), versions[i]));
+                }
+                if (!players.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_PLAYER_SQL, players, players.size(), RoomWriteBehind::bindPlayer);
+                }
+                return counts;
+            });
+        } catch (DataAccessException e) {
+            log.error("Write-behind flush failed, retrying next cycle: {}", e.getMessage());
+            rooms.forEach(roomRegistry::markDirty);
+            players.forEach(roomRegistry::markDirty);
+            return;
+        }
+
+        List<String> conflicts = applyVersions(rooms, versions, roomCounts);
+        for (GameRoom room : rooms) {
+            if (room.getCurrentState() == GameState.FINAL && !conflicts.contains(room.getRoomCode())) {
+                journal.compact(room.getRoomCode());
+            }
+        }
+        log.debug("Write-behind flushed {} rooms and {} players", rooms.size() - conflicts.size(), players.size());
+        conflicts.forEach(this::reload);
+    }
+
+    /**
+     * Flushes whatever is still pending before the data source goes away, then releases
+     * this node's room leases.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        leases.releaseAll();
+    }
+
+    /**
+     * Advances the live version of every room whose row was written and returns the codes of
+     * the rooms whose version check failed.
+     */
+    private List<String> applyVersions(List<GameRoom> rooms, long[] versions, int[][] counts) {
+        List<String> conflicts = new ArrayList<>();
+        int row = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                GameRoom room = rooms.get(row);
+                // Drivers may report success without a count; only an explicit 0 is a miss
+                if (count == 0) {
+                    conflicts.add(room.getRoomCode());
+                } else if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    room.setVersion(versions[row] + 1);
+                }
+                row++;
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Replaces a conflict loser's live copy with the database row. Rooms leased to another
+     * node are only dropped; their owner's copy is authoritative.
+     */
+    private void reload(String roomCode) {
+        deadlines.untrack(roomCode);
+        roomRegistry.evict(roomCode);
+        if (!leases.holds(roomCode)) {
+            log.warn("Room {} changed in the database and is not leased here, dropped its live copy", roomCode);
+            return;
+        }
+        try {
+            GameRoom fresh = gameRoomRepository.findByRoomCode(roomCode);
+            if (fresh == null) {
+                log.warn("Room {} was deleted behind the write-behind, dropped its live copy", roomCode);
+                leases.release(roomCode);
+                journal.compact(roomCode);
+                return;
+            }
+            deadlines.track(roomRegistry.adopt(fresh));
+            log.warn("Room {} changed in the database, reloaded it at version {}", roomCode, fresh.getVersion());
+        } catch (DataAccessException e) {
+            // The next read adopts it again
+            log.error("Could not reload room {} after a write conflict: {}", roomCode, e.getMessage());
+        }
+    }
+
+    private static void bindRoom(PreparedStatement ps, GameRoom room, long version) throws SQLException {
+        ps.setInt(1, room.getCurrentQuestionIndex());
+        ps.setBoolean(2, Boolean.TRUE.equals(room.getStarted()));
+        ps.setInt(3, room.getCurrentState().ordinal());
+        ps.setTimestamp(4, toTimestamp(room.getStateStartTime()));
+        ps.setTimestamp(5, toTimestamp(room.getLastUsed()));
+        ps.setString(6, room.getRoomCode());
+        ps.setLong(7, version);
+    }
+
+    private static void bindPlayer(PreparedStatement ps, Player player) throws SQLException {
+        ps.setInt(1, player.getScore());
+        ps.setInt(2, player.getCorrectCount());
+        ps.setInt(3, player.getWrongCount());
+        ps.setLong(4, player.getTotalAnswerTime());
+        ps.setObject(5, player.getCurrentAnsweredQuestionIndex(), Types.INTEGER);
+        ps.setString(6, player.getId());
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
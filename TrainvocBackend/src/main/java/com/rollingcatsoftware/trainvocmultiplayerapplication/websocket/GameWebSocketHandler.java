@@ -5,17 +5,20 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.MessageDispatcher;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RoomMailboxes;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RosterUpdates;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.SessionResumption;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketContext;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.util.List;
 
@@ -23,9 +26,12 @@ import java.util.List;
  * Main WebSocket handler that delegates message processing to the MessageDispatcher.
  * Follows the Single Responsibility Principle by focusing only on WebSocket lifecycle.
  * Handles session cleanup and player disconnect notifications.
+ * Accepts JSON text frames, and CBOR binary frames from sessions on the binary subprotocol.
+ * A dropped player stays in the room for the {@link SessionResumption} grace period and
+ * leaves only if they do not resume in time; a normal close leaves at once.
  */
 @Component
-public class GameWebSocketHandler extends TextWebSocketHandler {
+public class GameWebSocketHandler extends AbstractWebSocketHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GameWebSocketHandler.class);
 
@@ -33,13 +39,21 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
     private final WebSocketContext wsContext;
     private final PlayerService playerService;
     private final RoomService roomService;
+    private final RoomMailboxes mailboxes;
+    private final RosterUpdates rosterUpdates;
+    private final SessionResumption resumption;
 
     public GameWebSocketHandler(MessageDispatcher messageDispatcher, WebSocketContext wsContext,
-                                PlayerService playerService, RoomService roomService) {
+                                PlayerService playerService, RoomService roomService,
+                                RoomMailboxes mailboxes, RosterUpdates rosterUpdates,
+                                SessionResumption resumption) {
         this.messageDispatcher = messageDispatcher;
         this.wsContext = wsContext;
         this.playerService = playerService;
         this.roomService = roomService;
+        this.mailboxes = mailboxes;
+        this.rosterUpdates = rosterUpdates;
+        this.resumption = resumption;
     }
 
     @Override
@@ -47,6 +61,11 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
         messageDispatcher.dispatch(session, message.getPayload());
     }
 
+    @Override
+    protected void handleBinaryMessage(@NonNull WebSocketSession session, @NonNull BinaryMessage message) throws Exception {
+        messageDispatcher.dispatchBinary(session, message.getPayload());
+    }
+
     @Override
     public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
         log.info("WebSocket connection established: {}", session.getId());
@@ -56,10 +75,11 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) throws Exception {
         log.info("WebSocket connection closed: {} with status {}", session.getId(), status);
 
-        // Find and remove player session
+        // Find and remove player session; a normal close is a deliberate leave, anything else may resume
         String playerId = wsContext.removeBySession(session);
-        if (playerId != null) {
-            handlePlayerDisconnect(playerId);
+        if (playerId != null && (CloseStatus.NORMAL.equalsCode(status)
+                || !resumption.deferLeave(playerId, () -> scheduleDisconnect(playerId)))) {
+            scheduleDisconnect(playerId);
         }
     }
 
@@ -69,13 +89,31 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
 
         // Clean up on error
         String playerId = wsContext.removeBySession(session);
-        if (playerId != null) {
-            handlePlayerDisconnect(playerId);
+        if (playerId != null && !resumption.deferLeave(playerId, () -> scheduleDisconnect(playerId))) {
+            scheduleDisconnect(playerId);
+        }
+    }
+
+    /**
+     * Runs the disconnect on the room's mailbox so it is ordered with the room's other messages.
+     * A leave is never dropped: if the mailbox is full or disabled it runs inline.
+     */
+    private void scheduleDisconnect(String playerId) {
+        if (mailboxes.isEnabled()) {
+            Player player = playerService.findById(playerId);
+            if (player != null && player.getRoom() != null
+                    && mailboxes.offer(player.getRoom().getRoomCode(), () -> handlePlayerDisconnect(playerId))) {
+                return;
+            }
         }
+        handlePlayerDisconnect(playerId);
     }
 
     private void handlePlayerDisconnect(String playerId) {
         try {
+            if (wsContext.getSession(playerId) != null) {
+                return; // Resumed on a new session
+            }
             Player player = playerService.findById(playerId);
             if (player == null || player.getRoom() == null) {
                 return;
@@ -108,30 +146,13 @@ public class GameWebSocketHandler extends TextWebSocketHandler {
             playerLeft.put("playerName", playerName);
             playerLeft.put("reason", "disconnected");
 
-            wsContext.broadcastToRoom(room, playerLeft);
-
-            // Also send updated player list
-            JSONObject playersUpdate = new JSONObject();
-            playersUpdate.put("type", "playersUpdate");
-            playersUpdate.put("players", buildPlayersArray(remainingPlayers));
+            wsContext.broadcastToRoom(room.getRoomCode(), playerLeft);
 
-            wsContext.broadcastToRoom(room, playersUpdate);
+            // Remaining players drop the departed player from their roster
+            rosterUpdates.playerRemoved(room.getRoomCode(), playerId);
 
         } catch (Exception e) {
             log.error("Error handling player disconnect for {}: {}", playerId, e.getMessage());
         }
     }
-
-    private JSONArray buildPlayersArray(List<Player> players) {
-        JSONArray arr = new JSONArray();
-        for (Player p : players) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            arr.put(pObj);
-        }
-        return arr;
-    }
 }
@@ -0,0 +1,167 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces per-answer notifications into periodic {@code answerProgress} broadcasts.
+ * <p>
+ * Broadcasting every answer to every player costs N² messages per question, all within a
+ * few seconds. Instead, answers are collected per room for a short window and sent as one
+ * message with the answered count and the new answerers' IDs. The window depends on room
+ * size ({@code game.answer-progress.windows}, {@code minPlayers:windowMs} pairs); a window
+ * of 0 broadcasts each answer at once, which keeps small rooms snappy.
+ * <p>
+ * Flushes run on the room's mailbox, so they are ordered with the room's other messages.
+ * Callers flush a room explicitly before announcing the end of a question.
+ */
+@Component
+public class AnswerProgress {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerProgress.class);
+
+    public static final String TYPE = "answerProgress";
+
+    private final WebSocketContext context;
+    private final RoomMailboxes mailboxes;
+    private final NavigableMap<Integer, Long> windows;
+    private final Map<String, Batch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "answer-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AnswerProgress(WebSocketContext context, RoomMailboxes mailboxes,
+                          @Value("${game.answer-progress.windows:1:0,8:100,32:250}") String windows) {
+        this.context = context;
+        this.mailboxes = mailboxes;
+        this.windows = parseWindows(windows);
+    }
+
+    /**
+     * Records an answer. Sent at once for rooms whose window is 0, otherwise at the end
+     * of the room's current window.
+     *
+     * @param roomSize      players in the room, which selects the window
+     * @param questionIndex question the answer belongs to
+     * @param answeredCount players who have answered this question so far, including this one
+     */
+    public void answered(String roomCode, int roomSize, int questionIndex, String playerId, int answeredCount) {
+        long windowMs = windowFor(roomSize);
+        if (windowMs <= 0) {
+            Batch single = new Batch(questionIndex);
+            single.add(playerId, answeredCount);
+            broadcast(roomCode, single);
+            return;
+        }
+
+        pending.compute(roomCode, (code, batch) -> {
+            if (batch != null && batch.questionIndex != questionIndex) {
+                // Leftover from the previous question; send it before starting over
+                broadcast(code, batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(questionIndex);
+                scheduler.schedule(() -> scheduleFlush(code), windowMs, TimeUnit.MILLISECONDS);
+            }
+            batch.add(playerId, answeredCount);
+            return batch;
+        });
+    }
+
+    /**
+     * Sends a room's pending progress now, e.g. before the question's results go out.
+     */
+    public void flush(String roomCode) {
+        Batch batch = pending.remove(roomCode);
+        if (batch != null) {
+            broadcast(roomCode, batch);
+        }
+    }
+
+    long windowFor(int roomSize) {
+        Map.Entry<Integer, Long> entry = windows.floorEntry(roomSize);
+        return entry != null ? entry.getValue() : 0;
+    }
+
+    private void scheduleFlush(String roomCode) {
+        if (mailboxes.isEnabled() && mailboxes.offer(roomCode, () -> flush(roomCode))) {
+            return;
+        }
+        flush(roomCode);
+    }
+
+    private void broadcast(String roomCode, Batch batch) {
+        JSONObject progress = new JSONObject();
+        progress.put("type", TYPE);
+        progress.put("questionIndex", batch.questionIndex);
+        progress.put("answeredCount", batch.answeredCount);
+        progress.put("playerIds", new JSONArray(batch.playerIds));
+        try {
+            context.broadcastToRoom(roomCode, progress);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast answer progress for room {}: {}", roomCode, e.getMessage());
+        }
+    }
+
+    static NavigableMap<Integer, Long> parseWindows(String spec) {
+        NavigableMap<Integer, Long> parsed = new TreeMap<>();
+        for (String pair : spec.split(",")) {
+            String trimmed = pair.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid answer-progress window '" + trimmed
+                        + "', expected minPlayers:windowMs");
+            }
+            parsed.put(Integer.parseInt(parts[0].trim()), Long.parseLong(parts[1].trim()));
+        }
+        return parsed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (String roomCode : List.copyOf(pending.keySet())) {
+            flush(roomCode);
+        }
+    }
+
+    /**
+     * Answers collected for one room during one window.
+     */
+    private static final class Batch {
+
+        private final int questionIndex;
+        private final List<String> playerIds = new ArrayList<>();
+        private int answeredCount;
+
+        Batch(int questionIndex) {
+            this.questionIndex = questionIndex;
+        }
+
+        void add(String playerId, int count) {
+            playerIds.add(playerId);
+            answeredCount = Math.max(answeredCount, count);
+        }
+    }
+}
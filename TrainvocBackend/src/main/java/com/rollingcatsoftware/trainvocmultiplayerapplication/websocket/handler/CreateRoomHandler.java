@@ -2,79 +2,76 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameDrainService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.CreateRoomMessage;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.List;
+
 /**
  * Handles room creation requests via WebSocket.
+ * A joining host also receives the initial roster snapshot that later deltas build on.
+ * Refused while the node drains for shutdown.
+ * A joining host gets a resume token, as joining players do.
  */
 @Component
-public class CreateRoomHandler implements WebSocketMessageHandler {
+public class CreateRoomHandler implements WebSocketMessageHandler<CreateRoomMessage> {
 
     private final GameService gameService;
+    private final RosterUpdates rosterUpdates;
+    private final GameDrainService drain;
+    private final SessionResumption resumption;
 
-    public CreateRoomHandler(GameService gameService) {
+    public CreateRoomHandler(GameService gameService, RosterUpdates rosterUpdates, GameDrainService drain,
+                             SessionResumption resumption) {
         this.gameService = gameService;
+        this.rosterUpdates = rosterUpdates;
+        this.drain = drain;
+        this.resumption = resumption;
     }
 
     @Override
     public String getMessageType() {
-        return "create";
+        return CreateRoomMessage.TYPE;
     }
 
     @Override
-    public void handle(WebSocketSession session, JSONObject message, WebSocketContext context) throws Exception {
-        String hostName = message.getString("name");
-        Integer avatarId = extractAvatarId(message);
-        String hashedPassword = extractHashedPassword(message);
-        QuizSettings settings = extractSettings(message);
-        boolean hostWantsToJoin = settings.getTotalQuestionCount() > 0; // Use settings if available
-
-        if (message.has("settings")) {
-            JSONObject settingsJson = message.getJSONObject("settings");
-            hostWantsToJoin = settingsJson.optBoolean("hostWantsToJoin", true);
+    public void handle(WebSocketSession session, CreateRoomMessage message, WebSocketContext context) throws Exception {
+        if (drain.isDraining()) {
+            JSONObject error = new JSONObject();
+            error.put("type", "error");
+            error.put("message", "Server is restarting, please try again in a moment.");
+            context.sendMessage(session, error);
+            return;
         }
 
-        GameRoom room = gameService.createRoom(hostName, avatarId, settings, hostWantsToJoin, hashedPassword);
+        boolean hostWantsToJoin = message.hostWantsToJoin();
+
+        GameRoom room = gameService.createRoom(message.name(), message.avatarId(), message.settings(),
+                hostWantsToJoin, message.hashedPassword());
 
         Player host = null;
         if (hostWantsToJoin && !room.getPlayers().isEmpty()) {
             host = room.getPlayers().getFirst();
-            context.registerSession(host.getId(), session);
+            context.registerSession(host.getId(), room.getRoomCode(), session);
         }
 
         JSONObject response = new JSONObject();
         response.put("type", "roomCreated");
         response.put("roomCode", room.getRoomCode());
         response.put("playerId", host != null ? host.getId() : JSONObject.NULL);
+        if (host != null) {
+            response.put("resumeToken", resumption.tokenFor(host.getId()));
+            response.put(RoomReplay.SEQ, context.currentEventSeq(room.getRoomCode()));
+        }
 
         context.sendMessage(session, response);
-    }
 
-    private Integer extractAvatarId(JSONObject message) {
-        if (message.has("avatarId") && !message.isNull("avatarId")) {
-            return message.getInt("avatarId");
+        if (host != null) {
+            rosterUpdates.sendSnapshot(session, room.getRoomCode(), () -> List.copyOf(room.getPlayers()));
         }
-        return null;
-    }
-
-    private String extractHashedPassword(JSONObject message) {
-        if (message.has("hashedPassword") && !message.isNull("hashedPassword")) {
-            return message.getString("hashedPassword");
-        }
-        return null;
-    }
-
-    private QuizSettings extractSettings(JSONObject message) {
-        JSONObject settingsJson = message.has("settings") ? message.getJSONObject("settings") : new JSONObject();
-        QuizSettings settings = new QuizSettings();
-        settings.setQuestionDuration(settingsJson.optInt("questionDuration", 60));
-        settings.setOptionCount(settingsJson.optInt("optionCount", 4));
-        settings.setLevel(settingsJson.optString("level", "A1"));
-        settings.setTotalQuestionCount(settingsJson.optInt("totalQuestionCount", 5));
-        return settings;
     }
 }
@@ -5,43 +5,49 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
-import org.json.JSONArray;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.JoinMessage;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.util.List;
-
 /**
  * Handles room join requests via WebSocket.
- * Broadcasts player join to existing players in the room.
+ * Broadcasts player join to existing players in the room as a roster delta,
+ * and sends the joining player a full roster snapshot.
+ * The confirmation carries the player's resume token and the room's current {@code eventSeq},
+ * which the client needs to resume after a disconnect.
  */
 @Component
-public class JoinRoomHandler implements WebSocketMessageHandler {
+public class JoinRoomHandler implements WebSocketMessageHandler<JoinMessage> {
 
     private final GameService gameService;
     private final RoomService roomService;
     private final PlayerService playerService;
     private final WebSocketContext wsContext;
+    private final RosterUpdates rosterUpdates;
+    private final SessionResumption resumption;
 
     public JoinRoomHandler(GameService gameService, RoomService roomService,
-                          PlayerService playerService, WebSocketContext wsContext) {
+                          PlayerService playerService, WebSocketContext wsContext,
+                          RosterUpdates rosterUpdates, SessionResumption resumption) {
         this.gameService = gameService;
         this.roomService = roomService;
         this.playerService = playerService;
         this.wsContext = wsContext;
+        this.rosterUpdates = rosterUpdates;
+        this.resumption = resumption;
     }
 
     @Override
     public String getMessageType() {
-        return "join";
+        return JoinMessage.TYPE;
     }
 
     @Override
-    public void handle(WebSocketSession session, JSONObject message, WebSocketContext context) throws Exception {
-        String roomCode = message.getString("roomCode");
-        String name = message.getString("name");
-        Integer avatarId = extractAvatarId(message);
+    public void handle(WebSocketSession session, JoinMessage message, WebSocketContext context) throws Exception {
+        String roomCode = message.roomCode();
+        String name = message.name();
+        Integer avatarId = message.avatarId();
 
         // Get room before joining to know existing players
         GameRoom room = roomService.findByRoomCode(roomCode);
@@ -53,13 +59,17 @@ public class JoinRoomHandler implements WebSocketMessageHandler {
         Player player = gameService.joinRoom(roomCode, name, avatarId);
 
         if (player != null) {
-            context.registerSession(player.getId(), session);
+            // Read before registering: anything broadcast in between is replayed on resume
+            long eventSeq = context.currentEventSeq(roomCode);
+            context.registerSession(player.getId(), roomCode, session);
 
             // Send confirmation to the joining player
             JSONObject response = new JSONObject();
             response.put("type", "roomJoined");
             response.put("roomCode", roomCode);
             response.put("playerId", player.getId());
+            response.put("resumeToken", resumption.tokenFor(player.getId()));
+            response.put(RoomReplay.SEQ, eventSeq);
             context.sendMessage(session, response);
 
             // Broadcast playerJoined to all players in room (including the new one)
@@ -69,40 +79,16 @@ public class JoinRoomHandler implements WebSocketMessageHandler {
             playerJoined.put("playerName", player.getName());
             playerJoined.put("avatarId", player.getAvatarId());
 
-            wsContext.broadcastToRoom(room, playerJoined);
-
-            // Also send full players list update
-            List<Player> allPlayers = playerService.getPlayersByRoom(room);
-            JSONObject playersUpdate = new JSONObject();
-            playersUpdate.put("type", "playersUpdate");
-            playersUpdate.put("players", buildPlayersArray(allPlayers));
+            wsContext.broadcastToRoom(room.getRoomCode(), playerJoined);
 
-            wsContext.broadcastToRoom(room, playersUpdate);
+            // Existing players get a delta; the joining player gets the full list
+            rosterUpdates.playerAdded(room.getRoomCode(), player);
+            rosterUpdates.sendSnapshot(session, room.getRoomCode(), () -> playerService.getPlayersByRoom(room));
         } else {
             sendError(session, context, "Failed to join room. Room may not exist or game already started.");
         }
     }
 
-    private JSONArray buildPlayersArray(List<Player> players) {
-        JSONArray arr = new JSONArray();
-        for (Player p : players) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            arr.put(pObj);
-        }
-        return arr;
-    }
-
-    private Integer extractAvatarId(JSONObject message) {
-        if (message.has("avatarId") && !message.isNull("avatarId")) {
-            return message.getInt("avatarId");
-        }
-        return null;
-    }
-
     private void sendError(WebSocketSession session, WebSocketContext context, String msg) throws Exception {
         JSONObject error = new JSONObject();
         error.put("type", "error");
@@ -4,7 +4,7 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
-import org.json.JSONArray;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.LeaveMessage;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
@@ -13,31 +13,34 @@ import java.util.List;
 
 /**
  * Handles player leave requests via WebSocket.
- * Broadcasts player departure to remaining players.
+ * Broadcasts player departure to remaining players, with a roster delta.
  * Disbands room if no players remain.
  */
 @Component
-public class LeaveRoomHandler implements WebSocketMessageHandler {
+public class LeaveRoomHandler implements WebSocketMessageHandler<LeaveMessage> {
 
     private final RoomService roomService;
     private final PlayerService playerService;
     private final WebSocketContext context;
+    private final RosterUpdates rosterUpdates;
 
-    public LeaveRoomHandler(RoomService roomService, PlayerService playerService, WebSocketContext context) {
+    public LeaveRoomHandler(RoomService roomService, PlayerService playerService, WebSocketContext context,
+                            RosterUpdates rosterUpdates) {
         this.roomService = roomService;
         this.playerService = playerService;
         this.context = context;
+        this.rosterUpdates = rosterUpdates;
     }
 
     @Override
     public String getMessageType() {
-        return "leave";
+        return LeaveMessage.TYPE;
     }
 
     @Override
-    public void handle(WebSocketSession session, JSONObject message, WebSocketContext ctx) throws Exception {
-        String roomCode = message.getString("roomCode");
-        String playerId = message.getString("playerId");
+    public void handle(WebSocketSession session, LeaveMessage message, WebSocketContext ctx) throws Exception {
+        String roomCode = message.roomCode();
+        String playerId = message.playerId();
 
         GameRoom room = roomService.findByRoomCode(roomCode);
         if (room == null) {
@@ -90,27 +93,9 @@ public class LeaveRoomHandler implements WebSocketMessageHandler {
         playerLeft.put("playerId", playerId);
         playerLeft.put("playerName", leavingPlayerName);
 
-        context.broadcastToRoom(room, playerLeft);
+        context.broadcastToRoom(room.getRoomCode(), playerLeft);
 
-        // Also send updated player list
-        JSONObject playersUpdate = new JSONObject();
-        playersUpdate.put("type", "playersUpdate");
-        playersUpdate.put("players", buildPlayersArray(remainingPlayers));
-
-        context.broadcastToRoom(room, playersUpdate);
-    }
-
-    private JSONArray buildPlayersArray(List<Player> players) {
-        JSONArray arr = new JSONArray();
-        for (Player p : players) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            arr.put(pObj);
-        }
-        return arr;
+        rosterUpdates.playerRemoved(room.getRoomCode(), playerId);
     }
 
     private void sendError(WebSocketSession session, WebSocketContext ctx, String msg) throws Exception {
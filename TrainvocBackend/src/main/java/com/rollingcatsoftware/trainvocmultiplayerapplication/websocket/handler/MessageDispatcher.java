@@ -1,9 +1,19 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
+import com.rollingcatsoftware.trainvocmultiplayerapplication.exception.InvalidMessageException;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.DbCallCounter;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessage;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessageDecoder;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.PingMessage;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,16 +22,30 @@ import java.util.concurrent.ConcurrentHashMap;
  * Dispatches WebSocket messages to appropriate handlers based on message type.
  * Implements the Strategy pattern for message handling.
  * Uses ConcurrentHashMap for thread-safe handler registration.
+ * Frames are decoded into typed records by {@link InboundMessageDecoder} before dispatch,
+ * from JSON text or, for sessions on the CBOR subprotocol, binary frames.
+ * In mailbox mode, handlers run on the room's serial executor (see {@link RoomMailboxes}),
+ * so messages for one room are processed in arrival order and rooms proceed in parallel.
+ * Every handler run is timed and its SQL statements counted into {@link GameMetrics}.
  */
 @Component
 public class MessageDispatcher {
 
-    private final Map<String, WebSocketMessageHandler> handlers = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(MessageDispatcher.class);
+
+    private final Map<String, WebSocketMessageHandler<?>> handlers = new ConcurrentHashMap<>();
     private final WebSocketContext context;
+    private final RoomMailboxes mailboxes;
+    private final InboundMessageDecoder decoder;
+    private final GameMetrics metrics;
 
-    public MessageDispatcher(List<WebSocketMessageHandler> messageHandlers, WebSocketContext context) {
+    public MessageDispatcher(List<WebSocketMessageHandler<?>> messageHandlers, WebSocketContext context,
+                             RoomMailboxes mailboxes, InboundMessageDecoder decoder, GameMetrics metrics) {
         this.context = context;
-        for (WebSocketMessageHandler handler : messageHandlers) {
+        this.mailboxes = mailboxes;
+        this.decoder = decoder;
+        this.metrics = metrics;
+        for (WebSocketMessageHandler<?> handler : messageHandlers) {
             handlers.put(handler.getMessageType(), handler);
         }
     }
@@ -34,14 +58,107 @@ public class MessageDispatcher {
      * @throws Exception if message handling fails
      */
     public void dispatch(WebSocketSession session, String message) throws Exception {
-        JSONObject json = new JSONObject(message);
-        String type = json.optString("type", "");
+        InboundMessage decoded;
+        try {
+            decoded = decoder.decode(message);
+        } catch (InvalidMessageException e) {
+            sendError(session, e.getMessage());
+            return;
+        }
+        route(session, decoded);
+    }
+
+    /**
+     * Dispatches a CBOR binary message to the appropriate handler.
+     *
+     * @param session The WebSocket session
+     * @param payload The binary message payload
+     * @throws Exception if message handling fails
+     */
+    public void dispatchBinary(WebSocketSession session, ByteBuffer payload) throws Exception {
+        InboundMessage decoded;
+        try {
+            decoded = decoder.decodeBinary(payload);
+        } catch (InvalidMessageException e) {
+            sendError(session, e.getMessage());
+            return;
+        }
+        route(session, decoded);
+    }
 
-        WebSocketMessageHandler handler = handlers.get(type);
-        if (handler != null) {
-            handler.handle(session, json, context);
-        } else {
-            sendUnknownTypeError(session, type);
+    private void route(WebSocketSession session, InboundMessage decoded) throws Exception {
+        WebSocketMessageHandler<InboundMessage> handler = handlerFor(decoded);
+        if (handler == null) {
+            sendUnknownTypeError(session, decoded.type());
+            return;
+        }
+
+        // Pings skip the mailbox: queueing behind room work would skew the clock sample
+        if (!mailboxes.isEnabled() || decoded instanceof PingMessage) {
+            handleMeasured(handler, session, decoded);
+            return;
+        }
+
+        if (!mailboxes.offer(mailboxKey(session, decoded), () -> runQueued(handler, session, decoded))) {
+            handleOverflow(session, decoded.type());
+        }
+    }
+
+    /**
+     * Room messages share the room's mailbox; messages without a room (e.g. create)
+     * are still kept in order per session.
+     */
+    static String mailboxKey(WebSocketSession session, InboundMessage message) {
+        String roomCode = message.roomCode();
+        return roomCode == null || roomCode.isEmpty() ? "session:" + session.getId() : roomCode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private WebSocketMessageHandler<InboundMessage> handlerFor(InboundMessage message) {
+        // Handlers are registered under the type of the record they accept
+        return (WebSocketMessageHandler<InboundMessage>) handlers.get(message.type());
+    }
+
+    private void handleMeasured(WebSocketMessageHandler<InboundMessage> handler, WebSocketSession session,
+                                InboundMessage message) throws Exception {
+        String roomCode = message.roomCode();
+        int roomSize = roomCode == null || roomCode.isEmpty() ? 0 : context.getRoomPlayerIds(roomCode).size();
+        long dbCallsBefore = DbCallCounter.current();
+        long start = System.nanoTime();
+        try {
+            handler.handle(session, message, context);
+        } finally {
+            metrics.recordMessage(message.type(), roomSize, System.nanoTime() - start,
+                    DbCallCounter.current() - dbCallsBefore);
+        }
+    }
+
+    private void runQueued(WebSocketMessageHandler<InboundMessage> handler, WebSocketSession session,
+                           InboundMessage message) {
+        try {
+            handleMeasured(handler, session, message);
+        } catch (Exception e) {
+            // Same outcome as an exception escaping on the container thread
+            log.error("Handler for {} failed on session {}: {}",
+                    handler.getMessageType(), session.getId(), e.getMessage(), e);
+            closeQuietly(session, CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    private void handleOverflow(WebSocketSession session, String type) throws Exception {
+        log.warn("Mailbox full, dropping {} from session {}", type, session.getId());
+        if (mailboxes.getOverflowPolicy() == RoomMailboxes.OverflowPolicy.CLOSE) {
+            closeQuietly(session, CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        sendError(session, "Server busy, please retry.");
+    }
+
+    private void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
         }
     }
 
@@ -53,9 +170,13 @@ public class MessageDispatcher {
     }
 
     private void sendUnknownTypeError(WebSocketSession session, String type) throws Exception {
+        sendError(session, "Unknown message type: " + type);
+    }
+
+    private void sendError(WebSocketSession session, String msg) throws Exception {
         JSONObject error = new JSONObject();
         error.put("type", "error");
-        error.put("message", "Unknown message type: " + type);
+        error.put("message", msg);
         context.sendMessage(session, error);
     }
 }
@@ -1,45 +1,41 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
-import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
-import org.json.JSONArray;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.NextMessage;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
 /**
  * Handles next question requests via WebSocket.
  * Advances the game to the next question or finishes the game.
  */
 @Component
-public class NextQuestionHandler implements WebSocketMessageHandler {
+public class NextQuestionHandler implements WebSocketMessageHandler<NextMessage> {
 
     private final RoomService roomService;
-    private final PlayerService playerService;
-    private final WebSocketContext context;
+    private final GameStateMachine stateMachine;
+    private final TransitionBroadcaster transitions;
 
-    public NextQuestionHandler(RoomService roomService, PlayerService playerService, WebSocketContext context) {
+    public NextQuestionHandler(RoomService roomService, GameStateMachine stateMachine,
+                               TransitionBroadcaster transitions) {
         this.roomService = roomService;
-        this.playerService = playerService;
-        this.context = context;
+        this.stateMachine = stateMachine;
+        this.transitions = transitions;
     }
 
     @Override
     public String getMessageType() {
-        return "next";
+        return NextMessage.TYPE;
     }
 
     @Override
-    public void handle(WebSocketSession session, JSONObject message, WebSocketContext ctx) throws Exception {
-        String roomCode = message.getString("roomCode");
-        String playerId = message.optString("playerId", "");
+    public void handle(WebSocketSession session, NextMessage message, WebSocketContext ctx) throws Exception {
+        String roomCode = message.roomCode();
+        String playerId = message.playerId();
 
         GameRoom room = roomService.findByRoomCode(roomCode);
         if (room == null) {
@@ -47,81 +43,16 @@ public class NextQuestionHandler implements WebSocketMessageHandler {
             return;
         }
 
-        // Verify game is in ANSWER_REVEAL state (ready for next question)
-        if (room.getCurrentState() != GameState.ANSWER_REVEAL) {
+        // Only from ANSWER_REVEAL (ready for next question); loses cleanly to a timer
+        // auto-advance that got there first. The advance is atomic under the room's monitor;
+        // the broadcast runs after it is released, so a large-room fan-out never blocks
+        // answers for the room. The room's mailbox and event sequence keep messages in order.
+        GameStateMachine.Transition transition = stateMachine.advance(room, GameState.ANSWER_REVEAL);
+        if (transition == null) {
             sendError(session, ctx, "Cannot advance at this time.");
             return;
         }
-
-        int currentIndex = room.getCurrentQuestionIndex();
-        int totalQuestions = room.getTotalQuestionCount();
-
-        if (currentIndex >= totalQuestions - 1) {
-            // Last question - transition to RANKING
-            room.setCurrentState(GameState.RANKING);
-            room.setStateStartTime(LocalDateTime.now());
-            roomService.save(room);
-
-            // Broadcast state change
-            JSONObject stateMsg = new JSONObject();
-            stateMsg.put("type", "gameStateChanged");
-            stateMsg.put("state", GameState.RANKING.ordinal());
-            stateMsg.put("stateName", GameState.RANKING.name());
-            stateMsg.put("remainingTime", GameConstants.RANKING_SECONDS);
-            stateMsg.put("currentQuestionIndex", currentIndex);
-            stateMsg.put("totalQuestionCount", totalQuestions);
-
-            context.broadcastToRoom(room, stateMsg);
-
-            // Broadcast final rankings
-            broadcastRankings(room);
-        } else {
-            // Advance to next question - start with COUNTDOWN
-            room.setCurrentQuestionIndex(currentIndex + 1);
-            room.setCurrentState(GameState.COUNTDOWN);
-            room.setStateStartTime(LocalDateTime.now());
-            roomService.save(room);
-
-            // Reset player answers for new question
-            playerService.resetAnswersForRoom(room);
-
-            // Broadcast countdown
-            JSONObject stateMsg = new JSONObject();
-            stateMsg.put("type", "gameStateChanged");
-            stateMsg.put("state", GameState.COUNTDOWN.ordinal());
-            stateMsg.put("stateName", GameState.COUNTDOWN.name());
-            stateMsg.put("remainingTime", GameConstants.COUNTDOWN_SECONDS);
-            stateMsg.put("currentQuestionIndex", currentIndex + 1);
-            stateMsg.put("totalQuestionCount", totalQuestions);
-
-            context.broadcastToRoom(room, stateMsg);
-        }
-    }
-
-    private void broadcastRankings(GameRoom room) throws Exception {
-        List<Player> players = playerService.getPlayersByRoom(room);
-        List<Player> sorted = players.stream()
-                .sorted((a, b) -> Integer.compare(b.getScore(), a.getScore()))
-                .toList();
-
-        JSONArray rankings = new JSONArray();
-        int rank = 1;
-        for (Player p : sorted) {
-            JSONObject pObj = new JSONObject();
-            pObj.put("rank", rank++);
-            pObj.put("id", p.getId());
-            pObj.put("name", p.getName());
-            pObj.put("avatarId", p.getAvatarId());
-            pObj.put("score", p.getScore());
-            pObj.put("correctCount", p.getCorrectCount());
-            rankings.put(pObj);
-        }
-
-        JSONObject msg = new JSONObject();
-        msg.put("type", "rankings");
-        msg.put("players", rankings);
-
-        context.broadcastToRoom(room, msg);
+        transitions.broadcast(room, transition);
     }
 
     private void sendError(WebSocketSession session, WebSocketContext ctx, String msg) throws Exception {
@@ -0,0 +1,35 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.PingMessage;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Answers clock-sync pings with the server's clock.
+ * <p>
+ * The client records its own time on send ({@code clientTime}) and on receipt of the
+ * {@code pong}; with {@code serverTime} in between it estimates its offset from the server
+ * as {@code serverTime - (clientTime + receivedAt) / 2}, keeping the sample with the
+ * shortest round trip. That offset turns {@code serverTime + remainingTimeMs} from
+ * {@code gameStateChanged} into a countdown that ends at the same moment on every client.
+ */
+@Component
+public class PingHandler implements WebSocketMessageHandler<PingMessage> {
+
+    public static final String PONG_TYPE = "pong";
+
+    @Override
+    public String getMessageType() {
+        return PingMessage.TYPE;
+    }
+
+    @Override
+    public void handle(WebSocketSession session, PingMessage message, WebSocketContext context) throws Exception {
+        JSONObject pong = new JSONObject();
+        pong.put("type", PONG_TYPE);
+        pong.put("clientTime", message.clientTime());
+        pong.put("serverTime", System.currentTimeMillis());
+        context.sendMessage(session, pong);
+    }
+}
@@ -0,0 +1,86 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds and broadcasts the {@code rankings} message shown between questions.
+ * <p>
+ * Small rooms get the full ranked list. In large-room mode (see {@link ShardedFanout}) the
+ * shared message holds only the top {@code game.large-room.rankings-top-k} players and the
+ * room's {@code totalPlayers}; each recipient also receives its own
+ * {@code you: {rank, score, correctCount}} entry, spliced onto the shared frame.
+ */
+@Component
+public class RankingsBroadcaster {
+
+    public static final String TYPE = "rankings";
+    public static final String OWN_RANK_KEY = "you";
+
+    private final WebSocketContext context;
+    private final ShardedFanout fanout;
+    private final int topK;
+
+    public RankingsBroadcaster(WebSocketContext context, ShardedFanout fanout,
+                               @Value("${game.large-room.rankings-top-k:10}") int topK) {
+        this.context = context;
+        this.fanout = fanout;
+        this.topK = topK;
+    }
+
+    /**
+     * Ranks the players by score and broadcasts the result to the room.
+     */
+    public void broadcast(String roomCode, List<Player> players) throws IOException {
+        List<Player> sorted = players.stream()
+                .sorted((a, b) -> Integer.compare(b.getScore(), a.getScore()))
+                .toList();
+
+        if (!fanout.isLargeRoom(sorted.size())) {
+            context.broadcastToRoom(roomCode, message(sorted, sorted.size()));
+            return;
+        }
+
+        Map<String, JSONObject> ownRanks = new HashMap<>(sorted.size() * 4 / 3 + 1);
+        int rank = 1;
+        for (Player p : sorted) {
+            JSONObject own = new JSONObject();
+            own.put("rank", rank++);
+            own.put("score", p.getScore());
+            own.put("correctCount", p.getCorrectCount());
+            ownRanks.put(p.getId(), own);
+        }
+
+        JSONObject msg = message(sorted, topK);
+        msg.put("totalPlayers", sorted.size());
+        context.broadcastToRoom(roomCode, msg, OWN_RANK_KEY, ownRanks::get);
+    }
+
+    private static JSONObject message(List<Player> sorted, int limit) {
+        JSONArray rankings = new JSONArray();
+        int rank = 1;
+        for (Player p : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            JSONObject pObj = new JSONObject();
+            pObj.put("rank", rank++);
+            pObj.put("id", p.getId());
+            pObj.put("name", p.getName());
+            pObj.put("avatarId", p.getAvatarId());
+            pObj.put("score", p.getScore());
+            pObj.put("correctCount", p.getCorrectCount());
+            rankings.put(pObj);
+        }
+
+        JSONObject msg = new JSONObject();
+        msg.put("type", TYPE);
+        msg.put("players", rankings);
+        return msg;
+    }
+}
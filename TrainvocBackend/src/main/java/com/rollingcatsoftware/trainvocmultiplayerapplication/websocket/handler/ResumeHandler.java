@@ -0,0 +1,92 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.ResumeMessage;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Handles session resumption via WebSocket.
+ * A player who reconnects within the grace period with a valid resume token gets back their
+ * place in the room: the pending leave is cancelled, missed broadcasts are replayed from the
+ * client's last {@code eventSeq}, and the new session joins the room's broadcasts. If the
+ * missed broadcasts are no longer kept, the client gets a roster snapshot and the current
+ * game state instead ({@code replayed: false}).
+ */
+@Component
+public class ResumeHandler implements WebSocketMessageHandler<ResumeMessage> {
+
+    public static final String RESUMED = "resumed";
+    public static final String RESUME_FAILED = "resumeFailed";
+
+    private final RoomService roomService;
+    private final PlayerService playerService;
+    private final SessionResumption resumption;
+    private final RosterUpdates rosterUpdates;
+
+    public ResumeHandler(RoomService roomService, PlayerService playerService,
+                         SessionResumption resumption, RosterUpdates rosterUpdates) {
+        this.roomService = roomService;
+        this.playerService = playerService;
+        this.resumption = resumption;
+        this.rosterUpdates = rosterUpdates;
+    }
+
+    @Override
+    public String getMessageType() {
+        return ResumeMessage.TYPE;
+    }
+
+    @Override
+    public void handle(WebSocketSession session, ResumeMessage message, WebSocketContext context) throws Exception {
+        String roomCode = message.roomCode();
+        String playerId = message.playerId();
+
+        if (!resumption.verify(playerId, message.token())) {
+            sendFailed(session, context, roomCode, "Session cannot be resumed.");
+            return;
+        }
+
+        Player player = playerService.findById(playerId);
+        GameRoom room = roomService.findByRoomCode(roomCode);
+        if (player == null || player.getRoom() == null || room == null
+                || !roomCode.equals(player.getRoom().getRoomCode())) {
+            // The grace period ran out, or the room is gone
+            resumption.cancelLeave(playerId);
+            sendFailed(session, context, roomCode, "You are no longer in this room.");
+            return;
+        }
+
+        resumption.cancelLeave(playerId);
+        boolean replayed = context.resumeSession(playerId, roomCode, session, message.lastSeq());
+
+        JSONObject resumed = new JSONObject();
+        resumed.put("type", RESUMED);
+        resumed.put("roomCode", roomCode);
+        resumed.put("playerId", playerId);
+        resumed.put("replayed", replayed);
+        resumed.put(RoomReplay.SEQ, context.currentEventSeq(roomCode));
+        context.sendMessage(session, resumed);
+
+        if (!replayed) {
+            rosterUpdates.sendSnapshot(session, roomCode, () -> playerService.getPlayersByRoom(room));
+            if (room.getCurrentState() != null && room.getCurrentState() != GameState.LOBBY) {
+                context.sendMessage(session, StateChangeMessages.of(room));
+            }
+        }
+    }
+
+    private void sendFailed(WebSocketSession session, WebSocketContext context, String roomCode, String msg)
+            throws Exception {
+        JSONObject failed = new JSONObject();
+        failed.put("type", RESUME_FAILED);
+        failed.put("roomCode", roomCode);
+        failed.put("message", msg);
+        context.sendMessage(session, failed);
+    }
+}
@@ -0,0 +1,218 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-room serial executors (mailboxes) for WebSocket message processing.
+ * <p>
+ * Every task offered under the same key runs in order, one at a time; different keys run in
+ * parallel on virtual threads. Keys are room codes, so all work for a room is serialized
+ * without blocking the container's WebSocket threads. A mailbox holds at most
+ * {@code game.dispatch.mailbox-capacity} pending tasks; {@link #offer} returns false beyond
+ * that and the caller applies the configured {@link OverflowPolicy}.
+ * <p>
+ * Exposes {@code game.mailbox.depth} (pending tasks across all rooms),
+ * {@code game.mailbox.depth.max} (deepest single mailbox), {@code game.mailbox.active}
+ * and {@code game.mailbox.rejected}.
+ */
+@Component
+public class RoomMailboxes {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomMailboxes.class);
+
+    /** Tasks run per drain before yielding the carrier to other rooms. */
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * How {@link MessageDispatcher} runs handlers.
+     */
+    public enum DispatchMode {
+        /** Run on the calling WebSocket thread. */
+        DIRECT,
+        /** Queue to the room's mailbox. */
+        MAILBOX
+    }
+
+    /**
+     * What to do with a message when its room's mailbox is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the message and tell the sender to retry. */
+        REJECT,
+        /** Drop the message and close the sender's session. */
+        CLOSE
+    }
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger totalDepth = new AtomicInteger();
+    private final DispatchMode mode;
+    private final OverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final Counter rejected;
+
+    public RoomMailboxes(MeterRegistry meterRegistry,
+                         @Value("${game.dispatch.mode:MAILBOX}") DispatchMode mode,
+                         @Value("${game.dispatch.overflow-policy:REJECT}") OverflowPolicy overflowPolicy,
+                         @Value("${game.dispatch.mailbox-capacity:256}") int capacity) {
+        this.mode = mode;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.rejected = Counter.builder("game.mailbox.rejected")
+                .description("Tasks dropped because a room mailbox was full")
+                .register(meterRegistry);
+        Gauge.builder("game.mailbox.depth", totalDepth, AtomicInteger::get)
+                .description("Pending tasks across all room mailboxes")
+                .register(meterRegistry);
+        Gauge.builder("game.mailbox.depth.max", this, RoomMailboxes::maxDepth)
+                .description("Pending tasks in the deepest room mailbox")
+                .register(meterRegistry);
+        Gauge.builder("game.mailbox.active", mailboxes, Map::size)
+                .description("Room mailboxes with pending or running tasks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether messages should be routed through mailboxes rather than run inline.
+     */
+    public boolean isEnabled() {
+        return mode == DispatchMode.MAILBOX;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Queues a task behind all earlier tasks for the same key.
+     *
+     * @return false if the key's mailbox is full and the task was not queued
+     */
+    public boolean offer(String key, Runnable task) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(key, Mailbox::new);
+            int result = mailbox.offer(task);
+            if (result > 0) {
+                return true;
+            }
+            if (result < 0) {
+                rejected.increment();
+                return false;
+            }
+            // Mailbox retired between lookup and offer; it is already unmapped, so retry
+        }
+    }
+
+    /**
+     * Returns the number of pending tasks for a key.
+     */
+    public int depth(String key) {
+        Mailbox mailbox = mailboxes.get(key);
+        return mailbox != null ? mailbox.depth.get() : 0;
+    }
+
+    private double maxDepth() {
+        int max = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            max = Math.max(max, mailbox.depth.get());
+        }
+        return max;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Room mailboxes still had {} pending tasks at shutdown", totalDepth.get());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A single room's queue. At most one drain runs at a time, guarded by {@code scheduled}.
+     * An idle mailbox retires itself from the map so finished rooms do not accumulate.
+     */
+    private final class Mailbox {
+
+        private final String key;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean retired;
+
+        Mailbox(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return 1 if queued, -1 if full, 0 if this mailbox has retired
+         */
+        int offer(Runnable task) {
+            synchronized (this) {
+                if (retired) {
+                    return 0;
+                }
+                if (depth.get() >= capacity) {
+                    return -1;
+                }
+                depth.incrementAndGet();
+                totalDepth.incrementAndGet();
+                queue.add(task);
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+            return 1;
+        }
+
+        private void drain() {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Mailbox task for {} failed: {}", key, e.getMessage(), e);
+                } finally {
+                    depth.decrementAndGet();
+                    totalDepth.decrementAndGet();
+                }
+            }
+
+            if (!queue.isEmpty()) {
+                // Yield so one busy room cannot monopolize a carrier thread
+                executor.execute(this::drain);
+                return;
+            }
+
+            synchronized (this) {
+                if (queue.isEmpty()) {
+                    retired = true;
+                    mailboxes.remove(key, this);
+                    scheduled.set(false);
+                    return;
+                }
+            }
+            executor.execute(this::drain);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RecentMessages;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Numbers room broadcasts and replays the ones a reconnecting client missed.
+ * <p>
+ * Every room broadcast gets the room's next {@code eventSeq} and is kept in the room's
+ * {@link RecentMessages} ring ({@code game.ws.resume.replay-size} messages). A client tracks
+ * the highest {@code eventSeq} it has seen; on resume it is sent everything after that, then
+ * its new session joins the room's broadcasts, all under the room's send-order lock, so no
+ * broadcast is lost or duplicated in between. The ring's monitor is held only to number and
+ * store a message or copy the missed ones; every socket write happens outside it.
+ * Personalized broadcasts are kept and replayed without the recipient's own part.
+ */
+@Component
+public class RoomReplay {
+
+    public static final String SEQ = "eventSeq";
+
+    private final RoomRegistry roomRegistry;
+
+    public RoomReplay(RoomRegistry roomRegistry) {
+        this.roomRegistry = roomRegistry;
+    }
+
+    /**
+     * Numbers and keeps a room broadcast, then runs {@code send}. Broadcasts to one room
+     * are sent one at a time, so clients see {@code eventSeq} values in order.
+     */
+    public void publish(String roomCode, JSONObject message, Runnable send) {
+        RecentMessages recent = roomRegistry.recentMessages(roomCode);
+        if (recent == null) {
+            send.run();
+            return;
+        }
+        ReentrantLock order = recent.sendOrder();
+        order.lock();
+        try {
+            message.put(SEQ, recent.append(message));
+            send.run();
+        } finally {
+            order.unlock();
+        }
+    }
+
+    /**
+     * The {@code eventSeq} of the room's latest broadcast, which a joining client starts from.
+     */
+    public long currentSeq(String roomCode) {
+        RecentMessages recent = roomRegistry.recentMessages(roomCode);
+        return recent != null ? recent.seq() : 0;
+    }
+
+    /**
+     * Sends a resuming client the broadcasts after {@code lastSeq}, then runs {@code attach}
+     * to add its session to the room, with no broadcast in between.
+     *
+     * @return false if the missed broadcasts are no longer kept; {@code attach} still runs,
+     *         and the caller must resync the client another way
+     */
+    public boolean resume(String roomCode, long lastSeq, Consumer<JSONObject> send, Runnable attach) {
+        RecentMessages recent = roomRegistry.recentMessages(roomCode);
+        if (recent == null) {
+            attach.run();
+            return false;
+        }
+        ReentrantLock order = recent.sendOrder();
+        order.lock();
+        try {
+            // Copied under the ring's monitor, sent after it is released
+            List<JSONObject> missed = recent.after(lastSeq);
+            if (missed != null) {
+                missed.forEach(send);
+            }
+            attach.run();
+            return missed != null;
+        } finally {
+            order.unlock();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.RosterMessage;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Handles player-list snapshot requests via WebSocket.
+ * Clients send these after detecting a gap in the roster delta sequence.
+ */
+@Component
+public class RosterHandler implements WebSocketMessageHandler<RosterMessage> {
+
+    private final RoomService roomService;
+    private final PlayerService playerService;
+    private final RosterUpdates rosterUpdates;
+
+    public RosterHandler(RoomService roomService, PlayerService playerService, RosterUpdates rosterUpdates) {
+        this.roomService = roomService;
+        this.playerService = playerService;
+        this.rosterUpdates = rosterUpdates;
+    }
+
+    @Override
+    public String getMessageType() {
+        return RosterMessage.TYPE;
+    }
+
+    @Override
+    public void handle(WebSocketSession session, RosterMessage message, WebSocketContext context) throws Exception {
+        GameRoom room = roomService.findByRoomCode(message.roomCode());
+        if (room == null) {
+            JSONObject error = new JSONObject();
+            error.put("type", "error");
+            error.put("message", "Room not found.");
+            context.sendMessage(session, error);
+            return;
+        }
+
+        rosterUpdates.sendSnapshot(session, room.getRoomCode(), () -> playerService.getPlayersByRoom(room));
+    }
+}
@@ -0,0 +1,129 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes a room's player list as versioned deltas instead of full rebroadcasts.
+ * <p>
+ * Every roster change is broadcast as a small delta ({@code playerAdded}, {@code playerRemoved},
+ * {@code scoreChanged}) carrying the room's next sequence number {@code seq}. The full list is
+ * sent only as a {@code playersUpdate} snapshot, tagged with the current {@code seq}: to a player
+ * who joins or creates a room, and to any client that sends {@code roster}.
+ * <p>
+ * Clients apply a delta whose {@code seq} is one past their last, ignore older ones, and request
+ * a snapshot when they see a gap. Numbers are taken under the room's version lock but sent after
+ * it is released, so no socket write runs under it; a delta overtaken by a later one in flight
+ * shows up as a gap and is recovered the same way. Additions are upserts and removals are
+ * idempotent, so a delta that overlaps a snapshot is harmless.
+ */
+@Component
+public class RosterUpdates {
+
+    public static final String SNAPSHOT = "playersUpdate";
+    public static final String PLAYER_ADDED = "playerAdded";
+    public static final String PLAYER_REMOVED = "playerRemoved";
+    public static final String SCORE_CHANGED = "scoreChanged";
+
+    private final RoomRegistry roomRegistry;
+    private final WebSocketContext context;
+
+    public RosterUpdates(RoomRegistry roomRegistry, WebSocketContext context) {
+        this.roomRegistry = roomRegistry;
+        this.context = context;
+    }
+
+    /**
+     * Broadcasts that a player joined the room.
+     */
+    public void playerAdded(String roomCode, Player player) throws IOException {
+        JSONObject delta = new JSONObject();
+        delta.put("type", PLAYER_ADDED);
+        delta.put("player", toJson(player));
+        publish(roomCode, delta);
+    }
+
+    /**
+     * Broadcasts that a player left the room.
+     */
+    public void playerRemoved(String roomCode, String playerId) throws IOException {
+        JSONObject delta = new JSONObject();
+        delta.put("type", PLAYER_REMOVED);
+        delta.put("playerId", playerId);
+        publish(roomCode, delta);
+    }
+
+    /**
+     * Broadcasts a player's new total score.
+     */
+    public void scoreChanged(String roomCode, String playerId, int score) throws IOException {
+        JSONObject delta = new JSONObject();
+        delta.put("type", SCORE_CHANGED);
+        delta.put("playerId", playerId);
+        delta.put("score", score);
+        publish(roomCode, delta);
+    }
+
+    /**
+     * Sends the full player list to one session. The roster is read under the room's
+     * version lock, so the snapshot matches the {@code seq} it carries; it is sent after
+     * the lock is released.
+     */
+    public void sendSnapshot(WebSocketSession session, String roomCode,
+                             Supplier<List<Player>> roster) throws IOException {
+        JSONObject snapshot = new JSONObject();
+        snapshot.put("type", SNAPSHOT);
+        AtomicLong version = roomRegistry.rosterVersion(roomCode);
+        if (version == null) {
+            // Not live here: nothing is numbered for this room
+            snapshot.put("seq", 0);
+            snapshot.put("players", toJson(roster.get()));
+        } else {
+            synchronized (version) {
+                snapshot.put("seq", version.get());
+                snapshot.put("players", toJson(roster.get()));
+            }
+        }
+        context.sendMessage(session, snapshot);
+    }
+
+    private void publish(String roomCode, JSONObject delta) throws IOException {
+        AtomicLong version = roomRegistry.rosterVersion(roomCode);
+        if (version == null) {
+            delta.put("seq", 0);
+            context.broadcastToRoom(roomCode, delta);
+            return;
+        }
+        synchronized (version) {
+            delta.put("seq", version.incrementAndGet());
+        }
+        // Sent outside the lock: a client that sees deltas out of order treats it as a gap
+        context.broadcastToRoom(roomCode, delta);
+    }
+
+    private static JSONArray toJson(List<Player> players) {
+        JSONArray arr = new JSONArray();
+        for (Player p : players) {
+            arr.put(toJson(p));
+        }
+        return arr;
+    }
+
+    private static JSONObject toJson(Player p) {
+        JSONObject pObj = new JSONObject();
+        pObj.put("id", p.getId());
+        pObj.put("name", p.getName());
+        pObj.put("avatarId", p.getAvatarId());
+        pObj.put("score", p.getScore());
+        return pObj;
+    }
+}
@@ -0,0 +1,165 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a disconnected player in their room for a grace period, so a network blip does not
+ * cost them the game.
+ * <p>
+ * Players get a resume token with {@code roomCreated} / {@code roomJoined}. When their session
+ * drops, the leave is deferred by {@code game.ws.resume.grace-ms}; a {@code resume} with the
+ * token on a new session within that time cancels it, and the room never sees the player go.
+ * Tokens are an HMAC of the player ID, so they need no storage and stay valid on any node that
+ * shares {@code game.ws.resume.secret}; without a secret a random key is used and tokens do not
+ * outlive the process.
+ */
+@Component
+public class SessionResumption {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionResumption.class);
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final boolean enabled;
+    private final long graceMillis;
+    private final SecretKeySpec key;
+    private final Map<String, ScheduledFuture<?>> pendingLeaves = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SessionResumption(@Value("${game.ws.resume.enabled:true}") boolean enabled,
+                             @Value("${game.ws.resume.grace-ms:15000}") long graceMillis,
+                             @Value("${game.ws.resume.secret:}") String secret) {
+        this.enabled = enabled && graceMillis > 0;
+        this.graceMillis = graceMillis;
+        this.key = new SecretKeySpec(keyBytes(secret), HMAC);
+    }
+
+    /**
+     * Resumption that is off: disconnects leave at once and no tokens are issued.
+     */
+    public static SessionResumption disabled() {
+        return new SessionResumption(false, 0, "");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The resume token for a player, or null if resumption is off.
+     */
+    public String tokenFor(String playerId) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            byte[] digest = mac.doFinal(playerId.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC unavailable", e);
+        }
+    }
+
+    /**
+     * Checks a resume token in constant time.
+     */
+    public boolean verify(String playerId, String token) {
+        if (!enabled || playerId == null || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(tokenFor(playerId).getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Runs {@code leave} after the grace period unless the player resumes first.
+     *
+     * @return false if resumption is off; the caller should leave at once
+     */
+    public boolean deferLeave(String playerId, Runnable leave) {
+        if (!enabled) {
+            return false;
+        }
+        pendingLeaves.compute(playerId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return scheduler.schedule(() -> runLeave(id, leave), graceMillis, TimeUnit.MILLISECONDS);
+        });
+        return true;
+    }
+
+    /**
+     * Cancels a player's deferred leave.
+     *
+     * @return true if a leave was pending
+     */
+    public boolean cancelLeave(String playerId) {
+        ScheduledFuture<?> pending = pendingLeaves.remove(playerId);
+        if (pending == null) {
+            return false;
+        }
+        pending.cancel(false);
+        return true;
+    }
+
+    /**
+     * Whether a player is disconnected and still within the grace period.
+     */
+    public boolean isPending(String playerId) {
+        return pendingLeaves.containsKey(playerId);
+    }
+
+    long getGraceMillis() {
+        return graceMillis;
+    }
+
+    private void runLeave(String playerId, Runnable leave) {
+        pendingLeaves.remove(playerId);
+        try {
+            leave.run();
+        } catch (RuntimeException e) {
+            log.error("Deferred leave for {} failed: {}", playerId, e.getMessage(), e);
+        }
+    }
+
+    private static byte[] keyBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Players still in their grace period stay in the room; a drain snapshots them with it
+        scheduler.shutdownNow();
+        pendingLeaves.clear();
+    }
+}
@@ -0,0 +1,77 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Large-room mode: fan-out of one broadcast across a dedicated send pool.
+ * <p>
+ * Rooms below {@code game.large-room.threshold} players are sent to sequentially on the
+ * calling thread, as before. Larger rooms are split into shards of
+ * {@code game.large-room.shard-size} recipients, sent in parallel on
+ * {@code game.large-room.send-threads} threads. The caller waits for every shard, so frames
+ * still reach each session in the order they were broadcast.
+ */
+@Component
+public class ShardedFanout {
+
+    private final int threshold;
+    private final int shardSize;
+    private final ExecutorService pool;
+
+    public ShardedFanout(@Value("${game.large-room.threshold:200}") int threshold,
+                         @Value("${game.large-room.shard-size:100}") int shardSize,
+                         @Value("${game.large-room.send-threads:0}") int sendThreads) {
+        this.threshold = threshold;
+        this.shardSize = Math.max(1, shardSize);
+        int threads = sendThreads > 0 ? sendThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ws-fanout-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Whether a room of this many players runs in large-room mode.
+     */
+    public boolean isLargeRoom(int players) {
+        return players >= threshold;
+    }
+
+    /**
+     * Runs {@code send} for every recipient, sharded across the send pool in large rooms.
+     * Returns once every recipient has been handled.
+     */
+    public <T> void forEach(Collection<T> recipients, Consumer<T> send) {
+        if (!isLargeRoom(recipients.size())) {
+            recipients.forEach(send);
+            return;
+        }
+        List<T> snapshot = new ArrayList<>(recipients);
+        List<CompletableFuture<Void>> shards = new ArrayList<>(snapshot.size() / shardSize + 1);
+        for (int from = shardSize; from < snapshot.size(); from += shardSize) {
+            List<T> shard = snapshot.subList(from, Math.min(from + shardSize, snapshot.size()));
+            shards.add(CompletableFuture.runAsync(() -> shard.forEach(send), pool));
+        }
+        // The caller takes the first shard instead of idling
+        snapshot.subList(0, Math.min(shardSize, snapshot.size())).forEach(send);
+        CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
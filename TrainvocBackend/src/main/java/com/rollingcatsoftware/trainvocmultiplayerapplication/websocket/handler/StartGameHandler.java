@@ -7,6 +7,7 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizQuestion;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.QuizService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.StartMessage;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
@@ -20,7 +21,7 @@ import java.util.List;
  * Broadcasts game start and first question to all players.
  */
 @Component
-public class StartGameHandler implements WebSocketMessageHandler {
+public class StartGameHandler implements WebSocketMessageHandler<StartMessage> {
 
     private final RoomService roomService;
     private final PlayerService playerService;
@@ -37,12 +38,12 @@ public class StartGameHandler implements WebSocketMessageHandler {
 
     @Override
     public String getMessageType() {
-        return "start";
+        return StartMessage.TYPE;
     }
 
     @Override
-    public void handle(WebSocketSession session, JSONObject message, WebSocketContext ctx) throws Exception {
-        String roomCode = message.getString("roomCode");
+    public void handle(WebSocketSession session, StartMessage message, WebSocketContext ctx) throws Exception {
+        String roomCode = message.roomCode();
 
         GameRoom room = roomService.findByRoomCode(roomCode);
         if (room == null) {
@@ -68,12 +69,7 @@ public class StartGameHandler implements WebSocketMessageHandler {
         room = roomService.findByRoomCode(roomCode); // Reload to get updated state
 
         // Broadcast game state changed to all players
-        JSONObject stateChanged = new JSONObject();
-        stateChanged.put("type", "gameStateChanged");
-        stateChanged.put("state", GameState.COUNTDOWN.ordinal());
-        stateChanged.put("remainingTime", 3); // Countdown seconds
-
-        context.broadcastToRoom(room, stateChanged);
+        context.broadcastToRoom(room.getRoomCode(), StateChangeMessages.of(room));
 
         // Schedule question broadcast after countdown
         // For now, send questions array so clients have them ready
@@ -82,7 +78,7 @@ public class StartGameHandler implements WebSocketMessageHandler {
         questionsMsg.put("questions", buildQuestionsArray(questions));
         questionsMsg.put("totalCount", questions.size());
 
-        context.broadcastToRoom(room, questionsMsg);
+        context.broadcastToRoom(room.getRoomCode(), questionsMsg);
     }
 
     private JSONArray buildQuestionsArray(List<QuizQuestion> questions) {
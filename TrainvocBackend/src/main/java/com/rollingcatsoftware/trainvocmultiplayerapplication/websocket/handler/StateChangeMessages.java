@@ -0,0 +1,39 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import org.json.JSONObject;
+
+/**
+ * Builds the {@code gameStateChanged} message from a room's current state and clock.
+ * <p>
+ * {@code remainingTimeMs} is measured on the monotonic room clock; {@code remainingTime}
+ * keeps the rounded-up seconds older clients display. {@code serverTime} (epoch millis at
+ * send) lets clients that ran the {@code ping}/{@code pong} clock sync turn the remaining
+ * time into an absolute deadline on their own clock.
+ */
+public final class StateChangeMessages {
+
+    public static final String TYPE = "gameStateChanged";
+
+    private StateChangeMessages() {
+    }
+
+    /**
+     * The state change message for the room's current state.
+     */
+    public static JSONObject of(GameRoom room) {
+        long remainingMs = GameClock.remainingMillis(room);
+
+        JSONObject msg = new JSONObject();
+        msg.put("type", TYPE);
+        msg.put("state", room.getCurrentState().ordinal());
+        msg.put("stateName", room.getCurrentState().name());
+        msg.put("remainingTime", GameClock.toSeconds(remainingMs));
+        msg.put("remainingTimeMs", remainingMs);
+        msg.put("serverTime", System.currentTimeMillis());
+        msg.put("currentQuestionIndex", room.getCurrentQuestionIndex());
+        msg.put("totalQuestionCount", room.getTotalQuestionCount());
+        return msg;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tells a room's players about a {@link GameStateMachine.Transition}, the same way whichever
+ * path (timer, WebSocket or REST) made it.
+ * <p>
+ * Every transition broadcasts {@code gameStateChanged}. Entering ANSWER_REVEAL or RANKING
+ * also broadcasts the rankings, entering QUESTION the {@code questionIndex}, and entering
+ * FINAL the {@code gameEnded} results.
+ */
+@Component
+public class TransitionBroadcaster {
+
+    private final WebSocketContext context;
+    private final RankingsBroadcaster rankings;
+
+    public TransitionBroadcaster(WebSocketContext context, RankingsBroadcaster rankings) {
+        this.context = context;
+        this.rankings = rankings;
+    }
+
+    /**
+     * Broadcasts a transition the room has just made.
+     */
+    public void broadcast(GameRoom room, GameStateMachine.Transition transition) throws IOException {
+        String roomCode = room.getRoomCode();
+        context.broadcastToRoom(roomCode, StateChangeMessages.of(room));
+
+        GameState to = transition.to();
+        if (to == GameState.ANSWER_REVEAL || to == GameState.RANKING) {
+            rankings.broadcast(roomCode, room.getPlayers());
+        } else if (to == GameState.QUESTION) {
+            // Questions are sent at game start via StartGameHandler; this says which one is on
+            JSONObject msg = new JSONObject();
+            msg.put("type", "questionIndex");
+            msg.put("index", room.getCurrentQuestionIndex());
+            context.broadcastToRoom(roomCode, msg);
+        } else if (to == GameState.FINAL) {
+            context.broadcastToRoom(roomCode, gameEnded(room.getPlayers()));
+        }
+    }
+
+    private static JSONObject gameEnded(List<Player> players) {
+        List<Player> sorted = players.stream()
+                .sorted((a, b) -> Integer.compare(b.getScore(), a.getScore()))
+                .toList();
+
+        JSONArray finalRankings = new JSONArray();
+        int rank = 1;
+        for (Player p : sorted) {
+            JSONObject pObj = new JSONObject();
+            pObj.put("rank", rank++);
+            pObj.put("id", p.getId());
+            pObj.put("name", p.getName());
+            pObj.put("avatarId", p.getAvatarId());
+            pObj.put("score", p.getScore());
+            pObj.put("correctCount", p.getCorrectCount());
+            pObj.put("wrongCount", p.getWrongCount());
+            pObj.put("totalAnswerTime", p.getTotalAnswerTime());
+            finalRankings.put(pObj);
+        }
+
+        JSONObject msg = new JSONObject();
+        msg.put("type", "gameEnded");
+        msg.put("players", finalRankings);
+        return msg;
+    }
+}
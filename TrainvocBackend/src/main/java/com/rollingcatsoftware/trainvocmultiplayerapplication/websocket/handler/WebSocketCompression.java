@@ -0,0 +1,148 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+/**
+ * permessage-deflate (RFC 7692) policy and bandwidth accounting for {@code /ws/game}.
+ * <p>
+ * The servlet container performs the compression once the extension is negotiated at the
+ * handshake; {@code game.ws.compression.enabled} decides whether it is offered. For every
+ * frame sent, {@code game.ws.bytes.uncompressed} and {@code game.ws.bytes.compressed} count
+ * payload bytes per message {@code type}. The compressed size is estimated by deflating the
+ * frame once per broadcast, and only for frames of at least {@code game.ws.compression.min-size}
+ * bytes; smaller frames are counted at their raw size, as deflate saves little on them.
+ */
+@Component
+public class WebSocketCompression {
+
+    public static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean enabled;
+    private final int minSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> uncompressed = new ConcurrentHashMap<>();
+    private final Map<String, Counter> compressed = new ConcurrentHashMap<>();
+
+    public WebSocketCompression(MeterRegistry meterRegistry,
+                                @Value("${game.ws.compression.enabled:true}") boolean enabled,
+                                @Value("${game.ws.compression.min-size:256}") int minSize) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.minSize = minSize;
+    }
+
+    /**
+     * Compression off, counting into a private registry. For use outside the Spring context.
+     */
+    public static WebSocketCompression disabled() {
+        return new WebSocketCompression(new SimpleMeterRegistry(), false, Integer.MAX_VALUE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drops permessage-deflate from the extensions a client requested if compression is off.
+     */
+    public List<WebSocketExtension> filterExtensions(List<WebSocketExtension> extensions) {
+        if (enabled) {
+            return extensions;
+        }
+        return extensions.stream()
+                .filter(extension -> !PERMESSAGE_DEFLATE.equals(extension.getName()))
+                .toList();
+    }
+
+    /**
+     * Whether frames to this session go over the wire deflated.
+     */
+    public boolean isDeflated(WebSocketSession session) {
+        if (!enabled) {
+            return false;
+        }
+        List<WebSocketExtension> extensions = session.getExtensions();
+        if (extensions == null) {
+            return false;
+        }
+        for (WebSocketExtension extension : extensions) {
+            if (PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Accounts one frame sent to {@code recipients} sessions, {@code deflated} of which
+     * negotiated permessage-deflate.
+     */
+    public void record(String type, WebSocketMessage<?> frame, int recipients, int deflated) {
+        if (recipients == 0) {
+            return;
+        }
+        long raw = frame.getPayloadLength();
+        long wire = raw * (recipients - deflated);
+        if (deflated > 0) {
+            wire += (raw >= minSize ? deflatedSize(payloadBytes(frame)) : raw) * deflated;
+        }
+        counter(uncompressed, "game.ws.bytes.uncompressed", type).increment(raw * recipients);
+        counter(compressed, "game.ws.bytes.compressed", type).increment(wire);
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String type) {
+        String tag = type == null || type.isEmpty() ? "unknown" : type;
+        return counters.computeIfAbsent(tag, t -> Counter.builder(name)
+                .description("WebSocket payload bytes sent, by message type")
+                .baseUnit("bytes")
+                .tag("type", t)
+                .register(meterRegistry));
+    }
+
+    private static byte[] payloadBytes(WebSocketMessage<?> frame) {
+        if (frame instanceof TextMessage text) {
+            return text.getPayload().getBytes(StandardCharsets.UTF_8);
+        }
+        if (frame instanceof BinaryMessage binary) {
+            byte[] bytes = new byte[binary.getPayloadLength()];
+            binary.getPayload().duplicate().get(bytes);
+            return bytes;
+        }
+        // Encoders only produce data frames
+        throw new IllegalArgumentException("Not a data frame: " + frame.getClass().getSimpleName());
+    }
+
+    /**
+     * Size of the payload as a raw deflate stream, as permessage-deflate sends it.
+     */
+    static int deflatedSize(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] buffer = new byte[Math.min(payload.length + 64, 8192)];
+            int total = 0;
+            while (!deflater.finished()) {
+                total += deflater.deflate(buffer);
+            }
+            return total;
+        } finally {
+            deflater.end();
+        }
+    }
+}
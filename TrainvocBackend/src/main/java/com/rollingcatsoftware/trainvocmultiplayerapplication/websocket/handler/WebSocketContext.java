@@ -1,35 +1,145 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.MessageEncoder;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.MessageEncoders;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.PersonalizedFrame;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Context shared among WebSocket message handlers.
  * Provides access to session registry and utility methods.
  * Singleton Spring component for broadcasting to connected clients.
+ * <p>
+ * All sends go through a {@link ConcurrentWebSocketSessionDecorator} per session: a sender
+ * that finds the session busy buffers the frame and returns instead of waiting, so one slow
+ * client never stalls a broadcast loop or the timer tick. A session whose buffer or send time
+ * exceeds its limit is terminated or has frames dropped, per {@code game.ws.overflow-strategy}.
+ * Broadcasts serialize the message once per wire encoding and share the immutable frame
+ * between recipients. Each session is encoded with the {@link MessageEncoder} for the
+ * subprotocol it negotiated (JSON text by default, or compact CBOR binary). Payload bytes
+ * before and after permessage-deflate are counted per message type by {@link WebSocketCompression}.
+ * <p>
+ * A {@code roomCode -> players} index, maintained on join, leave and disconnect, lets
+ * {@link #broadcastToRoom(String, JSONObject)} reach a room without loading it.
+ * <p>
+ * Room broadcasts go through {@link ShardedFanout}, which sends to large rooms in parallel
+ * shards. {@link #broadcastToRoom(String, JSONObject, String, Function)} gives each recipient
+ * one property of its own on top of a frame encoded once for the whole room. Each room
+ * broadcast's fan-out time and frame size are recorded in {@link GameMetrics}.
+ * <p>
+ * Room broadcasts are also numbered and kept by {@link RoomReplay}, so a client that resumes
+ * on a new session can be sent what it missed. A player's newer session replaces the old one;
+ * the old session closing later no longer affects the player.
  */
 @Component
 public class WebSocketContext {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketContext.class);
+
     private final Map<String, WebSocketSession> playerSessions = new ConcurrentHashMap<>();
     private final Map<String, String> sessionToPlayer = new ConcurrentHashMap<>();
+    private final Map<String, WebSocketSession> sendSessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> roomMembers = new ConcurrentHashMap<>();
+    private final Map<String, String> playerRooms = new ConcurrentHashMap<>();
+
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+    private final OverflowStrategy overflowStrategy;
+    private final MessageEncoders encoders;
+    private final WebSocketCompression compression;
+    private final ShardedFanout fanout;
+    private final GameMetrics metrics;
+    private final RoomReplay replay;
+
+    public WebSocketContext(MessageEncoders encoders, WebSocketCompression compression, ShardedFanout fanout,
+                            GameMetrics metrics, RoomReplay replay,
+                            @Value("${game.ws.send-time-limit-ms:5000}") int sendTimeLimitMs,
+                            @Value("${game.ws.buffer-size-limit:524288}") int bufferSizeLimit,
+                            @Value("${game.ws.overflow-strategy:TERMINATE}") OverflowStrategy overflowStrategy) {
+        this.encoders = encoders;
+        this.compression = compression;
+        this.fanout = fanout;
+        this.metrics = metrics;
+        this.replay = replay;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.overflowStrategy = overflowStrategy;
+        metrics.gaugeSessions(playerSessions, Map::size);
+    }
 
     /**
      * Registers a player session with O(1) bidirectional lookup.
      */
     public void registerSession(String playerId, WebSocketSession session) {
-        playerSessions.put(playerId, session);
+        WebSocketSession previous = playerSessions.put(playerId, session);
+        if (previous != null && !previous.getId().equals(session.getId())) {
+            // The player moved to a new session; closing the old one must not remove it
+            sessionToPlayer.remove(previous.getId(), playerId);
+        }
         sessionToPlayer.put(session.getId(), playerId);
     }
 
+    /**
+     * Registers a player session and indexes it under the player's room.
+     */
+    public void registerSession(String playerId, String roomCode, WebSocketSession session) {
+        registerSession(playerId, session);
+        String previous = playerRooms.put(playerId, roomCode);
+        if (previous != null && !previous.equals(roomCode)) {
+            unindex(previous, playerId);
+        }
+        // Add inside compute so a concurrent unindex cannot retire the set in between
+        roomMembers.compute(roomCode, (code, members) -> {
+            Set<String> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.add(playerId);
+            return updated;
+        });
+    }
+
+    /**
+     * Registers a resuming player's new session under its room, first sending it the room
+     * broadcasts after {@code lastSeq}.
+     *
+     * @return false if those broadcasts are no longer kept, so the client needs a full resync
+     */
+    public boolean resumeSession(String playerId, String roomCode, WebSocketSession session, long lastSeq) {
+        return replay.resume(roomCode, lastSeq, message -> {
+            try {
+                sendMessage(session, message);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Replay to session {} failed: {}", session.getId(), e.getMessage());
+            }
+        }, () -> registerSession(playerId, roomCode, session));
+    }
+
+    /**
+     * The {@code eventSeq} of a room's latest broadcast; see {@link RoomReplay}.
+     */
+    public long currentEventSeq(String roomCode) {
+        return replay.currentSeq(roomCode);
+    }
+
     /**
      * Gets a player's WebSocket session.
      */
@@ -45,6 +155,7 @@ public class WebSocketContext {
         if (session != null) {
             sessionToPlayer.remove(session.getId());
         }
+        removeFromRoom(playerId);
     }
 
     /**
@@ -54,13 +165,23 @@ public class WebSocketContext {
      * @return the playerId that was associated with the session, or null if not found
      */
     public String removeBySession(WebSocketSession session) {
+        sendSessions.remove(session.getId());
         String playerId = sessionToPlayer.remove(session.getId());
         if (playerId != null) {
             playerSessions.remove(playerId);
+            removeFromRoom(playerId);
         }
         return playerId;
     }
 
+    /**
+     * Gets the IDs of players currently connected to a room.
+     */
+    public Set<String> getRoomPlayerIds(String roomCode) {
+        Set<String> members = roomMembers.get(roomCode);
+        return members != null ? Collections.unmodifiableSet(members) : Set.of();
+    }
+
     /**
      * Finds player ID by WebSocketSession.
      * O(1) lookup using reverse mapping.
@@ -73,27 +194,194 @@ public class WebSocketContext {
      * Sends a message to a specific player.
      */
     public void sendToPlayer(String playerId, JSONObject message) throws IOException {
-        WebSocketSession session = playerSessions.get(playerId);
-        if (session != null && session.isOpen()) {
-            session.sendMessage(new TextMessage(message.toString()));
-        }
+        sendMessage(playerSessions.get(playerId), message);
+    }
+
+    /**
+     * Broadcasts a message to all players connected to a room, using the session index only.
+     * The message is serialized once per encoding; a failing recipient does not stop the others.
+     */
+    public void broadcastToRoom(String roomCode, JSONObject message) throws IOException {
+        replay.publish(roomCode, message, () -> fanOut(roomCode, new Frames(message, null, null)));
     }
 
     /**
-     * Broadcasts a message to all players in a room.
+     * Broadcasts a message to all players connected to a room, adding {@code key} with each
+     * player's own value from {@code personal}. The shared part is encoded once per encoding;
+     * players for whom {@code personal} returns null get the shared message alone.
+     */
+    public void broadcastToRoom(String roomCode, JSONObject message, String key,
+                                Function<String, JSONObject> personal) {
+        replay.publish(roomCode, message, () -> fanOut(roomCode, new Frames(message, key, personal)));
+    }
+
+    /**
+     * Broadcasts a message to all players in a room's loaded roster.
+     * Prefer {@link #broadcastToRoom(String, JSONObject)}, which needs no entity.
      */
     public void broadcastToRoom(GameRoom room, JSONObject message) throws IOException {
-        for (Player player : room.getPlayers()) {
-            sendToPlayer(player.getId(), message);
-        }
+        Frames frames = new Frames(message, null, null);
+        long start = System.nanoTime();
+        fanout.forEach(room.getPlayers(), player ->
+                trySend(playerSessions.get(player.getId()), player.getId(), frames));
+        frames.record(System.nanoTime() - start);
     }
 
     /**
      * Sends a message to a WebSocket session.
      */
     public void sendMessage(WebSocketSession session, JSONObject message) throws IOException {
-        if (session != null && session.isOpen()) {
-            session.sendMessage(new TextMessage(message.toString()));
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        WebSocketMessage<?> frame = encoders.forSession(session).encode(message);
+        sendFrame(session, frame);
+        compression.record(message.optString("type"), frame, 1, compression.isDeflated(session) ? 1 : 0);
+    }
+
+    /**
+     * Sends a last message to every player session and closes it, e.g. when the node shuts down.
+     */
+    public void closeAll(JSONObject message, CloseStatus status) {
+        for (WebSocketSession session : playerSessions.values()) {
+            try {
+                sendMessage(session, message);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Send to session {} failed: {}", session.getId(), e.getMessage());
+            }
+            closeQuietly(sendSessionFor(session), status);
+        }
+    }
+
+    /**
+     * Sends an already encoded frame, buffering it if the session is busy.
+     */
+    void sendFrame(WebSocketSession session, WebSocketMessage<?> frame) throws IOException {
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        WebSocketSession sendSession = sendSessionFor(session);
+        try {
+            sendSession.sendMessage(frame);
+        } catch (SessionLimitExceededException e) {
+            log.warn("Dropping slow WebSocket session {}: {}", session.getId(), e.getMessage());
+            // Closing writes a close frame, which could block behind the stuck send
+            Thread.startVirtualThread(() -> closeQuietly(sendSession, e.getStatus()));
+        }
+    }
+
+    private void fanOut(String roomCode, Frames frames) {
+        Set<String> members = roomMembers.get(roomCode);
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        fanout.forEach(members, playerId -> trySend(playerSessions.get(playerId), playerId, frames));
+        frames.record(System.nanoTime() - start);
+    }
+
+    private void removeFromRoom(String playerId) {
+        String roomCode = playerRooms.remove(playerId);
+        if (roomCode != null) {
+            unindex(roomCode, playerId);
+        }
+    }
+
+    private void unindex(String roomCode, String playerId) {
+        roomMembers.computeIfPresent(roomCode, (code, members) -> {
+            members.remove(playerId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private void trySend(WebSocketSession session, String playerId, Frames frames) {
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            frames.send(session, playerId);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Send to session {} failed: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Failed to close session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private WebSocketSession sendSessionFor(WebSocketSession session) {
+        if (session instanceof ConcurrentWebSocketSessionDecorator) {
+            return session;
+        }
+        return sendSessions.computeIfAbsent(session.getId(), id ->
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit, overflowStrategy));
+    }
+
+    /**
+     * One broadcast's frames, encoded lazily and at most once per encoding, with the
+     * recipient counts used for compression accounting. Shared by the fan-out's shards.
+     * Personalized frames are accounted at the size of their shared part.
+     */
+    private final class Frames {
+
+        private final JSONObject message;
+        private final String key;
+        private final Function<String, JSONObject> personal;
+        private final Map<MessageEncoder, Sent> byEncoder = new ConcurrentHashMap<>(2);
+
+        Frames(JSONObject message, String key, Function<String, JSONObject> personal) {
+            this.message = message;
+            this.key = key;
+            this.personal = personal;
+        }
+
+        void send(WebSocketSession session, String playerId) throws IOException {
+            Sent sent = byEncoder.computeIfAbsent(encoders.forSession(session), encoder -> personal == null
+                    ? new Sent(encoder.encode(message), null)
+                    : new Sent(null, encoder.prepare(message)));
+            sendFrame(session, sent.frameFor(personal != null ? personal.apply(playerId) : null));
+            sent.recipients.incrementAndGet();
+            if (compression.isDeflated(session)) {
+                sent.deflated.incrementAndGet();
+            }
+        }
+
+        void record(long fanoutNanos) {
+            String type = message.optString("type");
+            int recipients = 0;
+            long bytes = 0;
+            for (Sent sent : byEncoder.values()) {
+                WebSocketMessage<?> base = sent.base();
+                compression.record(type, base, sent.recipients.get(), sent.deflated.get());
+                recipients += sent.recipients.get();
+                bytes = Math.max(bytes, base.getPayloadLength());
+            }
+            metrics.recordBroadcast(type, recipients, fanoutNanos, bytes);
+        }
+
+        private final class Sent {
+
+            private final WebSocketMessage<?> frame;
+            private final PersonalizedFrame prepared;
+            private final AtomicInteger recipients = new AtomicInteger();
+            private final AtomicInteger deflated = new AtomicInteger();
+
+            Sent(WebSocketMessage<?> frame, PersonalizedFrame prepared) {
+                this.frame = frame;
+                this.prepared = prepared;
+            }
+
+            WebSocketMessage<?> base() {
+                return prepared != null ? prepared.base() : frame;
+            }
+
+            WebSocketMessage<?> frameFor(JSONObject extra) {
+                return prepared != null && extra != null ? prepared.with(key, extra) : base();
+            }
         }
     }
 }
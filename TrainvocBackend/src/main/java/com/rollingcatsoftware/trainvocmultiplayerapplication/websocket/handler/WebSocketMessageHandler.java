@@ -1,13 +1,15 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
-import org.json.JSONObject;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 /**
  * Interface for WebSocket message handlers.
  * Each implementation handles a specific message type.
+ *
+ * @param <M> the decoded message record this handler accepts
  */
-public interface WebSocketMessageHandler {
+public interface WebSocketMessageHandler<M extends InboundMessage> {
 
     /**
      * Returns the message type this handler processes.
@@ -18,8 +20,8 @@ public interface WebSocketMessageHandler {
      * Handles the incoming message.
      *
      * @param session The WebSocket session
-     * @param message The parsed JSON message
+     * @param message The decoded message
      * @param context Context for accessing shared resources like session registry
      */
-    void handle(WebSocketSession session, JSONObject message, WebSocketContext context) throws Exception;
+    void handle(WebSocketSession session, M message, WebSocketContext context) throws Exception;
 }
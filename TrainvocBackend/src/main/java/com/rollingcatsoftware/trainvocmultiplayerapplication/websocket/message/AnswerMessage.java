@@ -0,0 +1,17 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code answer}: a player's answer to the current question.
+ * {@code answerTime} is still decoded for older clients but no longer scored; the server
+ * measures answer latency itself from question dispatch.
+ */
+public record AnswerMessage(String roomCode, String playerId, int answerIndex, int answerTime,
+                            boolean isCorrect) implements InboundMessage {
+
+    public static final String TYPE = "answer";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,141 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding: the same message set as {@link JsonMessageEncoder}, written as
+ * CBOR (RFC 8949) binary frames.
+ * <p>
+ * CBOR keeps the JSON data model, so clients decode it with any CBOR library into the
+ * structures they already handle. Small integers such as scores, indices and avatar IDs
+ * take one to three bytes, and no quoting or escaping is needed, which shrinks the
+ * {@code questions}, {@code rankings} and {@code playersUpdate} payloads.
+ */
+@Component
+public class CborMessageEncoder implements MessageEncoder {
+
+    public static final String SUBPROTOCOL = "trainvoc.cbor.v1";
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final int MAJOR_TYPE_MAP = 5;
+    private static final int INDEFINITE_MAP = 0xBF;
+    private static final int BREAK = 0xFF;
+
+    @Override
+    public String getSubprotocol() {
+        return SUBPROTOCOL;
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(JSONObject message) {
+        return new BinaryMessage(toBytes(message));
+    }
+
+    /**
+     * Re-frames the shared map's entries as an indefinite-length map, so each recipient's
+     * entry is spliced in before the break byte without re-encoding the shared entries.
+     */
+    @Override
+    public PersonalizedFrame prepare(JSONObject message) {
+        byte[] encoded = toBytes(message);
+        byte[] entries = mapEntries(encoded);
+        BinaryMessage base = new BinaryMessage(encoded);
+        return new PersonalizedFrame() {
+            @Override
+            public WebSocketMessage<?> base() {
+                return base;
+            }
+
+            @Override
+            public WebSocketMessage<?> with(String key, JSONObject personal) {
+                byte[] extra = mapEntries(toBytes(new JSONObject().put(key, personal)));
+                byte[] frame = new byte[entries.length + extra.length + 2];
+                frame[0] = (byte) INDEFINITE_MAP;
+                System.arraycopy(entries, 0, frame, 1, entries.length);
+                System.arraycopy(extra, 0, frame, 1 + entries.length, extra.length);
+                frame[frame.length - 1] = (byte) BREAK;
+                return new BinaryMessage(frame);
+            }
+        };
+    }
+
+    private static byte[] toBytes(JSONObject message) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator gen = CBOR_FACTORY.createGenerator(ObjectWriteContext.empty(), out)) {
+            writeObject(gen, message);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Strips the map header (and break byte, for indefinite-length maps) from an encoded
+     * top-level map, leaving its key/value entries.
+     */
+    static byte[] mapEntries(byte[] map) {
+        int initial = map[0] & 0xFF;
+        if (initial == INDEFINITE_MAP) {
+            return Arrays.copyOfRange(map, 1, map.length - 1);
+        }
+        if ((initial >> 5) != MAJOR_TYPE_MAP) {
+            throw new IllegalArgumentException("Not a CBOR map");
+        }
+        int info = initial & 0x1F;
+        int headerLength = info < 24 ? 1 : 1 + (1 << (info - 24));
+        return Arrays.copyOfRange(map, headerLength, map.length);
+    }
+
+    private static void writeObject(JsonGenerator gen, JSONObject object) {
+        gen.writeStartObject();
+        for (String key : object.keySet()) {
+            gen.writeName(key);
+            writeValue(gen, object.opt(key));
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeArray(JsonGenerator gen, JSONArray array) {
+        gen.writeStartArray();
+        for (int i = 0; i < array.length(); i++) {
+            writeValue(gen, array.opt(i));
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            gen.writeNull();
+        } else if (value instanceof JSONObject object) {
+            writeObject(gen, object);
+        } else if (value instanceof JSONArray array) {
+            writeArray(gen, array);
+        } else if (value instanceof String s) {
+            gen.writeString(s);
+        } else if (value instanceof Boolean b) {
+            gen.writeBoolean(b);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            gen.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            gen.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof BigInteger bi) {
+            gen.writeNumber(bi);
+        } else if (value instanceof BigDecimal bd) {
+            gen.writeNumber(bd);
+        } else {
+            // Same fallback org.json uses when writing text
+            gen.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
+
+/**
+ * {@code create}: creates a room, optionally with the sender joining as host.
+ */
+public record CreateRoomMessage(String name, Integer avatarId, String hashedPassword,
+                                int questionDuration, int optionCount, String level,
+                                int totalQuestionCount, boolean hostWantsToJoin) implements InboundMessage {
+
+    public static final String TYPE = "create";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    public QuizSettings settings() {
+        QuizSettings settings = new QuizSettings();
+        settings.setQuestionDuration(questionDuration);
+        settings.setOptionCount(optionCount);
+        settings.setLevel(level);
+        settings.setTotalQuestionCount(totalQuestionCount);
+        return settings;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * A decoded client-to-server WebSocket message.
+ * Produced by {@link InboundMessageDecoder}; each record maps one {@code type} value.
+ */
+public sealed interface InboundMessage
+        permits CreateRoomMessage, JoinMessage, StartMessage, AnswerMessage, NextMessage, LeaveMessage,
+        RosterMessage, PingMessage, ResumeMessage, UnknownMessage {
+
+    /**
+     * The wire {@code type} of this message.
+     */
+    String type();
+
+    /**
+     * The room this message targets, or null if it does not target an existing room.
+     */
+    default String roomCode() {
+        return null;
+    }
+}
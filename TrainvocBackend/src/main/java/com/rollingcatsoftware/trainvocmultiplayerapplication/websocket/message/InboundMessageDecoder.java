@@ -0,0 +1,243 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.exception.InvalidMessageException;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
+import tools.jackson.dataformat.cbor.CBORFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes inbound WebSocket frames straight into typed {@link InboundMessage} records.
+ * <p>
+ * Uses a single forward pass of Jackson's streaming parser: known properties are copied into
+ * a flat field holder, unknown ones are skipped, and the record for the frame's {@code type}
+ * is built at the end. No intermediate JSON tree or map is allocated, and {@code type} may
+ * appear anywhere in the object. Defaults and required fields match the previous
+ * {@code org.json} handlers.
+ * <p>
+ * Binary frames from sessions on the CBOR subprotocol carry the same object model and go
+ * through the same pass with a CBOR parser.
+ */
+@Component
+public class InboundMessageDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    /**
+     * Decodes one frame.
+     *
+     * @return the typed message, or {@link UnknownMessage} if the type is not recognized
+     * @throws InvalidMessageException if the frame is not a JSON object or misses a required field
+     */
+    public InboundMessage decode(String payload) {
+        try (JsonParser parser = JSON_FACTORY.createParser(ObjectReadContext.empty(), payload)) {
+            return decode(parser);
+        } catch (JacksonException e) {
+            throw new InvalidMessageException("Malformed JSON message.", e);
+        }
+    }
+
+    /**
+     * Decodes one CBOR binary frame.
+     *
+     * @throws InvalidMessageException if the frame is not a CBOR map or misses a required field
+     */
+    public InboundMessage decodeBinary(ByteBuffer payload) {
+        byte[] bytes;
+        int offset;
+        int length = payload.remaining();
+        if (payload.hasArray()) {
+            bytes = payload.array();
+            offset = payload.arrayOffset() + payload.position();
+        } else {
+            bytes = new byte[length];
+            payload.duplicate().get(bytes);
+            offset = 0;
+        }
+        try (JsonParser parser = CBOR_FACTORY.createParser(ObjectReadContext.empty(), bytes, offset, length)) {
+            return decode(parser);
+        } catch (JacksonException e) {
+            throw new InvalidMessageException("Malformed CBOR message.", e);
+        }
+    }
+
+    private InboundMessage decode(JsonParser parser) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new InvalidMessageException("Message must be a JSON object.");
+        }
+        Fields fields = new Fields();
+        readMessage(parser, fields);
+        return build(fields);
+    }
+
+    private InboundMessage build(Fields f) {
+        String type = f.type != null ? f.type : "";
+        return switch (type) {
+            case CreateRoomMessage.TYPE -> new CreateRoomMessage(
+                    required(f.name, "name"), f.avatarId, f.hashedPassword,
+                    orDefault(f.questionDuration, 60), orDefault(f.optionCount, 4),
+                    f.level != null ? f.level : "A1", orDefault(f.totalQuestionCount, 5),
+                    f.hostWantsToJoin == null || f.hostWantsToJoin);
+            case JoinMessage.TYPE -> new JoinMessage(
+                    required(f.roomCode, "roomCode"), required(f.name, "name"), f.avatarId);
+            case StartMessage.TYPE -> new StartMessage(
+                    required(f.roomCode, "roomCode"), orEmpty(f.playerId));
+            case AnswerMessage.TYPE -> new AnswerMessage(
+                    required(f.roomCode, "roomCode"), required(f.playerId, "playerId"),
+                    required(f.answerIndex, "answerIndex"), orDefault(f.answerTime, 0),
+                    f.isCorrect != null && f.isCorrect);
+            case NextMessage.TYPE -> new NextMessage(
+                    required(f.roomCode, "roomCode"), orEmpty(f.playerId));
+            case LeaveMessage.TYPE -> new LeaveMessage(
+                    required(f.roomCode, "roomCode"), required(f.playerId, "playerId"));
+            case RosterMessage.TYPE -> new RosterMessage(required(f.roomCode, "roomCode"));
+            case PingMessage.TYPE -> new PingMessage(f.clientTime != null ? f.clientTime : 0L);
+            case ResumeMessage.TYPE -> new ResumeMessage(
+                    required(f.roomCode, "roomCode"), required(f.playerId, "playerId"),
+                    required(f.token, "token"), f.lastSeq != null ? f.lastSeq : -1L);
+            default -> new UnknownMessage(type);
+        };
+    }
+
+    private void readMessage(JsonParser p, Fields f) {
+        for (String name = p.nextName(); name != null; name = p.nextName()) {
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "type" -> f.type = readString(p, token);
+                case "roomCode" -> f.roomCode = readString(p, token);
+                case "playerId" -> f.playerId = readString(p, token);
+                case "name" -> f.name = readString(p, token);
+                case "hashedPassword" -> f.hashedPassword = readString(p, token);
+                case "avatarId" -> f.avatarId = readInt(p, token, name);
+                case "answerIndex" -> f.answerIndex = readInt(p, token, name);
+                case "answerTime" -> f.answerTime = readInt(p, token, name);
+                case "isCorrect" -> f.isCorrect = readBoolean(p, token);
+                case "clientTime" -> f.clientTime = readLong(p, token, name);
+                case "token" -> f.token = readString(p, token);
+                case "lastSeq" -> f.lastSeq = readLong(p, token, name);
+                case "settings" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        readSettings(p, f);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private void readSettings(JsonParser p, Fields f) {
+        for (String name = p.nextName(); name != null; name = p.nextName()) {
+            JsonToken token = p.nextToken();
+            switch (name) {
+                case "questionDuration" -> f.questionDuration = readInt(p, token, name);
+                case "optionCount" -> f.optionCount = readInt(p, token, name);
+                case "level" -> f.level = readString(p, token);
+                case "totalQuestionCount" -> f.totalQuestionCount = readInt(p, token, name);
+                case "hostWantsToJoin" -> f.hostWantsToJoin = readBoolean(p, token);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static String readString(JsonParser p, JsonToken token) {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return p.getString();
+        }
+        p.skipChildren();
+        return null;
+    }
+
+    private static Integer readInt(JsonParser p, JsonToken token, String name) {
+        return switch (token) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> p.getIntValue();
+            case VALUE_NUMBER_FLOAT -> (int) p.getDoubleValue();
+            case VALUE_STRING -> {
+                try {
+                    yield Integer.parseInt(p.getString().trim());
+                } catch (NumberFormatException e) {
+                    throw new InvalidMessageException("Field '" + name + "' must be a number.");
+                }
+            }
+            default -> throw new InvalidMessageException("Field '" + name + "' must be a number.");
+        };
+    }
+
+    private static Long readLong(JsonParser p, JsonToken token, String name) {
+        return switch (token) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> p.getLongValue();
+            case VALUE_NUMBER_FLOAT -> (long) p.getDoubleValue();
+            case VALUE_STRING -> {
+                try {
+                    yield Long.parseLong(p.getString().trim());
+                } catch (NumberFormatException e) {
+                    throw new InvalidMessageException("Field '" + name + "' must be a number.");
+                }
+            }
+            default -> throw new InvalidMessageException("Field '" + name + "' must be a number.");
+        };
+    }
+
+    private static Boolean readBoolean(JsonParser p, JsonToken token) {
+        return switch (token) {
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_STRING -> "true".equalsIgnoreCase(p.getString()) ? Boolean.TRUE
+                    : "false".equalsIgnoreCase(p.getString()) ? Boolean.FALSE : null;
+            default -> {
+                p.skipChildren();
+                yield null;
+            }
+        };
+    }
+
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new InvalidMessageException("Missing required field '" + name + "'.");
+        }
+        return value;
+    }
+
+    private static int orDefault(Integer value, int fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Flat holder for every property any message type may carry.
+     */
+    private static final class Fields {
+        String type;
+        String roomCode;
+        String playerId;
+        String name;
+        String hashedPassword;
+        Integer avatarId;
+        Integer answerIndex;
+        Integer answerTime;
+        Boolean isCorrect;
+        Long clientTime;
+        String token;
+        Long lastSeq;
+        Integer questionDuration;
+        Integer optionCount;
+        String level;
+        Integer totalQuestionCount;
+        Boolean hostWantsToJoin;
+    }
+}
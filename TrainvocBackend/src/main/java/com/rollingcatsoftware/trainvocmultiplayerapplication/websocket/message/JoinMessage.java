@@ -0,0 +1,14 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code join}: joins an existing room as a new player.
+ */
+public record JoinMessage(String roomCode, String name, Integer avatarId) implements InboundMessage {
+
+    public static final String TYPE = "join";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
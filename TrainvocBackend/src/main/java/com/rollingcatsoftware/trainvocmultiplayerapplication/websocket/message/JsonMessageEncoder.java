@@ -0,0 +1,51 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * The default encoding: JSON text frames.
+ * Used for sessions that negotiate {@value #SUBPROTOCOL} or no subprotocol at all.
+ */
+@Component
+public class JsonMessageEncoder implements MessageEncoder {
+
+    public static final String SUBPROTOCOL = "trainvoc.json.v1";
+
+    @Override
+    public String getSubprotocol() {
+        return SUBPROTOCOL;
+    }
+
+    @Override
+    public WebSocketMessage<?> encode(JSONObject message) {
+        return new TextMessage(message.toString());
+    }
+
+    /**
+     * Keeps the shared text without its closing brace and appends each recipient's
+     * property to a copy of it.
+     */
+    @Override
+    public PersonalizedFrame prepare(JSONObject message) {
+        String text = message.toString();
+        String prefix = text.substring(0, text.length() - 1) + (message.isEmpty() ? "" : ",");
+        TextMessage base = new TextMessage(text);
+        return new PersonalizedFrame() {
+            @Override
+            public WebSocketMessage<?> base() {
+                return base;
+            }
+
+            @Override
+            public WebSocketMessage<?> with(String key, JSONObject personal) {
+                String value = personal.toString();
+                StringBuilder frame = new StringBuilder(prefix.length() + key.length() + value.length() + 4);
+                frame.append(prefix).append(JSONObject.quote(key)).append(':').append(value).append('}');
+                return new TextMessage(frame.toString());
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code leave}: removes a player from a room.
+ */
+public record LeaveMessage(String roomCode, String playerId) implements InboundMessage {
+
+    public static final String TYPE = "leave";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
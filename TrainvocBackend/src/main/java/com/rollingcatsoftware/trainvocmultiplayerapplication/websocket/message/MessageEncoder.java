@@ -0,0 +1,28 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.json.JSONObject;
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * Encodes a server-to-client message into a WebSocket frame for one wire format.
+ * Handlers build messages as {@link JSONObject}s; the encoder negotiated for each session
+ * decides how they go over the wire, so one handler serves every encoding.
+ */
+public interface MessageEncoder {
+
+    /**
+     * The WebSocket subprotocol that selects this encoding at the handshake.
+     */
+    String getSubprotocol();
+
+    /**
+     * Encodes a message. The returned frame is immutable and may be shared between sessions.
+     */
+    WebSocketMessage<?> encode(JSONObject message);
+
+    /**
+     * Encodes a message once for a broadcast in which every recipient also gets a
+     * property of their own, such as their rank.
+     */
+    PersonalizedFrame prepare(JSONObject message);
+}
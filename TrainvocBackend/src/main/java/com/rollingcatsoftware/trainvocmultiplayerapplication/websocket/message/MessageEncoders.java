@@ -0,0 +1,55 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The wire encodings a session can negotiate, keyed by subprotocol.
+ * A session that negotiated no known subprotocol gets JSON.
+ */
+@Component
+public class MessageEncoders {
+
+    private final Map<String, MessageEncoder> bySubprotocol;
+    private final MessageEncoder defaultEncoder;
+
+    public MessageEncoders(List<MessageEncoder> encoders) {
+        this.bySubprotocol = encoders.stream()
+                .collect(Collectors.toUnmodifiableMap(MessageEncoder::getSubprotocol, Function.identity()));
+        this.defaultEncoder = bySubprotocol.getOrDefault(JsonMessageEncoder.SUBPROTOCOL, new JsonMessageEncoder());
+    }
+
+    /**
+     * The JSON and CBOR encodings, for use outside the Spring context.
+     */
+    public static MessageEncoders defaults() {
+        return new MessageEncoders(List.of(new JsonMessageEncoder(), new CborMessageEncoder()));
+    }
+
+    /**
+     * Returns the encoder for the subprotocol negotiated by a session.
+     */
+    public MessageEncoder forSession(WebSocketSession session) {
+        String protocol = session.getAcceptedProtocol();
+        if (protocol == null || protocol.isEmpty()) {
+            return defaultEncoder;
+        }
+        return bySubprotocol.getOrDefault(protocol, defaultEncoder);
+    }
+
+    public MessageEncoder getDefault() {
+        return defaultEncoder;
+    }
+
+    /**
+     * Subprotocols to offer at the handshake. The server accepts the first one the client lists.
+     */
+    public List<String> subprotocols() {
+        return List.copyOf(bySubprotocol.keySet());
+    }
+}
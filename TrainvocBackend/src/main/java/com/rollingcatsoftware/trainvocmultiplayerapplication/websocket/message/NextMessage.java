@@ -0,0 +1,14 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code next}: advances the room from answer reveal to the next question.
+ */
+public record NextMessage(String roomCode, String playerId) implements InboundMessage {
+
+    public static final String TYPE = "next";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.json.JSONObject;
+import org.springframework.web.socket.WebSocketMessage;
+
+/**
+ * A message encoded once, to which each recipient's own fields are appended without
+ * re-encoding the shared part. Produced by {@link MessageEncoder#prepare(JSONObject)}.
+ */
+public interface PersonalizedFrame {
+
+    /**
+     * The shared message alone, for recipients with nothing personal to add.
+     */
+    WebSocketMessage<?> base();
+
+    /**
+     * The shared message with one more property, {@code key}, set to {@code personal}.
+     * The key must not already be present in the shared message.
+     */
+    WebSocketMessage<?> with(String key, JSONObject personal);
+}
@@ -0,0 +1,15 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code ping}: a clock-sync probe. {@code clientTime} is the client's clock (epoch millis)
+ * at send and is echoed back in the {@code pong}.
+ */
+public record PingMessage(long clientTime) implements InboundMessage {
+
+    public static final String TYPE = "ping";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code resume}: reattaches a player to their room on a new session after a disconnect.
+ * {@code token} is the resume token from {@code roomCreated} / {@code roomJoined};
+ * {@code lastSeq} is the highest {@code eventSeq} the client saw, or -1 if it saw none.
+ */
+public record ResumeMessage(String roomCode, String playerId, String token, long lastSeq)
+        implements InboundMessage {
+
+    public static final String TYPE = "resume";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
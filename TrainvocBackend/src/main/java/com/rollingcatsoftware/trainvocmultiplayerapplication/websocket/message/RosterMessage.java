@@ -0,0 +1,14 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code roster}: asks for a full player-list snapshot, e.g. after a roster sequence gap.
+ */
+public record RosterMessage(String roomCode) implements InboundMessage {
+
+    public static final String TYPE = "roster";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
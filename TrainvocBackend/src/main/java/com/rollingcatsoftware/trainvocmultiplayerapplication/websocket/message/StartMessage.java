@@ -0,0 +1,14 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * {@code start}: starts the game in a room.
+ */
+public record StartMessage(String roomCode, String playerId) implements InboundMessage {
+
+    public static final String TYPE = "start";
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,7 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+/**
+ * A well-formed message whose {@code type} has no decoder; answered with an error.
+ */
+public record UnknownMessage(String type) implements InboundMessage {
+}
@@ -3,18 +3,27 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.controller;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.mapper.GameMapper;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.GameRoomResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.PlayerResponse;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.dto.response.RoomListItemResponse;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.security.JwtAuthenticationFilter;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.AnswerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameService;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.LobbyIndex;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.AnswerProgress;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RankingsBroadcaster;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RosterUpdates;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -23,7 +32,9 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +47,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * This test class covers only the GET endpoints.
  */
 @WebMvcTest(GameController.class)
+@Import(AnswerService.class)
 @AutoConfigureMockMvc(addFilters = false)
 @DisplayName("GameController Tests")
 class GameControllerTest {
@@ -49,14 +61,28 @@ class GameControllerTest {
     @MockitoBean
     private GameMapper gameMapper;
 
-    // GameController also injects these services; without the mocks the
-    // @WebMvcTest slice fails with NoSuchBeanDefinitionException.
     @MockitoBean
-    private PlayerService playerService;
+    private LobbyIndex lobbyIndex;
 
+    // The real AnswerService scores /answer requests; these are its collaborators.
     @MockitoBean
     private RoomService roomService;
 
+    @MockitoBean
+    private RoomRegistry roomRegistry;
+
+    @MockitoBean
+    private RosterUpdates rosterUpdates;
+
+    @MockitoBean
+    private AnswerProgress answerProgress;
+
+    @MockitoBean
+    private RankingsBroadcaster rankings;
+
+    @MockitoBean
+    private RoomJournal journal;
+
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -126,17 +152,61 @@ class GameControllerTest {
     @DisplayName("GET /api/game/rooms")
     class GetAllRooms {
 
+        private static final String ETAG = "\"5f3a\"";
+
+        private final LobbyIndex.Entry open = new LobbyIndex.Entry(
+                "ABC12", 1, false, "host-1", 60, "A1", 10, false, GameState.LOBBY);
+        private final LobbyIndex.Entry locked = new LobbyIndex.Entry(
+                "DEF34", 2, false, "host-2", 60, "B1", 10, true, GameState.LOBBY);
+
+        @BeforeEach
+        void setUp() {
+            when(lobbyIndex.snapshot()).thenReturn(new LobbyIndex.Snapshot(List.of(open, locked), ETAG, 0, 0));
+            when(gameMapper.toLobbyResponseList(any())).thenAnswer(invocation -> {
+                List<LobbyIndex.Entry> rooms = invocation.getArgument(0);
+                return rooms.stream()
+                        .map(room -> RoomListItemResponse.builder().roomCode(room.roomCode()).build())
+                        .toList();
+            });
+        }
+
         @Test
         @WithMockUser
-        @DisplayName("returns all rooms")
+        @DisplayName("returns all rooms from the lobby index with its ETag")
         void returnsAllRooms() throws Exception {
-            when(gameService.getAllRooms()).thenReturn(List.of(testRoom));
-            when(gameMapper.toRoomListItemResponseList(any())).thenReturn(List.of());
-
             mockMvc.perform(get("/api/game/rooms"))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", ETAG))
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].roomCode").value("ABC12"));
+
+            verifyNoInteractions(gameService);
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("returns 304 when the lobby has not changed")
+        void returns304_whenUnchanged() throws Exception {
+            mockMvc.perform(get("/api/game/rooms").header("If-None-Match", ETAG))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            verify(gameMapper, never()).toLobbyResponseList(any());
+        }
 
-            verify(gameService).getAllRooms();
+        @Test
+        @WithMockUser
+        @DisplayName("filters by password and returns a page when paging params are given")
+        void returnsFilteredPage() throws Exception {
+            mockMvc.perform(get("/api/game/rooms")
+                            .param("hasPassword", "true")
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].roomCode").value("DEF34"))
+                    .andExpect(jsonPath("$.page").value(0))
+                    .andExpect(jsonPath("$.size").value(1))
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.totalPages").value(1));
         }
     }
 
@@ -229,4 +299,78 @@ class GameControllerTest {
                     .andExpect(status().isNotFound());
         }
     }
+
+    @Nested
+    @DisplayName("POST /api/game/answer")
+    class SubmitAnswer {
+
+        @Test
+        @WithMockUser
+        @DisplayName("scores server-measured latency and ignores a forged answerTime")
+        void ignoresForgedAnswerTime() throws Exception {
+            // The question went out 29s ago; a client claiming an instant answer gets no bonus
+            testRoom.setCurrentState(GameState.QUESTION);
+            testRoom.setQuestionDuration(30);
+            testRoom.setCurrentQuestionIndex(0);
+            testRoom.setStateStartNanos(System.nanoTime() - TimeUnit.SECONDS.toNanos(29));
+            testRoom.getPlayers().add(testPlayer);
+            when(roomService.findByRoomCode("ABC12")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            mockMvc.perform(post("/api/game/answer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"roomCode\":\"ABC12\",\"playerId\":\"player-1\","
+                                    + "\"answerTime\":0,\"isCorrect\":true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.score").value(50));
+
+            assertThat(testPlayer.getTotalAnswerTime()).isGreaterThanOrEqualTo(29_000L);
+            verify(roomRegistry).markDirty(testPlayer);
+            verify(journal).answered(testRoom, testPlayer);
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("tells the room like a WebSocket answer and reveals once everyone answered")
+        void broadcastsLikeWebSocketAnswers() throws Exception {
+            testRoom.setCurrentState(GameState.QUESTION);
+            testRoom.setCurrentQuestionIndex(0);
+            testRoom.setStateStartNanos(System.nanoTime());
+            testRoom.getPlayers().add(testPlayer);
+            when(roomService.findByRoomCode("ABC12")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            mockMvc.perform(post("/api/game/answer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"roomCode\":\"ABC12\",\"playerId\":\"player-1\",\"isCorrect\":true}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.correct").value(true));
+
+            verify(answerProgress).answered("ABC12", 1, 0, "player-1", 1);
+            verify(rosterUpdates).scoreChanged(eq("ABC12"), eq("player-1"), anyInt());
+            verify(answerProgress).flush("ABC12");
+            verify(rankings).broadcast(eq("ABC12"), anyList());
+        }
+
+        @Test
+        @WithMockUser
+        @DisplayName("rejects a second answer to the same question with the current score")
+        void rejectsDuplicate() throws Exception {
+            testRoom.setCurrentState(GameState.QUESTION);
+            testRoom.setCurrentQuestionIndex(0);
+            testPlayer.setCurrentAnsweredQuestionIndex(0);
+            testPlayer.setScore(70);
+            when(roomService.findByRoomCode("ABC12")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            mockMvc.perform(post("/api/game/answer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"roomCode\":\"ABC12\",\"playerId\":\"player-1\",\"isCorrect\":true}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Already answered this question."))
+                    .andExpect(jsonPath("$.score").value(70));
+
+            verifyNoInteractions(rosterUpdates, rankings);
+        }
+    }
 }
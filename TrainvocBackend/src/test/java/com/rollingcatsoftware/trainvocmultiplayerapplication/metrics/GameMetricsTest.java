@@ -0,0 +1,114 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.metrics;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for GameMetrics.
+ * Tests room-size bucketing, per-type meters and the live gauges.
+ */
+@DisplayName("GameMetrics Tests")
+class GameMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomRegistry roomRegistry;
+    private GameMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        roomRegistry = new RoomRegistry(0);
+        metrics = new GameMetrics(meterRegistry, roomRegistry);
+    }
+
+    @Test
+    @DisplayName("buckets room sizes coarsely")
+    void sizeBuckets() {
+        assertThat(GameMetrics.sizeBucket(0)).isEqualTo("0");
+        assertThat(GameMetrics.sizeBucket(1)).isEqualTo("1-10");
+        assertThat(GameMetrics.sizeBucket(10)).isEqualTo("1-10");
+        assertThat(GameMetrics.sizeBucket(11)).isEqualTo("11-50");
+        assertThat(GameMetrics.sizeBucket(200)).isEqualTo("51-200");
+        assertThat(GameMetrics.sizeBucket(1000)).isEqualTo("201-1000");
+        assertThat(GameMetrics.sizeBucket(5000)).isEqualTo("1000+");
+    }
+
+    @Nested
+    @DisplayName("Per-message meters")
+    class PerMessage {
+
+        @Test
+        @DisplayName("times handlers and counts their DB calls by type and room size")
+        void recordsMessages() {
+            metrics.recordMessage("answer", 30, TimeUnit.MILLISECONDS.toNanos(5), 2);
+            metrics.recordMessage("answer", 40, TimeUnit.MILLISECONDS.toNanos(7), 0);
+            metrics.recordMessage("answer", 3, TimeUnit.MILLISECONDS.toNanos(1), 1);
+
+            var timer = meterRegistry.get("game.ws.message.duration")
+                    .tags("type", "answer", "room_size", "11-50").timer();
+            assertThat(timer.count()).isEqualTo(2);
+            assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12);
+            assertThat(meterRegistry.get("game.ws.message.db.calls")
+                    .tags("type", "answer", "room_size", "11-50").summary().totalAmount()).isEqualTo(2);
+            assertThat(meterRegistry.get("game.ws.message.duration").timers()).hasSize(2);
+        }
+
+        @Test
+        @DisplayName("times broadcasts and records their frame size")
+        void recordsBroadcasts() {
+            metrics.recordBroadcast("rankings", 250, TimeUnit.MILLISECONDS.toNanos(40), 1200);
+            metrics.recordBroadcast("", 1, 1000, 10);
+
+            assertThat(meterRegistry.get("game.ws.broadcast.duration")
+                    .tags("type", "rankings", "room_size", "201-1000").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("game.ws.broadcast.size")
+                    .tags("type", "rankings").summary().max()).isEqualTo(1200);
+            assertThat(meterRegistry.get("game.ws.broadcast.duration").tag("type", "unknown").timer().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("records rooms reaped and the duration of each expiry sweep")
+    void recordsSweeps() {
+        metrics.recordSweep(12, TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.recordSweep(0, TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertThat(meterRegistry.get("game.rooms.expiry.reaped").summary().totalAmount()).isEqualTo(12);
+        assertThat(meterRegistry.get("game.rooms.expiry.sweep.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Nested
+    @DisplayName("Gauges")
+    class Gauges {
+
+        @Test
+        @DisplayName("tracks live rooms and connected sessions")
+        void tracksRoomsAndSessions() {
+            Map<String, Object> sessions = new ConcurrentHashMap<>();
+            metrics.gaugeSessions(sessions, Map::size);
+            GameRoom room = new GameRoom();
+            room.setRoomCode("ROOM1");
+            room.setPlayers(new ArrayList<>());
+
+            roomRegistry.adopt(room);
+            sessions.put("p1", new Object());
+            sessions.put("p2", new Object());
+
+            assertThat(meterRegistry.get("game.rooms.active").gauge().value()).isEqualTo(1);
+            assertThat(meterRegistry.get("game.ws.sessions").gauge().value()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.GameClock;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GameStateMachine Tests")
+class GameStateMachineTest {
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private PlayerService playerService;
+
+    private GameStateMachine stateMachine;
+    private GameRoom room;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new GameStateMachine(List.of(
+                new LobbyStateHandler(), new CountdownStateHandler(), new QuestionStateHandler(),
+                new AnswerRevealStateHandler(), new RankingStateHandler(), new FinalStateHandler()),
+                roomService, playerService, RoomJournal.disabled());
+
+        room = new GameRoom();
+        room.setRoomCode("ROOM1");
+        room.setQuestionDuration(30);
+        room.setCurrentQuestionIndex(0);
+        room.setTotalQuestionCount(3);
+    }
+
+    @Nested
+    @DisplayName("advance")
+    class Advance {
+
+        @Test
+        @DisplayName("follows the game path and saves once per transition")
+        void followsGamePath() {
+            GameClock.startState(room, GameState.COUNTDOWN);
+
+            assertThat(stateMachine.advance(room, GameState.COUNTDOWN))
+                    .isEqualTo(new GameStateMachine.Transition(GameState.COUNTDOWN, GameState.QUESTION));
+            assertThat(stateMachine.advance(room, GameState.QUESTION).to()).isEqualTo(GameState.ANSWER_REVEAL);
+
+            GameStateMachine.Transition next = stateMachine.advance(room, GameState.ANSWER_REVEAL);
+
+            assertThat(next.isNextQuestion()).isTrue();
+            assertThat(room.getCurrentState()).isEqualTo(GameState.COUNTDOWN);
+            assertThat(room.getCurrentQuestionIndex()).isEqualTo(1);
+            verify(roomService, times(3)).save(room);
+            verify(playerService).resetAnswersForRoom(room);
+        }
+
+        @Test
+        @DisplayName("goes to ranking after the last question, then final")
+        void lastQuestionGoesToRanking() {
+            room.setCurrentQuestionIndex(2);
+            GameClock.startState(room, GameState.ANSWER_REVEAL);
+
+            assertThat(stateMachine.advance(room, GameState.ANSWER_REVEAL).to()).isEqualTo(GameState.RANKING);
+            assertThat(stateMachine.advance(room, GameState.RANKING).to()).isEqualTo(GameState.FINAL);
+            assertThat(room.getCurrentQuestionIndex()).isEqualTo(2);
+            verify(playerService, never()).resetAnswersForRoom(any());
+        }
+
+        @Test
+        @DisplayName("does nothing when the room is no longer in the expected state")
+        void staleExpectationFails() {
+            GameClock.startState(room, GameState.QUESTION);
+
+            assertThat(stateMachine.advance(room, GameState.ANSWER_REVEAL)).isNull();
+            assertThat(room.getCurrentState()).isEqualTo(GameState.QUESTION);
+            verify(roomService, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("never leaves lobby or final")
+        void untimedStatesStay() {
+            GameClock.startState(room, GameState.LOBBY);
+            assertThat(stateMachine.advance(room, GameState.LOBBY)).isNull();
+
+            GameClock.startState(room, GameState.FINAL);
+            assertThat(stateMachine.advance(room, GameState.FINAL)).isNull();
+        }
+
+        @Test
+        @DisplayName("while held, lets a running question end but nothing else move on")
+        void heldRoomsStay() {
+            stateMachine.hold();
+            GameClock.startState(room, GameState.QUESTION);
+
+            assertThat(stateMachine.advance(room, GameState.QUESTION).to()).isEqualTo(GameState.ANSWER_REVEAL);
+            assertThat(stateMachine.isHeld(room)).isTrue();
+            assertThat(stateMachine.advance(room, GameState.ANSWER_REVEAL)).isNull();
+            assertThat(room.getCurrentQuestionIndex()).isZero();
+        }
+
+        @Test
+        @DisplayName("saves and clears answers after releasing the room's monitor")
+        void persistsOutsideMonitor() {
+            GameClock.startState(room, GameState.ANSWER_REVEAL);
+            List<Boolean> heldDuringWrites = new ArrayList<>();
+            doAnswer(invocation -> {
+                heldDuringWrites.add(Thread.holdsLock(room));
+                return room;
+            }).when(roomService).save(room);
+            doAnswer(invocation -> {
+                heldDuringWrites.add(Thread.holdsLock(room));
+                return null;
+            }).when(playerService).resetAnswersForRoom(room);
+
+            assertThat(stateMachine.advance(room, GameState.ANSWER_REVEAL).isNextQuestion()).isTrue();
+
+            assertThat(heldDuringWrites).containsExactly(false, false);
+        }
+
+        @Test
+        @DisplayName("lets exactly one of racing callers advance the room")
+        void racingCallersAdvanceOnce() {
+            GameClock.startState(room, GameState.ANSWER_REVEAL);
+            CountDownLatch start = new CountDownLatch(1);
+
+            List<CompletableFuture<GameStateMachine.Transition>> racers = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return stateMachine.advance(room, GameState.ANSWER_REVEAL);
+                    }))
+                    .toList();
+            start.countDown();
+
+            long winners = racers.stream().map(CompletableFuture::join).filter(t -> t != null).count();
+
+            assertThat(winners).isEqualTo(1);
+            assertThat(room.getCurrentQuestionIndex()).isEqualTo(1);
+            verify(roomService, times(1)).save(room);
+        }
+    }
+
+    @Nested
+    @DisplayName("advanceIfDue")
+    class AdvanceIfDue {
+
+        @Test
+        @DisplayName("leaves a state with time left alone")
+        void notDue() {
+            GameClock.startState(room, GameState.QUESTION);
+
+            assertThat(stateMachine.advanceIfDue(room)).isNull();
+            assertThat(room.getCurrentState()).isEqualTo(GameState.QUESTION);
+        }
+
+        @Test
+        @DisplayName("advances a state whose time is up")
+        void due() {
+            GameClock.startState(room, GameState.COUNTDOWN);
+            room.setStateStartNanos(System.nanoTime() - TimeUnit.SECONDS.toNanos(4));
+
+            assertThat(stateMachine.advanceIfDue(room).to()).isEqualTo(GameState.QUESTION);
+        }
+
+        @Test
+        @DisplayName("auto-advances the answer reveal")
+        void autoAdvancesReveal() {
+            GameClock.startState(room, GameState.ANSWER_REVEAL);
+            room.setStateStartNanos(System.nanoTime()
+                    - TimeUnit.SECONDS.toNanos(GameClock.ANSWER_REVEAL_AUTO_ADVANCE_SECONDS + 1));
+
+            assertThat(stateMachine.advanceIfDue(room).isNextQuestion()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.performance;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RankingsBroadcaster;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.RoomReplay;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.ShardedFanout;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketContext;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketFixtures;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rankings broadcast to a 1,000-player room: small-room mode (full list, sequential sends)
+ * versus large-room mode (top-K plus own rank, sharded sends). Each send costs a simulated
+ * socket write. Large-room mode must stay within {@link PerformanceBenchmarkTest#BROADCAST_THRESHOLD}.
+ */
+@DisplayName("Large Room Broadcast Benchmark")
+@Tag("performance")
+class LargeRoomBroadcastBenchmarkTest {
+
+    private static final String ROOM_CODE = "CLASS";
+    private static final int PLAYERS = 1000;
+    private static final long WRITE_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final int ROUNDS = 10;
+
+    @Test
+    @DisplayName("large-room mode broadcasts rankings to 1,000 players within threshold")
+    void largeRoomWithinThreshold() {
+        AtomicLong bytes = new AtomicLong();
+        List<WebSocketSession> sessions = sessions(bytes);
+        List<Player> players = players();
+
+        ShardedFanout sharded = new ShardedFanout(200, 100, 8);
+        try {
+            Result small = measure(WebSocketFixtures.sequentialFanout(), sessions, players, bytes);
+            Result large = measure(sharded, sessions, players, bytes);
+
+            System.out.printf("Small-room mode: %.2f ms/broadcast, %,d bytes/broadcast%n", small.millis, small.bytes);
+            System.out.printf("Large-room mode: %.2f ms/broadcast, %,d bytes/broadcast (threshold %d ms)%n",
+                    large.millis, large.bytes, PerformanceBenchmarkTest.BROADCAST_THRESHOLD);
+
+            assertThat(large.bytes).isLessThan(small.bytes);
+            assertThat(large.millis).isLessThan(PerformanceBenchmarkTest.BROADCAST_THRESHOLD);
+        } finally {
+            sharded.shutdown();
+        }
+    }
+
+    private static Result measure(ShardedFanout fanout, List<WebSocketSession> sessions, List<Player> players,
+                                  AtomicLong bytes) {
+        WebSocketContext context = WebSocketFixtures.context(fanout, new RoomReplay(new RoomRegistry(0)));
+        for (int i = 0; i < sessions.size(); i++) {
+            context.registerSession(players.get(i).getId(), ROOM_CODE, sessions.get(i));
+        }
+        RankingsBroadcaster rankings = new RankingsBroadcaster(context, fanout, 10);
+
+        broadcast(rankings, players); // warm-up
+        bytes.set(0);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            broadcast(rankings, players);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        return new Result(millis, bytes.get() / ROUNDS);
+    }
+
+    private static void broadcast(RankingsBroadcaster rankings, List<Player> players) {
+        try {
+            rankings.broadcast(ROOM_CODE, players);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<WebSocketSession> sessions(AtomicLong bytes) {
+        List<WebSocketSession> sessions = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            WebSocketSession session = mock(WebSocketSession.class);
+            when(session.getId()).thenReturn("session-" + i);
+            when(session.isOpen()).thenReturn(true);
+            try {
+                doAnswer(invocation -> {
+                    bytes.addAndGet(invocation.<WebSocketMessage<?>>getArgument(0).getPayloadLength());
+                    LockSupport.parkNanos(WRITE_COST_NANOS);
+                    return null;
+                }).when(session).sendMessage(any());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    private static List<Player> players() {
+        List<Player> players = new ArrayList<>(PLAYERS);
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = new Player();
+            player.setId("player-" + i);
+            player.setName("Student " + i);
+            player.setAvatarId(i % 8);
+            player.setScore((i * 7919) % 5000);
+            player.setCorrectCount(i % 10);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private record Result(double millis, long bytes) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.performance;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.AnswerMessage;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessageDecoder;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares inbound frame decoding: org.json tree parsing versus the streaming
+ * {@link InboundMessageDecoder}. Reports throughput and bytes allocated per message.
+ */
+@DisplayName("Message Decoding Benchmark")
+@Tag("performance")
+class MessageDecodingBenchmarkTest {
+
+    private static final String ANSWER_FRAME =
+            "{\"type\":\"answer\",\"roomCode\":\"ABC12\",\"playerId\":\"5f0c7a9e-8a0d-4b43-9d7c-3f2f1b6a2c11\","
+                    + "\"answerIndex\":2,\"answerTime\":13,\"isCorrect\":true}";
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final InboundMessageDecoder decoder = new InboundMessageDecoder();
+
+    @Test
+    @DisplayName("streaming decoder matches org.json and reports cost per message")
+    void compareDecoders() {
+        ToIntFunction<String> orgJson = payload -> {
+            JSONObject json = new JSONObject(payload);
+            return json.getString("type").length() + json.getString("roomCode").length()
+                    + json.getString("playerId").length() + json.getInt("answerIndex")
+                    + json.optInt("answerTime", 0) + (json.optBoolean("isCorrect", false) ? 1 : 0);
+        };
+        ToIntFunction<String> streaming = payload -> {
+            AnswerMessage m = (AnswerMessage) decoder.decode(payload);
+            return m.type().length() + m.roomCode().length() + m.playerId().length()
+                    + m.answerIndex() + m.answerTime() + (m.isCorrect() ? 1 : 0);
+        };
+
+        assertThat(streaming.applyAsInt(ANSWER_FRAME)).isEqualTo(orgJson.applyAsInt(ANSWER_FRAME));
+
+        Result json = measure(orgJson);
+        Result stream = measure(streaming);
+
+        System.out.printf("org.json:  %,.0f msg/s, %,d bytes/msg%n", json.opsPerSecond, json.bytesPerOp);
+        System.out.printf("streaming: %,.0f msg/s, %,d bytes/msg%n", stream.opsPerSecond, stream.bytesPerOp);
+
+        assertThat(stream.opsPerSecond).isPositive();
+        assertThat(json.opsPerSecond).isPositive();
+    }
+
+    private static Result measure(ToIntFunction<String> decode) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += decode.applyAsInt(ANSWER_FRAME);
+        }
+
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decode.applyAsInt(ANSWER_FRAME);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        assertThat(sink).isNotZero();
+        return new Result(ITERATIONS * 1_000_000_000.0 / elapsed, bytes / ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                && mx.isThreadAllocatedMemorySupported()) {
+            return mx.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return 0;
+    }
+
+    private record Result(double opsPerSecond, long bytesPerOp) {
+    }
+}
@@ -6,6 +6,7 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.GameService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketContext;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.WebSocketFixtures;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -45,11 +47,11 @@ class PerformanceBenchmarkTest {
     private static final long ROOM_CREATION_THRESHOLD = 100;
     private static final long PLAYER_JOIN_THRESHOLD = 50;
     private static final long SESSION_LOOKUP_THRESHOLD = 1;
-    private static final long BROADCAST_THRESHOLD = 100;
+    static final long BROADCAST_THRESHOLD = 100;
 
     @BeforeEach
     void setUp() {
-        wsContext = new WebSocketContext();
+        wsContext = WebSocketFixtures.context();
     }
 
     @Nested
@@ -76,24 +78,45 @@ class PerformanceBenchmarkTest {
         void batchRoomCreationPerformance() {
             QuizSettings settings = new QuizSettings();
             int batchSize = 100;
-            List<Long> times = new ArrayList<>();
 
+            // Warm both paths so neither pays for connection and statement setup alone
+            roomService.createRoomWithEntityManager("WarmupHost", 1, settings, true, null);
+            gameService.createRoom("WarmupHost", 1, settings, true, null);
+
+            List<Long> entityManagerTimes = timeCreations(batchSize,
+                    i -> roomService.createRoomWithEntityManager("JpaHost" + i, 1, settings, true, null));
+            List<Long> batchedTimes = timeCreations(batchSize,
+                    i -> gameService.createRoom("BatchHost" + i, 1, settings, true, null));
+
+            double entityManagerAvg = printStats("EntityManager room creation", entityManagerTimes);
+            double batchedAvg = printStats("Batched room creation", batchedTimes);
+            System.out.println("  Speedup: " + String.format("%.1f", entityManagerAvg / Math.max(batchedAvg, 0.001)) + "x");
+
+            assertThat(batchedAvg).isLessThan(ROOM_CREATION_THRESHOLD);
+            assertThat(batchedAvg).isLessThan(entityManagerAvg);
+        }
+
+        private List<Long> timeCreations(int batchSize, IntConsumer create) {
+            List<Long> times = new ArrayList<>();
             for (int i = 0; i < batchSize; i++) {
                 long startTime = System.nanoTime();
-                gameService.createRoom("BatchHost" + i, 1, settings, true, null);
-                times.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                create.accept(i);
+                times.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
             }
+            return times;
+        }
 
-            double avgTime = times.stream().mapToLong(Long::longValue).average().orElse(0);
+        /** Prints average, max and P95 of times in microseconds; returns the average in milliseconds. */
+        private double printStats(String label, List<Long> times) {
+            double avgTime = times.stream().mapToLong(Long::longValue).average().orElse(0) / 1000.0;
             long maxTime = times.stream().mapToLong(Long::longValue).max().orElse(0);
-            long p95Time = times.stream().sorted().skip((long) (batchSize * 0.95)).findFirst().orElse(0L);
+            long p95Time = times.stream().sorted().skip((long) (times.size() * 0.95)).findFirst().orElse(0L);
 
-            System.out.println("Batch room creation (" + batchSize + " rooms):");
+            System.out.println(label + " (" + times.size() + " rooms):");
             System.out.println("  Average: " + String.format("%.2f", avgTime) + "ms");
-            System.out.println("  Max: " + maxTime + "ms");
-            System.out.println("  P95: " + p95Time + "ms");
-
-            assertThat(avgTime).isLessThan(ROOM_CREATION_THRESHOLD);
+            System.out.println("  Max: " + String.format("%.2f", maxTime / 1000.0) + "ms");
+            System.out.println("  P95: " + String.format("%.2f", p95Time / 1000.0) + "ms");
+            return avgTime;
         }
 
         @Test
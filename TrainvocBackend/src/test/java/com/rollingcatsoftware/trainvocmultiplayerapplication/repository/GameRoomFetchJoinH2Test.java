@@ -88,7 +88,7 @@ class GameRoomFetchJoinH2Test {
 
         EntityManager read = entityManagerFactory.createEntityManager();
         try {
-            // The exact query shape RoomService.createRoom uses for its post-commit re-fetch.
+            // The exact query shape RoomService.createRoomWithEntityManager uses for its post-commit re-fetch.
             GameRoom fetched = read.createQuery(
                             "SELECT r FROM GameRoom r LEFT JOIN FETCH r.players WHERE r.roomCode = :code",
                             GameRoom.class)
@@ -105,18 +105,6 @@ class GameServiceTest {
             verify(roomService).save(testRoom);
         }
 
-        @Test
-        @DisplayName("getAllRooms delegates to roomService")
-        void getAllRooms_delegatesToRoomService() {
-            List<GameRoom> rooms = List.of(testRoom);
-            when(roomService.getAllRooms()).thenReturn(rooms);
-
-            List<GameRoom> result = gameService.getAllRooms();
-
-            assertEquals(rooms, result);
-            verify(roomService).getAllRooms();
-        }
-
         @Test
         @DisplayName("startRoom delegates to roomService")
         void startRoom_delegatesToRoomService() {
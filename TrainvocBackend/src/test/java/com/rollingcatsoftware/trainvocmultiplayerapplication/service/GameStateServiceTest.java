@@ -3,18 +3,27 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.AnswerRevealStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.CountdownStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.FinalStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.GameStateMachine;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.LobbyStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.QuestionStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.pattern.state.RankingStateHandler;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler.TransitionBroadcaster;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,7 +39,9 @@ class GameStateServiceTest {
     @Mock
     private PlayerService playerService;
 
-    @InjectMocks
+    @Mock
+    private TransitionBroadcaster transitions;
+
     private GameStateService gameStateService;
 
     private GameRoom testRoom;
@@ -41,6 +52,12 @@ class GameStateServiceTest {
 
     @BeforeEach
     void setUp() {
+        GameStateMachine stateMachine = new GameStateMachine(List.of(
+                new LobbyStateHandler(), new CountdownStateHandler(), new QuestionStateHandler(),
+                new AnswerRevealStateHandler(), new RankingStateHandler(), new FinalStateHandler()),
+                roomService, playerService, RoomJournal.disabled());
+        gameStateService = new GameStateService(roomService, playerService, stateMachine, transitions);
+
         testRoom = new GameRoom();
         testRoom.setRoomCode(ROOM_CODE);
         testRoom.setCurrentState(GameState.LOBBY);
@@ -162,7 +179,8 @@ class GameStateServiceTest {
             assertNotNull(result);
             assertEquals("lobby", result.get("state"));
             assertEquals(0, result.get("remainingTime"));
-            assertEquals(2, result.size()); // Only state and remainingTime
+            assertEquals(0L, result.get("remainingTimeMs"));
+            assertEquals(3, result.size()); // Only state and remaining time
         }
     }
 
@@ -181,7 +199,8 @@ class GameStateServiceTest {
 
         @Test
         @DisplayName("advances to next question when not on last question")
-        void advancesToNextQuestion_whenNotOnLastQuestion() {
+        void advancesToNextQuestion_whenNotOnLastQuestion() throws Exception {
+            testRoom.setCurrentState(GameState.ANSWER_REVEAL);
             testRoom.setCurrentQuestionIndex(3);
             testRoom.setTotalQuestionCount(10);
 
@@ -192,11 +211,14 @@ class GameStateServiceTest {
             assertEquals(GameState.COUNTDOWN, testRoom.getCurrentState());
             verify(roomService).save(testRoom);
             verify(playerService).resetAnswersForRoom(testRoom);
+            verify(transitions).broadcast(testRoom,
+                    new GameStateMachine.Transition(GameState.ANSWER_REVEAL, GameState.COUNTDOWN));
         }
 
         @Test
         @DisplayName("transitions to ranking when on last question")
         void transitionsToRanking_whenOnLastQuestion() {
+            testRoom.setCurrentState(GameState.ANSWER_REVEAL);
             testRoom.setCurrentQuestionIndex(9);
             testRoom.setTotalQuestionCount(10);
 
@@ -212,6 +234,7 @@ class GameStateServiceTest {
         @Test
         @DisplayName("handles edge case of single question")
         void handlesEdgeCase_singleQuestion() {
+            testRoom.setCurrentState(GameState.ANSWER_REVEAL);
             testRoom.setCurrentQuestionIndex(0);
             testRoom.setTotalQuestionCount(1);
 
@@ -220,6 +243,21 @@ class GameStateServiceTest {
             assertFalse(result);
             assertEquals(GameState.RANKING, testRoom.getCurrentState());
         }
+
+        @Test
+        @DisplayName("does nothing unless the room is in answer reveal")
+        void doesNothing_whenNotInAnswerReveal() throws Exception {
+            testRoom.setCurrentState(GameState.QUESTION);
+            testRoom.setCurrentQuestionIndex(3);
+
+            boolean result = gameStateService.goToNextQuestion(testRoom);
+
+            assertFalse(result);
+            assertEquals(GameState.QUESTION, testRoom.getCurrentState());
+            assertEquals(3, testRoom.getCurrentQuestionIndex());
+            verify(roomService, never()).save(any());
+            verify(transitions, never()).broadcast(any(), any());
+        }
     }
 
     @Nested
@@ -227,8 +265,8 @@ class GameStateServiceTest {
     class StateTransitions {
 
         @Test
-        @DisplayName("countdown transitions to question after countdown seconds")
-        void countdownTransitionsToQuestion() {
+        @DisplayName("reading an overdue countdown does not transition it")
+        void overdueCountdownIsNotTransitionedOnRead() {
             testRoom.setCurrentState(GameState.COUNTDOWN);
             testRoom.setStateStartTime(LocalDateTime.now().minusSeconds(4)); // 4 seconds ago
 
@@ -238,14 +276,17 @@ class GameStateServiceTest {
 
             Map<String, Object> result = gameStateService.getGameState(ROOM_CODE, PLAYER_ID);
 
-            // Should transition when countdown is over
+            // The timer transitions it; a read only reports that no time is left
             assertNotNull(result);
-            verify(roomService, atLeastOnce()).findByRoomCode(ROOM_CODE);
+            assertEquals(GameState.COUNTDOWN.ordinal(), result.get("state"));
+            assertEquals(0, result.get("remainingTime"));
+            assertEquals(GameState.COUNTDOWN, testRoom.getCurrentState());
+            verify(roomService, never()).save(any());
         }
 
         @Test
-        @DisplayName("question transitions to answer reveal after question duration")
-        void questionTransitionsToAnswerReveal() {
+        @DisplayName("reading an overdue question reports it with no time left")
+        void overdueQuestionReportsNoTimeLeft() {
             testRoom.setCurrentState(GameState.QUESTION);
             testRoom.setQuestionDuration(30);
             testRoom.setStateStartTime(LocalDateTime.now().minusSeconds(31)); // 31 seconds ago
@@ -257,8 +298,26 @@ class GameStateServiceTest {
             Map<String, Object> result = gameStateService.getGameState(ROOM_CODE, PLAYER_ID);
 
             assertNotNull(result);
-            // State should have transitioned
-            assertEquals(GameState.ANSWER_REVEAL.ordinal(), result.get("state"));
+            assertEquals(GameState.QUESTION.ordinal(), result.get("state"));
+            assertEquals(0L, result.get("remainingTimeMs"));
+            verify(roomService, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("reports remaining question time in milliseconds from the monotonic clock")
+        void reportsRemainingMillis() {
+            testRoom.setCurrentState(GameState.QUESTION);
+            testRoom.setQuestionDuration(30);
+            testRoom.setStateStartNanos(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10_500));
+
+            when(roomService.findByRoomCode(ROOM_CODE)).thenReturn(testRoom);
+            when(playerService.findById(PLAYER_ID)).thenReturn(testPlayer);
+
+            Map<String, Object> result = gameStateService.getSimpleState(ROOM_CODE, PLAYER_ID);
+
+            long remainingMs = (Long) result.get("remainingTimeMs");
+            assertTrue(remainingMs > 18_000 && remainingMs <= 19_500);
+            assertEquals(20, result.get("remainingTime")); // rounded up
         }
 
         @Test
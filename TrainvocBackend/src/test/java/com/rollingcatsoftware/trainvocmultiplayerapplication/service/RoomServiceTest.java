@@ -5,6 +5,14 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizSettings;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomCodes;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomDeadlines;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomInserter;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomLeases;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomTeardown;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomTouches;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
@@ -18,6 +26,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.SimpleTransactionStatus;
 
@@ -25,6 +35,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -67,18 +78,37 @@ class RoomServiceTest {
     @Mock
     private TypedQuery<GameRoom> refetchQuery;
 
+    @Mock
+    private RoomLeases roomLeases;
+
+    @Mock
+    private RoomInserter roomInserter;
+
+    @Mock
+    private RoomCodes roomCodes;
+
+    @Mock
+    private RoomTouches roomTouches;
+
+    @Mock
+    private RoomTeardown roomTeardown;
+
     private RoomService roomService;
 
     private GameRoom testRoom;
     private QuizSettings testSettings;
     private static final String ROOM_CODE = "ABC123";
+    private static final String POOL_CODE = "K7QPX";
     private static final String HOST_NAME = "TestHost";
     private static final Integer AVATAR_ID = 1;
 
     @BeforeEach
     void setUp() {
         roomService = new RoomService(
-                gameRoomRepository, playerService, transactionManager, entityManagerFactory);
+                gameRoomRepository, playerService, transactionManager, entityManagerFactory, new RoomRegistry(0),
+                new RoomDeadlines(), roomLeases, RoomJournal.disabled(), RoomInserter.disabled(), roomCodes,
+                roomTouches, roomTeardown);
+        lenient().when(roomCodes.allocate()).thenReturn(POOL_CODE);
 
         testRoom = new GameRoom();
         testRoom.setRoomCode(ROOM_CODE);
@@ -169,6 +199,18 @@ class RoomServiceTest {
             verify(writeEntityManager).merge(testRoom);
         }
 
+        @Test
+        @DisplayName("persists no player for a host who does not join")
+        void hostNotJoining() {
+            stubCreateRoomEntityManagers();
+
+            GameRoom result = roomService.createRoom(HOST_NAME, AVATAR_ID, testSettings, false, null);
+
+            verify(writeEntityManager, never()).persist(any());
+            assertNotNull(result.getHostId());
+            assertTrue(result.getPlayers().isEmpty());
+        }
+
         @Test
         @DisplayName("sets hashed password when provided")
         void setsHashedPassword_whenProvided() {
@@ -181,39 +223,151 @@ class RoomServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("createRoom (batched insert)")
+    class BatchedCreateRoom {
+
+        private RoomRegistry registry;
+        private RoomService batched;
+
+        @BeforeEach
+        void setUp() {
+            registry = new RoomRegistry(0);
+            batched = new RoomService(
+                    gameRoomRepository, playerService, transactionManager, entityManagerFactory, registry,
+                    new RoomDeadlines(), roomLeases, RoomJournal.disabled(), roomInserter, roomCodes,
+                    roomTouches, roomTeardown);
+            when(roomInserter.isEnabled()).thenReturn(true);
+            lenient().doAnswer(invocation -> {
+                GameRoom room = invocation.getArgument(0);
+                Supplier<String> codes = invocation.getArgument(2);
+                room.setRoomCode(codes.get());
+                room.setVersion(0L);
+                return null;
+            }).when(roomInserter).insert(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("inserts the assembled room and host and adopts it without reading it back")
+        void insertsWithoutReread() {
+            GameRoom result = batched.createRoom(HOST_NAME, AVATAR_ID, testSettings, true, "hashed");
+
+            ArgumentCaptor<Player> hostCaptor = ArgumentCaptor.forClass(Player.class);
+            verify(roomInserter).insert(same(result), hostCaptor.capture(), any());
+            Player host = hostCaptor.getValue();
+            assertEquals(HOST_NAME, host.getName());
+            assertEquals(AVATAR_ID, host.getAvatarId());
+            assertEquals(host.getId(), result.getHostId());
+            assertEquals("hashed", result.getHashedPassword());
+            assertEquals(testSettings.getQuestionDuration(), result.getQuestionDuration());
+            assertEquals(testSettings.getTotalQuestionCount(), result.getTotalQuestionCount());
+            assertEquals(GameState.LOBBY, result.getCurrentState());
+            assertEquals(List.of(host), result.getPlayers());
+            assertSame(result, host.getRoom());
+
+            assertSame(result, registry.get(result.getRoomCode()));
+            verifyNoInteractions(entityManagerFactory, gameRoomRepository);
+        }
+
+        @Test
+        @DisplayName("inserts no player row for a host who does not join")
+        void hostNotJoining() {
+            GameRoom result = batched.createRoom(HOST_NAME, AVATAR_ID, testSettings, false, null);
+
+            verify(roomInserter).insert(same(result), isNull(), any());
+            assertNotNull(result.getHostId());
+            assertTrue(result.getPlayers().isEmpty());
+        }
+
+        @Test
+        @DisplayName("takes the room code from the code pool")
+        void codeFromPool() {
+            GameRoom result = batched.createRoom(HOST_NAME, AVATAR_ID, testSettings, true, null);
+
+            assertEquals(POOL_CODE, result.getRoomCode());
+            verify(roomCodes).allocate();
+        }
+
+        @Test
+        @DisplayName("returns the code to the pool when the insert fails")
+        void releasesCodeOnFailure() {
+            doAnswer(invocation -> {
+                Supplier<String> codes = invocation.getArgument(2);
+                codes.get();
+                throw new DataAccessResourceFailureException("database down");
+            }).when(roomInserter).insert(any(), any(), any());
+
+            assertThrows(DataAccessResourceFailureException.class,
+                    () -> batched.createRoom(HOST_NAME, AVATAR_ID, testSettings, true, null));
+
+            verify(roomCodes).release(POOL_CODE);
+            assertEquals(0, registry.size());
+        }
+
+        @Test
+        @DisplayName("keeps codes taken by other rooms marked as used")
+        void keepsTakenCodes() {
+            doAnswer(invocation -> {
+                Supplier<String> codes = invocation.getArgument(2);
+                codes.get();
+                throw new DuplicateKeyException("room code taken");
+            }).when(roomInserter).insert(any(), any(), any());
+
+            assertThrows(DuplicateKeyException.class,
+                    () -> batched.createRoom(HOST_NAME, AVATAR_ID, testSettings, true, null));
+
+            verify(roomCodes, never()).release(anyString());
+            assertEquals(0, registry.size());
+        }
+    }
+
     @Nested
     @DisplayName("getRoom")
     class GetRoom {
 
         @Test
-        @DisplayName("returns room and updates lastUsed")
+        @DisplayName("returns room and records lastUsed without writing the row")
         void returnsRoom_andUpdatesLastUsed() {
-            stubTransactionTemplate();
             LocalDateTime before = LocalDateTime.now().minusMinutes(1);
             testRoom.setLastUsed(before);
 
             when(gameRoomRepository.findById(ROOM_CODE)).thenReturn(Optional.of(testRoom));
-            when(gameRoomRepository.save(any(GameRoom.class)))
-                    .thenAnswer(invocation -> invocation.getArgument(0));
 
             GameRoom result = roomService.getRoom(ROOM_CODE);
 
             assertNotNull(result);
             assertEquals(ROOM_CODE, result.getRoomCode());
             assertTrue(result.getLastUsed().isAfter(before));
-            verify(gameRoomRepository).save(testRoom);
+            verify(roomTouches).touch(ROOM_CODE, result.getLastUsed());
+            verify(gameRoomRepository, never()).save(any());
+            verifyNoInteractions(transactionManager);
+        }
+
+        @Test
+        @DisplayName("touches a live room in memory only")
+        void touchesLiveRoom() {
+            when(gameRoomRepository.findByRoomCode(ROOM_CODE)).thenReturn(testRoom);
+            GameRoom live = roomService.findByRoomCode(ROOM_CODE);
+
+            GameRoom result = roomService.getRoom(ROOM_CODE);
+
+            assertSame(live, result);
+            assertNotNull(result.getLastUsed());
+            verify(roomTouches).touch(ROOM_CODE, result.getLastUsed());
+            verify(gameRoomRepository, never()).findById(any());
+            verify(gameRoomRepository, never()).save(any());
         }
 
         @Test
         @DisplayName("returns null when room not found")
         void returnsNull_whenRoomNotFound() {
-            stubTransactionTemplate();
             when(gameRoomRepository.findById(ROOM_CODE)).thenReturn(Optional.empty());
 
             GameRoom result = roomService.getRoom(ROOM_CODE);
 
             assertNull(result);
             verify(gameRoomRepository, never()).save(any());
+            verifyNoInteractions(roomTouches);
         }
     }
 
@@ -244,33 +398,6 @@ class RoomServiceTest {
         }
     }
 
-    @Nested
-    @DisplayName("getAllRooms")
-    class GetAllRooms {
-
-        @Test
-        @DisplayName("returns all rooms")
-        void returnsAllRooms() {
-            List<GameRoom> rooms = List.of(testRoom, new GameRoom());
-            when(gameRoomRepository.findAll()).thenReturn(rooms);
-
-            List<GameRoom> result = roomService.getAllRooms();
-
-            assertEquals(2, result.size());
-            verify(gameRoomRepository).findAll();
-        }
-
-        @Test
-        @DisplayName("returns empty list when no rooms")
-        void returnsEmptyList_whenNoRooms() {
-            when(gameRoomRepository.findAll()).thenReturn(List.of());
-
-            List<GameRoom> result = roomService.getAllRooms();
-
-            assertTrue(result.isEmpty());
-        }
-    }
-
     @Nested
     @DisplayName("startRoom")
     class StartRoom {
@@ -319,6 +446,7 @@ class RoomServiceTest {
 
             assertTrue(result);
             verify(gameRoomRepository).delete(testRoom);
+            verify(roomTeardown).forget(ROOM_CODE);
         }
 
         @Test
@@ -331,6 +459,7 @@ class RoomServiceTest {
 
             assertFalse(result);
             verify(gameRoomRepository, never()).delete(any());
+            verify(roomTeardown, never()).forget(anyString());
         }
     }
 
@@ -351,4 +480,50 @@ class RoomServiceTest {
             verify(gameRoomRepository).save(testRoom);
         }
     }
+
+    @Nested
+    @DisplayName("live rooms")
+    class LiveRooms {
+
+        @Test
+        @DisplayName("serves repeated lookups from memory")
+        void servesRepeatedLookups_fromMemory() {
+            when(gameRoomRepository.findByRoomCode(ROOM_CODE)).thenReturn(testRoom);
+
+            GameRoom first = roomService.findByRoomCode(ROOM_CODE);
+            GameRoom second = roomService.findByRoomCode(ROOM_CODE);
+
+            assertSame(first, second);
+            verify(gameRoomRepository, times(1)).findByRoomCode(ROOM_CODE);
+        }
+
+        @Test
+        @DisplayName("defers saves of a live room to write-behind")
+        void defersSave_ofLiveRoom() {
+            when(gameRoomRepository.findByRoomCode(ROOM_CODE)).thenReturn(testRoom);
+            GameRoom live = roomService.findByRoomCode(ROOM_CODE);
+
+            live.setCurrentState(GameState.QUESTION);
+            GameRoom result = roomService.save(live);
+
+            assertSame(live, result);
+            verify(gameRoomRepository, never()).save(any());
+            verifyNoInteractions(transactionManager);
+        }
+
+        @Test
+        @DisplayName("starts a live room in memory")
+        void startsLiveRoom_inMemory() {
+            when(gameRoomRepository.findByRoomCode(ROOM_CODE)).thenReturn(testRoom);
+            roomService.findByRoomCode(ROOM_CODE);
+
+            boolean result = roomService.startRoom(ROOM_CODE);
+
+            assertTrue(result);
+            assertTrue(testRoom.getStarted());
+            assertEquals(GameState.COUNTDOWN, testRoom.getCurrentState());
+            verify(gameRoomRepository, never()).save(any());
+            verify(roomLeases).acquire(ROOM_CODE);
+        }
+    }
 }
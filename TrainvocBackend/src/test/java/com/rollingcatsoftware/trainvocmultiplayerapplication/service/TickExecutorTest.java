@@ -0,0 +1,147 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TickExecutor.
+ * Tests parallelism, the concurrency limit, timing metrics and overrun detection.
+ */
+@DisplayName("TickExecutor Tests")
+class TickExecutorTest {
+
+    private static final int MAX_CONCURRENT = 2;
+    private static final long OVERRUN_MS = 50;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TickExecutor ticks;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ticks = new TickExecutor(meterRegistry, MAX_CONCURRENT, OVERRUN_MS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ticks.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Concurrency")
+    class Concurrency {
+
+        @Test
+        @DisplayName("a blocked room does not hold up other rooms")
+        void slowRoomDoesNotBlockOthers() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch fastDone = new CountDownLatch(1);
+
+            ticks.execute("SLOW1", 4, System.nanoTime(), () -> await(release));
+            ticks.execute("FAST1", 4, System.nanoTime(), fastDone::countDown);
+
+            assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("runs at most max-concurrent-ticks at once")
+        void boundsConcurrency() throws Exception {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(20);
+
+            for (int i = 0; i < 20; i++) {
+                ticks.execute("ROOM" + i, 4, System.nanoTime(), () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(10);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(maxRunning.get()).isBetween(1, MAX_CONCURRENT);
+        }
+
+        @Test
+        @DisplayName("a failing tick releases its permit")
+        void failureReleasesPermit() throws Exception {
+            CountDownLatch done = new CountDownLatch(1);
+            for (int i = 0; i < MAX_CONCURRENT; i++) {
+                ticks.execute("FAIL" + i, 4, System.nanoTime(), () -> {
+                    throw new IllegalStateException("boom");
+                });
+            }
+
+            ticks.execute("ROOM1", 4, System.nanoTime(), done::countDown);
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("records lag from the deadline and tick duration")
+        void recordsLagAndDuration() {
+            long dueAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20);
+
+            ticks.wrap("ROOM1", 4, dueAt, () -> sleep(10)).run();
+
+            assertThat(meterRegistry.get("game.timer.tick.lag").tag("room_size", "1-10").timer().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("game.timer.tick.lag").timer().totalTime(TimeUnit.MILLISECONDS))
+                    .isGreaterThanOrEqualTo(20);
+            assertThat(meterRegistry.get("game.timer.tick.duration").timer().totalTime(TimeUnit.MILLISECONDS))
+                    .isGreaterThanOrEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("counts late and long ticks as overruns")
+        void countsOverruns() {
+            long late = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(OVERRUN_MS * 2);
+
+            ticks.wrap("ROOM1", 4, System.nanoTime(), () -> { }).run();
+            assertThat(overruns("lag") + overruns("duration")).isZero();
+
+            ticks.wrap("ROOM1", 4, late, () -> { }).run();
+            ticks.wrap("ROOM2", 4, System.nanoTime(), () -> sleep(OVERRUN_MS * 2)).run();
+
+            assertThat(overruns("lag")).isEqualTo(1);
+            assertThat(overruns("duration")).isEqualTo(1);
+        }
+    }
+
+    private double overruns(String kind) {
+        return meterRegistry.get("game.timer.tick.overruns").tag("kind", kind).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
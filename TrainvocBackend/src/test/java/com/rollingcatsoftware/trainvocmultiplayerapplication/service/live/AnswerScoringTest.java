@@ -0,0 +1,41 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AnswerScoring.
+ * Tests the millisecond time bonus against a duration in seconds.
+ */
+@DisplayName("AnswerScoring Tests")
+class AnswerScoringTest {
+
+    @Test
+    @DisplayName("gives the full time bonus for an instant answer")
+    void fullBonus() {
+        assertThat(AnswerScoring.score(true, 0, 30))
+                .isEqualTo(GameConstants.BASE_CORRECT_SCORE + GameConstants.TIME_BONUS_MAX);
+    }
+
+    @Test
+    @DisplayName("scales the bonus by milliseconds of a duration in seconds")
+    void millisecondsAgainstSeconds() {
+        assertThat(AnswerScoring.score(true, 15_000, 30))
+                .isEqualTo(GameConstants.BASE_CORRECT_SCORE + GameConstants.TIME_BONUS_MAX / 2);
+    }
+
+    @Test
+    @DisplayName("gives no bonus once the question is over")
+    void noBonusWhenLate() {
+        assertThat(AnswerScoring.score(true, 45_000, 30)).isEqualTo(GameConstants.BASE_CORRECT_SCORE);
+    }
+
+    @Test
+    @DisplayName("gives the minimum score for a wrong answer")
+    void wrongAnswer() {
+        assertThat(AnswerScoring.score(false, 0, 30)).isEqualTo(GameConstants.MIN_SCORE);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Base for the JDBC components' H2 tests. The schema is generated from the entities
+ * ({@code ddl-auto=create-drop}), like {@code GameRoomFetchJoinH2Test}, so a test fails when
+ * a mapping drifts from the SQL the component issues, including the {@code ON DELETE CASCADE}
+ * foreign keys from {@code @OnDelete}. One context and database are shared by all subclasses;
+ * rows are deleted after each test.
+ */
+@SpringBootTest(classes = EntitySchemaH2Support.Config.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entityschema;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.jdbc-url=jdbc:h2:mem:entityschema;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+abstract class EntitySchemaH2Support {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = GameRoom.class)
+    static class Config {
+    }
+
+    @Autowired
+    protected DataSource dataSource;
+
+    protected JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createJdbcTemplate() {
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void deleteRows() {
+        jdbc.update("DELETE FROM player_answer");
+        jdbc.update("DELETE FROM player");
+        jdbc.update("DELETE FROM game_room");
+    }
+
+    /**
+     * Inserts a room row with the entity's defaults for every NOT NULL column.
+     */
+    protected void insertRoom(String code, Long version, boolean started, GameState state, LocalDateTime lastUsed) {
+        jdbc.update("INSERT INTO game_room (room_code, version, current_question_index, started, question_duration, "
+                        + "option_count, level, total_question_count, current_state, state_start_time, last_used) "
+                        + "VALUES (?, ?, 0, ?, 60, 4, 'A1', 5, ?, ?, ?)",
+                code, version, started, state.ordinal(), Timestamp.valueOf(LocalDateTime.now()),
+                lastUsed != null ? Timestamp.valueOf(lastUsed) : null);
+    }
+
+    /**
+     * Inserts a player row in a room, with zeroed stats.
+     */
+    protected void insertPlayer(String id, String roomCode) {
+        jdbc.update("INSERT INTO player (id, version, room_code, name, score, correct_count, wrong_count, "
+                + "total_answer_time) VALUES (?, 0, ?, ?, 0, 0, 0, 0)", id, roomCode, id);
+    }
+}
@@ -0,0 +1,104 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for GameClock.
+ * Tests monotonic state starts, millisecond remaining time and second rounding.
+ */
+@DisplayName("GameClock Tests")
+class GameClockTest {
+
+    @Nested
+    @DisplayName("State Start")
+    class StateStart {
+
+        @Test
+        @DisplayName("records wall-clock and monotonic starts together")
+        void recordsBothStarts() {
+            GameRoom room = new GameRoom();
+            long before = System.nanoTime();
+
+            GameClock.startState(room, GameState.QUESTION);
+
+            assertThat(room.getCurrentState()).isEqualTo(GameState.QUESTION);
+            assertThat(room.getStateStartTime()).isNotNull();
+            assertThat(room.getStateStartNanos()).isBetween(before, System.nanoTime());
+        }
+
+        @Test
+        @DisplayName("derives the monotonic start once for rooms loaded from the database")
+        void derivesOnce() {
+            GameRoom room = new GameRoom();
+            room.setStateStartTime(LocalDateTime.now().minusSeconds(2));
+
+            long first = GameClock.stateStartNanos(room);
+
+            assertThat(GameClock.elapsedMillis(room)).isBetween(2_000L, 2_500L);
+            assertThat(GameClock.stateStartNanos(room)).isEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("resumes a state with the time it had left")
+        void resumesWithRemaining() {
+            GameRoom room = new GameRoom();
+            room.setQuestionDuration(30);
+            room.setCurrentState(GameState.QUESTION);
+
+            GameClock.resumeState(room, 12_000);
+
+            assertThat(GameClock.remainingMillis(room)).isBetween(11_500L, 12_000L);
+            assertThat(room.getStateStartTime()).isBefore(LocalDateTime.now().minusSeconds(17));
+        }
+    }
+
+    @Nested
+    @DisplayName("Remaining Time")
+    class RemainingTime {
+
+        @Test
+        @DisplayName("counts down in milliseconds")
+        void millisecondPrecision() {
+            GameRoom room = room(GameState.QUESTION, 1_250);
+            room.setQuestionDuration(10);
+
+            assertThat(GameClock.remainingMillis(room)).isBetween(8_500L, 8_750L);
+        }
+
+        @Test
+        @DisplayName("never goes negative and is zero for untimed states")
+        void clampsAndUntimed() {
+            assertThat(GameClock.remainingMillis(room(GameState.RANKING, (GameConstants.RANKING_SECONDS + 1) * 1000L)))
+                    .isZero();
+            assertThat(GameClock.remainingMillis(room(GameState.LOBBY, 0))).isZero();
+            assertThat(GameClock.remainingMillis(room(GameState.FINAL, 0))).isZero();
+        }
+
+        @Test
+        @DisplayName("rounds seconds up so a countdown shows 1 until it ends")
+        void roundsSecondsUp() {
+            assertThat(GameClock.toSeconds(0)).isZero();
+            assertThat(GameClock.toSeconds(1)).isEqualTo(1);
+            assertThat(GameClock.toSeconds(1_000)).isEqualTo(1);
+            assertThat(GameClock.toSeconds(2_001)).isEqualTo(3);
+        }
+    }
+
+    private static GameRoom room(GameState state, long elapsedMillis) {
+        GameRoom room = new GameRoom();
+        room.setCurrentState(state);
+        room.setQuestionDuration(60);
+        room.setStateStartNanos(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(elapsedMillis));
+        return room;
+    }
+}
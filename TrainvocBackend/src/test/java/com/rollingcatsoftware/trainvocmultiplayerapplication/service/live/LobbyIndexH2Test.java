@@ -0,0 +1,145 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests LobbyIndex against H2: rooms of other nodes come from one projection query, live
+ * rooms from memory, and the snapshot and its ETag only change when the rooms do.
+ */
+@DisplayName("LobbyIndex (H2)")
+class LobbyIndexH2Test extends EntitySchemaH2Support {
+
+    private RoomRegistry registry;
+    private LobbyIndex lobby;
+
+    @BeforeEach
+    void setUp() {
+        insertRoom("REMO1", 0L, false, GameState.LOBBY, LocalDateTime.now());
+        insertRoom("REMO2", 0L, true, GameState.QUESTION, LocalDateTime.now());
+        jdbc.update("UPDATE game_room SET host_id = 'h2', question_duration = 30, level = 'B2', "
+                + "total_question_count = 10, hashed_password = 'secret' WHERE room_code = 'REMO2'");
+        insertPlayer("p1", "REMO1");
+        insertPlayer("p2", "REMO1");
+
+        registry = new RoomRegistry(0);
+        lobby = new LobbyIndex(dataSource, registry);
+    }
+
+    @Test
+    @DisplayName("lists stored rooms from the projection query")
+    void listsStoredRooms() {
+        lobby.refresh();
+
+        LobbyIndex.Snapshot snapshot = lobby.snapshot();
+
+        assertThat(snapshot.rooms()).extracting(LobbyIndex.Entry::roomCode).containsExactly("REMO1", "REMO2");
+        LobbyIndex.Entry first = snapshot.rooms().get(0);
+        assertThat(first.playerCount()).isEqualTo(2);
+        assertThat(first.hasPassword()).isFalse();
+        assertThat(first.currentState()).isEqualTo(GameState.LOBBY);
+        LobbyIndex.Entry second = snapshot.rooms().get(1);
+        assertThat(second.hasPassword()).isTrue();
+        assertThat(second.started()).isTrue();
+        assertThat(second.currentState()).isEqualTo(GameState.QUESTION);
+        assertThat(second.level()).isEqualTo("B2");
+        assertThat(second.totalQuestionCount()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("prefers the live copy of a room and tracks roster changes")
+    void prefersLiveRooms() {
+        lobby.refresh();
+        GameRoom live = liveRoom("REMO1");
+        registry.adopt(live);
+
+        LobbyIndex.Snapshot before = lobby.snapshot();
+        assertThat(before.rooms().get(0).playerCount()).isZero();
+
+        registry.addPlayer(live, player("p9"));
+        LobbyIndex.Snapshot after = lobby.snapshot();
+
+        assertThat(after.rooms().get(0).playerCount()).isEqualTo(1);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    @DisplayName("keeps the same snapshot and ETag while nothing changes")
+    void stableWhileUnchanged() {
+        lobby.refresh();
+        LobbyIndex.Snapshot first = lobby.snapshot();
+
+        registry.touch(registry.adopt(liveRoom("NEW01")), LocalDateTime.now());
+        LobbyIndex.Snapshot withRoom = lobby.snapshot();
+        registry.touch(registry.get("NEW01"), LocalDateTime.now());
+
+        assertThat(withRoom.etag()).isNotEqualTo(first.etag());
+        assertThat(lobby.snapshot()).isSameAs(withRoom);
+
+        lobby.refresh();
+        assertThat(lobby.snapshot().etag()).isEqualTo(withRoom.etag());
+    }
+
+    @Test
+    @DisplayName("drops a deleted room without waiting for a refresh")
+    void dropsRemovedRoom() {
+        lobby.refresh();
+
+        lobby.removed("REMO2");
+
+        assertThat(lobby.snapshot().rooms()).extracting(LobbyIndex.Entry::roomCode).containsExactly("REMO1");
+    }
+
+    @Test
+    @DisplayName("filters by level and password flag")
+    void filters() {
+        lobby.refresh();
+        LobbyIndex.Snapshot snapshot = lobby.snapshot();
+
+        assertThat(snapshot.filter("b2", null)).extracting(LobbyIndex.Entry::roomCode).containsExactly("REMO2");
+        assertThat(snapshot.filter(null, false)).extracting(LobbyIndex.Entry::roomCode).containsExactly("REMO1");
+        assertThat(snapshot.filter("A1", true)).isEmpty();
+        assertThat(snapshot.filter(null, null)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("keeps the previous list when the query fails")
+    void keepsListOnFailure() {
+        lobby.refresh();
+        // Break the query without touching the shared schema's other tables
+        jdbc.execute("ALTER TABLE player RENAME TO player_moved");
+        try {
+            lobby.refresh();
+        } finally {
+            jdbc.execute("ALTER TABLE player_moved RENAME TO player");
+        }
+
+        assertThat(lobby.snapshot().rooms()).hasSize(2);
+    }
+
+    private static GameRoom liveRoom(String code) {
+        GameRoom room = new GameRoom();
+        room.setRoomCode(code);
+        room.setStarted(false);
+        room.setCurrentState(GameState.LOBBY);
+        room.setLevel("A1");
+        room.setPlayers(new ArrayList<>());
+        return room;
+    }
+
+    private static Player player(String id) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName(id);
+        return player;
+    }
+}
@@ -0,0 +1,132 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RoomCodes.
+ * Tests allocation, release and seeding of the room code pool.
+ */
+@DisplayName("RoomCodes Tests")
+class RoomCodesTest {
+
+    @Nested
+    @DisplayName("Allocation")
+    class Allocation {
+
+        @Test
+        @DisplayName("hands out unambiguous codes of the configured length")
+        void codeShape() {
+            RoomCodes codes = new RoomCodes(null, GameConstants.ROOM_CODE_LENGTH, true);
+
+            String code = codes.allocate();
+
+            assertThat(code).hasSize(GameConstants.ROOM_CODE_LENGTH)
+                    .matches("[" + GameConstants.ROOM_CODE_ALPHABET + "]+")
+                    .doesNotContain("0", "O", "1", "I", "L");
+            assertThat(codes.isInUse(code)).isTrue();
+            assertThat(codes.capacity()).isEqualTo(31 * 31 * 31 * 31 * 31);
+        }
+
+        @Test
+        @DisplayName("never hands out a code twice until it is released")
+        void exhaustsPool() {
+            RoomCodes codes = new RoomCodes(null, 2, true);
+            Set<String> seen = new HashSet<>();
+
+            for (int i = 0; i < codes.capacity(); i++) {
+                assertThat(seen.add(codes.allocate())).isTrue();
+            }
+
+            assertThat(codes.inUse()).isEqualTo(codes.capacity());
+            assertThatThrownBy(codes::allocate).isInstanceOf(IllegalStateException.class);
+
+            codes.release("K7");
+            assertThat(codes.allocate()).isEqualTo("K7");
+        }
+
+        @Test
+        @DisplayName("releasing a free or foreign code changes nothing")
+        void releaseIsIdempotent() {
+            RoomCodes codes = new RoomCodes(null, 2, true);
+            String code = codes.allocate();
+
+            codes.release(code);
+            codes.release(code);
+            codes.release("01");
+            codes.release(null);
+
+            assertThat(codes.inUse()).isZero();
+            assertThat(codes.isInUse(code)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Seeding")
+    class Seeding {
+
+        @Test
+        @DisplayName("reserves the codes of existing rooms on start")
+        void seedsFromDatabase() {
+            JdbcTemplate jdbc = mock(JdbcTemplate.class);
+            when(jdbc.queryForList(RoomCodes.SELECT_CODES_SQL, String.class))
+                    .thenReturn(List.of("ABCDE", "K7QPX", "A3F9B"));
+            RoomCodes codes = new RoomCodes(jdbc, GameConstants.ROOM_CODE_LENGTH, true);
+
+            codes.start();
+
+            assertThat(codes.isRunning()).isTrue();
+            assertThat(codes.inUse()).isEqualTo(3);
+            assertThat(codes.reserve("K7QPX")).isFalse();
+        }
+
+        @Test
+        @DisplayName("ignores legacy codes outside the alphabet")
+        void ignoresLegacyCodes() {
+            RoomCodes codes = new RoomCodes(null, GameConstants.ROOM_CODE_LENGTH, true);
+
+            codes.reserveAll(List.of("0A1B2", "abcde", "TOOLONG"));
+
+            assertThat(codes.inUse()).isZero();
+        }
+
+        @Test
+        @DisplayName("starts empty when the database cannot be read")
+        void databaseDown() {
+            JdbcTemplate jdbc = mock(JdbcTemplate.class);
+            when(jdbc.queryForList(RoomCodes.SELECT_CODES_SQL, String.class))
+                    .thenThrow(new DataAccessResourceFailureException("down"));
+            RoomCodes codes = new RoomCodes(jdbc, GameConstants.ROOM_CODE_LENGTH, true);
+
+            codes.start();
+
+            assertThat(codes.isRunning()).isTrue();
+            assertThat(codes.inUse()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("when disabled, draws codes without tracking them")
+    void disabled() {
+        RoomCodes codes = RoomCodes.disabled();
+
+        String code = codes.allocate();
+
+        assertThat(code).hasSize(GameConstants.ROOM_CODE_LENGTH);
+        assertThat(codes.isInUse(code)).isFalse();
+        assertThat(codes.inUse()).isZero();
+    }
+}
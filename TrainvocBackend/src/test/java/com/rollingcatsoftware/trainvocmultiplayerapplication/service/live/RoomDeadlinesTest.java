@@ -0,0 +1,167 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.config.GameConstants;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RoomDeadlines.
+ * Tests deadline computation per state and queue semantics.
+ */
+@DisplayName("RoomDeadlines Tests")
+class RoomDeadlinesTest {
+
+    private static final long START = System.nanoTime();
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Nested
+    @DisplayName("Deadline Computation")
+    class DeadlineComputation {
+
+        @Test
+        @DisplayName("question ends after the room's question duration")
+        void questionDeadline() {
+            GameRoom room = room(GameState.QUESTION, START);
+            room.setQuestionDuration(20);
+
+            assertThat(RoomDeadlines.nextDueNanos(room, START)).isEqualTo(START + 20 * SECOND);
+        }
+
+        @Test
+        @DisplayName("countdown fires every whole second until it ends")
+        void countdownTicksEverySecond() {
+            GameRoom room = room(GameState.COUNTDOWN, START);
+
+            assertThat(RoomDeadlines.nextDueNanos(room, START)).isEqualTo(START + SECOND);
+            assertThat(RoomDeadlines.nextDueNanos(room, START + SECOND * 3 / 2)).isEqualTo(START + 2 * SECOND);
+            assertThat(RoomDeadlines.nextDueNanos(room, START + 60 * SECOND))
+                    .isEqualTo(START + GameConstants.COUNTDOWN_SECONDS * SECOND);
+        }
+
+        @Test
+        @DisplayName("answer reveal and ranking use their fixed durations")
+        void fixedDurations() {
+            assertThat(RoomDeadlines.nextDueNanos(room(GameState.ANSWER_REVEAL, START), START))
+                    .isEqualTo(START + GameClock.ANSWER_REVEAL_AUTO_ADVANCE_SECONDS * SECOND);
+            assertThat(RoomDeadlines.nextDueNanos(room(GameState.RANKING, START), START))
+                    .isEqualTo(START + GameConstants.RANKING_SECONDS * SECOND);
+        }
+
+        @Test
+        @DisplayName("rooms that are not running have no deadline")
+        void notRunning() {
+            GameRoom lobby = room(GameState.LOBBY, START);
+            GameRoom finished = room(GameState.FINAL, START);
+            GameRoom notStarted = room(GameState.QUESTION, START);
+            notStarted.setStarted(false);
+
+            assertThat(RoomDeadlines.nextDueNanos(lobby, START)).isEqualTo(RoomDeadlines.NONE);
+            assertThat(RoomDeadlines.nextDueNanos(finished, START)).isEqualTo(RoomDeadlines.NONE);
+            assertThat(RoomDeadlines.nextDueNanos(notStarted, START)).isEqualTo(RoomDeadlines.NONE);
+        }
+
+        @Test
+        @DisplayName("derives a monotonic start for rooms loaded with only a wall-clock start")
+        void derivesFromWallClock() {
+            GameRoom room = room(GameState.QUESTION, START);
+            room.setStateStartNanos(null);
+            room.setStateStartTime(LocalDateTime.now().minusSeconds(50));
+
+            long now = System.nanoTime();
+            long due = RoomDeadlines.nextDueNanos(room, now);
+
+            // 60 s question, 50 s of which already passed
+            assertThat(due - now).isBetween(9 * SECOND, 10 * SECOND + SECOND / 10);
+        }
+    }
+
+    @Nested
+    @DisplayName("Queue")
+    class Queue {
+
+        @Test
+        @DisplayName("returns a room once its deadline is due")
+        void takesDueRoom() throws Exception {
+            RoomDeadlines deadlines = new RoomDeadlines();
+            deadlines.track(room(GameState.ANSWER_REVEAL, System.nanoTime() - 10 * SECOND));
+
+            assertThat(deadlines.take()).isEqualTo("ROOM1");
+            assertThat(deadlines.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("skips deadlines superseded by a later track")
+        void skipsSuperseded() throws Exception {
+            RoomDeadlines deadlines = new RoomDeadlines();
+            GameRoom room = room(GameState.ANSWER_REVEAL, System.nanoTime() - 10 * SECOND);
+            deadlines.track(room);
+
+            // The room moves on; its old, already due deadline must not fire
+            room.setCurrentState(GameState.QUESTION);
+            room.setQuestionDuration(60);
+            room.setStateStartNanos(System.nanoTime());
+            deadlines.track(room);
+
+            CompletableFuture<String> taken = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return deadlines.take();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+
+            assertThat(taken).isNotDone();
+            assertThat(deadlines.size()).isEqualTo(1);
+            taken.cancel(true);
+        }
+
+        @Test
+        @DisplayName("retries a room after the given delay")
+        void retriesLater() throws Exception {
+            RoomDeadlines deadlines = new RoomDeadlines();
+            GameRoom room = room(GameState.QUESTION, System.nanoTime());
+
+            deadlines.retryLater(room, 10);
+
+            assertThat(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return deadlines.take();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).get(1, TimeUnit.SECONDS)).isEqualTo("ROOM1");
+        }
+
+        @Test
+        @DisplayName("untracked rooms never fire")
+        void untrack() {
+            RoomDeadlines deadlines = new RoomDeadlines();
+            deadlines.track(room(GameState.RANKING, System.nanoTime()));
+
+            deadlines.untrack("ROOM1");
+
+            assertThat(deadlines.size()).isZero();
+        }
+    }
+
+    private static GameRoom room(GameState state, long stateStartNanos) {
+        GameRoom room = new GameRoom();
+        room.setRoomCode("ROOM1");
+        room.setStarted(true);
+        room.setCurrentState(state);
+        room.setStateStartTime(LocalDateTime.now());
+        room.setStateStartNanos(stateStartNanos);
+        room.setQuestionDuration(60);
+        return room;
+    }
+}
@@ -0,0 +1,107 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests RoomInserter against H2: a room and its host land in one transaction, and a taken
+ * room code is retried under the next one.
+ */
+@DisplayName("RoomInserter (H2)")
+class RoomInserterH2Test extends EntitySchemaH2Support {
+
+    private RoomInserter inserter;
+
+    @BeforeEach
+    void setUp() {
+        inserter = new RoomInserter(dataSource, new DataSourceTransactionManager(dataSource), true, 3);
+    }
+
+    @Test
+    @DisplayName("inserts the room and its host")
+    void insertsRoomAndHost() {
+        GameRoom room = room();
+        Player host = host();
+
+        inserter.insert(room, host, codes("ROOM1"));
+
+        assertThat(room.getRoomCode()).isEqualTo("ROOM1");
+        assertThat(room.getVersion()).isZero();
+        assertThat(host.getVersion()).isZero();
+        assertThat(jdbc.queryForMap("SELECT * FROM game_room WHERE room_code = 'ROOM1'"))
+                .containsEntry("HOST_ID", "host-1")
+                .containsEntry("QUESTION_DURATION", 30)
+                .containsEntry("LEVEL", "B1")
+                .containsEntry("STARTED", false)
+                .containsEntry("VERSION", 0L);
+        // The enum column's SQL type follows the mapping, so compare it as a number
+        assertThat(jdbc.queryForObject("SELECT current_state FROM game_room WHERE room_code = 'ROOM1'", Integer.class))
+                .isEqualTo(GameState.LOBBY.ordinal());
+        assertThat(jdbc.queryForObject("SELECT room_code FROM player WHERE id = 'host-1'", String.class))
+                .isEqualTo("ROOM1");
+    }
+
+    @Test
+    @DisplayName("retries under a new code when the code is taken")
+    void retriesTakenCode() {
+        inserter.insert(room(), null, codes("TAKEN"));
+        GameRoom room = room();
+
+        inserter.insert(room, host(), codes("TAKEN", "FREE1"));
+
+        assertThat(room.getRoomCode()).isEqualTo("FREE1");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM player", Integer.class)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT room_code FROM player", String.class)).isEqualTo("FREE1");
+    }
+
+    @Test
+    @DisplayName("gives up after the configured attempts")
+    void givesUp() {
+        inserter.insert(room(), null, codes("TAKEN"));
+        GameRoom room = room();
+
+        assertThatThrownBy(() -> inserter.insert(room, host(), codes("TAKEN", "TAKEN", "TAKEN", "FREE1")))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(room.getRoomCode()).isNull();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM player", Integer.class)).isZero();
+    }
+
+    private static Supplier<String> codes(String... codes) {
+        Iterator<String> it = List.of(codes).iterator();
+        return it::next;
+    }
+
+    private static GameRoom room() {
+        GameRoom room = new GameRoom();
+        room.setHostId("host-1");
+        room.setQuestionDuration(30);
+        room.setLevel("B1");
+        room.setCurrentState(GameState.LOBBY);
+        room.setLastUsed(LocalDateTime.now());
+        room.setPlayers(new ArrayList<>());
+        return room;
+    }
+
+    private static Player host() {
+        Player host = new Player();
+        host.setId("host-1");
+        host.setName("Host");
+        host.setAvatarId(2);
+        return host;
+    }
+}
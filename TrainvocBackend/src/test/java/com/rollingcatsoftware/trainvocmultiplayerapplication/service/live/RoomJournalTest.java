@@ -0,0 +1,286 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RoomJournal.
+ * Each test writes through one journal instance and replays with a fresh one, as a restart would.
+ */
+@DisplayName("RoomJournal Tests")
+class RoomJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path dir;
+
+    private RoomJournal journal;
+    private GameRoom room;
+    private Player alice;
+    private Player bob;
+
+    @BeforeEach
+    void setUp() {
+        journal = new RoomJournal(true, dir.toString(), SEGMENT_SIZE);
+
+        room = new GameRoom();
+        room.setRoomCode("ROOM1");
+        room.setQuestionDuration(30);
+        room.setTotalQuestionCount(3);
+        room.setPlayers(new ArrayList<>());
+        alice = player("p1", "Alice");
+        bob = player("p2", "Bob");
+    }
+
+    @Nested
+    @DisplayName("replay")
+    class Replay {
+
+        @Test
+        @DisplayName("rebuilds the latest state and player stats")
+        void rebuildsRoom() {
+            journal.created(room);
+            journal.joined(room, alice);
+            journal.joined(room, bob);
+            room.setStarted(true);
+            GameClock.startState(room, GameState.COUNTDOWN);
+            journal.started(room);
+            GameClock.startState(room, GameState.QUESTION);
+            journal.transitioned(room);
+            answer(alice, 120, true);
+            journal.answered(room, alice);
+
+            List<RoomJournal.Recovered> recovered = restart().replay();
+
+            assertThat(recovered).hasSize(1);
+            RoomJournal.Recovered journaled = recovered.get(0);
+            assertThat(journaled.getRoomCode()).isEqualTo("ROOM1");
+            assertThat(journaled.getState()).isEqualTo(GameState.QUESTION);
+            assertThat(journaled.getPlayerIds()).containsExactly("p1", "p2");
+
+            GameRoom stale = staleCopy();
+            journaled.applyTo(stale);
+
+            assertThat(stale.getCurrentState()).isEqualTo(GameState.QUESTION);
+            assertThat(stale.getStarted()).isTrue();
+            assertThat(stale.getStateStartTime()).isEqualTo(room.getStateStartTime());
+            assertThat(stale.getStateStartNanos()).isNull();
+            Player staleAlice = stale.getPlayers().get(0);
+            assertThat(staleAlice.getScore()).isEqualTo(120);
+            assertThat(staleAlice.getCorrectCount()).isEqualTo(1);
+            assertThat(staleAlice.getCurrentAnsweredQuestionIndex()).isEqualTo(0);
+            assertThat(stale.getPlayers().get(1).getScore()).isZero();
+        }
+
+        @Test
+        @DisplayName("keeps the last answer of each player")
+        void lastAnswerWins() {
+            journal.created(room);
+            answer(alice, 100, true);
+            journal.answered(room, alice);
+            room.setCurrentQuestionIndex(1);
+            answer(alice, 150, true);
+            journal.answered(room, alice);
+
+            GameRoom stale = staleCopy();
+            restart().replay().get(0).applyTo(stale);
+
+            assertThat(stale.getPlayers().get(0).getScore()).isEqualTo(250);
+            assertThat(stale.getPlayers().get(0).getCurrentAnsweredQuestionIndex()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("grows a full segment and reads every record back")
+        void growsSegment() throws Exception {
+            journal.created(room);
+            for (int i = 0; i < 100; i++) {
+                answer(alice, 10, i % 2 == 0);
+                journal.answered(room, alice);
+            }
+
+            assertThat(Files.size(dir.resolve("ROOM1.journal"))).isGreaterThan(SEGMENT_SIZE);
+            GameRoom stale = staleCopy();
+            restart().replay().get(0).applyTo(stale);
+
+            assertThat(stale.getPlayers().get(0).getScore()).isEqualTo(1000);
+            assertThat(stale.getPlayers().get(0).getCorrectCount()).isEqualTo(50);
+            assertThat(stale.getPlayers().get(0).getWrongCount()).isEqualTo(50);
+        }
+
+        @Test
+        @DisplayName("appends after the replayed records")
+        void appendsAfterReplay() {
+            journal.created(room);
+            RoomJournal restarted = restart();
+            restarted.replay();
+
+            answer(alice, 70, true);
+            restarted.answered(room, alice);
+
+            GameRoom stale = staleCopy();
+            restart().replay().get(0).applyTo(stale);
+            assertThat(stale.getPlayers().get(0).getScore()).isEqualTo(70);
+        }
+    }
+
+    @Nested
+    @DisplayName("compaction")
+    class Compaction {
+
+        @Test
+        @DisplayName("drops a room's segment")
+        void compactDeletesSegment() {
+            journal.created(room);
+            journal.compact("ROOM1");
+
+            assertThat(dir.resolve("ROOM1.journal")).doesNotExist();
+            assertThat(restart().replay()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("a new room discards a stale segment under the same code")
+        void createdStartsOver() {
+            journal.created(room);
+            GameClock.startState(room, GameState.QUESTION);
+            journal.transitioned(room);
+
+            journal.created(room);
+
+            assertThat(restart().replay().get(0).getState()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("snapshot")
+    class Snapshot {
+
+        @Test
+        @DisplayName("rebuilds the whole room with the time left in its state")
+        void rebuildsRoom() {
+            room.setVersion(4L);
+            room.setHostId("p1");
+            room.setLevel("B2");
+            room.setStarted(true);
+            room.setCurrentQuestionIndex(1);
+            GameClock.startState(room, GameState.QUESTION);
+            answer(alice, 90, true);
+            journal.created(room);
+            journal.answered(room, alice);
+
+            assertThat(journal.snapshot(room)).isTrue();
+
+            RoomJournal.Recovered journaled = restart().replay().get(0);
+            assertThat(journaled.isSnapshot()).isTrue();
+            assertThat(journaled.getRemainingMillis()).isBetween(29_000L, 30_000L);
+
+            GameRoom restored = journaled.toRoom();
+            assertThat(restored.getRoomCode()).isEqualTo("ROOM1");
+            assertThat(restored.getVersion()).isEqualTo(4L);
+            assertThat(restored.getHostId()).isEqualTo("p1");
+            assertThat(restored.getLevel()).isEqualTo("B2");
+            assertThat(restored.getCurrentState()).isEqualTo(GameState.QUESTION);
+            assertThat(restored.getCurrentQuestionIndex()).isEqualTo(1);
+            assertThat(restored.getPlayers()).extracting(Player::getName).containsExactly("Alice", "Bob");
+            assertThat(restored.getPlayers().get(0).getScore()).isEqualTo(90);
+            assertThat(restored.getPlayers().get(0).getRoom()).isSameAs(restored);
+        }
+
+        @Test
+        @DisplayName("restores the entity defaults for fields that were null")
+        void nullFields() {
+            room.setLevel(null);
+            journal.created(room);
+
+            assertThat(journal.snapshot(room)).isTrue();
+
+            GameRoom restored = restart().replay().get(0).toRoom();
+            assertThat(restored.getLevel()).isEqualTo(new GameRoom().getLevel());
+            assertThat(restored.getHostId()).isNull();
+            assertThat(restored.getHashedPassword()).isNull();
+            assertThat(restored.getQuestionDuration()).isEqualTo(30);
+            assertThat(restored.getPlayers()).extracting(Player::getAvatarId).containsOnlyNulls();
+        }
+
+        @Test
+        @DisplayName("is superseded by events recorded after it")
+        void laterEventsNeedTheRow() {
+            journal.created(room);
+            journal.snapshot(room);
+            journal.left("ROOM1", "p2");
+            GameClock.startState(room, GameState.COUNTDOWN);
+            journal.transitioned(room);
+
+            RoomJournal.Recovered journaled = restart().replay().get(0);
+
+            assertThat(journaled.isSnapshot()).isFalse();
+            assertThat(journaled.getRemainingMillis()).isEqualTo(-1);
+            assertThat(journaled.getState()).isEqualTo(GameState.COUNTDOWN);
+            assertThat(journaled.getPlayerIds()).containsExactly("p1");
+        }
+    }
+
+    @Test
+    @DisplayName("a disabled journal writes nothing")
+    void disabledWritesNothing() throws Exception {
+        RoomJournal disabled = new RoomJournal(false, dir.toString(), SEGMENT_SIZE);
+        disabled.created(room);
+        disabled.answered(room, alice);
+
+        assertThat(disabled.replay()).isEmpty();
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private RoomJournal restart() {
+        return new RoomJournal(true, dir.toString(), SEGMENT_SIZE);
+    }
+
+    private Player player(String id, String name) {
+        Player player = new Player();
+        player.setId(id);
+        player.setName(name);
+        player.setRoom(room);
+        room.getPlayers().add(player);
+        return player;
+    }
+
+    private void answer(Player player, int points, boolean correct) {
+        player.setScore(player.getScore() + points);
+        if (correct) {
+            player.setCorrectCount(player.getCorrectCount() + 1);
+        } else {
+            player.setWrongCount(player.getWrongCount() + 1);
+        }
+        player.setTotalAnswerTime(player.getTotalAnswerTime() + 1000);
+        player.setCurrentAnsweredQuestionIndex(room.getCurrentQuestionIndex());
+    }
+
+    /** The room as the database last saw it: in the lobby, nobody has scored. */
+    private GameRoom staleCopy() {
+        GameRoom stale = new GameRoom();
+        stale.setRoomCode("ROOM1");
+        stale.setPlayers(new ArrayList<>());
+        for (Player player : room.getPlayers()) {
+            Player copy = new Player();
+            copy.setId(player.getId());
+            copy.setRoom(stale);
+            stale.getPlayers().add(copy);
+        }
+        return stale;
+    }
+}
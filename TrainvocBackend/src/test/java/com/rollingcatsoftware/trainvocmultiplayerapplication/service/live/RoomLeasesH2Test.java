@@ -0,0 +1,215 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two in-process application contexts ("nodes") against one H2 database and checks
+ * that room leases give each room exactly one owner and fail over when a node goes away.
+ */
+@DisplayName("RoomLeases (two nodes, H2)")
+class RoomLeasesH2Test {
+
+    private static final String DB_URL = "jdbc:h2:mem:leases;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final long TTL_MS = 1000;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static RoomLeases leasesA;
+    private static RoomLeases leasesB;
+    private static JdbcTemplate jdbc;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = GameRoom.class)
+    @Import({RoomLeases.class, RoomRegistry.class, RoomDeadlines.class})
+    static class Node {
+
+        @Bean
+        DataSource primaryDataSource(@Value("${test.db-url}") String url) {
+            return DataSourceBuilder.create().url(url).username("sa").password("")
+                    .driverClassName("org.h2.Driver").build();
+        }
+    }
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+        leasesA = nodeA.getBean(RoomLeases.class);
+        leasesB = nodeB.getBean(RoomLeases.class);
+        jdbc = new JdbcTemplate(nodeA.getBean(DataSource.class));
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @AfterEach
+    void releaseLeases() {
+        leasesA.releaseAll();
+        leasesB.releaseAll();
+    }
+
+    @Nested
+    @DisplayName("Ownership")
+    class Ownership {
+
+        @Test
+        @DisplayName("gives a room to one node until it releases it")
+        void singleOwner() {
+            insertRoom("OWN01", GameState.QUESTION);
+
+            assertThat(leasesA.acquire("OWN01")).isTrue();
+            assertThat(leasesB.acquire("OWN01")).isFalse();
+            assertThat(leasesA.acquire("OWN01")).isTrue();
+            assertThat(leaseOwner("OWN01")).isEqualTo("node-a");
+
+            leasesA.release("OWN01");
+
+            assertThat(leasesB.acquire("OWN01")).isTrue();
+            assertThat(leasesA.holds("OWN01")).isFalse();
+        }
+
+        @Test
+        @DisplayName("lets exactly one node win each contested room")
+        void contestedRooms() {
+            List<String> codes = IntStream.range(0, 20).mapToObj(i -> "RACE" + (char) ('A' + i)).toList();
+            codes.forEach(code -> insertRoom(code, GameState.COUNTDOWN));
+            CountDownLatch start = new CountDownLatch(1);
+
+            CompletableFuture<Long> winsA = CompletableFuture.supplyAsync(() -> race(start, leasesA, codes));
+            CompletableFuture<Long> winsB = CompletableFuture.supplyAsync(() -> race(start, leasesB, codes));
+            start.countDown();
+
+            assertThat(winsA.join() + winsB.join()).isEqualTo(codes.size());
+            codes.forEach(code -> assertThat(leasesA.holds(code)).isNotEqualTo(leasesB.holds(code)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Failover")
+    class Failover {
+
+        @Test
+        @DisplayName("another node claims a running room once its owner stops renewing")
+        void claimsExpiredLease() throws Exception {
+            insertRoom("FAIL1", GameState.QUESTION);
+            assertThat(leasesA.acquire("FAIL1")).isTrue();
+            assertThat(leasesB.claimOrphans()).doesNotContain("FAIL1");
+
+            // Node A stalls: no renewals for longer than the lease
+            Thread.sleep(TTL_MS + 200);
+
+            assertThat(leasesA.holds("FAIL1")).isFalse();
+            assertThat(leasesB.claimOrphans()).contains("FAIL1");
+            assertThat(leaseOwner("FAIL1")).isEqualTo("node-b");
+        }
+
+        @Test
+        @DisplayName("a node that lost its lease drops the room when it renews")
+        void dropsLostRoom() throws Exception {
+            insertRoom("LOST1", GameState.RANKING);
+            GameRoom live = new GameRoom();
+            live.setRoomCode("LOST1");
+            RoomRegistry registryA = nodeA.getBean(RoomRegistry.class);
+            registryA.adopt(live);
+            assertThat(leasesA.acquire("LOST1")).isTrue();
+
+            Thread.sleep(TTL_MS + 200);
+            assertThat(leasesB.claimOrphans()).contains("LOST1");
+            leasesA.renew();
+
+            assertThat(leasesA.size()).isZero();
+            assertThat(registryA.get("LOST1")).isNull();
+        }
+
+        @Test
+        @DisplayName("renewal keeps a room away from other nodes")
+        void renewalKeepsRoom() throws Exception {
+            insertRoom("KEEP1", GameState.QUESTION);
+            assertThat(leasesA.acquire("KEEP1")).isTrue();
+
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(TTL_MS / 2);
+                leasesA.renew();
+            }
+
+            assertThat(leasesA.holds("KEEP1")).isTrue();
+            assertThat(leasesB.claimOrphans()).doesNotContain("KEEP1");
+        }
+
+        @Test
+        @DisplayName("released rooms are claimed at once, idle and finished rooms never")
+        void claimsReleasedRunningRooms() {
+            insertRoom("REL01", GameState.ANSWER_REVEAL);
+            insertRoom("IDLE1", GameState.LOBBY);
+            insertRoom("DONE1", GameState.FINAL);
+            assertThat(leasesA.acquire("REL01")).isTrue();
+
+            leasesA.releaseAll();
+
+            assertThat(leasesB.claimOrphans()).contains("REL01").doesNotContain("IDLE1", "DONE1");
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(Node.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "test.db-url=" + DB_URL,
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "game.cluster.node-id=" + nodeId,
+                        "game.cluster.lease-ttl-ms=" + TTL_MS)
+                .run();
+    }
+
+    private static long race(CountDownLatch start, RoomLeases leases, List<String> codes) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return codes.stream().filter(leases::acquire).count();
+    }
+
+    private static void insertRoom(String code, GameState state) {
+        jdbc.update("INSERT INTO game_room (room_code, version, current_question_index, started, question_duration, "
+                        + "option_count, total_question_count, current_state, state_start_time, last_used) "
+                        + "VALUES (?, 0, 0, ?, 60, 4, 5, ?, ?, ?)",
+                code, state != GameState.LOBBY, state.ordinal(), LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static String leaseOwner(String code) {
+        return jdbc.queryForObject("SELECT lease_owner FROM game_room WHERE room_code = ?", String.class, code);
+    }
+}
@@ -0,0 +1,153 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests RoomReaper against H2: idle rooms are deleted in bounded batches with their players
+ * and answers cascading through the entities' {@code @OnDelete} foreign keys, while rooms in
+ * use, here or on another node, survive.
+ */
+@DisplayName("RoomReaper (H2)")
+class RoomReaperH2Test extends EntitySchemaH2Support {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final LocalDateTime threshold = now.minusMinutes(15);
+
+    private RoomRegistry registry;
+    private RoomCodes roomCodes;
+    private RoomTouches touches;
+    private SimpleMeterRegistry meterRegistry;
+    private RoomReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RoomRegistry(0);
+        RoomDeadlines deadlines = new RoomDeadlines();
+        RoomLeases leases = new RoomLeases(dataSource, registry, deadlines, "node-a", 15000);
+        roomCodes = new RoomCodes(null, 5, true);
+        touches = new RoomTouches(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+        RoomTeardown teardown = new RoomTeardown(deadlines, registry, RoomJournal.disabled(), leases, touches,
+                roomCodes, new LobbyIndex(dataSource, registry));
+        reaper = new RoomReaper(dataSource, new DataSourceTransactionManager(dataSource), registry, leases, touches,
+                teardown, new GameMetrics(meterRegistry, registry), BATCH_SIZE, 10);
+    }
+
+    @Test
+    @DisplayName("deletes idle and never-used rooms with their players and answers")
+    void deletesIdleRooms() {
+        insertRoom("IDLE2", now.minusMinutes(20));
+        insertRoom("NEVER", null);
+        insertRoom("FRESH", now.minusMinutes(1));
+        insertPlayer("p1", "IDLE2");
+        jdbc.update("INSERT INTO player_answer (player_id, selected_option_index, correct, answer_time_ms) "
+                + "VALUES ('p1', 0, TRUE, 1200)");
+        roomCodes.reserve("IDLE2");
+
+        int reaped = reaper.sweep(threshold);
+
+        assertThat(reaped).isEqualTo(2);
+        assertThat(roomCodes()).containsExactly("FRESH");
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM player", Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM player_answer", Integer.class)).isZero();
+        assertThat(roomCodes.isInUse("IDLE2")).isFalse();
+        assertThat(meterRegistry.get("game.rooms.expiry.reaped").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("game.rooms.expiry.sweep.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("finds idle rooms through the mapped last-use index")
+    void lastUsedIndexIsMapped() {
+        assertThat(jdbc.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = 'IDX_GAME_ROOM_LAST_USED'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("pages through more idle rooms than one batch")
+    void pagesThroughBatches() {
+        for (int i = 0; i < 5; i++) {
+            insertRoom("IDLE" + i, now.minusMinutes(20 + i));
+        }
+
+        assertThat(reaper.sweep(threshold)).isEqualTo(5);
+        assertThat(roomCodes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("keeps a room leased to another node")
+    void keepsRoomLeasedElsewhere() {
+        insertRoom("LEASD", now.minusMinutes(20));
+        insertRoom("IDLE2", now.minusMinutes(30));
+        insertRoom("IDLE3", now.minusMinutes(40));
+        jdbc.update("UPDATE game_room SET lease_owner = 'node-b', lease_expires_at = ? WHERE room_code = 'LEASD'",
+                Timestamp.valueOf(now.plusMinutes(1)));
+
+        assertThat(reaper.sweep(threshold)).isEqualTo(2);
+        assertThat(roomCodes()).containsExactly("LEASD");
+    }
+
+    @Test
+    @DisplayName("keeps a live room used more recently than the database knows")
+    void keepsRoomInUseHere() {
+        insertRoom("LIVE1", now.minusMinutes(20));
+        GameRoom live = liveRoom("LIVE1", now.minusMinutes(20));
+        registry.touch(live, now);
+
+        assertThat(reaper.sweep(threshold)).isZero();
+        assertThat(registry.get("LIVE1")).isSameAs(live);
+    }
+
+    @Test
+    @DisplayName("keeps a room with a touch not yet written")
+    void keepsRoomWithPendingTouch() {
+        insertRoom("READ1", now.minusMinutes(20));
+        touches.touch("READ1", now);
+
+        assertThat(reaper.sweep(threshold)).isZero();
+        assertThat(roomCodes()).containsExactly("READ1");
+    }
+
+    @Test
+    @DisplayName("deletes a live room idle in memory and drops its live state")
+    void deletesIdleLiveRoom() {
+        insertRoom("LIVE1", now.minusMinutes(20));
+        liveRoom("LIVE1", now.minusMinutes(20));
+
+        assertThat(reaper.sweep(threshold)).isEqualTo(1);
+        assertThat(registry.get("LIVE1")).isNull();
+        assertThat(registry.idleSince(now, 10)).isEmpty();
+    }
+
+    private void insertRoom(String code, LocalDateTime lastUsed) {
+        insertRoom(code, 0L, false, GameState.LOBBY, lastUsed);
+    }
+
+    private GameRoom liveRoom(String code, LocalDateTime lastUsed) {
+        GameRoom room = new GameRoom();
+        room.setRoomCode(code);
+        room.setLastUsed(lastUsed);
+        room.setPlayers(new ArrayList<>());
+        return registry.adopt(room);
+    }
+
+    private List<String> roomCodes() {
+        return jdbc.queryForList("SELECT room_code FROM game_room ORDER BY room_code", String.class);
+    }
+}
@@ -0,0 +1,267 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RoomRegistry Tests")
+class RoomRegistryTest {
+
+    private static final String ROOM_CODE = "ABC12";
+
+    private RoomRegistry registry;
+    private GameRoom room;
+    private Player host;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RoomRegistry(0);
+
+        room = new GameRoom();
+        room.setRoomCode(ROOM_CODE);
+        room.setCurrentState(GameState.LOBBY);
+        room.setPlayers(new ArrayList<>());
+
+        host = new Player();
+        host.setId("host-1");
+        host.setName("Host");
+        host.setRoom(room);
+        room.getPlayers().add(host);
+    }
+
+    private static GameRoom copyOf(GameRoom source) {
+        GameRoom copy = new GameRoom();
+        copy.setRoomCode(source.getRoomCode());
+        copy.setPlayers(new ArrayList<>());
+        return copy;
+    }
+
+    @Nested
+    @DisplayName("adopt")
+    class Adopt {
+
+        @Test
+        @DisplayName("makes room and its players live")
+        void makesRoomAndPlayersLive() {
+            GameRoom live = registry.adopt(room);
+
+            assertThat(live).isSameAs(room);
+            assertThat(registry.get(ROOM_CODE)).isSameAs(room);
+            assertThat(registry.isLive(room)).isTrue();
+            assertThat(registry.findPlayer("host-1")).isSameAs(host);
+            assertThat(registry.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("keeps the first instance when a room is adopted twice")
+        void keepsFirstInstance() {
+            registry.adopt(room);
+
+            GameRoom second = registry.adopt(copyOf(room));
+
+            assertThat(second).isSameAs(room);
+            assertThat(registry.findPlayer("host-1")).isSameAs(host);
+        }
+
+        @Test
+        @DisplayName("does not treat a stale copy as live")
+        void staleCopyIsNotLive() {
+            registry.adopt(room);
+
+            assertThat(registry.isLive(copyOf(room))).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("roster")
+    class Roster {
+
+        @Test
+        @DisplayName("adds and removes players of a live room")
+        void addsAndRemovesPlayers() {
+            registry.adopt(room);
+            Player guest = new Player();
+            guest.setId("guest-1");
+
+            registry.addPlayer(room, guest);
+
+            assertThat(guest.getRoom()).isSameAs(room);
+            assertThat(registry.playersOf(room)).extracting(Player::getId)
+                    .containsExactly("host-1", "guest-1");
+
+            registry.removePlayer("guest-1");
+
+            assertThat(registry.findPlayer("guest-1")).isNull();
+            assertThat(registry.playersOf(room)).extracting(Player::getId)
+                    .containsExactly("host-1");
+        }
+
+        @Test
+        @DisplayName("returns null roster for a room that is not live")
+        void nullRosterWhenNotLive() {
+            assertThat(registry.playersOf(room)).isNull();
+        }
+
+        @Test
+        @DisplayName("ignores players added to a room that is not live")
+        void ignoresAddWhenNotLive() {
+            Player guest = new Player();
+            guest.setId("guest-1");
+
+            registry.addPlayer(room, guest);
+
+            assertThat(registry.findPlayer("guest-1")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("dirty tracking")
+    class DirtyTracking {
+
+        @Test
+        @DisplayName("drains each dirty row once")
+        void drainsOnce() {
+            registry.adopt(room);
+            registry.markDirty(room);
+            registry.markDirty(room);
+            registry.markDirty(host);
+
+            assertThat(registry.drainDirtyRooms()).containsExactly(room);
+            assertThat(registry.drainDirtyPlayers()).containsExactly(host);
+            assertThat(registry.drainDirtyRooms()).isEmpty();
+            assertThat(registry.drainDirtyPlayers()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("ignores rows that are not live")
+        void ignoresNonLiveRows() {
+            registry.markDirty(room);
+            registry.markDirty(host);
+
+            assertThat(registry.drainDirtyRooms()).isEmpty();
+            assertThat(registry.drainDirtyPlayers()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("evict drops the room, its players and pending writes")
+        void evictDropsEverything() {
+            registry.adopt(room);
+            registry.markDirty(room);
+            registry.markDirty(host);
+
+            GameRoom evicted = registry.evict(ROOM_CODE);
+
+            assertThat(evicted).isSameAs(room);
+            assertThat(registry.get(ROOM_CODE)).isNull();
+            assertThat(registry.findPlayer("host-1")).isNull();
+            assertThat(registry.drainDirtyRooms()).isEmpty();
+            assertThat(registry.drainDirtyPlayers()).isEmpty();
+            assertThat(registry.liveRooms()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("drained rooms reflect the latest in-memory values")
+        void drainedRoomsAreLive() {
+            registry.adopt(room);
+            room.setCurrentState(GameState.QUESTION);
+            registry.markDirty(room);
+
+            List<GameRoom> drained = registry.drainDirtyRooms();
+
+            assertThat(drained.getFirst().getCurrentState()).isEqualTo(GameState.QUESTION);
+        }
+    }
+
+    @Nested
+    @DisplayName("recent messages")
+    class Recent {
+
+        @Test
+        @DisplayName("live and die with the room, and are off by default")
+        void followRoomLifecycle() {
+            RoomRegistry replaying = new RoomRegistry(4);
+            replaying.adopt(room);
+
+            assertThat(replaying.recentMessages(ROOM_CODE)).isNotNull();
+            assertThat(registry.recentMessages(ROOM_CODE)).isNull();
+
+            replaying.evict(ROOM_CODE);
+            assertThat(replaying.recentMessages(ROOM_CODE)).isNull();
+        }
+
+        @Test
+        @DisplayName("return what came after a sequence number while it is still kept")
+        void replaysAfterSeq() {
+            RecentMessages recent = new RecentMessages(3);
+            for (int i = 1; i <= 5; i++) {
+                recent.append(new JSONObject().put("n", i));
+            }
+
+            assertThat(recent.seq()).isEqualTo(5);
+            assertThat(recent.after(2)).extracting(m -> m.getInt("n")).containsExactly(3, 4, 5);
+            assertThat(recent.after(5)).isEmpty();
+            assertThat(recent.after(1)).as("message 2 was overwritten").isNull();
+            assertThat(recent.after(9)).as("sequence from before a restart").isNull();
+            assertThat(recent.after(-1)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("expiry order")
+    class Expiry {
+
+        private final LocalDateTime now = LocalDateTime.now();
+
+        private GameRoom roomUsedAt(String code, LocalDateTime lastUsed) {
+            GameRoom other = copyOf(room);
+            other.setRoomCode(code);
+            other.setLastUsed(lastUsed);
+            return registry.adopt(other);
+        }
+
+        @Test
+        @DisplayName("lists idle rooms oldest first, never-used rooms before all")
+        void oldestFirst() {
+            roomUsedAt("FRESH", now);
+            roomUsedAt("OLDER", now.minusMinutes(30));
+            roomUsedAt("OLD", now.minusMinutes(20));
+            roomUsedAt("NEVER", null);
+
+            assertThat(registry.idleSince(now.minusMinutes(15), 10)).containsExactly("NEVER", "OLDER", "OLD");
+            assertThat(registry.idleSince(now.minusMinutes(15), 2)).containsExactly("NEVER", "OLDER");
+        }
+
+        @Test
+        @DisplayName("a touch moves the room to the back without marking it dirty")
+        void touchReorders() {
+            GameRoom old = roomUsedAt("OLD", now.minusMinutes(30));
+
+            registry.touch(old, now);
+
+            assertThat(old.getLastUsed()).isEqualTo(now);
+            assertThat(registry.idleSince(now.minusMinutes(15), 10)).isEmpty();
+            assertThat(registry.drainDirtyRooms()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("evicted rooms leave the order")
+        void evictRemoves() {
+            roomUsedAt("OLD", now.minusMinutes(30));
+
+            registry.evict("OLD");
+
+            assertThat(registry.idleSince(now, 10)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests RoomTouches against H2: touches are coalesced per room, written without bumping the
+ * version, and never move last use backwards.
+ */
+@DisplayName("RoomTouches (H2)")
+class RoomTouchesH2Test extends EntitySchemaH2Support {
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private RoomTouches touches;
+
+    @BeforeEach
+    void setUp() {
+        insertRoom("ROOM1", 3L, false, GameState.LOBBY, now.minusMinutes(10));
+        insertRoom("ROOM2", 0L, false, GameState.LOBBY, null);
+
+        touches = new RoomTouches(dataSource);
+    }
+
+    @Test
+    @DisplayName("writes only the latest touch of each room, without bumping the version")
+    void coalescesTouches() {
+        touches.touch("ROOM1", now.minusMinutes(2));
+        touches.touch("ROOM1", now);
+        touches.touch("ROOM1", now.minusMinutes(1));
+        touches.touch("ROOM2", now);
+
+        assertThat(touches.pending("ROOM1")).isEqualTo(now);
+
+        touches.flush();
+
+        assertThat(lastUsed("ROOM1")).isEqualTo(now);
+        assertThat(lastUsed("ROOM2")).isEqualTo(now);
+        assertThat(jdbc.queryForObject("SELECT version FROM game_room WHERE room_code = 'ROOM1'", Long.class))
+                .isEqualTo(3L);
+        assertThat(touches.pending("ROOM1")).isNull();
+    }
+
+    @Test
+    @DisplayName("never moves last use backwards")
+    void neverBackwards() {
+        touches.touch("ROOM1", now.minusMinutes(20));
+
+        touches.flush();
+
+        assertThat(lastUsed("ROOM1")).isEqualTo(now.minusMinutes(10));
+    }
+
+    @Test
+    @DisplayName("drops the touch of a deleted room")
+    void forgetsDeletedRoom() {
+        touches.touch("GONE1", now);
+        touches.forget("GONE1");
+
+        assertThat(touches.pending("GONE1")).isNull();
+    }
+
+    private LocalDateTime lastUsed(String roomCode) {
+        return jdbc.queryForObject("SELECT last_used FROM game_room WHERE room_code = ?",
+                Timestamp.class, roomCode).toLocalDateTime();
+    }
+}
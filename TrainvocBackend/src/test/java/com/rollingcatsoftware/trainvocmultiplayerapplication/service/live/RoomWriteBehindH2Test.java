@@ -0,0 +1,145 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.service.live;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.repository.GameRoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests RoomWriteBehind's version-checked room batch against H2: transitions of many rooms
+ * land in one flush, and rows changed behind the live copy are reported and reloaded.
+ */
+@DisplayName("RoomWriteBehind (H2)")
+class RoomWriteBehindH2Test extends EntitySchemaH2Support {
+
+    private RoomRegistry registry;
+    private RoomDeadlines deadlines;
+    private RoomLeases leases;
+    private GameRoomRepository repository;
+    private RoomWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RoomRegistry(0);
+        deadlines = new RoomDeadlines();
+        leases = mock(RoomLeases.class);
+        repository = mock(GameRoomRepository.class);
+        writeBehind = new RoomWriteBehind(registry, dataSource, new DataSourceTransactionManager(dataSource),
+                leases, deadlines, repository, RoomJournal.disabled());
+    }
+
+    @Nested
+    @DisplayName("Batched transitions")
+    class BatchedTransitions {
+
+        @Test
+        @DisplayName("writes every room that changed state since the last flush")
+        void writesAllTransitions() {
+            for (int i = 0; i < 50; i++) {
+                GameRoom room = liveRoom("ROOM" + i, 0L);
+                room.setCurrentState(GameState.QUESTION);
+                registry.markDirty(room);
+            }
+
+            writeBehind.flush();
+
+            assertThat(jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM game_room WHERE current_state = ? AND version = 1",
+                    Integer.class, GameState.QUESTION.ordinal())).isEqualTo(50);
+            assertThat(registry.get("ROOM7").getVersion()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("keeps the live version in step across flushes")
+        void advancesLiveVersion() {
+            GameRoom room = liveRoom("ROOM1", 0L);
+
+            for (GameState state : new GameState[]{GameState.COUNTDOWN, GameState.QUESTION, GameState.ANSWER_REVEAL}) {
+                room.setCurrentState(state);
+                registry.markDirty(room);
+                writeBehind.flush();
+            }
+
+            assertThat(room.getVersion()).isEqualTo(3L);
+            assertThat(stateOf("ROOM1")).isEqualTo(GameState.ANSWER_REVEAL.ordinal());
+        }
+    }
+
+    @Nested
+    @DisplayName("Conflicts")
+    class Conflicts {
+
+        @Test
+        @DisplayName("writes winners and reloads a room changed behind its live copy")
+        void reloadsLoser() {
+            GameRoom winner = liveRoom("WIN01", 0L);
+            GameRoom loser = liveRoom("LOSE1", 0L);
+            jdbc.update("UPDATE game_room SET version = 5, current_state = ? WHERE room_code = 'LOSE1'",
+                    GameState.RANKING.ordinal());
+            GameRoom fresh = room("LOSE1", 5L);
+            fresh.setCurrentState(GameState.RANKING);
+            when(leases.holds("LOSE1")).thenReturn(true);
+            when(repository.findByRoomCode("LOSE1")).thenReturn(fresh);
+
+            winner.setCurrentState(GameState.QUESTION);
+            loser.setCurrentState(GameState.QUESTION);
+            registry.markDirty(winner);
+            registry.markDirty(loser);
+            writeBehind.flush();
+
+            assertThat(stateOf("WIN01")).isEqualTo(GameState.QUESTION.ordinal());
+            assertThat(stateOf("LOSE1")).isEqualTo(GameState.RANKING.ordinal());
+            assertThat(registry.get("LOSE1")).isSameAs(fresh);
+            assertThat(registry.get("WIN01")).isSameAs(winner);
+        }
+
+        @Test
+        @DisplayName("only drops a loser leased to another node")
+        void dropsUnleasedLoser() {
+            GameRoom loser = liveRoom("LOSE2", 0L);
+            jdbc.update("UPDATE game_room SET version = 2 WHERE room_code = 'LOSE2'");
+
+            loser.setCurrentState(GameState.QUESTION);
+            registry.markDirty(loser);
+            writeBehind.flush();
+
+            assertThat(registry.get("LOSE2")).isNull();
+            verify(repository, never()).findByRoomCode("LOSE2");
+        }
+    }
+
+    private GameRoom liveRoom(String code, Long version) {
+        insertRoom(code, version, true, GameState.COUNTDOWN, LocalDateTime.now());
+        return registry.adopt(room(code, version));
+    }
+
+    private static GameRoom room(String code, Long version) {
+        GameRoom room = new GameRoom();
+        room.setRoomCode(code);
+        room.setVersion(version);
+        room.setCurrentQuestionIndex(0);
+        room.setStarted(true);
+        room.setCurrentState(GameState.COUNTDOWN);
+        room.setStateStartTime(LocalDateTime.now());
+        room.setLastUsed(LocalDateTime.now());
+        room.setPlayers(new ArrayList<>());
+        return room;
+    }
+
+    private Integer stateOf(String code) {
+        return jdbc.queryForObject("SELECT current_state FROM game_room WHERE room_code = ?", Integer.class, code);
+    }
+}
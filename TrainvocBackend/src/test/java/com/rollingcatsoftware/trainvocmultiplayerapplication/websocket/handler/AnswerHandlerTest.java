@@ -3,8 +3,12 @@ package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
-import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.AnswerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomJournal;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.AnswerMessage;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessageDecoder;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,13 +16,13 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -27,6 +31,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -42,7 +48,7 @@ class AnswerHandlerTest {
     private RoomService roomService;
 
     @Mock
-    private PlayerService playerService;
+    private RoomRegistry roomRegistry;
 
     @Mock
     private WebSocketContext context;
@@ -50,19 +56,27 @@ class AnswerHandlerTest {
     @Mock
     private WebSocketSession session;
 
+    @Mock
+    private RosterUpdates rosterUpdates;
+
+    @Mock
+    private AnswerProgress answerProgress;
+
     private AnswerHandler answerHandler;
     private GameRoom testRoom;
     private Player testPlayer;
 
     @BeforeEach
     void setUp() {
-        answerHandler = new AnswerHandler(roomService, playerService, context);
+        answerHandler = new AnswerHandler(new AnswerService(roomService, roomRegistry, rosterUpdates, answerProgress,
+                new RankingsBroadcaster(context, WebSocketFixtures.sequentialFanout(), 10), RoomJournal.disabled()));
 
         testRoom = new GameRoom();
         testRoom.setRoomCode("TEST1");
         testRoom.setCurrentState(GameState.QUESTION);
         testRoom.setCurrentQuestionIndex(0);
         testRoom.setQuestionDuration(60);
+        testRoom.setStateStartNanos(System.nanoTime()); // question dispatched just now
         testRoom.setPlayers(new ArrayList<>());
 
         testPlayer = new Player();
@@ -78,6 +92,13 @@ class AnswerHandlerTest {
         testRoom.getPlayers().add(testPlayer);
     }
 
+    private final InboundMessageDecoder decoder = new InboundMessageDecoder();
+
+    private AnswerMessage decode(JSONObject message) {
+        message.put("type", AnswerMessage.TYPE);
+        return (AnswerMessage) decoder.decode(message.toString());
+    }
+
     @Nested
     @DisplayName("Message Type")
     class MessageType {
@@ -97,8 +118,7 @@ class AnswerHandlerTest {
         @DisplayName("accepts valid answer and updates score")
         void acceptsValidAnswer() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -107,19 +127,36 @@ class AnswerHandlerTest {
             message.put("answerTime", 10);
             message.put("isCorrect", true);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
-            verify(playerService).save(testPlayer);
+            verify(roomRegistry).markDirty(testPlayer);
             assertThat(testPlayer.getScore()).isGreaterThan(0);
             assertThat(testPlayer.getCurrentAnsweredQuestionIndex()).isEqualTo(0);
         }
 
+        @Test
+        @DisplayName("broadcasts the new score as a roster delta")
+        void broadcastsScoreDelta() throws Exception {
+            when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            JSONObject message = new JSONObject();
+            message.put("roomCode", "TEST1");
+            message.put("playerId", "player-1");
+            message.put("answerIndex", 0);
+            message.put("answerTime", 10);
+            message.put("isCorrect", true);
+
+            answerHandler.handle(session, decode(message), context);
+
+            verify(rosterUpdates).scoreChanged("TEST1", "player-1", testPlayer.getScore());
+        }
+
         @Test
         @DisplayName("calculates time bonus for fast answers")
         void calculatesTimeBonus() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -128,19 +165,39 @@ class AnswerHandlerTest {
             message.put("answerTime", 1); // Very fast answer
             message.put("isCorrect", true);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             // Fast answer should get higher score (base 50 + time bonus up to 20)
             // With 1 second out of 60, time ratio ≈ 0.98, so bonus ≈ 19
             assertThat(testPlayer.getScore()).isGreaterThan(60); // 50 + some bonus
         }
 
+        @Test
+        @DisplayName("measures answer time from question dispatch, not the client's answerTime")
+        void measuresAnswerTimeServerSide() throws Exception {
+            testRoom.setStateStartNanos(System.nanoTime() - TimeUnit.SECONDS.toNanos(30));
+            when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            JSONObject message = new JSONObject();
+            message.put("roomCode", "TEST1");
+            message.put("playerId", "player-1");
+            message.put("answerIndex", 0);
+            message.put("answerTime", 1); // Claims a very fast answer
+            message.put("isCorrect", true);
+
+            answerHandler.handle(session, decode(message), context);
+
+            // Half of the 60 s question elapsed on the server: base 50 + half of the 20 bonus
+            assertThat(testPlayer.getScore()).isBetween(55, 60);
+            assertThat(testPlayer.getTotalAnswerTime()).isGreaterThanOrEqualTo(30_000);
+        }
+
         @Test
         @DisplayName("gives negative score for incorrect answers")
         void negativeScoreForIncorrect() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -149,7 +206,7 @@ class AnswerHandlerTest {
             message.put("answerTime", 10);
             message.put("isCorrect", false);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             // Incorrect answer gets MIN_SCORE (-50)
             assertThat(testPlayer.getScore()).isEqualTo(-50);
@@ -172,7 +229,7 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             message.put("answerTime", 10);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
             verify(context).sendMessage(eq(session), captor.capture());
@@ -192,7 +249,7 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             message.put("answerTime", 10);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
             verify(context).sendMessage(eq(session), captor.capture());
@@ -203,7 +260,7 @@ class AnswerHandlerTest {
         @DisplayName("rejects answer when player not found")
         void rejectsWhenPlayerNotFound() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("unknown")).thenReturn(null);
+            when(roomRegistry.findPlayer("unknown")).thenReturn(null);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -211,7 +268,7 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             message.put("answerTime", 10);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
             verify(context).sendMessage(eq(session), captor.capture());
@@ -223,7 +280,7 @@ class AnswerHandlerTest {
         void rejectsDuplicateAnswer() throws Exception {
             testPlayer.setCurrentAnsweredQuestionIndex(0); // Already answered
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -231,13 +288,37 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             message.put("answerTime", 10);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
             verify(context).sendMessage(eq(session), captor.capture());
             assertThat(captor.getValue().getString("type")).isEqualTo("error");
             assertThat(captor.getValue().getString("message")).contains("Already answered");
-            verify(playerService, never()).save(any());
+            verify(roomRegistry, never()).markDirty(any(Player.class));
+        }
+
+        @Test
+        @DisplayName("sends errors after releasing the room's monitor")
+        void sendsErrorsOutsideMonitor() throws Exception {
+            testRoom.setCurrentState(GameState.LOBBY);
+            when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
+            AtomicInteger sentUnderMonitor = new AtomicInteger();
+            doAnswer(invocation -> {
+                if (Thread.holdsLock(testRoom)) {
+                    sentUnderMonitor.incrementAndGet();
+                }
+                return null;
+            }).when(context).sendMessage(eq(session), any(JSONObject.class));
+
+            JSONObject message = new JSONObject();
+            message.put("roomCode", "TEST1");
+            message.put("playerId", "player-1");
+            message.put("answerIndex", 0);
+
+            answerHandler.handle(session, decode(message), context);
+
+            verify(context).sendMessage(eq(session), any(JSONObject.class));
+            assertThat(sentUnderMonitor).hasValue(0);
         }
     }
 
@@ -248,24 +329,15 @@ class AnswerHandlerTest {
         @Test
         @DisplayName("prevents duplicate answers under concurrent requests")
         void preventsDuplicateUnderConcurrency() throws Exception {
-            // Setup: Fresh player for each call (simulating real DB fetch)
+            // Setup: every request resolves the room's live player before taking the monitor
             AtomicInteger saveCount = new AtomicInteger(0);
 
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenAnswer(invocation -> {
-                Player fresh = new Player();
-                fresh.setId("player-1");
-                fresh.setName("TestPlayer");
-                fresh.setScore(0);
-                fresh.setRoom(testRoom);
-                fresh.setCurrentAnsweredQuestionIndex(saveCount.get() > 0 ? 0 : null);
-                return fresh;
-            });
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
             doAnswer(invocation -> {
                 saveCount.incrementAndGet();
                 return null;
-            }).when(playerService).save(any(Player.class));
+            }).when(roomRegistry).markDirty(any(Player.class));
 
             // Execute concurrent requests
             int threadCount = 10;
@@ -283,7 +355,7 @@ class AnswerHandlerTest {
                         message.put("answerIndex", 0);
                         message.put("answerTime", 10);
                         message.put("isCorrect", true);
-                        answerHandler.handle(session, message, context);
+                        answerHandler.handle(session, decode(message), context);
                     } catch (Exception e) {
                         // Expected for duplicate answers
                     } finally {
@@ -296,7 +368,7 @@ class AnswerHandlerTest {
             doneLatch.await(10, TimeUnit.SECONDS);
             executor.shutdown();
 
-            // Only ONE save should succeed due to synchronized block
+            // Only ONE update should succeed due to the per-room monitor
             assertThat(saveCount.get()).isEqualTo(1);
         }
     }
@@ -316,8 +388,7 @@ class AnswerHandlerTest {
             testRoom.getPlayers().add(player2);
 
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer, player2));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -326,10 +397,75 @@ class AnswerHandlerTest {
             message.put("answerTime", 10);
             message.put("isCorrect", true);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             // Should broadcast rankings
-            verify(context, atLeast(1)).broadcastToRoom(eq(testRoom), any(JSONObject.class));
+            verify(context, atLeast(1)).broadcastToRoom(eq("TEST1"), any(JSONObject.class));
+        }
+
+        @Test
+        @DisplayName("resolves the player and tells the room outside the room's monitor")
+        void noLookupOrBroadcastUnderMonitor() throws Exception {
+            AtomicInteger underMonitor = new AtomicInteger();
+            when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenAnswer(invocation -> {
+                if (Thread.holdsLock(testRoom)) {
+                    underMonitor.incrementAndGet();
+                }
+                return testPlayer;
+            });
+            doAnswer(invocation -> {
+                if (Thread.holdsLock(testRoom)) {
+                    underMonitor.incrementAndGet();
+                }
+                return null;
+            }).when(context).broadcastToRoom(eq("TEST1"), any(JSONObject.class));
+            doAnswer(invocation -> {
+                if (Thread.holdsLock(testRoom)) {
+                    underMonitor.incrementAndGet();
+                }
+                return null;
+            }).when(rosterUpdates).scoreChanged(eq("TEST1"), eq("player-1"), anyInt());
+
+            JSONObject message = new JSONObject();
+            message.put("roomCode", "TEST1");
+            message.put("playerId", "player-1");
+            message.put("answerIndex", 0);
+            message.put("isCorrect", true);
+
+            answerHandler.handle(session, decode(message), context);
+
+            verify(rosterUpdates).scoreChanged(eq("TEST1"), eq("player-1"), anyInt());
+            verify(context).broadcastToRoom(eq("TEST1"),
+                    argThat((JSONObject m) -> "rankings".equals(m.optString("type"))));
+            assertThat(underMonitor).hasValue(0);
+        }
+
+        @Test
+        @DisplayName("reports answer progress and flushes it before rankings")
+        void reportsAnswerProgress() throws Exception {
+            Player player2 = new Player();
+            player2.setId("player-2");
+            player2.setRoom(testRoom);
+            player2.setCurrentAnsweredQuestionIndex(0);
+            testRoom.getPlayers().add(player2);
+
+            when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
+
+            JSONObject message = new JSONObject();
+            message.put("roomCode", "TEST1");
+            message.put("playerId", "player-1");
+            message.put("answerIndex", 0);
+            message.put("isCorrect", true);
+
+            answerHandler.handle(session, decode(message), context);
+
+            InOrder inOrder = inOrder(answerProgress, context);
+            inOrder.verify(answerProgress).answered("TEST1", 2, 0, "player-1", 2);
+            inOrder.verify(answerProgress).flush("TEST1");
+            inOrder.verify(context).broadcastToRoom(eq("TEST1"),
+                    argThat((JSONObject m) -> "rankings".equals(m.optString("type"))));
         }
     }
 
@@ -341,8 +477,7 @@ class AnswerHandlerTest {
         @DisplayName("handles zero answer time")
         void handlesZeroAnswerTime() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -351,10 +486,10 @@ class AnswerHandlerTest {
             message.put("answerTime", 0);
             message.put("isCorrect", true);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             // Should still process successfully
-            verify(playerService).save(testPlayer);
+            verify(roomRegistry).markDirty(testPlayer);
             assertThat(testPlayer.getTotalAnswerTime()).isEqualTo(0);
         }
 
@@ -362,8 +497,7 @@ class AnswerHandlerTest {
         @DisplayName("handles missing optional fields with defaults")
         void handlesMissingOptionalFields() throws Exception {
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
-            when(playerService.getPlayersByRoom(testRoom)).thenReturn(List.of(testPlayer));
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -371,9 +505,9 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             // Missing answerTime and isCorrect - should use defaults
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
-            verify(playerService).save(testPlayer);
+            verify(roomRegistry).markDirty(testPlayer);
         }
 
         @Test
@@ -384,7 +518,7 @@ class AnswerHandlerTest {
             testPlayer.setRoom(otherRoom);
 
             when(roomService.findByRoomCode("TEST1")).thenReturn(testRoom);
-            when(playerService.findById("player-1")).thenReturn(testPlayer);
+            when(roomRegistry.findPlayer("player-1")).thenReturn(testPlayer);
 
             JSONObject message = new JSONObject();
             message.put("roomCode", "TEST1");
@@ -392,7 +526,7 @@ class AnswerHandlerTest {
             message.put("answerIndex", 0);
             message.put("answerTime", 10);
 
-            answerHandler.handle(session, message, context);
+            answerHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
             verify(context).sendMessage(eq(session), captor.capture());
@@ -0,0 +1,137 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for AnswerProgress.
+ * Tests window selection by room size and coalescing of answers.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AnswerProgress Tests")
+class AnswerProgressTest {
+
+    private static final String ROOM_CODE = "PROG1";
+
+    @Mock
+    private WebSocketContext context;
+
+    @Mock
+    private RoomMailboxes mailboxes;
+
+    private AnswerProgress answerProgress;
+
+    @BeforeEach
+    void setUp() {
+        answerProgress = new AnswerProgress(context, mailboxes, "1:0,8:100,32:250");
+    }
+
+    @AfterEach
+    void tearDown() {
+        answerProgress.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Windows")
+    class Windows {
+
+        @Test
+        @DisplayName("selects the window of the largest matching room size")
+        void selectsWindowByRoomSize() {
+            assertThat(answerProgress.windowFor(1)).isZero();
+            assertThat(answerProgress.windowFor(7)).isZero();
+            assertThat(answerProgress.windowFor(8)).isEqualTo(100);
+            assertThat(answerProgress.windowFor(31)).isEqualTo(100);
+            assertThat(answerProgress.windowFor(500)).isEqualTo(250);
+        }
+
+        @Test
+        @DisplayName("rejects malformed window pairs")
+        void rejectsMalformedSpec() {
+            assertThatThrownBy(() -> AnswerProgress.parseWindows("8=100"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Broadcasting")
+    class Broadcasting {
+
+        @Test
+        @DisplayName("broadcasts each answer at once in small rooms")
+        void immediateForSmallRooms() throws Exception {
+            answerProgress.answered(ROOM_CODE, 4, 0, "p1", 1);
+
+            JSONObject message = captureBroadcast();
+            assertThat(message.getString("type")).isEqualTo(AnswerProgress.TYPE);
+            assertThat(message.getInt("answeredCount")).isEqualTo(1);
+            assertThat(message.getJSONArray("playerIds").toList()).containsExactly("p1");
+        }
+
+        @Test
+        @DisplayName("coalesces answers within the window into one message")
+        void coalescesLargeRooms() throws Exception {
+            answerProgress.answered(ROOM_CODE, 40, 3, "p1", 5);
+            answerProgress.answered(ROOM_CODE, 40, 3, "p2", 6);
+            answerProgress.answered(ROOM_CODE, 40, 3, "p3", 7);
+
+            verify(context, after(50).never()).broadcastToRoom(eq(ROOM_CODE), any(JSONObject.class));
+
+            ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+            verify(context, timeout(1000)).broadcastToRoom(eq(ROOM_CODE), captor.capture());
+            JSONObject message = captor.getValue();
+            assertThat(message.getInt("questionIndex")).isEqualTo(3);
+            assertThat(message.getInt("answeredCount")).isEqualTo(7);
+            assertThat(message.getJSONArray("playerIds").toList()).containsExactly("p1", "p2", "p3");
+        }
+
+        @Test
+        @DisplayName("flush sends pending progress immediately and only once")
+        void flushSendsPending() throws Exception {
+            answerProgress.answered(ROOM_CODE, 10, 0, "p1", 1);
+            answerProgress.flush(ROOM_CODE);
+
+            JSONObject message = captureBroadcast();
+            assertThat(message.getJSONArray("playerIds").toList()).containsExactly("p1");
+
+            // The scheduled flush finds nothing left to send
+            verify(context, after(200)).broadcastToRoom(eq(ROOM_CODE), any(JSONObject.class));
+        }
+
+        @Test
+        @DisplayName("sends leftovers of a previous question before starting a new batch")
+        void sendsLeftoversOnNewQuestion() throws Exception {
+            answerProgress.answered(ROOM_CODE, 10, 0, "p1", 1);
+            answerProgress.answered(ROOM_CODE, 10, 1, "p2", 1);
+
+            JSONObject message = captureBroadcast();
+            assertThat(message.getInt("questionIndex")).isZero();
+            assertThat(message.getJSONArray("playerIds").toList()).isEqualTo(List.of("p1"));
+        }
+    }
+
+    private JSONObject captureBroadcast() throws Exception {
+        ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+        verify(context).broadcastToRoom(eq(ROOM_CODE), captor.capture());
+        return captor.getValue();
+    }
+}
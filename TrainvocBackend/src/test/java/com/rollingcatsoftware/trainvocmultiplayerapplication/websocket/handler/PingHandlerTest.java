@@ -0,0 +1,52 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.PingMessage;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for PingHandler.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PingHandler Tests")
+class PingHandlerTest {
+
+    @Mock
+    private WebSocketContext context;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final PingHandler handler = new PingHandler();
+
+    @Test
+    @DisplayName("returns 'ping' as message type")
+    void messageType() {
+        assertThat(handler.getMessageType()).isEqualTo("ping");
+    }
+
+    @Test
+    @DisplayName("echoes the client clock with the server clock in a pong")
+    void repliesWithPong() throws Exception {
+        long before = System.currentTimeMillis();
+
+        handler.handle(session, new PingMessage(12345L), context);
+
+        ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+        verify(context).sendMessage(eq(session), captor.capture());
+        JSONObject pong = captor.getValue();
+        assertThat(pong.getString("type")).isEqualTo("pong");
+        assertThat(pong.getLong("clientTime")).isEqualTo(12345L);
+        assertThat(pong.getLong("serverTime")).isBetween(before, System.currentTimeMillis());
+    }
+}
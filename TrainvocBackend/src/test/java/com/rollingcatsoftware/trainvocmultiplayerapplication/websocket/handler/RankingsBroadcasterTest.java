@@ -0,0 +1,95 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for RankingsBroadcaster.
+ * Tests full rankings for small rooms and top-K with own rank for large rooms.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RankingsBroadcaster Tests")
+class RankingsBroadcasterTest {
+
+    private static final String ROOM_CODE = "RANK1";
+
+    @Mock
+    private WebSocketContext context;
+
+    @Nested
+    @DisplayName("Small Rooms")
+    class SmallRooms {
+
+        @Test
+        @DisplayName("broadcasts every player ranked by score")
+        void fullRankings() throws Exception {
+            RankingsBroadcaster rankings = new RankingsBroadcaster(context, WebSocketFixtures.sequentialFanout(), 2);
+
+            rankings.broadcast(ROOM_CODE, players(5));
+
+            ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+            verify(context).broadcastToRoom(eq(ROOM_CODE), captor.capture());
+            JSONObject message = captor.getValue();
+            assertThat(message.getString("type")).isEqualTo(RankingsBroadcaster.TYPE);
+            assertThat(message.getJSONArray("players")).hasSize(5);
+            assertThat(message.getJSONArray("players").getJSONObject(0).getString("id")).isEqualTo("player-4");
+            assertThat(message.has("totalPlayers")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Large Rooms")
+    class LargeRooms {
+
+        @Test
+        @DisplayName("trims rankings to top-K and gives each player their own rank")
+        @SuppressWarnings("unchecked")
+        void topKWithOwnRank() throws Exception {
+            ShardedFanout fanout = new ShardedFanout(5, 100, 1);
+            RankingsBroadcaster rankings = new RankingsBroadcaster(context, fanout, 2);
+
+            try {
+                rankings.broadcast(ROOM_CODE, players(5));
+            } finally {
+                fanout.shutdown();
+            }
+
+            ArgumentCaptor<JSONObject> message = ArgumentCaptor.forClass(JSONObject.class);
+            ArgumentCaptor<Function<String, JSONObject>> personal = ArgumentCaptor.forClass(Function.class);
+            verify(context).broadcastToRoom(eq(ROOM_CODE), message.capture(),
+                    eq(RankingsBroadcaster.OWN_RANK_KEY), personal.capture());
+            assertThat(message.getValue().getJSONArray("players")).hasSize(2);
+            assertThat(message.getValue().getInt("totalPlayers")).isEqualTo(5);
+            JSONObject own = personal.getValue().apply("player-0");
+            assertThat(own.getInt("rank")).isEqualTo(5);
+            assertThat(own.getInt("score")).isZero();
+        }
+    }
+
+    private static List<Player> players(int count) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Player player = new Player();
+            player.setId("player-" + i);
+            player.setName("Player " + i);
+            player.setScore(i * 100);
+            players.add(player);
+        }
+        return players;
+    }
+}
@@ -0,0 +1,187 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RoomMailboxes.
+ * Tests per-room ordering, cross-room parallelism, overflow and metrics.
+ */
+@DisplayName("RoomMailboxes Tests")
+class RoomMailboxesTest {
+
+    private static final int CAPACITY = 4;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomMailboxes mailboxes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mailboxes = new RoomMailboxes(meterRegistry, RoomMailboxes.DispatchMode.MAILBOX,
+                RoomMailboxes.OverflowPolicy.REJECT, CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailboxes.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Ordering")
+    class Ordering {
+
+        @Test
+        @DisplayName("runs tasks for one room serially in submission order")
+        void runsSeriallyInOrder() throws Exception {
+            RoomMailboxes large = new RoomMailboxes(meterRegistry, RoomMailboxes.DispatchMode.MAILBOX,
+                    RoomMailboxes.OverflowPolicy.REJECT, 1000);
+            List<Integer> seen = new CopyOnWriteArrayList<>();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(500);
+
+            for (int i = 0; i < 500; i++) {
+                int n = i;
+                assertThat(large.offer("ROOM1", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    seen.add(n);
+                    running.decrementAndGet();
+                    done.countDown();
+                })).isTrue();
+            }
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(seen).hasSize(500).isSorted();
+            assertThat(maxRunning.get()).isEqualTo(1);
+            large.shutdown();
+        }
+
+        @Test
+        @DisplayName("keeps running after a task throws")
+        void survivesFailingTask() throws Exception {
+            CountDownLatch done = new CountDownLatch(1);
+
+            mailboxes.offer("ROOM1", () -> {
+                throw new IllegalStateException("boom");
+            });
+            mailboxes.offer("ROOM1", done::countDown);
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallelism")
+    class Parallelism {
+
+        @Test
+        @DisplayName("a blocked room does not hold up other rooms")
+        void blockedRoomDoesNotBlockOthers() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch otherRan = new CountDownLatch(1);
+
+            mailboxes.offer("SLOW1", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            mailboxes.offer("FAST1", otherRan::countDown);
+
+            assertThat(otherRan.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Overflow")
+    class Overflow {
+
+        @Test
+        @DisplayName("rejects tasks beyond capacity and counts them")
+        void rejectsBeyondCapacity() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+
+            // The first task occupies the runner; the rest fill the queue
+            mailboxes.offer("ROOM1", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < CAPACITY; i++) {
+                assertThat(mailboxes.offer("ROOM1", () -> { })).isTrue();
+            }
+
+            assertThat(mailboxes.offer("ROOM1", () -> { })).isFalse();
+            assertThat(mailboxes.offer("ROOM2", () -> { })).isTrue();
+            assertThat(meterRegistry.get("game.mailbox.rejected").counter().count()).isEqualTo(1.0);
+
+            release.countDown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        @Test
+        @DisplayName("reports queue depth while tasks are pending")
+        void reportsDepth() throws Exception {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+
+            mailboxes.offer("ROOM1", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            mailboxes.offer("ROOM1", () -> { });
+
+            assertThat(mailboxes.depth("ROOM1")).isEqualTo(2);
+            assertThat(meterRegistry.get("game.mailbox.depth").gauge().value()).isEqualTo(2.0);
+            assertThat(meterRegistry.get("game.mailbox.depth.max").gauge().value()).isEqualTo(2.0);
+
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("retires idle mailboxes")
+        void retiresIdleMailboxes() throws Exception {
+            CountDownLatch done = new CountDownLatch(1);
+            mailboxes.offer("ROOM1", done::countDown);
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (meterRegistry.get("game.mailbox.active").gauge().value() > 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThat(meterRegistry.get("game.mailbox.active").gauge().value()).isZero();
+            assertThat(mailboxes.depth("ROOM1")).isZero();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameState;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for RosterUpdates.
+ * Tests delta sequencing and snapshot versions.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RosterUpdates Tests")
+class RosterUpdatesTest {
+
+    private static final String ROOM_CODE = "ROST1";
+
+    @Mock
+    private WebSocketContext context;
+
+    @Mock
+    private WebSocketSession session;
+
+    private RoomRegistry roomRegistry;
+    private RosterUpdates rosterUpdates;
+    private Player host;
+
+    @BeforeEach
+    void setUp() {
+        roomRegistry = new RoomRegistry(0);
+        rosterUpdates = new RosterUpdates(roomRegistry, context);
+
+        GameRoom room = new GameRoom();
+        room.setRoomCode(ROOM_CODE);
+        room.setCurrentState(GameState.LOBBY);
+        room.setPlayers(new ArrayList<>());
+
+        host = new Player();
+        host.setId("host-1");
+        host.setName("Host");
+        host.setAvatarId(2);
+        host.setRoom(room);
+        room.getPlayers().add(host);
+        roomRegistry.adopt(room);
+    }
+
+    private List<JSONObject> broadcasts(int count) throws Exception {
+        ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+        verify(context, times(count)).broadcastToRoom(eq(ROOM_CODE), captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Nested
+    @DisplayName("Deltas")
+    class Deltas {
+
+        @Test
+        @DisplayName("numbers deltas consecutively per room")
+        void numbersConsecutively() throws Exception {
+            rosterUpdates.playerAdded(ROOM_CODE, host);
+            rosterUpdates.scoreChanged(ROOM_CODE, "host-1", 70);
+            rosterUpdates.playerRemoved(ROOM_CODE, "host-1");
+
+            List<JSONObject> sent = broadcasts(3);
+            assertThat(sent).extracting(m -> m.getString("type"))
+                    .containsExactly("playerAdded", "scoreChanged", "playerRemoved");
+            assertThat(sent).extracting(m -> m.getLong("seq")).containsExactly(1L, 2L, 3L);
+        }
+
+        @Test
+        @DisplayName("carries only the changed player")
+        void carriesOnlyChangedPlayer() throws Exception {
+            rosterUpdates.playerAdded(ROOM_CODE, host);
+
+            JSONObject delta = broadcasts(1).getFirst();
+            assertThat(delta.getJSONObject("player").getString("id")).isEqualTo("host-1");
+            assertThat(delta.getJSONObject("player").getInt("avatarId")).isEqualTo(2);
+            assertThat(delta.has("players")).isFalse();
+        }
+
+        @Test
+        @DisplayName("broadcasts after releasing the room's version lock")
+        void broadcastsOutsideVersionLock() throws Exception {
+            Object lock = roomRegistry.rosterVersion(ROOM_CODE);
+            List<Boolean> heldDuringSend = new ArrayList<>();
+            doAnswer(invocation -> heldDuringSend.add(Thread.holdsLock(lock)))
+                    .when(context).broadcastToRoom(eq(ROOM_CODE), any(JSONObject.class));
+
+            rosterUpdates.scoreChanged(ROOM_CODE, "host-1", 70);
+
+            assertThat(heldDuringSend).containsExactly(false);
+        }
+
+        @Test
+        @DisplayName("sends unnumbered deltas for a room that is not live")
+        void unnumberedForNonLiveRoom() throws Exception {
+            rosterUpdates.playerRemoved("OTHER", "host-1");
+
+            ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+            verify(context).broadcastToRoom(eq("OTHER"), captor.capture());
+            assertThat(captor.getValue().getLong("seq")).isZero();
+        }
+
+        @Test
+        @DisplayName("restarts numbering when the room is evicted and reloaded")
+        void restartsAfterEviction() throws Exception {
+            rosterUpdates.scoreChanged(ROOM_CODE, "host-1", 10);
+            GameRoom evicted = roomRegistry.evict(ROOM_CODE);
+            roomRegistry.adopt(evicted);
+
+            rosterUpdates.scoreChanged(ROOM_CODE, "host-1", 20);
+
+            assertThat(broadcasts(2)).extracting(m -> m.getLong("seq")).containsExactly(1L, 1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshots")
+    class Snapshots {
+
+        @Test
+        @DisplayName("sends the full list tagged with the current sequence")
+        void tagsSnapshotWithCurrentSeq() throws Exception {
+            rosterUpdates.playerAdded(ROOM_CODE, host);
+            rosterUpdates.scoreChanged(ROOM_CODE, "host-1", 70);
+
+            rosterUpdates.sendSnapshot(session, ROOM_CODE, () -> List.of(host));
+
+            ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+            verify(context).sendMessage(eq(session), captor.capture());
+            JSONObject snapshot = captor.getValue();
+            assertThat(snapshot.getString("type")).isEqualTo("playersUpdate");
+            assertThat(snapshot.getLong("seq")).isEqualTo(2L);
+            assertThat(snapshot.getJSONArray("players").length()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("uses sequence zero for a room that is not live")
+        void zeroForNonLiveRoom() throws Exception {
+            rosterUpdates.sendSnapshot(session, "OTHER", List::of);
+
+            ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
+            verify(context).sendMessage(eq(session), captor.capture());
+            assertThat(captor.getValue().getLong("seq")).isZero();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SessionResumption.
+ * Tests resume tokens and the deferred leave of a disconnected player.
+ */
+@DisplayName("SessionResumption Tests")
+class SessionResumptionTest {
+
+    private static final long GRACE_MS = 50;
+
+    private SessionResumption resumption;
+
+    @BeforeEach
+    void setUp() {
+        resumption = new SessionResumption(true, GRACE_MS, "test-secret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        resumption.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Tokens")
+    class Tokens {
+
+        @Test
+        @DisplayName("accepts a player's own token only")
+        void verifiesOwnToken() {
+            String token = resumption.tokenFor("p1");
+
+            assertThat(resumption.verify("p1", token)).isTrue();
+            assertThat(resumption.verify("p2", token)).isFalse();
+            assertThat(resumption.verify("p1", token + "x")).isFalse();
+            assertThat(resumption.verify("p1", null)).isFalse();
+        }
+
+        @Test
+        @DisplayName("are valid on every node sharing the secret")
+        void sharedSecret() {
+            SessionResumption otherNode = new SessionResumption(true, GRACE_MS, "test-secret");
+            SessionResumption otherSecret = new SessionResumption(true, GRACE_MS, "another-secret");
+
+            assertThat(otherNode.verify("p1", resumption.tokenFor("p1"))).isTrue();
+            assertThat(otherSecret.verify("p1", resumption.tokenFor("p1"))).isFalse();
+            otherNode.shutdown();
+            otherSecret.shutdown();
+        }
+    }
+
+    @Nested
+    @DisplayName("Grace period")
+    class GracePeriod {
+
+        @Test
+        @DisplayName("runs the leave once the grace period is over")
+        void leavesAfterGrace() throws Exception {
+            CountDownLatch left = new CountDownLatch(1);
+
+            assertThat(resumption.deferLeave("p1", left::countDown)).isTrue();
+            assertThat(resumption.isPending("p1")).isTrue();
+
+            assertThat(left.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(resumption.isPending("p1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("a resume in time cancels the leave")
+        void cancelledByResume() throws Exception {
+            AtomicInteger leaves = new AtomicInteger();
+            resumption.deferLeave("p1", leaves::incrementAndGet);
+
+            assertThat(resumption.cancelLeave("p1")).isTrue();
+            Thread.sleep(GRACE_MS * 3);
+
+            assertThat(leaves).hasValue(0);
+            assertThat(resumption.cancelLeave("p1")).isFalse();
+        }
+
+        @Test
+        @DisplayName("a second disconnect restarts the grace period")
+        void secondDisconnectReplacesFirst() throws Exception {
+            AtomicInteger leaves = new AtomicInteger();
+            CountDownLatch left = new CountDownLatch(1);
+            resumption.deferLeave("p1", leaves::incrementAndGet);
+            resumption.deferLeave("p1", left::countDown);
+
+            assertThat(left.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(leaves).hasValue(0);
+        }
+    }
+
+    @Test
+    @DisplayName("when disabled, issues no tokens and does not defer leaves")
+    void disabled() {
+        SessionResumption off = SessionResumption.disabled();
+
+        assertThat(off.tokenFor("p1")).isNull();
+        assertThat(off.verify("p1", resumption.tokenFor("p1"))).isFalse();
+        assertThat(off.deferLeave("p1", () -> { })).isFalse();
+        off.shutdown();
+    }
+}
@@ -7,6 +7,8 @@ import com.rollingcatsoftware.trainvocmultiplayerapplication.model.QuizQuestion;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.PlayerService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.QuizService;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.service.RoomService;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.InboundMessageDecoder;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.StartMessage;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -82,6 +84,13 @@ class StartGameHandlerTest {
         guestPlayer.setRoom(testRoom);
     }
 
+    private final InboundMessageDecoder decoder = new InboundMessageDecoder();
+
+    private StartMessage decode(JSONObject message) {
+        message.put("type", StartMessage.TYPE);
+        return (StartMessage) decoder.decode(message.toString());
+    }
+
     @Nested
     @DisplayName("Message Type")
     class MessageType {
@@ -107,7 +116,7 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "START1");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             verify(roomService).startRoom("START1");
             verify(quizService).generateQuestions("A1", 4, 5);
@@ -123,10 +132,10 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "START1");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             // Should broadcast gameStateChanged and questions
-            verify(context, atLeast(2)).broadcastToRoom(eq(testRoom), any(JSONObject.class));
+            verify(context, atLeast(2)).broadcastToRoom(eq("START1"), any(JSONObject.class));
         }
     }
 
@@ -150,7 +159,7 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "INVALID");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             verify(roomService, never()).startRoom(any());
 
@@ -170,7 +179,7 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "START1");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             verify(roomService, never()).startRoom(any());
 
@@ -196,7 +205,7 @@ class StartGameHandlerTest {
             message.put("roomCode", "START1");
 
             // First request should succeed
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
             verify(roomService, times(1)).startRoom("START1");
 
             // Mark as started
@@ -204,7 +213,7 @@ class StartGameHandlerTest {
             testRoom.setCurrentState(GameState.COUNTDOWN);
 
             // Second request should be rejected
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
             verify(roomService, times(1)).startRoom("START1"); // Still only 1 call
         }
 
@@ -218,10 +227,10 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "START1");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
-            verify(context, atLeast(1)).broadcastToRoom(eq(testRoom), captor.capture());
+            verify(context, atLeast(1)).broadcastToRoom(eq("START1"), captor.capture());
 
             // Find the gameStateChanged message
             boolean foundStateChange = captor.getAllValues().stream()
@@ -239,10 +248,10 @@ class StartGameHandlerTest {
             JSONObject message = new JSONObject();
             message.put("roomCode", "START1");
 
-            startGameHandler.handle(session, message, context);
+            startGameHandler.handle(session, decode(message), context);
 
             ArgumentCaptor<JSONObject> captor = ArgumentCaptor.forClass(JSONObject.class);
-            verify(context, atLeast(1)).broadcastToRoom(eq(testRoom), captor.capture());
+            verify(context, atLeast(1)).broadcastToRoom(eq("START1"), captor.capture());
 
             // Find the questions message
             boolean foundQuestions = captor.getAllValues().stream()
@@ -0,0 +1,120 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for WebSocketCompression.
+ * Tests extension negotiation and per-type byte accounting.
+ */
+@DisplayName("WebSocketCompression Tests")
+class WebSocketCompressionTest {
+
+    private static final WebSocketExtension DEFLATE = new WebSocketExtension(WebSocketCompression.PERMESSAGE_DEFLATE);
+
+    private SimpleMeterRegistry meterRegistry;
+    private WebSocketCompression compression;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compression = new WebSocketCompression(meterRegistry, true, 256);
+    }
+
+    private static TextMessage questionsFrame() {
+        JSONArray questions = new JSONArray();
+        for (int i = 0; i < 10; i++) {
+            questions.put(new JSONObject()
+                    .put("english", "word" + i)
+                    .put("options", new JSONArray(List.of("option a", "option b", "option c", "option d"))));
+        }
+        return new TextMessage(new JSONObject().put("type", "questions").put("questions", questions).toString());
+    }
+
+    private double count(String name, String type) {
+        return meterRegistry.get(name).tag("type", type).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Negotiation")
+    class Negotiation {
+
+        @Test
+        @DisplayName("keeps permessage-deflate when enabled")
+        void keepsDeflateWhenEnabled() {
+            assertThat(compression.filterExtensions(List.of(DEFLATE))).containsExactly(DEFLATE);
+        }
+
+        @Test
+        @DisplayName("drops permessage-deflate when disabled")
+        void dropsDeflateWhenDisabled() {
+            WebSocketCompression off = new WebSocketCompression(meterRegistry, false, 256);
+            WebSocketExtension other = new WebSocketExtension("x-other");
+
+            assertThat(off.filterExtensions(List.of(DEFLATE, other))).containsExactly(other);
+        }
+
+        @Test
+        @DisplayName("detects sessions that negotiated deflate")
+        void detectsDeflatedSessions() {
+            WebSocketSession deflated = mock(WebSocketSession.class);
+            when(deflated.getExtensions()).thenReturn(List.of(DEFLATE));
+            WebSocketSession plain = mock(WebSocketSession.class);
+            when(plain.getExtensions()).thenReturn(List.of());
+
+            assertThat(compression.isDeflated(deflated)).isTrue();
+            assertThat(compression.isDeflated(plain)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Accounting")
+    class Accounting {
+
+        @Test
+        @DisplayName("counts deflated bytes for deflate recipients only")
+        void countsPerRecipient() {
+            TextMessage frame = questionsFrame();
+            int raw = frame.getPayloadLength();
+
+            compression.record("questions", frame, 3, 2);
+
+            assertThat(count("game.ws.bytes.uncompressed", "questions")).isEqualTo(3.0 * raw);
+            double compressed = count("game.ws.bytes.compressed", "questions");
+            assertThat(compressed).isLessThan(3.0 * raw).isGreaterThan(raw);
+        }
+
+        @Test
+        @DisplayName("counts frames below the threshold at raw size")
+        void belowThresholdIsRaw() {
+            TextMessage frame = new TextMessage("{\"type\":\"answerResult\",\"correct\":true}");
+
+            compression.record("answerResult", frame, 2, 2);
+
+            assertThat(count("game.ws.bytes.compressed", "answerResult"))
+                    .isEqualTo(count("game.ws.bytes.uncompressed", "answerResult"));
+        }
+
+        @Test
+        @DisplayName("deflated size is smaller for repetitive payloads")
+        void deflatesRepetitivePayloads() {
+            byte[] payload = questionsFrame().asBytes();
+
+            assertThat(WebSocketCompression.deflatedSize(payload)).isLessThan(payload.length / 2);
+        }
+    }
+}
@@ -1,22 +1,32 @@
 package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
 
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.GameRoom;
 import com.rollingcatsoftware.trainvocmultiplayerapplication.model.Player;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.CborMessageEncoder;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.MessageEncoders;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -49,7 +59,7 @@ class WebSocketContextTest {
 
     @BeforeEach
     void setUp() {
-        context = new WebSocketContext();
+        context = WebSocketFixtures.context();
 
         // Setup session mocks
         when(session1.getId()).thenReturn("session-1");
@@ -115,6 +125,17 @@ class WebSocketContextTest {
             assertThat(context.getSession("player-1")).isNull();
         }
 
+        @Test
+        @DisplayName("closing a superseded session keeps the player's new one")
+        void supersededSessionCloseIsIgnored() {
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-1", "ROOM1", session2);
+
+            assertThat(context.removeBySession(session1)).isNull();
+            assertThat(context.getSession("player-1")).isEqualTo(session2);
+            assertThat(context.getRoomPlayerIds("ROOM1")).containsExactly("player-1");
+        }
+
         @Test
         @DisplayName("returns null when removing unknown session")
         void returnsNullForUnknownSession() {
@@ -239,6 +260,189 @@ class WebSocketContextTest {
             verify(session1).sendMessage(any(TextMessage.class));
             // Should not fail for missing player-2
         }
+
+        @Test
+        @DisplayName("serializes the message once and shares the frame")
+        void sharesOneFrame() throws Exception {
+            context.registerSession("player-1", session1);
+            context.registerSession("player-2", session2);
+
+            Player p1 = new Player();
+            p1.setId("player-1");
+            Player p2 = new Player();
+            p2.setId("player-2");
+
+            GameRoom room = new GameRoom();
+            room.setPlayers(List.of(p1, p2));
+
+            JSONObject message = new JSONObject();
+            message.put("type", "test");
+
+            context.broadcastToRoom(room, message);
+
+            ArgumentCaptor<TextMessage> first = ArgumentCaptor.forClass(TextMessage.class);
+            ArgumentCaptor<TextMessage> second = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session1).sendMessage(first.capture());
+            verify(session2).sendMessage(second.capture());
+            assertThat(first.getValue()).isSameAs(second.getValue());
+        }
+
+        @Test
+        @DisplayName("continues broadcasting when one recipient fails")
+        void continuesAfterFailedRecipient() throws Exception {
+            doThrow(new IOException("broken pipe")).when(session1).sendMessage(any());
+            context.registerSession("player-1", session1);
+            context.registerSession("player-2", session2);
+
+            Player p1 = new Player();
+            p1.setId("player-1");
+            Player p2 = new Player();
+            p2.setId("player-2");
+
+            GameRoom room = new GameRoom();
+            room.setPlayers(List.of(p1, p2));
+
+            JSONObject message = new JSONObject();
+            message.put("type", "test");
+
+            context.broadcastToRoom(room, message);
+
+            verify(session2).sendMessage(any(TextMessage.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Room Index")
+    class RoomIndex {
+
+        @Test
+        @DisplayName("broadcasts by room code without a loaded room")
+        void broadcastsByRoomCode() throws Exception {
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-2", "ROOM1", session2);
+            context.registerSession("player-3", "ROOM2", session3);
+
+            context.broadcastToRoom("ROOM1", new JSONObject().put("type", "test"));
+
+            verify(session1).sendMessage(any(TextMessage.class));
+            verify(session2).sendMessage(any(TextMessage.class));
+            verify(session3, never()).sendMessage(any());
+        }
+
+        @Test
+        @DisplayName("drops players from the index on leave and disconnect")
+        void unindexesOnLeaveAndDisconnect() {
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-2", "ROOM1", session2);
+
+            context.removeSession("player-1");
+            assertThat(context.getRoomPlayerIds("ROOM1")).containsExactly("player-2");
+
+            context.removeBySession(session2);
+            assertThat(context.getRoomPlayerIds("ROOM1")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("moves a player re-registered under another room")
+        void movesPlayerBetweenRooms() {
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-1", "ROOM2", session2);
+
+            assertThat(context.getRoomPlayerIds("ROOM1")).isEmpty();
+            assertThat(context.getRoomPlayerIds("ROOM2")).containsExactly("player-1");
+        }
+
+        @Test
+        @DisplayName("ignores broadcasts to unknown rooms")
+        void ignoresUnknownRoom() throws Exception {
+            context.broadcastToRoom("NOPE1", new JSONObject().put("type", "test"));
+
+            verify(session1, never()).sendMessage(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Slow Consumers")
+    class SlowConsumers {
+
+        @Test
+        @DisplayName("a blocked session does not stall broadcasts to others")
+        void blockedSessionDoesNotStallOthers() throws Exception {
+            CountDownLatch sending = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                sending.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return null;
+            }).when(session1).sendMessage(any());
+            context.registerSession("player-1", session1);
+            context.registerSession("player-2", session2);
+
+            // Occupy player-1's connection with a send that never completes
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.submit(() -> {
+                context.sendToPlayer("player-1", new JSONObject().put("type", "first"));
+                return null;
+            });
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Player p1 = new Player();
+            p1.setId("player-1");
+            Player p2 = new Player();
+            p2.setId("player-2");
+            GameRoom room = new GameRoom();
+            room.setPlayers(List.of(p1, p2));
+
+            long start = System.nanoTime();
+            context.broadcastToRoom(room, new JSONObject().put("type", "test"));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMs).isLessThan(1000);
+            verify(session2).sendMessage(any(TextMessage.class));
+
+            release.countDown();
+            executor.shutdown();
+        }
+
+        @Test
+        @DisplayName("terminates a session whose buffer exceeds the limit")
+        void terminatesOverLimitSession() throws Exception {
+            WebSocketContext limited = new WebSocketContext(MessageEncoders.defaults(), WebSocketCompression.disabled(),
+                    WebSocketFixtures.sequentialFanout(), GameMetrics.disabled(), new RoomReplay(new RoomRegistry(0)),
+                    60_000, 16, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+            CountDownLatch sending = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                sending.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return null;
+            }).when(session1).sendMessage(any());
+            limited.registerSession("player-1", session1);
+            limited.registerSession("player-2", session2);
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.submit(() -> {
+                limited.sendToPlayer("player-1", new JSONObject().put("type", "first"));
+                return null;
+            });
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Player p1 = new Player();
+            p1.setId("player-1");
+            Player p2 = new Player();
+            p2.setId("player-2");
+            GameRoom room = new GameRoom();
+            room.setPlayers(List.of(p1, p2));
+
+            // Buffered frame exceeds the 16 byte limit: the session is closed, the broadcast goes on
+            limited.broadcastToRoom(room, new JSONObject().put("type", "a-message-longer-than-the-limit"));
+
+            verify(session1, timeout(2000)).close(any());
+            verify(session2).sendMessage(any(TextMessage.class));
+
+            release.countDown();
+            executor.shutdown();
+        }
     }
 
     @Nested
@@ -394,4 +598,190 @@ class WebSocketContextTest {
             System.out.println("Lookup time for " + sessionCount + " sessions: " + lookupTime + "ms");
         }
     }
+
+    @Nested
+    @DisplayName("Encodings")
+    class Encodings {
+
+        @Test
+        @DisplayName("sends JSON text to sessions without a subprotocol")
+        void defaultsToJson() throws Exception {
+            context.sendMessage(session1, new JSONObject().put("type", "test"));
+
+            ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session1).sendMessage(captor.capture());
+            assertThat(new JSONObject(captor.getValue().getPayload()).getString("type")).isEqualTo("test");
+        }
+
+        @Test
+        @DisplayName("sends binary frames to sessions that negotiated CBOR")
+        void sendsCborToCborSessions() throws Exception {
+            when(session3.getAcceptedProtocol()).thenReturn(CborMessageEncoder.SUBPROTOCOL);
+
+            context.sendMessage(session3, new JSONObject().put("type", "test"));
+
+            verify(session3).sendMessage(any(BinaryMessage.class));
+        }
+
+        @Test
+        @DisplayName("encodes a broadcast once per encoding for mixed rooms")
+        void mixedRoomBroadcast() throws Exception {
+            when(session3.getAcceptedProtocol()).thenReturn(CborMessageEncoder.SUBPROTOCOL);
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-2", "ROOM1", session2);
+            context.registerSession("player-3", "ROOM1", session3);
+
+            context.broadcastToRoom("ROOM1", new JSONObject().put("type", "test"));
+
+            ArgumentCaptor<TextMessage> first = ArgumentCaptor.forClass(TextMessage.class);
+            ArgumentCaptor<TextMessage> second = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session1).sendMessage(first.capture());
+            verify(session2).sendMessage(second.capture());
+            assertThat(first.getValue()).isSameAs(second.getValue());
+            verify(session3).sendMessage(any(BinaryMessage.class));
+        }
+
+        @Test
+        @DisplayName("adds each recipient's own property to the shared message")
+        void personalizedBroadcast() throws Exception {
+            context.registerSession("player-1", "ROOM1", session1);
+            context.registerSession("player-2", "ROOM1", session2);
+
+            context.broadcastToRoom("ROOM1", new JSONObject().put("type", "rankings"), "you",
+                    playerId -> playerId.equals("player-1") ? new JSONObject().put("rank", 1) : null);
+
+            ArgumentCaptor<TextMessage> first = ArgumentCaptor.forClass(TextMessage.class);
+            ArgumentCaptor<TextMessage> second = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session1).sendMessage(first.capture());
+            verify(session2).sendMessage(second.capture());
+            assertThat(new JSONObject(first.getValue().getPayload()).getJSONObject("you").getInt("rank")).isEqualTo(1);
+            assertThat(new JSONObject(second.getValue().getPayload()).has("you")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Large Rooms")
+    class LargeRooms {
+
+        @Test
+        @DisplayName("shards a large room's broadcast across the send pool")
+        void shardsLargeRoomBroadcast() throws Exception {
+            ShardedFanout fanout = new ShardedFanout(2, 1, 2);
+            WebSocketContext sharded = WebSocketFixtures.context(fanout, new RoomReplay(new RoomRegistry(0)));
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            for (WebSocketSession session : List.of(session1, session2, session3)) {
+                doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+                        .when(session).sendMessage(any());
+            }
+            sharded.registerSession("player-1", "BIG", session1);
+            sharded.registerSession("player-2", "BIG", session2);
+            sharded.registerSession("player-3", "BIG", session3);
+
+            try {
+                sharded.broadcastToRoom("BIG", new JSONObject().put("type", "test"));
+            } finally {
+                fanout.shutdown();
+            }
+
+            verify(session1).sendMessage(any(TextMessage.class));
+            verify(session2).sendMessage(any(TextMessage.class));
+            verify(session3).sendMessage(any(TextMessage.class));
+            assertThat(threads).anyMatch(name -> name.startsWith("ws-fanout-"));
+        }
+
+        @Test
+        @DisplayName("sends small rooms on the calling thread")
+        void smallRoomsInline() {
+            ShardedFanout fanout = new ShardedFanout(100, 10, 1);
+            List<String> threads = new ArrayList<>();
+
+            fanout.forEach(List.of("a", "b"), item -> threads.add(Thread.currentThread().getName()));
+            fanout.shutdown();
+
+            assertThat(threads).containsOnly(Thread.currentThread().getName());
+            assertThat(fanout.isLargeRoom(99)).isFalse();
+            assertThat(fanout.isLargeRoom(100)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Resume")
+    class Resume {
+
+        private RoomRegistry registry;
+        private WebSocketContext replaying;
+
+        @BeforeEach
+        void setUp() {
+            registry = new RoomRegistry(3);
+            GameRoom room = new GameRoom();
+            room.setRoomCode("ROOM1");
+            room.setPlayers(new ArrayList<>());
+            registry.adopt(room);
+            replaying = WebSocketFixtures.context(WebSocketFixtures.sequentialFanout(), new RoomReplay(registry));
+        }
+
+        @Test
+        @DisplayName("replays missed broadcasts in order before live ones")
+        void replaysMissedBroadcasts() throws Exception {
+            replaying.registerSession("player-1", "ROOM1", session1);
+            replaying.registerSession("player-2", "ROOM1", session2);
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "a"));
+            replaying.removeBySession(session2);
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "b"));
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "c"));
+
+            boolean replayed = replaying.resumeSession("player-2", "ROOM1", session3, 1);
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "d"));
+
+            assertThat(replayed).isTrue();
+            ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session3, times(3)).sendMessage(sent.capture());
+            assertThat(sent.getAllValues()).extracting(m -> new JSONObject(m.getPayload()))
+                    .extracting(m -> m.getString("type") + m.getLong(RoomReplay.SEQ))
+                    .containsExactly("b2", "c3", "d4");
+            assertThat(replaying.currentEventSeq("ROOM1")).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("sends broadcasts and replays outside the ring's monitor")
+        void sendsOutsideRingMonitor() throws Exception {
+            Object ring = registry.recentMessages("ROOM1");
+            List<Boolean> heldDuringSend = new ArrayList<>();
+            doAnswer(invocation -> heldDuringSend.add(Thread.holdsLock(ring)))
+                    .when(session1).sendMessage(any());
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "a"));
+
+            replaying.resumeSession("player-1", "ROOM1", session1, 0);
+            replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "b"));
+
+            assertThat(heldDuringSend).containsExactly(false, false);
+        }
+
+        @Test
+        @DisplayName("reports a gap once missed broadcasts are overwritten, and still attaches")
+        void reportsGap() throws Exception {
+            for (int i = 0; i < 5; i++) {
+                replaying.broadcastToRoom("ROOM1", new JSONObject().put("type", "test"));
+            }
+
+            boolean replayed = replaying.resumeSession("player-1", "ROOM1", session1, 1);
+
+            assertThat(replayed).isFalse();
+            verify(session1, never()).sendMessage(any());
+            assertThat(replaying.getRoomPlayerIds("ROOM1")).containsExactly("player-1");
+        }
+
+        @Test
+        @DisplayName("does not number broadcasts when replay is off")
+        void unnumberedWithoutReplay() throws Exception {
+            context.registerSession("player-1", "ROOM1", session1);
+
+            context.broadcastToRoom("ROOM1", new JSONObject().put("type", "test"));
+
+            ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+            verify(session1).sendMessage(sent.capture());
+            assertThat(new JSONObject(sent.getValue().getPayload()).has(RoomReplay.SEQ)).isFalse();
+        }
+    }
 }
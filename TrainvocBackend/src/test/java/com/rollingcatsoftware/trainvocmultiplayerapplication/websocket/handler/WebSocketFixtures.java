@@ -0,0 +1,38 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.handler;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.metrics.GameMetrics;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.service.live.RoomRegistry;
+import com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message.MessageEncoders;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+/**
+ * Builds the WebSocket beans for tests that run without a Spring context, through their
+ * injected constructors and with the application's default settings.
+ */
+public final class WebSocketFixtures {
+
+    private WebSocketFixtures() {
+    }
+
+    /**
+     * A fan-out that never enters large-room mode, so every room is sent on the calling thread.
+     */
+    public static ShardedFanout sequentialFanout() {
+        return new ShardedFanout(Integer.MAX_VALUE, 100, 1);
+    }
+
+    /**
+     * A context that sends sequentially and numbers no broadcasts, since no room is live.
+     */
+    public static WebSocketContext context() {
+        return context(sequentialFanout(), new RoomReplay(new RoomRegistry(0)));
+    }
+
+    /**
+     * A context with default send limits on top of the given fan-out and replay.
+     */
+    public static WebSocketContext context(ShardedFanout fanout, RoomReplay replay) {
+        return new WebSocketContext(MessageEncoders.defaults(), WebSocketCompression.disabled(), fanout,
+                GameMetrics.disabled(), replay, 5000, 512 * 1024, OverflowStrategy.TERMINATE);
+    }
+}
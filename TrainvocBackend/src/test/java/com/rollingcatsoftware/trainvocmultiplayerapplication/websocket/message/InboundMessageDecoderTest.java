@@ -0,0 +1,170 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import com.rollingcatsoftware.trainvocmultiplayerapplication.exception.InvalidMessageException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for InboundMessageDecoder.
+ * Tests typed decoding, defaults, and rejection of invalid frames.
+ */
+@DisplayName("InboundMessageDecoder Tests")
+class InboundMessageDecoderTest {
+
+    private final InboundMessageDecoder decoder = new InboundMessageDecoder();
+
+    @Nested
+    @DisplayName("Message Types")
+    class MessageTypes {
+
+        @Test
+        @DisplayName("decodes create with nested settings")
+        void decodesCreate() {
+            InboundMessage message = decoder.decode("""
+                    {"type":"create","name":"Host","avatarId":3,"hashedPassword":"h",
+                     "settings":{"questionDuration":30,"optionCount":3,"level":"B2",
+                                 "totalQuestionCount":10,"hostWantsToJoin":false}}""");
+
+            assertThat(message).isEqualTo(new CreateRoomMessage("Host", 3, "h", 30, 3, "B2", 10, false));
+        }
+
+        @Test
+        @DisplayName("decodes answer")
+        void decodesAnswer() {
+            InboundMessage message = decoder.decode(
+                    "{\"type\":\"answer\",\"roomCode\":\"ROOM1\",\"playerId\":\"p1\",\"answerIndex\":2,\"answerTime\":7,\"isCorrect\":true}");
+
+            assertThat(message).isEqualTo(new AnswerMessage("ROOM1", "p1", 2, 7, true));
+            assertThat(message.roomCode()).isEqualTo("ROOM1");
+        }
+
+        @Test
+        @DisplayName("decodes join, start, next, leave and roster")
+        void decodesSimpleTypes() {
+            assertThat(decoder.decode("{\"type\":\"join\",\"roomCode\":\"R\",\"name\":\"N\"}"))
+                    .isEqualTo(new JoinMessage("R", "N", null));
+            assertThat(decoder.decode("{\"type\":\"start\",\"roomCode\":\"R\",\"playerId\":\"p\"}"))
+                    .isEqualTo(new StartMessage("R", "p"));
+            assertThat(decoder.decode("{\"type\":\"next\",\"roomCode\":\"R\"}"))
+                    .isEqualTo(new NextMessage("R", ""));
+            assertThat(decoder.decode("{\"type\":\"leave\",\"roomCode\":\"R\",\"playerId\":\"p\"}"))
+                    .isEqualTo(new LeaveMessage("R", "p"));
+            assertThat(decoder.decode("{\"type\":\"roster\",\"roomCode\":\"R\"}"))
+                    .isEqualTo(new RosterMessage("R"));
+        }
+
+        @Test
+        @DisplayName("decodes ping with a millisecond client clock")
+        void decodesPing() {
+            assertThat(decoder.decode("{\"type\":\"ping\",\"clientTime\":1760000000123}"))
+                    .isEqualTo(new PingMessage(1760000000123L));
+            assertThat(decoder.decode("{\"type\":\"ping\"}")).isEqualTo(new PingMessage(0));
+        }
+
+        @Test
+        @DisplayName("decodes resume, defaulting to no message seen")
+        void decodesResume() {
+            assertThat(decoder.decode("{\"type\":\"resume\",\"roomCode\":\"ABC12\",\"playerId\":\"p1\","
+                    + "\"token\":\"t0k\",\"lastSeq\":42}"))
+                    .isEqualTo(new ResumeMessage("ABC12", "p1", "t0k", 42));
+            assertThat(decoder.decode("{\"type\":\"resume\",\"roomCode\":\"ABC12\",\"playerId\":\"p1\","
+                    + "\"token\":\"t0k\"}"))
+                    .isEqualTo(new ResumeMessage("ABC12", "p1", "t0k", -1));
+        }
+
+        @Test
+        @DisplayName("finds type after other properties")
+        void typeNotFirst() {
+            InboundMessage message = decoder.decode("{\"roomCode\":\"R\",\"name\":\"N\",\"type\":\"join\"}");
+
+            assertThat(message).isInstanceOf(JoinMessage.class);
+        }
+
+        @Test
+        @DisplayName("returns UnknownMessage for unrecognized or missing type")
+        void unknownType() {
+            assertThat(decoder.decode("{\"type\":\"dance\"}")).isEqualTo(new UnknownMessage("dance"));
+            assertThat(decoder.decode("{}")).isEqualTo(new UnknownMessage(""));
+        }
+    }
+
+    @Nested
+    @DisplayName("Defaults and Leniency")
+    class Defaults {
+
+        @Test
+        @DisplayName("applies create defaults when settings are absent")
+        void createDefaults() {
+            InboundMessage message = decoder.decode("{\"type\":\"create\",\"name\":\"Host\"}");
+
+            assertThat(message).isEqualTo(new CreateRoomMessage("Host", null, null, 60, 4, "A1", 5, true));
+        }
+
+        @Test
+        @DisplayName("applies answer defaults for optional fields")
+        void answerDefaults() {
+            InboundMessage message = decoder.decode(
+                    "{\"type\":\"answer\",\"roomCode\":\"R\",\"playerId\":\"p\",\"answerIndex\":0}");
+
+            assertThat(message).isEqualTo(new AnswerMessage("R", "p", 0, 0, false));
+        }
+
+        @Test
+        @DisplayName("accepts numbers sent as strings")
+        void numericStrings() {
+            InboundMessage message = decoder.decode(
+                    "{\"type\":\"answer\",\"roomCode\":\"R\",\"playerId\":\"p\",\"answerIndex\":\"1\",\"answerTime\":\"5\"}");
+
+            assertThat(message).isEqualTo(new AnswerMessage("R", "p", 1, 5, false));
+        }
+
+        @Test
+        @DisplayName("skips unknown nested properties")
+        void skipsUnknownProperties() {
+            InboundMessage message = decoder.decode(
+                    "{\"type\":\"leave\",\"extra\":{\"a\":[1,2,{\"b\":3}]},\"roomCode\":\"R\",\"playerId\":\"p\"}");
+
+            assertThat(message).isEqualTo(new LeaveMessage("R", "p"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid Frames")
+    class InvalidFrames {
+
+        @Test
+        @DisplayName("rejects a missing required field")
+        void missingRequiredField() {
+            assertThatThrownBy(() -> decoder.decode("{\"type\":\"answer\",\"roomCode\":\"R\",\"playerId\":\"p\"}"))
+                    .isInstanceOf(InvalidMessageException.class)
+                    .hasMessageContaining("answerIndex");
+        }
+
+        @Test
+        @DisplayName("rejects malformed JSON")
+        void malformedJson() {
+            assertThatThrownBy(() -> decoder.decode("{\"type\":\"join\","))
+                    .isInstanceOf(InvalidMessageException.class);
+        }
+
+        @Test
+        @DisplayName("rejects a non-object frame")
+        void nonObject() {
+            assertThatThrownBy(() -> decoder.decode("[1,2,3]"))
+                    .isInstanceOf(InvalidMessageException.class);
+        }
+
+        @Test
+        @DisplayName("rejects a non-numeric number field")
+        void nonNumeric() {
+            assertThatThrownBy(() -> decoder.decode(
+                    "{\"type\":\"answer\",\"roomCode\":\"R\",\"playerId\":\"p\",\"answerIndex\":\"x\"}"))
+                    .isInstanceOf(InvalidMessageException.class)
+                    .hasMessageContaining("answerIndex");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.rollingcatsoftware.trainvocmultiplayerapplication.websocket.message;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for MessageEncoders and the JSON and CBOR encoders.
+ */
+@DisplayName("MessageEncoders Tests")
+class MessageEncodersTest {
+
+    private final MessageEncoders encoders = MessageEncoders.defaults();
+
+    private static WebSocketSession sessionWithProtocol(String protocol) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAcceptedProtocol()).thenReturn(protocol);
+        return session;
+    }
+
+    private static JSONObject rankings() {
+        JSONArray players = new JSONArray();
+        for (int i = 0; i < 20; i++) {
+            players.put(new JSONObject()
+                    .put("id", "player-" + i)
+                    .put("name", "Player " + i)
+                    .put("avatarId", i % 8)
+                    .put("score", 1000 - i * 37));
+        }
+        return new JSONObject().put("type", "rankings").put("players", players);
+    }
+
+    @Nested
+    @DisplayName("Negotiation")
+    class Negotiation {
+
+        @Test
+        @DisplayName("uses JSON when no subprotocol was negotiated")
+        void defaultsToJson() {
+            assertThat(encoders.forSession(sessionWithProtocol(null))).isInstanceOf(JsonMessageEncoder.class);
+            assertThat(encoders.forSession(sessionWithProtocol(""))).isInstanceOf(JsonMessageEncoder.class);
+        }
+
+        @Test
+        @DisplayName("uses the encoder of the negotiated subprotocol")
+        void usesNegotiatedEncoder() {
+            assertThat(encoders.forSession(sessionWithProtocol(CborMessageEncoder.SUBPROTOCOL)))
+                    .isInstanceOf(CborMessageEncoder.class);
+            assertThat(encoders.forSession(sessionWithProtocol(JsonMessageEncoder.SUBPROTOCOL)))
+                    .isInstanceOf(JsonMessageEncoder.class);
+        }
+
+        @Test
+        @DisplayName("offers every encoding at the handshake")
+        void offersAllSubprotocols() {
+            assertThat(encoders.subprotocols())
+                    .containsExactlyInAnyOrder(JsonMessageEncoder.SUBPROTOCOL, CborMessageEncoder.SUBPROTOCOL);
+        }
+    }
+
+    @Nested
+    @DisplayName("CBOR Encoding")
+    class CborEncoding {
+
+        @Test
+        @DisplayName("preserves the JSON message structure")
+        void roundTrips() {
+            JSONObject message = rankings().put("flag", true).put("missing", JSONObject.NULL);
+
+            WebSocketMessage<?> frame = new CborMessageEncoder().encode(message);
+
+            assertThat(frame).isInstanceOf(BinaryMessage.class);
+            JsonNode decoded = new CBORMapper().readTree(((BinaryMessage) frame).getPayload().array());
+            assertThat(decoded.get("type").asString()).isEqualTo("rankings");
+            assertThat(decoded.get("players")).hasSize(20);
+            assertThat(decoded.get("players").get(3).get("score").asInt()).isEqualTo(1000 - 3 * 37);
+            assertThat(decoded.get("flag").asBoolean()).isTrue();
+            assertThat(decoded.get("missing").isNull()).isTrue();
+        }
+
+        @Test
+        @DisplayName("is smaller than JSON for roster payloads")
+        void smallerThanJson() {
+            JSONObject message = rankings();
+
+            TextMessage json = (TextMessage) new JsonMessageEncoder().encode(message);
+            BinaryMessage cbor = (BinaryMessage) new CborMessageEncoder().encode(message);
+
+            assertThat(cbor.getPayloadLength()).isLessThan(json.getPayloadLength());
+        }
+
+        @Test
+        @DisplayName("is decoded by the inbound decoder")
+        void decodesInbound() {
+            JSONObject answer = new JSONObject()
+                    .put("type", "answer").put("roomCode", "R").put("playerId", "p")
+                    .put("answerIndex", 1).put("answerTime", 4).put("isCorrect", true);
+            BinaryMessage frame = (BinaryMessage) new CborMessageEncoder().encode(answer);
+
+            InboundMessage decoded = new InboundMessageDecoder().decodeBinary(frame.getPayload());
+
+            assertThat(decoded).isEqualTo(new AnswerMessage("R", "p", 1, 4, true));
+        }
+    }
+
+    @Nested
+    @DisplayName("Personalized Frames")
+    class PersonalizedFrames {
+
+        @Test
+        @DisplayName("JSON appends the personal property to the shared message")
+        void jsonAppendsProperty() {
+            PersonalizedFrame frame = new JsonMessageEncoder().prepare(rankings());
+
+            TextMessage personalized = (TextMessage) frame.with("you", new JSONObject().put("rank", 7));
+
+            JSONObject decoded = new JSONObject(personalized.getPayload());
+            assertThat(decoded.getJSONObject("you").getInt("rank")).isEqualTo(7);
+            assertThat(decoded.getJSONArray("players")).hasSize(20);
+            assertThat(((TextMessage) frame.base()).getPayload()).isEqualTo(rankings().toString());
+        }
+
+        @Test
+        @DisplayName("JSON handles an empty shared message")
+        void jsonEmptyShared() {
+            TextMessage personalized = (TextMessage) new JsonMessageEncoder().prepare(new JSONObject())
+                    .with("you", new JSONObject().put("rank", 1));
+
+            assertThat(new JSONObject(personalized.getPayload()).getJSONObject("you").getInt("rank")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("CBOR splices the personal entry into the shared map")
+        void cborSplicesEntry() {
+            PersonalizedFrame frame = new CborMessageEncoder().prepare(rankings());
+
+            BinaryMessage personalized = (BinaryMessage) frame.with("you", new JSONObject().put("rank", 7));
+
+            JsonNode decoded = new CBORMapper().readTree(personalized.getPayload().array());
+            assertThat(decoded.get("you").get("rank").asInt()).isEqualTo(7);
+            assertThat(decoded.get("players")).hasSize(20);
+            assertThat(decoded.get("type").asString()).isEqualTo("rankings");
+        }
+
+        @Test
+        @DisplayName("CBOR strips definite-length map headers")
+        void cborDefiniteHeader() {
+            byte[] map = {(byte) 0xA1, 0x61, 'a', 0x01};
+
+            assertThat(CborMessageEncoder.mapEntries(map)).containsExactly(0x61, 'a', 0x01);
+        }
+    }
+}
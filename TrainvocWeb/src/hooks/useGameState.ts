@@ -149,11 +149,13 @@ export function useGameState(options: UseGameStateOptions): UseGameStateResult {
                     setError(errorMsg);
                 }
             },
-            onGameStateChanged: (state, time) => {
+            onGameStateChanged: (state, time, remainingMs) => {
                 if (!mountedRef.current) return;
+                // Prefer the transit-corrected server milliseconds when the server sends them
+                const seconds = remainingMs !== undefined ? Math.ceil(remainingMs / 1000) : time;
                 setStep(state as GameStepType);
-                setRemainingTime(time);
-                setLocalTimeLeft(time);
+                setRemainingTime(seconds);
+                setLocalTimeLeft(seconds);
 
                 // Reset answer state for new question
                 if (state === GameStep.question) {
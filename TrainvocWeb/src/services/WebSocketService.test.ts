@@ -262,6 +262,52 @@ describe('WebSocketService', () => {
             expect(handlers.onPlayerJoined).toHaveBeenCalledWith('player-3', 'NewPlayer');
         });
 
+        it('applies roster deltas on top of a snapshot', async () => {
+            const handlers: GameEventHandlers = {
+                onPlayersUpdate: vi.fn(),
+            };
+
+            WebSocketService.setHandlers(handlers);
+            WebSocketService.connect('ws://localhost:8080');
+            await vi.runAllTimersAsync();
+
+            mockWebSocketInstance?.simulateMessage({ type: 'roomJoined', roomCode: 'ABC123', playerId: 'p1' });
+            mockWebSocketInstance?.simulateMessage({
+                type: 'playersUpdate',
+                seq: 4,
+                players: [{ id: 'p1', name: 'One', score: 0 }],
+            });
+            mockWebSocketInstance?.simulateMessage({
+                type: 'playerAdded',
+                seq: 5,
+                player: { id: 'p2', name: 'Two', score: 0 },
+            });
+            mockWebSocketInstance?.simulateMessage({ type: 'scoreChanged', seq: 6, playerId: 'p1', score: 70 });
+            mockWebSocketInstance?.simulateMessage({ type: 'playerRemoved', seq: 7, playerId: 'p2' });
+
+            expect(handlers.onPlayersUpdate).toHaveBeenLastCalledWith([{ id: 'p1', name: 'One', score: 70 }]);
+        });
+
+        it('requests a roster snapshot on a sequence gap', async () => {
+            const handlers: GameEventHandlers = {
+                onPlayersUpdate: vi.fn(),
+            };
+
+            WebSocketService.setHandlers(handlers);
+            WebSocketService.connect('ws://localhost:8080');
+            await vi.runAllTimersAsync();
+
+            mockWebSocketInstance?.simulateMessage({ type: 'roomJoined', roomCode: 'ABC123', playerId: 'p1' });
+            mockWebSocketInstance?.simulateMessage({ type: 'playersUpdate', seq: 1, players: [] });
+            mockWebSocketInstance?.simulateMessage({ type: 'playerRemoved', seq: 3, playerId: 'p2' });
+
+            expect(handlers.onPlayersUpdate).toHaveBeenCalledTimes(1);
+            expect(mockWebSocketInstance?.sentMessages.map(m => JSON.parse(m))).toContainEqual({
+                type: 'roster',
+                roomCode: 'ABC123',
+            });
+        });
+
         it('handles gameStateChanged message', async () => {
             const handlers: GameEventHandlers = {
                 onGameStateChanged: vi.fn(),
@@ -277,7 +323,42 @@ describe('WebSocketService', () => {
                 remainingTime: 30,
             });
 
-            expect(handlers.onGameStateChanged).toHaveBeenCalledWith(2, 30);
+            expect(handlers.onGameStateChanged).toHaveBeenCalledWith(2, 30, undefined);
+        });
+
+        it('syncs the clock after joining and corrects remaining time for transit', async () => {
+            const handlers: GameEventHandlers = {
+                onGameStateChanged: vi.fn(),
+            };
+
+            WebSocketService.setHandlers(handlers);
+            WebSocketService.connect('ws://localhost:8080');
+            await vi.runAllTimersAsync();
+
+            mockWebSocketInstance?.simulateMessage({ type: 'roomJoined', roomCode: 'ABC123', playerId: 'p1' });
+            const sent = mockWebSocketInstance?.sentMessages ?? [];
+            const ping = JSON.parse(sent[sent.length - 1] || '{}');
+            expect(ping.type).toBe('ping');
+
+            // Server clock runs 10 s ahead; the pong arrives 100 ms after the ping left
+            vi.advanceTimersByTime(100);
+            mockWebSocketInstance?.simulateMessage({
+                type: 'pong',
+                clientTime: ping.clientTime,
+                serverTime: ping.clientTime + 10_050,
+            });
+            expect(WebSocketService.serverNow() - Date.now()).toBe(10_000);
+
+            // Sent 200 ms ago on the server's clock
+            mockWebSocketInstance?.simulateMessage({
+                type: 'gameStateChanged',
+                state: 1,
+                remainingTime: 30,
+                remainingTimeMs: 29_500,
+                serverTime: WebSocketService.serverNow() - 200,
+            });
+
+            expect(handlers.onGameStateChanged).toHaveBeenCalledWith(1, 30, 29_300);
         });
 
         it('handles question message', async () => {
@@ -405,6 +486,52 @@ describe('WebSocketService', () => {
         });
     });
 
+    describe('session resumption', () => {
+        it('resumes from the last seen eventSeq after a dropped connection', async () => {
+            WebSocketService.connect('ws://localhost:8080');
+            await vi.runAllTimersAsync();
+
+            mockWebSocketInstance?.simulateMessage({
+                type: 'roomJoined', roomCode: 'ABC123', playerId: 'p1', resumeToken: 'tok', eventSeq: 4,
+            });
+            mockWebSocketInstance?.simulateMessage({ type: 'playerJoined', playerId: 'p2', eventSeq: 5 });
+
+            mockWebSocketInstance?.close(1006, 'Network lost');
+            await vi.runAllTimersAsync();
+
+            expect(JSON.parse(mockWebSocketInstance!.sentMessages[0])).toEqual({
+                type: 'resume',
+                roomCode: 'ABC123',
+                playerId: 'p1',
+                token: 'tok',
+                lastSeq: 5,
+            });
+        });
+
+        it('stops resuming after the server refuses', async () => {
+            const handlers: GameEventHandlers = {
+                onError: vi.fn(),
+            };
+
+            WebSocketService.setHandlers(handlers);
+            WebSocketService.connect('ws://localhost:8080');
+            await vi.runAllTimersAsync();
+
+            mockWebSocketInstance?.simulateMessage({
+                type: 'roomJoined', roomCode: 'ABC123', playerId: 'p1', resumeToken: 'tok', eventSeq: 0,
+            });
+            mockWebSocketInstance?.simulateMessage({
+                type: 'resumeFailed', roomCode: 'ABC123', message: 'You are no longer in this room.',
+            });
+            expect(handlers.onError).toHaveBeenCalledWith('You are no longer in this room.');
+
+            mockWebSocketInstance?.close(1006, 'Network lost');
+            await vi.runAllTimersAsync();
+
+            expect(mockWebSocketInstance?.sentMessages.map(m => JSON.parse(m).type)).not.toContain('resume');
+        });
+    });
+
     describe('onStateChange', () => {
         it('notifies listeners of state changes', async () => {
             const listener = vi.fn();
@@ -6,6 +6,10 @@
  * - Message queuing during disconnection
  * - Type-safe event handling
  * - Connection state management
+ * - Player list kept current from versioned roster deltas
+ * - Server clock offset from ping/pong, for countdowns that end together on every client
+ * - Session resumption: after a dropped connection the player reattaches to their room with
+ *   a resume token and receives the room messages they missed
  */
 
 export type ConnectionState = 'disconnected' | 'connecting' | 'connected' | 'error';
@@ -24,11 +28,12 @@ export interface GameEventHandlers {
     onPlayerJoined?: (playerId: string, playerName: string) => void;
     onPlayerLeft?: (playerId: string) => void;
     onPlayersUpdate?: (players: Player[]) => void;
-    onGameStateChanged?: (state: number, remainingTime: number) => void;
+    onGameStateChanged?: (state: number, remainingTime: number, remainingMs?: number) => void;
     onQuestion?: (question: Question, questionIndex: number) => void;
     onAnswerResult?: (correct: boolean, correctIndex: number, score: number) => void;
-    onRankings?: (players: PlayerRanking[]) => void;
+    onRankings?: (players: PlayerRanking[], own?: OwnRanking, totalPlayers?: number) => void;
     onGameEnded?: (finalRankings: PlayerRanking[]) => void;
+    onResumed?: (replayed: boolean) => void;
     onMessage?: (message: WebSocketMessage) => void;
 }
 
@@ -44,6 +49,12 @@ export interface PlayerRanking extends Player {
     correctCount: number;
 }
 
+export interface OwnRanking {
+    rank: number;
+    score: number;
+    correctCount: number;
+}
+
 export interface Question {
     text: string;
     options: string[];
@@ -58,9 +69,22 @@ class WebSocketServiceClass {
     private maxReconnectAttempts = 5;
     private reconnectDelay = 1000;
     private reconnectTimeout: ReturnType<typeof setTimeout> | null = null;
+    /** Spreads the next reconnect over this window, set when the server announces a restart */
+    private reconnectSpreadMs = 0;
     private handlers: GameEventHandlers = {};
     private stateListeners: Set<(state: ConnectionState) => void> = new Set();
     private baseUrl: string = '';
+    private roomCode: string | null = null;
+    private roster: Player[] = [];
+    private rosterSeq: number | null = null;
+    private playerId: string | null = null;
+    private resumeToken: string | null = null;
+    /** Highest room eventSeq seen; the server replays what came after it on resume */
+    private lastEventSeq = -1;
+    private clockOffset = 0;
+    private bestPingRtt = Number.POSITIVE_INFINITY;
+    private clockSyncPingsLeft = 0;
+    private static readonly CLOCK_SYNC_PINGS = 3;
 
     private constructor() {}
 
@@ -119,6 +143,7 @@ class WebSocketServiceClass {
     disconnect(): void {
         this.clearReconnectTimeout();
         this.reconnectAttempts = 0;
+        this.clearResume();
 
         if (this.socket) {
             this.socket.close(1000, 'Client disconnect');
@@ -186,6 +211,13 @@ class WebSocketServiceClass {
         return this.connectionState;
     }
 
+    /**
+     * Current server time (epoch ms), estimated from the ping/pong clock offset.
+     */
+    serverNow(): number {
+        return Date.now() + this.clockOffset;
+    }
+
     // ============ Room Operations ============
 
     createRoom(name: string, avatarId: number, hashedPassword?: string, settings?: RoomSettings): void {
@@ -215,6 +247,7 @@ class WebSocketServiceClass {
     }
 
     leaveRoom(roomCode: string, playerId: string): void {
+        this.clearResume();
         this.send({
             type: 'leave',
             roomCode,
@@ -257,11 +290,14 @@ class WebSocketServiceClass {
             this.setConnectionState('connected');
             this.reconnectAttempts = 0;
             this.handlers.onConnect?.();
+            // Reattach before anything queued, which may need the room
+            this.sendResume();
             this.flushMessageQueue();
         };
 
         this.socket.onclose = (event) => {
             console.log('WebSocket closed:', event.code, event.reason);
+            this.clockSyncPingsLeft = 0;
             this.setConnectionState('disconnected');
             this.handlers.onDisconnect?.(event.reason);
 
@@ -288,11 +324,18 @@ class WebSocketServiceClass {
     }
 
     private handleMessage(message: WebSocketMessage): void {
+        if (typeof message.eventSeq === 'number') {
+            this.lastEventSeq = Math.max(this.lastEventSeq, message.eventSeq);
+        }
+
         // Always call generic message handler
         this.handlers.onMessage?.(message);
 
         switch (message.type) {
             case 'roomCreated':
+                this.resetRoster(message.roomCode as string);
+                this.rememberResume(message);
+                this.syncClock();
                 this.handlers.onRoomCreated?.(
                     message.roomCode as string,
                     message.playerId as string
@@ -300,6 +343,9 @@ class WebSocketServiceClass {
                 break;
 
             case 'roomJoined':
+                this.resetRoster(message.roomCode as string);
+                this.rememberResume(message);
+                this.syncClock();
                 this.handlers.onRoomJoined?.(
                     message.roomCode as string,
                     message.playerId as string
@@ -318,16 +364,30 @@ class WebSocketServiceClass {
                 break;
 
             case 'playersUpdate':
-                this.handlers.onPlayersUpdate?.(message.players as Player[]);
+                // Full snapshot; deltas after its seq build on it
+                this.roster = message.players as Player[];
+                this.rosterSeq = typeof message.seq === 'number' ? message.seq : null;
+                this.handlers.onPlayersUpdate?.(this.roster);
+                break;
+
+            case 'playerAdded':
+            case 'playerRemoved':
+            case 'scoreChanged':
+                this.applyRosterDelta(message);
                 break;
 
             case 'gameStateChanged':
                 this.handlers.onGameStateChanged?.(
                     message.state as number,
-                    message.remainingTime as number
+                    message.remainingTime as number,
+                    this.remainingMs(message)
                 );
                 break;
 
+            case 'pong':
+                this.applyPong(message);
+                break;
+
             case 'question':
                 this.handlers.onQuestion?.(
                     {
@@ -347,7 +407,12 @@ class WebSocketServiceClass {
                 break;
 
             case 'rankings':
-                this.handlers.onRankings?.(message.players as PlayerRanking[]);
+                // Large rooms send only the top players plus this player's own rank
+                this.handlers.onRankings?.(
+                    message.players as PlayerRanking[],
+                    message.you as OwnRanking | undefined,
+                    message.totalPlayers as number | undefined
+                );
                 break;
 
             case 'gameEnded':
@@ -358,11 +423,152 @@ class WebSocketServiceClass {
                 this.handlers.onError?.(message.message as string);
                 break;
 
+            case 'resumed':
+                if (!message.replayed) {
+                    // Missed messages were not kept; a roster snapshot and the current
+                    // state follow, and replay starts over from here
+                    this.lastEventSeq = message.eventSeq as number;
+                    this.rosterSeq = null;
+                }
+                this.syncClock();
+                this.handlers.onResumed?.(message.replayed as boolean);
+                break;
+
+            case 'resumeFailed':
+                this.clearResume();
+                this.handlers.onError?.(message.message as string);
+                break;
+
+            case 'serverRestarting':
+                // The server restores the game from a snapshot; stagger reconnects so
+                // clients don't all arrive at once
+                this.reconnectSpreadMs = (message.reconnectWithinMs as number | undefined) ?? 0;
+                break;
+
             default:
                 console.log('Unknown message type:', message.type);
         }
     }
 
+    /**
+     * Starts a short ping/pong exchange; the sample with the shortest round trip gives
+     * the offset. Each ping goes out when the previous pong arrives.
+     */
+    private syncClock(): void {
+        this.bestPingRtt = Number.POSITIVE_INFINITY;
+        this.clockSyncPingsLeft = WebSocketServiceClass.CLOCK_SYNC_PINGS;
+        this.sendPing();
+    }
+
+    private sendPing(): void {
+        if (this.connectionState !== 'connected' || !this.socket) {
+            return;
+        }
+        // Not queued: a ping sent late would only measure the queue
+        this.clockSyncPingsLeft--;
+        this.socket.send(JSON.stringify({ type: 'ping', clientTime: Date.now() }));
+    }
+
+    private applyPong(message: WebSocketMessage): void {
+        const receivedAt = Date.now();
+        const clientTime = message.clientTime as number;
+        const serverTime = message.serverTime as number;
+        const rtt = receivedAt - clientTime;
+        if (rtt >= 0 && rtt < this.bestPingRtt) {
+            this.bestPingRtt = rtt;
+            // Assume the server stamped the pong halfway through the round trip
+            this.clockOffset = serverTime - (clientTime + receivedAt) / 2;
+        }
+        if (this.clockSyncPingsLeft > 0) {
+            this.sendPing();
+        }
+    }
+
+    /**
+     * Milliseconds left in the new state as of now, less the time the message spent in transit.
+     */
+    private remainingMs(message: WebSocketMessage): number | undefined {
+        if (typeof message.remainingTimeMs !== 'number') {
+            return undefined;
+        }
+        if (typeof message.serverTime !== 'number') {
+            return message.remainingTimeMs;
+        }
+        const transit = Math.max(0, this.serverNow() - message.serverTime);
+        return Math.max(0, message.remainingTimeMs - transit);
+    }
+
+    private rememberResume(message: WebSocketMessage): void {
+        this.playerId = (message.playerId as string | null) ?? null;
+        this.resumeToken = (message.resumeToken as string | undefined) ?? null;
+        this.lastEventSeq = typeof message.eventSeq === 'number' ? message.eventSeq : -1;
+    }
+
+    private clearResume(): void {
+        this.playerId = null;
+        this.resumeToken = null;
+        this.lastEventSeq = -1;
+    }
+
+    /**
+     * After a reconnect, asks the server to put this player back in their room.
+     */
+    private sendResume(): void {
+        if (!this.resumeToken || !this.playerId || !this.roomCode || !this.socket) {
+            return;
+        }
+        this.socket.send(JSON.stringify({
+            type: 'resume',
+            roomCode: this.roomCode,
+            playerId: this.playerId,
+            token: this.resumeToken,
+            lastSeq: this.lastEventSeq
+        }));
+    }
+
+    private resetRoster(roomCode: string): void {
+        this.roomCode = roomCode;
+        this.roster = [];
+        this.rosterSeq = null;
+    }
+
+    /**
+     * Apply a versioned roster delta. Deltas must arrive in sequence; on a gap the
+     * local roster is stale, so request a fresh snapshot and wait for it.
+     */
+    private applyRosterDelta(message: WebSocketMessage): void {
+        const seq = message.seq as number;
+        if (this.rosterSeq === null || seq <= this.rosterSeq) {
+            // No snapshot yet, or already included in the one we have
+            return;
+        }
+        if (seq !== this.rosterSeq + 1) {
+            this.rosterSeq = null;
+            if (this.roomCode) {
+                this.send({ type: 'roster', roomCode: this.roomCode });
+            }
+            return;
+        }
+
+        this.rosterSeq = seq;
+        switch (message.type) {
+            case 'playerAdded': {
+                const player = message.player as Player;
+                this.roster = [...this.roster.filter(p => p.id !== player.id), player];
+                break;
+            }
+            case 'playerRemoved':
+                this.roster = this.roster.filter(p => p.id !== message.playerId);
+                break;
+            case 'scoreChanged':
+                this.roster = this.roster.map(p =>
+                    p.id === message.playerId ? { ...p, score: message.score as number } : p
+                );
+                break;
+        }
+        this.handlers.onPlayersUpdate?.(this.roster);
+    }
+
     private setConnectionState(state: ConnectionState): void {
         this.connectionState = state;
         this.stateListeners.forEach(listener => listener(state));
@@ -376,7 +582,9 @@ class WebSocketServiceClass {
 
         this.clearReconnectTimeout();
 
-        const delay = this.reconnectDelay * Math.pow(2, this.reconnectAttempts);
+        const delay = this.reconnectDelay * Math.pow(2, this.reconnectAttempts)
+            + Math.floor(Math.random() * this.reconnectSpreadMs);
+        this.reconnectSpreadMs = 0;
         console.log(`Scheduling reconnect in ${delay}ms (attempt ${this.reconnectAttempts + 1})`);
 
         this.reconnectTimeout = setTimeout(() => {